@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Runs the end-to-end load test against DynamoDB Local and a local MongoDB. Build the jar first
+# with
+#     mvn package
+# and run from the backend directory:
+#     scripts/load-test.sh [-Dloadtest.<name>=<value> ...]
+#
+# Starts the stores of src/loadtest/docker-compose.yml, creates the DynamoDB tables, starts the
+# backend jar against them and runs the loadtest profile (com.mnnc1010.cloudbridge.loadtest.LoadTest)
+# with the given options. The report is written to target/loadtest-report.json, labelled with the
+# current commit; the backend log goes to target/loadtest-backend.log. The stores are in-memory
+# or volume-less and are removed afterwards, so every run starts from empty stores.
+#
+# Environment: PORT (default 8080), JAVA_OPTS (JVM options of the backend, e.g. -Xmx1g to compare
+# builds at a fixed heap), KEEP_STORES=1 to leave the stores running.
+
+set -euo pipefail
+
+PORT="${PORT:-8080}"
+JAR="$(ls target/backend-*.jar 2>/dev/null | grep -v -- '-exec.jar' | head -n 1 || true)"
+COMPOSE=(docker compose -f src/loadtest/docker-compose.yml)
+HEALTH_URL="http://localhost:${PORT}/api/health"
+
+if [ -z "${JAR}" ]; then
+    echo "Build first with: mvn package" >&2
+    exit 1
+fi
+
+BACKEND_PID=""
+cleanup() {
+    if [ -n "${BACKEND_PID}" ]; then
+        kill "${BACKEND_PID}" 2> /dev/null || true
+        wait "${BACKEND_PID}" 2> /dev/null || true
+    fi
+    if [ "${KEEP_STORES:-0}" != "1" ]; then
+        "${COMPOSE[@]}" down > /dev/null 2>&1 || true
+    fi
+}
+trap cleanup EXIT
+
+"${COMPOSE[@]}" up -d mongo dynamodb
+"${COMPOSE[@]}" run --rm dynamodb-tables
+
+# DynamoDB Local accepts any credentials but the SDK still needs some.
+# shellcheck disable=SC2086
+AWS_ACCESS_KEY_ID=loadtest AWS_SECRET_ACCESS_KEY=loadtest \
+    java ${JAVA_OPTS:-} -jar "${JAR}" \
+    --server.port="${PORT}" \
+    --aws.dynamodb.endpoint=http://localhost:8000 \
+    --spring.data.mongodb.host=localhost \
+    --spring.data.mongodb.port=27017 \
+    > target/loadtest-backend.log 2>&1 &
+BACKEND_PID=$!
+
+until curl -sf -o /dev/null "${HEALTH_URL}"; do
+    if ! kill -0 "${BACKEND_PID}" 2> /dev/null; then
+        echo "The backend exited before /api/health answered; see target/loadtest-backend.log." >&2
+        exit 1
+    fi
+    sleep 0.5
+done
+
+mvn -B -q -Ploadtest test-compile exec:exec \
+    -Dloadtest.baseUrl="http://localhost:${PORT}" \
+    -Dloadtest.label="$(git rev-parse --short HEAD 2> /dev/null || echo unknown)" \
+    "$@"
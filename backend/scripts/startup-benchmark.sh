@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Measures the startup time of the backend: from launching the JVM to the first successful
+# GET /api/health. Build the jars first with
+#     mvn -Pfast-startup package
+# and run from the backend directory:
+#     scripts/startup-benchmark.sh [runs]
+#
+# Each mode is started RUNS times (default 5) and the fastest, median and slowest times are
+# printed in milliseconds:
+#     jvm      - the plain jar, no AOT, no CDS archive
+#     aot      - with the Spring AOT-generated bean definitions
+#     aot+cds  - with the AOT bean definitions and the CDS archive target/app.jsa
+#
+# Environment: PORT (default 8080), JAVA_OPTS (extra JVM options for every run).
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+JAR="$(ls target/backend-*.jar 2>/dev/null | grep -v -- '-exec.jar' | head -n 1 || true)"
+ARCHIVE="target/app.jsa"
+HEALTH_URL="http://localhost:${PORT}/api/health"
+
+if [ -z "${JAR}" ] || [ ! -f "${ARCHIVE}" ]; then
+    echo "Build first with: mvn -Pfast-startup package" >&2
+    exit 1
+fi
+
+# Starts the application with the given JVM options and prints the milliseconds until
+# /api/health answered successfully.
+measure() {
+    local start end pid
+    start=$(date +%s%N)
+    # shellcheck disable=SC2086
+    java ${JAVA_OPTS:-} "$@" -Dserver.port="${PORT}" -jar "${JAR}" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "${HEALTH_URL}"; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "The application exited before /api/health answered." >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+# Runs one mode RUNS times and prints min, median and max.
+run_mode() {
+    local name=$1
+    shift
+    local times=()
+    for _ in $(seq "${RUNS}"); do
+        times+=("$(measure "$@")")
+    done
+    local sorted
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    printf '%-8s min %6d ms   median %6d ms   max %6d ms\n' \
+        "${name}" "${sorted[0]}" "${sorted[$(( ${#sorted[@]} / 2 ))]}" "${sorted[$(( ${#sorted[@]} - 1 ))]}"
+}
+
+run_mode "jvm"
+run_mode "aot" -Dspring.aot.enabled=true
+run_mode "aot+cds" -Dspring.aot.enabled=true -XX:SharedArchiveFile="${ARCHIVE}"
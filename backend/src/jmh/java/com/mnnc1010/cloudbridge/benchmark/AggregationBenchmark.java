@@ -0,0 +1,89 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.model.ResourcePage;
+import com.mnnc1010.cloudbridge.service.CloudBridgeResourceAggregationService;
+import com.mnnc1010.cloudbridge.service.ResourceCollectionVersions;
+import com.mnnc1010.cloudbridge.service.ResourceMetadataCache;
+import com.mnnc1010.cloudbridge.service.ResourcePageSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The aggregated listing across MongoDB and DynamoDB, against in-memory stores.
+ *
+ * <p>{@code firstPage} is the cost of one {@code GET /api/resources} request; {@code allPages}
+ * walks every page with the returned cursors, which is what listing all resources costs now
+ * that {@code getAllResources} is paginated. The metadata cache is disabled so every page is
+ * merged from the stores.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AggregationBenchmark {
+
+    /**
+     * Total resources, split evenly between the two stores.
+     */
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    @Param({"50", "500"})
+    public int limit;
+
+    private ExecutorService executor;
+    private CloudBridgeResourceAggregationService aggregationService;
+
+    @Setup
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        // The stores interleave in time, so every merged page takes items from both.
+        List<ResourcePageSource> sources = List.of(
+                new InMemoryPageSource("MongoDB", BenchmarkData.summaries(items / 2, "MongoDB", 0, 2)),
+                new InMemoryPageSource("DynamoDB", BenchmarkData.summaries(items - items / 2, "DynamoDB", 1, 2)));
+        ResourceMetadataCache cache = new ResourceMetadataCache(false, 1, 1, 1, 1, (store, ids) -> { },
+                new ResourceCollectionVersions(0));
+        aggregationService = new CloudBridgeResourceAggregationService(sources, List.of(), executor, cache,
+                new StandardEnvironment(), limit, limit);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public ResourcePage firstPage() {
+        return aggregationService.getResourcePage(limit, null).join();
+    }
+
+    @Benchmark
+    public int allPages() {
+        int count = 0;
+        String cursor = null;
+        do {
+            ResourcePage page = aggregationService.getResourcePage(limit, cursor).join();
+            count += page.getItems().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return count;
+    }
+}
@@ -0,0 +1,114 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    /**
+     * Fixed seed, so that every run (and every commit) benchmarks the same data.
+     */
+    private static final long SEED = 20240301L;
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static final String[] OWNERS = {"alice", "bob", "carol", "dave"};
+    private static final String[] TYPES = {"application/pdf", "text/plain", "image/png", "application/json"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Builds a resource as the upload endpoints do.
+     *
+     * @param index        makes the id, name and dates unique.
+     * @param contentBytes the size of {@code fileContent}; 0 leaves it empty.
+     * @return the resource.
+     */
+    static CloudBridgeResource resource(int index, int contentBytes) {
+        Instant inserted = EPOCH.plusSeconds(index);
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId(String.format("00000000-0000-0000-0000-%012d", index));
+        resource.setFileName("file-" + index + ".txt");
+        resource.setFileType(TYPES[index % TYPES.length]);
+        resource.setFileStorage("DynamoDB");
+        resource.setFileDescription("Benchmark resource number " + index);
+        resource.setFileOwner(OWNERS[index % OWNERS.length]);
+        resource.setDateInserted(inserted.toString());
+        resource.setDateModified(inserted.toString());
+        resource.setInsertedAt(inserted.toEpochMilli());
+        resource.setModifiedAt(inserted.toEpochMilli());
+        if (contentBytes > 0) {
+            resource.setFileContent(text(contentBytes));
+            resource.setFileSize((long) contentBytes);
+        } else {
+            resource.setFileSize(0L);
+        }
+        return resource;
+    }
+
+    /**
+     * Builds the summaries of one store, newest first.
+     *
+     * @param count the number of summaries.
+     * @param store the {@code fileStorage} of every summary; also makes ids unique across stores.
+     * @param first the index of the first resource, so that the stores interleave when merged.
+     * @param step  the distance between the indexes of consecutive resources.
+     * @return the summaries in listing order.
+     */
+    static List<CloudBridgeResourceSummary> summaries(int count, String store, int first, int step) {
+        List<CloudBridgeResourceSummary> summaries = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            CloudBridgeResource resource = resource(first + i * step, 0);
+            resource.setId(store + "-" + resource.getId());
+            resource.setFileStorage(store);
+            summaries.add(CloudBridgeResourceSummary.from(resource));
+        }
+        return summaries;
+    }
+
+    /**
+     * @param length the number of bytes.
+     * @return text-like content that compresses well, like logs, CSV or JSON.
+     */
+    static byte[] text(int length) {
+        Random random = new Random(SEED);
+        StringBuilder text = new StringBuilder(length + 64);
+        while (text.length() < length) {
+            text.append(random.nextInt(100_000)).append(',')
+                    .append(OWNERS[random.nextInt(OWNERS.length)]).append(',')
+                    .append(TYPES[random.nextInt(TYPES.length)]).append('\n');
+        }
+        byte[] bytes = new byte[length];
+        System.arraycopy(text.toString().getBytes(StandardCharsets.US_ASCII), 0, bytes, 0, length);
+        return bytes;
+    }
+
+    /**
+     * @param length the number of bytes.
+     * @return random content that does not compress, like JPEG, video or ZIP files.
+     */
+    static byte[] random(int length) {
+        byte[] bytes = new byte[length];
+        new Random(SEED).nextBytes(bytes);
+        return bytes;
+    }
+
+    /**
+     * @param kind   "text" or "random".
+     * @param length the number of bytes.
+     * @return the content of the given kind.
+     */
+    static byte[] content(String kind, int length) {
+        return "random".equals(kind) ? random(length) : text(length);
+    }
+}
@@ -0,0 +1,74 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.service.ContentCodec;
+import com.mnnc1010.cloudbridge.service.ContentCodecSelector;
+import com.mnnc1010.cloudbridge.service.ContentDigestInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-write CPU cost of deduplication and compression on one DynamoDB content chunk.
+ *
+ * <p>{@code sha256} is what deduplication adds to every write; {@code selectCodec} is the sample
+ * compression that decides whether content is compressed; {@code deflateEncode} and
+ * {@code deflateDecode} are the cost of storing and reading compressed content.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ContentCodecBenchmark {
+
+    /**
+     * The DynamoDB inline limit and the default chunk size.
+     */
+    @Param({"65536", "262144"})
+    public int contentBytes;
+
+    @Param({"text", "random"})
+    public String content;
+
+    private byte[] bytes;
+    private byte[] deflated;
+    private ContentCodecSelector codecSelector;
+
+    @Setup
+    public void setUp() {
+        bytes = BenchmarkData.content(content, contentBytes);
+        deflated = ContentCodec.DEFLATE.encode(bytes);
+        codecSelector = new ContentCodecSelector(true, "image/jpeg,image/png,video/,audio/,application/zip", 65536, 0.1);
+    }
+
+    @Benchmark
+    public String sha256() {
+        return ContentDigestInputStream.sha256(bytes);
+    }
+
+    @Benchmark
+    public ContentCodec selectCodec() {
+        return codecSelector.select("application/octet-stream", bytes, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] deflateEncode() {
+        return ContentCodec.DEFLATE.encode(bytes);
+    }
+
+    @Benchmark
+    public byte[] deflateDecode() {
+        return ContentCodec.DEFLATE.decode(deflated);
+    }
+}
@@ -0,0 +1,58 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.service.ResourcePageSource;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A store held in memory that pages like MongoDB: newest first by {@code dateInserted|id}.
+ *
+ * <p>Stands in for a repository so that aggregation benchmarks measure the merge and cursor
+ * handling rather than database round trips. A page costs a binary search plus the copy.</p>
+ */
+final class InMemoryPageSource implements ResourcePageSource {
+
+    private static final Comparator<CloudBridgeResourceSummary> NEWEST_FIRST = Comparator
+            .comparing(CloudBridgeResourceSummary::getDateInserted)
+            .thenComparing(CloudBridgeResourceSummary::getId)
+            .reversed();
+
+    private final String storeName;
+    private final List<CloudBridgeResourceSummary> summaries;
+
+    /**
+     * @param storeName the store name.
+     * @param summaries the summaries, newest first.
+     */
+    InMemoryPageSource(String storeName, List<CloudBridgeResourceSummary> summaries) {
+        this.storeName = storeName;
+        this.summaries = summaries;
+    }
+
+    @Override
+    public String getStoreName() {
+        return storeName;
+    }
+
+    @Override
+    public List<CloudBridgeResourceSummary> getResourcePage(String position, int limit) {
+        int from = 0;
+        if (position != null) {
+            int separator = position.indexOf('|');
+            CloudBridgeResourceSummary after = new CloudBridgeResourceSummary();
+            after.setDateInserted(position.substring(0, separator));
+            after.setId(position.substring(separator + 1));
+            int index = Collections.binarySearch(summaries, after, NEWEST_FIRST);
+            from = index >= 0 ? index + 1 : -index - 1;
+        }
+        return List.copyOf(summaries.subList(from, Math.min(from + limit, summaries.size())));
+    }
+
+    @Override
+    public String positionOf(CloudBridgeResourceSummary resource) {
+        return resource.getDateInserted() + "|" + resource.getId();
+    }
+}
@@ -0,0 +1,127 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.service.ContentCodec;
+import com.mnnc1010.cloudbridge.service.ContentCodecSelector;
+import com.mnnc1010.cloudbridge.service.ContentDigestInputStream;
+import com.mnnc1010.cloudbridge.service.LocalFileStorageBackend;
+import com.mnnc1010.cloudbridge.service.ResourceCollectionVersions;
+import com.mnnc1010.cloudbridge.service.ResourceMetadataCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The server-side work of ingesting one multipart upload, up to the store write.
+ *
+ * <ul>
+ *   <li>{@code inlineIngest} - the DynamoDB path: read the part into memory, hash it for
+ *   deduplication, choose a codec and encode.</li>
+ *   <li>{@code streamingIngest} - the MongoDB path: one pass to hash, then a second pass through
+ *   the encoder into a discarding stream that stands in for GridFS.</li>
+ *   <li>{@code localTierIngest} - the local-disk tier end to end: FileChannel write, rename,
+ *   metadata file, then delete so that the directory does not grow.</li>
+ * </ul>
+ *
+ * <p>Parts are held in memory here; real uploads are spooled to disk by the servlet container
+ * first, which adds one sequential read per pass.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MultipartIngestBenchmark {
+
+    @Param({"65536", "1048576", "16777216"})
+    public int contentBytes;
+
+    /**
+     * "text" compresses well; "random" is what already compressed media looks like.
+     */
+    @Param({"text", "random"})
+    public String content;
+
+    private MockMultipartFile file;
+    private ContentCodecSelector codecSelector;
+    private Path directory;
+    private LocalFileStorageBackend localTier;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = new MockMultipartFile("file", "upload.bin", "application/octet-stream",
+                BenchmarkData.content(content, contentBytes));
+        codecSelector = new ContentCodecSelector(true, "image/jpeg,image/png,video/,audio/,application/zip", 65536, 0.1);
+        directory = Files.createTempDirectory("cloudbridge-jmh");
+        ResourceMetadataCache cache = new ResourceMetadataCache(false, 1, 1, 1, 1, (store, ids) -> { },
+                new ResourceCollectionVersions(0));
+        localTier = new LocalFileStorageBackend(directory.toString(), Long.MAX_VALUE, false,
+                Jackson2ObjectMapperBuilder.json().build(), cache, event -> { });
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void inlineIngest(Blackhole blackhole) throws IOException {
+        byte[] bytes;
+        try (InputStream in = file.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        blackhole.consume(ContentDigestInputStream.sha256(bytes));
+        ContentCodec codec = codecSelector.select(file.getContentType(), bytes, bytes.length);
+        blackhole.consume(codec.encode(bytes));
+    }
+
+    @Benchmark
+    public void streamingIngest(Blackhole blackhole) throws IOException {
+        byte[] sample = new byte[codecSelector.getSampleBytes()];
+        int sampleLength;
+        try (ContentDigestInputStream in = new ContentDigestInputStream(file.getInputStream())) {
+            sampleLength = in.readNBytes(sample, 0, sample.length);
+            in.transferTo(OutputStream.nullOutputStream());
+            blackhole.consume(in.getSha256());
+        }
+        ContentCodec codec = codecSelector.select(file.getContentType(), sample, sampleLength);
+        try (ContentCodec.EncodingInputStream in = codec.encode(file.getInputStream())) {
+            in.transferTo(OutputStream.nullOutputStream());
+            blackhole.consume(in.getEncodedSize());
+        }
+    }
+
+    @Benchmark
+    public long localTierIngest() throws IOException {
+        CloudBridgeResource resource = BenchmarkData.resource(next++, 0);
+        resource.setFileSize(file.getSize());
+        CloudBridgeResource stored = localTier.store(resource, file).join();
+        localTier.delete(stored.getId());
+        return stored.getFileSize();
+    }
+}
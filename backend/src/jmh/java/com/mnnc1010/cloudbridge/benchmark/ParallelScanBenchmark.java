@@ -0,0 +1,134 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.repository.DynamoDbParallelScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A full-table read with 1, 4 and 16 scan segments, against a fake table whose every scan page
+ * takes {@code pageLatencyMs} to answer.
+ *
+ * <p>With a single segment the read costs one round trip per page; with more segments the
+ * pages of different segments are read at the same time, so the read should approach
+ * {@code pages / segments} round trips until the consumer becomes the bottleneck. Pacing is
+ * disabled so that only the parallelism is measured.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParallelScanBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int segments;
+
+    @Param({"20000"})
+    public int items;
+
+    /**
+     * Simulated round trip of one scan request.
+     */
+    @Param({"2"})
+    public int pageLatencyMs;
+
+    private static final int PAGE_SIZE = 100;
+
+    private ExecutorService executor;
+    private DynamoDbParallelScanner scanner;
+
+    @Setup
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(16);
+        scanner = new DynamoDbParallelScanner(new FakeTable(items, pageLatencyMs), "CloudBridgeResources", executor,
+                segments, segments, PAGE_SIZE, 0, TimeUnit.MINUTES.toMillis(15), TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public long fullScan() {
+        try (Stream<Map<String, AttributeValue>> scan = scanner.scan(null, segments)) {
+            return scan.count();
+        }
+    }
+
+    /**
+     * A table of {@code items} small resources, split into segments by item index.
+     */
+    private static final class FakeTable implements DynamoDbClient {
+        private final List<Map<String, AttributeValue>> items = new ArrayList<>();
+        private final int pageLatencyMs;
+
+        private FakeTable(int size, int pageLatencyMs) {
+            this.pageLatencyMs = pageLatencyMs;
+            for (int i = 0; i < size; i++) {
+                items.add(Map.of(
+                        "id", AttributeValue.fromS("resource-" + i),
+                        "fileName", AttributeValue.fromS("file-" + i + ".txt"),
+                        "fileSize", AttributeValue.fromN(Integer.toString(1024 + i % 4096))));
+            }
+        }
+
+        @Override
+        public ScanResponse scan(ScanRequest request) {
+            try {
+                Thread.sleep(pageLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int segment = request.segment() == null ? 0 : request.segment();
+            int totalSegments = request.totalSegments() == null ? 1 : request.totalSegments();
+            // The start key is the index of the last item returned to this segment.
+            int next = request.hasExclusiveStartKey()
+                    ? Integer.parseInt(request.exclusiveStartKey().get("i").n()) + totalSegments
+                    : segment;
+            List<Map<String, AttributeValue>> page = new ArrayList<>(request.limit());
+            int last = next;
+            for (int i = next; i < items.size() && page.size() < request.limit(); i += totalSegments) {
+                page.add(items.get(i));
+                last = i;
+            }
+            ScanResponse.Builder response = ScanResponse.builder().items(page).count(page.size());
+            if (last + totalSegments < items.size()) {
+                response.lastEvaluatedKey(Map.of("i", AttributeValue.fromN(Integer.toString(last))));
+            }
+            return response.build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.service.LocalFileStorageBackend;
+import com.mnnc1010.cloudbridge.service.ResourceCollectionVersions;
+import com.mnnc1010.cloudbridge.service.ResourceContent;
+import com.mnnc1010.cloudbridge.service.ResourceMetadataCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Latency distribution of one {@code Range} read of stored content, as served by
+ * {@code GET /api/resources/{id}/content}.
+ *
+ * <ul>
+ *   <li>{@code inline} - content held in the resource item, as DynamoDB serves it.</li>
+ *   <li>{@code stream} - {@link ResourceContent#copyRange} over a stream that skips without
+ *   reading, as GridFS serves it.</li>
+ *   <li>{@code local} - the local-disk tier's positional FileChannel reads.</li>
+ * </ul>
+ *
+ * <p>Sampled mode reports p50/p90/p99 per read. Run it with {@code -prof gc} (the benchmark profile
+ * does) to get the bytes allocated per read ({@code gc.alloc.rate.norm}), which should stay close
+ * to the copy buffer and not grow with the offset or the content size.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RangeReadBenchmark {
+
+    private static final int OFFSETS = 1024;
+
+    @Param({"inline", "stream", "local"})
+    public String source;
+
+    @Param({"65536"})
+    public int rangeBytes;
+
+    private ResourceContent content;
+    private long[] offsets;
+    private int next;
+    private Path directory;
+
+    @Setup
+    public void setUp() throws IOException {
+        switch (source) {
+            case "inline" -> {
+                CloudBridgeResource resource = BenchmarkData.resource(0, 0);
+                resource.setFileContent(BenchmarkData.random(262144));
+                content = ResourceContent.inline(resource);
+            }
+            case "stream" -> content = new SkippingStreamContent(64L * 1024 * 1024);
+            case "local" -> {
+                directory = Files.createTempDirectory("cloudbridge-jmh");
+                ResourceMetadataCache cache = new ResourceMetadataCache(false, 1, 1, 1, 1, (store, ids) -> { },
+                        new ResourceCollectionVersions(0));
+                LocalFileStorageBackend localTier = new LocalFileStorageBackend(directory.toString(), Long.MAX_VALUE,
+                        false, Jackson2ObjectMapperBuilder.json().build(), cache, event -> { });
+                CloudBridgeResource stored = localTier.store(BenchmarkData.resource(0, 0),
+                        new ByteArrayResource(BenchmarkData.random(64 * 1024 * 1024))).join();
+                content = localTier.getContent(stored.getId()).orElseThrow();
+            }
+            default -> throw new IllegalArgumentException("Unknown source: " + source);
+        }
+        SplittableRandom random = new SplittableRandom(7);
+        offsets = new long[OFFSETS];
+        for (int i = 0; i < OFFSETS; i++) {
+            offsets[i] = random.nextLong(content.getLength() - rangeBytes);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public long rangeRead() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        content.writeTo(out, offsets[next++ & (OFFSETS - 1)], rangeBytes);
+        return out.count;
+    }
+
+    /**
+     * Content read through {@link ResourceContent#copyRange} from a stream that, like a GridFS
+     * download stream, skips to an offset without reading the bytes before it.
+     */
+    private static final class SkippingStreamContent implements ResourceContent {
+        private final long length;
+
+        private SkippingStreamContent(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public CloudBridgeResource getResource() {
+            return null;
+        }
+
+        @Override
+        public long getLength() {
+            return length;
+        }
+
+        @Override
+        public void writeTo(OutputStream out, long offset, long rangeLength) throws IOException {
+            ResourceContent.copyRange(new GeneratedInputStream(length), out, offset, rangeLength, length);
+        }
+    }
+
+    private static final class GeneratedInputStream extends InputStream {
+        private final long length;
+        private long position;
+
+        private GeneratedInputStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int read() {
+            return position < length ? (int) (position++ & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(len, length - position);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) (position + i);
+            }
+            position += n;
+            return n;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a resource as the REST endpoints write it, with and without its
+ * {@code fileContent} (Base64-encoded by Jackson), and of the summary the listings return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResourceSerializationBenchmark {
+
+    /**
+     * Content sizes: a small file, the DynamoDB inline limit and the largest DynamoDB upload.
+     */
+    @Param({"1024", "65536", "1048575"})
+    public int contentBytes;
+
+    private ObjectMapper objectMapper;
+    private CloudBridgeResource withContent;
+    private CloudBridgeResource withoutContent;
+    private byte[] withContentJson;
+    private byte[] withoutContentJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // The same defaults as the mapper Spring Boot configures for the controllers.
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        withContent = BenchmarkData.resource(1, contentBytes);
+        withoutContent = BenchmarkData.resource(1, contentBytes);
+        withoutContent.setFileContent(null);
+        withContentJson = objectMapper.writeValueAsBytes(withContent);
+        withoutContentJson = objectMapper.writeValueAsBytes(withoutContent);
+    }
+
+    @Benchmark
+    public byte[] serializeWithContent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(withContent);
+    }
+
+    @Benchmark
+    public byte[] serializeWithoutContent() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(withoutContent);
+    }
+
+    @Benchmark
+    public byte[] serializeSummary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(CloudBridgeResourceSummary.from(withContent));
+    }
+
+    @Benchmark
+    public CloudBridgeResource deserializeWithContent() throws IOException {
+        return objectMapper.readValue(withContentJson, CloudBridgeResource.class);
+    }
+
+    @Benchmark
+    public CloudBridgeResource deserializeWithoutContent() throws IOException {
+        return objectMapper.readValue(withoutContentJson, CloudBridgeResource.class);
+    }
+}
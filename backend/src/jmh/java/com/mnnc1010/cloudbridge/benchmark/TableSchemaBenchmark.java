@@ -0,0 +1,80 @@
+package com.mnnc1010.cloudbridge.benchmark;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.repository.DynamoDbTableSchemas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DynamoDB item mapping of a resource: the reflective {@code TableSchema.fromBean} schema against
+ * the static {@link DynamoDbTableSchemas#RESOURCE} schema the repositories use.
+ *
+ * <p>Covers building the schema (paid once per repository at startup, and by the bean schema's
+ * introspection) and converting an item to and from its attribute map (paid on every read and
+ * write).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TableSchemaBenchmark {
+
+    private TableSchema<CloudBridgeResource> beanSchema;
+    private TableSchema<CloudBridgeResource> staticSchema;
+    private CloudBridgeResource resource;
+    private Map<String, AttributeValue> item;
+
+    @Setup
+    public void setUp() {
+        beanSchema = TableSchema.fromBean(CloudBridgeResource.class);
+        staticSchema = DynamoDbTableSchemas.RESOURCE;
+        resource = BenchmarkData.resource(1, 1024);
+        item = beanSchema.itemToMap(resource, true);
+    }
+
+    @Benchmark
+    public TableSchema<CloudBridgeResource> createBeanSchema() {
+        return TableSchema.fromBean(CloudBridgeResource.class);
+    }
+
+    @Benchmark
+    public TableSchema<CloudBridgeResource> createStaticSchema() {
+        return DynamoDbTableSchemas.resourceSchema();
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> beanItemToMap() {
+        return beanSchema.itemToMap(resource, true);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> staticItemToMap() {
+        return staticSchema.itemToMap(resource, true);
+    }
+
+    @Benchmark
+    public CloudBridgeResource beanMapToItem() {
+        return beanSchema.mapToItem(item);
+    }
+
+    @Benchmark
+    public CloudBridgeResource staticMapToItem() {
+        return staticSchema.mapToItem(item);
+    }
+
+}
@@ -0,0 +1,56 @@
+#!/usr/bin/env bash
+#
+# Creates the DynamoDB tables of the backend (see aws.dynamodb in application.yaml) against
+# DYNAMODB_ENDPOINT, waiting for the endpoint to come up first. Tables that already exist are
+# left alone, so the script can be run again.
+
+set -euo pipefail
+
+ENDPOINT="${DYNAMODB_ENDPOINT:-http://localhost:8000}"
+RESOURCES="${RESOURCES_TABLE:-CloudBridgeResources}"
+CONTENT="${CONTENT_TABLE:-CloudBridgeResourceContent}"
+STATS="${STATS_TABLE:-CloudBridgeResourceStats}"
+
+ddb() {
+    aws dynamodb --endpoint-url "${ENDPOINT}" "$@"
+}
+
+for _ in $(seq 1 60); do
+    ddb list-tables > /dev/null 2>&1 && break
+    sleep 1
+done
+
+# Creates the table named by the first argument with the remaining arguments, unless it exists.
+create() {
+    local table="$1"
+    shift
+    if ddb describe-table --table-name "${table}" > /dev/null 2>&1; then
+        echo "${table} exists."
+    else
+        ddb create-table --table-name "${table}" --billing-mode PAY_PER_REQUEST "$@" > /dev/null
+        echo "Created ${table}."
+    fi
+}
+
+# An index on the given attribute, sorted by insertedAt.
+index() {
+    echo "{\"IndexName\":\"$1-insertedAt-index\",\"KeySchema\":[{\"AttributeName\":\"$1\",\"KeyType\":\"HASH\"},{\"AttributeName\":\"insertedAt\",\"KeyType\":\"RANGE\"}],\"Projection\":{\"ProjectionType\":\"ALL\"}}"
+}
+
+create "${RESOURCES}" \
+    --attribute-definitions \
+        AttributeName=id,AttributeType=S \
+        AttributeName=fileOwner,AttributeType=S \
+        AttributeName=fileType,AttributeType=S \
+        AttributeName=insertedDay,AttributeType=S \
+        AttributeName=insertedAt,AttributeType=N \
+    --key-schema AttributeName=id,KeyType=HASH \
+    --global-secondary-indexes "[$(index fileOwner),$(index fileType),$(index insertedDay)]"
+
+create "${CONTENT}" \
+    --attribute-definitions AttributeName=contentKey,AttributeType=S AttributeName=chunkIndex,AttributeType=N \
+    --key-schema AttributeName=contentKey,KeyType=HASH AttributeName=chunkIndex,KeyType=RANGE
+
+create "${STATS}" \
+    --attribute-definitions AttributeName=statKey,AttributeType=S \
+    --key-schema AttributeName=statKey,KeyType=HASH
@@ -0,0 +1,83 @@
+package com.mnnc1010.cloudbridge.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and outcomes of one operation type, recorded by a single worker thread.
+ *
+ * <p>Every sample is kept, so percentiles are exact; a few million samples cost a few tens of
+ * megabytes. Each worker has its own recorder, and the recorders of all workers are combined by
+ * {@link #summarize(List, double)} once the run is over.</p>
+ */
+final class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    private long[] latencies = new long[1024];
+    private int size;
+    private long errors;
+    private final Map<Integer, Long> statuses = new TreeMap<>();
+
+    /**
+     * Records a completed request.
+     *
+     * @param nanos  the latency, from the intended start of the request to its response.
+     * @param status the HTTP status, or 0 if the request failed without a response.
+     */
+    void record(long nanos, int status) {
+        statuses.merge(status, 1L, Long::sum);
+        if (status < 200 || status >= 300) {
+            errors++;
+            return;
+        }
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = nanos;
+    }
+
+    /**
+     * Combines the recorders of all workers for one operation type.
+     *
+     * @param recorders the recorders.
+     * @param seconds   the length of the measured phase.
+     * @return the throughput, error count, status counts and latency distribution in milliseconds.
+     */
+    static Map<String, Object> summarize(List<LatencyRecorder> recorders, double seconds) {
+        int total = recorders.stream().mapToInt(recorder -> recorder.size).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        long errors = 0;
+        Map<Integer, Long> statuses = new TreeMap<>();
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, all, offset, recorder.size);
+            offset += recorder.size;
+            errors += recorder.errors;
+            recorder.statuses.forEach((status, count) -> statuses.merge(status, count, Long::sum));
+        }
+        Arrays.sort(all);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", total);
+        summary.put("errors", errors);
+        summary.put("throughputPerSecond", total / seconds);
+        summary.put("statuses", statuses);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        if (total > 0) {
+            latency.put("mean", Arrays.stream(all).average().orElse(0) / 1_000_000.0);
+            latency.put("min", all[0] / 1_000_000.0);
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                int index = (int) Math.ceil(PERCENTILES[i] * total) - 1;
+                latency.put(PERCENTILE_NAMES[i], all[Math.max(index, 0)] / 1_000_000.0);
+            }
+            latency.put("max", all[total - 1] / 1_000_000.0);
+        }
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+}
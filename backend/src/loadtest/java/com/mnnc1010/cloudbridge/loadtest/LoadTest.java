@@ -0,0 +1,459 @@
+package com.mnnc1010.cloudbridge.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test of a running backend, with a JSON report for comparing builds.
+ *
+ * <p>The run has three phases:</p>
+ * <ol>
+ *     <li>Seed: {@code loadtest.seedDynamo} small files are uploaded to DynamoDB and
+ *     {@code loadtest.seedMongo} large files to MongoDB, so listings read a data set of known size.
+ *     Nothing is measured.</li>
+ *     <li>Warm-up: the measured workload runs for {@code loadtest.warmupSeconds} without being recorded,
+ *     so the JIT, connection pools and caches of the backend settle.</li>
+ *     <li>Measurement: the workload runs for {@code loadtest.durationSeconds}. Every operation that
+ *     starts in this window is recorded, and the JVM metrics of the backend are read at its start and
+ *     end.</li>
+ * </ol>
+ *
+ * <p>The workload is {@code loadtest.concurrency} workers, each picking operations at random by the
+ * weights of {@code loadtest.mix}: {@code dynamoUpload} ({@code loadtest.dynamoBytes} bytes),
+ * {@code mongoUpload} (between {@code loadtest.mongoMinBytes} and {@code loadtest.mongoMaxBytes}
+ * bytes), {@code list} ({@code loadtest.listPages} pages of {@code loadtest.listLimit} from
+ * {@code GET /api/resources}), {@code rangeRead} ({@code loadtest.rangeBytes} bytes at a random
+ * offset of one of the seeded MongoDB files, the access pattern of video seeking and resumed
+ * downloads) and {@code batchUpload} ({@code loadtest.batchFiles} files of
+ * {@code loadtest.dynamoBytes} bytes in one {@code POST /api/resources/batch}, also reported as
+ * {@code filesPerSecond}). The last two are not part of the default mix; with {@code rangeRead}, the
+ * backend's {@code allocatedBytesPerOperation} shows whether range reads stay free of whole-file
+ * buffers. File content is random, so it does not compress, and the random sequence is seeded by
+ * {@code loadtest.randomSeed}, so two runs send the same workload.</p>
+ *
+ * <p>Uploads are unique unless {@code loadtest.duplicateRatio} is set: that share of the uploads
+ * (seed included) then reuses one of {@code loadtest.duplicatePool} fixed files per store, the
+ * duplicate-heavy corpus that content deduplication is meant for. The report's {@code storeCost}
+ * holds what the measured phase cost the stores: the dedup counters of both stores and the
+ * DynamoDB capacity consumed.</p>
+ *
+ * <p>Without {@code loadtest.rate} every worker sends its next request as soon as the previous one
+ * is answered. With {@code loadtest.rate} (operations per second over all workers) requests are
+ * sent on a fixed schedule and latency is measured from the scheduled time, so a slow response also
+ * counts against the requests queued behind it instead of hiding them (coordinated omission).</p>
+ */
+public final class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String[] OPERATIONS = {"dynamoUpload", "mongoUpload", "list", "rangeRead", "batchUpload"};
+
+    private final URI baseUrl = URI.create(property("loadtest.baseUrl", "http://localhost:8080"));
+    private final int concurrency = Integer.parseInt(property("loadtest.concurrency", "16"));
+    private final int warmupSeconds = Integer.parseInt(property("loadtest.warmupSeconds", "15"));
+    private final int durationSeconds = Integer.parseInt(property("loadtest.durationSeconds", "60"));
+    private final double rate = Double.parseDouble(property("loadtest.rate", "0"));
+    private final String mix = property("loadtest.mix", "dynamoUpload=40,mongoUpload=10,list=50");
+    private final int seedDynamo = Integer.parseInt(property("loadtest.seedDynamo", "1000"));
+    private final int seedMongo = Integer.parseInt(property("loadtest.seedMongo", "50"));
+    private final int dynamoBytes = Integer.parseInt(property("loadtest.dynamoBytes", "4096"));
+    private final int mongoMinBytes = Integer.parseInt(property("loadtest.mongoMinBytes", "1048576"));
+    private final int mongoMaxBytes = Integer.parseInt(property("loadtest.mongoMaxBytes", "2097152"));
+    private final int listLimit = Integer.parseInt(property("loadtest.listLimit", "50"));
+    private final int listPages = Integer.parseInt(property("loadtest.listPages", "1"));
+    private final int rangeBytes = Integer.parseInt(property("loadtest.rangeBytes", "65536"));
+    private final int batchFiles = Integer.parseInt(property("loadtest.batchFiles", "1000"));
+    private final double duplicateRatio = Double.parseDouble(property("loadtest.duplicateRatio", "0"));
+    private final int duplicatePool = Integer.parseInt(property("loadtest.duplicatePool", "8"));
+    private final int owners = Integer.parseInt(property("loadtest.owners", "20"));
+    private final long randomSeed = Long.parseLong(property("loadtest.randomSeed", "42"));
+    private final Path reportFile = Path.of(property("loadtest.report", "target/loadtest-report.json"));
+    private final String label = property("loadtest.label", "");
+
+    private final int[] weights = new int[OPERATIONS.length];
+    /** The files that duplicate uploads pick from, per store. */
+    private final Map<String, List<byte[]>> duplicates = new LinkedHashMap<>();
+    /** The seeded MongoDB files that range reads pick from. */
+    private List<LoadTestClient.StoredResource> rangeTargets = List.of();
+    private final LoadTestClient client = new LoadTestClient(baseUrl,
+            Duration.ofSeconds(Long.parseLong(property("loadtest.timeoutSeconds", "30"))));
+
+    private LoadTest() {
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int index = List.of(OPERATIONS).indexOf(parts[0].trim());
+            if (parts.length != 2 || index < 0) {
+                throw new IllegalArgumentException("Invalid loadtest.mix entry '" + entry + "'; expected one of "
+                        + List.of(OPERATIONS) + " with a weight, e.g. list=50.");
+            }
+            weights[index] = Integer.parseInt(parts[1].trim());
+        }
+        if (concurrency < 1 || durationSeconds < 1 || mongoMinBytes > mongoMaxBytes || sum(weights) <= 0 || rangeBytes < 1
+                || batchFiles < 1 || duplicateRatio < 0 || duplicateRatio > 1 || duplicatePool < 1) {
+            throw new IllegalArgumentException("loadtest.concurrency, loadtest.durationSeconds, loadtest.rangeBytes, "
+                    + "loadtest.batchFiles and loadtest.duplicatePool must be positive, loadtest.duplicateRatio between 0 and 1, "
+                    + "loadtest.mongoMinBytes at most loadtest.mongoMaxBytes and loadtest.mix must have a positive weight.");
+        }
+        if (duplicateRatio > 0) {
+            SplittableRandom random = new SplittableRandom(randomSeed - 1_000_000);
+            for (String store : List.of("dynamo", "mongo")) {
+                List<byte[]> pool = new ArrayList<>(duplicatePool);
+                for (int i = 0; i < duplicatePool; i++) {
+                    pool.add(randomContent(store, random));
+                }
+                duplicates.put(store, pool);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest().run();
+    }
+
+    private void run() throws Exception {
+        client.awaitHealthy(Duration.ofSeconds(Long.parseLong(property("loadtest.healthTimeoutSeconds", "120"))));
+        Instant startedAt = Instant.now();
+        Map<String, Object> seed = seed();
+        if (weights[List.of(OPERATIONS).indexOf("rangeRead")] > 0) {
+            rangeTargets = client.resources("mongo", seedMongo);
+            if (rangeTargets.isEmpty()) {
+                throw new IllegalStateException("rangeRead needs seeded MongoDB files; set loadtest.seedMongo.");
+            }
+        }
+
+        List<List<LatencyRecorder>> recorders = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            recorders.add(new ArrayList<>());
+        }
+        long start = System.nanoTime();
+        long measureStart = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long measureEnd = measureStart + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        log.info("Running {} workers ({}) for {} s warm-up and {} s measurement against {}.",
+                concurrency, mix, warmupSeconds, durationSeconds, baseUrl);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> running = new ArrayList<>();
+        for (int worker = 0; worker < concurrency; worker++) {
+            LatencyRecorder[] own = new LatencyRecorder[OPERATIONS.length];
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                own[i] = new LatencyRecorder();
+                recorders.get(i).add(own[i]);
+            }
+            int index = worker;
+            running.add(workers.submit(() -> work(index, own, start, measureStart, measureEnd)));
+        }
+
+        sleepUntil(measureStart);
+        Map<String, Double> backendBefore = client.jvmMetrics();
+        Map<String, Double> storesBefore = client.storeMetrics();
+        Map<String, Long> clientBefore = loadGeneratorJvm();
+        sleepUntil(measureEnd);
+        Map<String, Double> backendAfter = client.jvmMetrics();
+        Map<String, Double> storesAfter = client.storeMetrics();
+        Map<String, Long> clientAfter = loadGeneratorJvm();
+        for (Future<?> future : running) {
+            future.get();
+        }
+        workers.shutdown();
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long count = 0;
+        long errors = 0;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            if (weights[i] > 0) {
+                Map<String, Object> summary = LatencyRecorder.summarize(recorders.get(i), durationSeconds);
+                count += ((Number) summary.get("count")).longValue();
+                errors += ((Number) summary.get("errors")).longValue();
+                if ("batchUpload".equals(OPERATIONS[i])) {
+                    summary.put("filesPerSecond", ((Number) summary.get("throughputPerSecond")).doubleValue() * batchFiles);
+                }
+                operations.put(OPERATIONS[i], summary);
+            }
+        }
+        Map<String, Object> total = new LinkedHashMap<>();
+        total.put("count", count);
+        total.put("errors", errors);
+        total.put("throughputPerSecond", (double) count / durationSeconds);
+
+        Map<String, Object> backendJvm = new LinkedHashMap<>();
+        backendAfter.forEach((name, value) -> backendJvm.put(name, value - backendBefore.getOrDefault(name, 0.0)));
+        if (backendJvm.containsKey("allocatedBytes") && count + errors > 0) {
+            backendJvm.put("allocatedBytesPerOperation", (Double) backendJvm.get("allocatedBytes") / (count + errors));
+        }
+        Map<String, Object> storeCost = new LinkedHashMap<>();
+        storesAfter.forEach((name, value) -> storeCost.put(name, value - storesBefore.getOrDefault(name, 0.0)));
+        for (String store : List.of("DynamoDB", "MongoDB")) {
+            Object uploaded = storeCost.get(store + ".bytesUploaded");
+            Object written = storeCost.get(store + ".bytesWritten");
+            if (uploaded != null && written != null && (Double) written > 0) {
+                storeCost.put(store + ".dedupRatio", (Double) uploaded / (Double) written);
+            }
+        }
+        Map<String, Object> loadGeneratorJvm = new LinkedHashMap<>();
+        clientAfter.forEach((name, value) -> loadGeneratorJvm.put(name, value - clientBefore.getOrDefault(name, 0L)));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("startedAt", startedAt.toString());
+        report.put("baseUrl", baseUrl.toString());
+        report.put("config", config());
+        report.put("seed", seed);
+        report.put("operations", operations);
+        report.put("total", total);
+        report.put("storeCost", storeCost);
+        report.put("backendJvm", backendJvm);
+        report.put("loadGeneratorJvm", loadGeneratorJvm);
+
+        Path parent = reportFile.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        log.info("Operations:\n{}", mapper.writerWithDefaultPrettyPrinter().writeValueAsString(operations));
+        log.info("Report written to {}.", reportFile.toAbsolutePath());
+    }
+
+    /**
+     * Uploads the initial data set on {@code loadtest.concurrency} threads.
+     */
+    private Map<String, Object> seed() throws Exception {
+        long start = System.nanoTime();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        int total = seedDynamo + seedMongo;
+        ExecutorService seeders = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> running = new ArrayList<>();
+        for (int worker = 0; worker < concurrency; worker++) {
+            SplittableRandom random = new SplittableRandom(randomSeed - 1 - worker);
+            running.add(seeders.submit(() -> {
+                for (int i = next.getAndIncrement(); i < total; i = next.getAndIncrement()) {
+                    boolean dynamo = i < seedDynamo;
+                    int status = upload(dynamo ? "dynamo" : "mongo", random);
+                    if (status < 200 || status >= 300) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+        seeders.shutdown();
+
+        Map<String, Object> seed = new LinkedHashMap<>();
+        seed.put("dynamo", seedDynamo);
+        seed.put("mongo", seedMongo);
+        seed.put("failures", failures.get());
+        seed.put("seconds", (System.nanoTime() - start) / 1e9);
+        log.info("Seeded {} resources ({} failed) in {} ms.", total, failures.get(),
+                Math.round((System.nanoTime() - start) / 1e6));
+        return seed;
+    }
+
+    /**
+     * Runs operations until the end of the measured phase, recording those that start inside it.
+     */
+    private void work(int worker, LatencyRecorder[] recorders, long start, long measureStart, long measureEnd) {
+        SplittableRandom random = new SplittableRandom(randomSeed + worker);
+        long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * concurrency / rate) : 0;
+        // Spread the workers over one interval so scheduled requests do not arrive in bursts.
+        long scheduled = start + (interval > 0 ? interval * worker / concurrency : 0);
+        int totalWeight = sum(weights);
+        while (true) {
+            long intended;
+            if (interval > 0) {
+                intended = scheduled;
+                scheduled += interval;
+                sleepUntil(intended);
+            } else {
+                intended = System.nanoTime();
+            }
+            if (intended >= measureEnd) {
+                return;
+            }
+            int operation = pick(random.nextInt(totalWeight));
+            int status = switch (OPERATIONS[operation]) {
+                case "dynamoUpload" -> upload("dynamo", random);
+                case "mongoUpload" -> upload("mongo", random);
+                case "rangeRead" -> rangeRead(random);
+                case "batchUpload" -> uploadBatch(random);
+                default -> list();
+            };
+            if (intended >= measureStart) {
+                recorders[operation].record(System.nanoTime() - intended, status);
+            }
+        }
+    }
+
+    private int upload(String store, SplittableRandom random) {
+        byte[] content = duplicateRatio > 0 && random.nextDouble() < duplicateRatio
+                ? duplicates.get(store).get(random.nextInt(duplicatePool))
+                : randomContent(store, random);
+        try {
+            return client.upload(store, content, "loadtest-owner-" + random.nextInt(owners));
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private int list() {
+        try {
+            String cursor = null;
+            for (int page = 0; page < listPages; page++) {
+                LoadTestClient.ListResult result = client.list(listLimit, cursor);
+                if (result.status != 200 || result.nextCursor == null) {
+                    return result.status;
+                }
+                cursor = result.nextCursor;
+            }
+            return 200;
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private byte[] randomContent(String store, SplittableRandom random) {
+        int size = "dynamo".equals(store) ? dynamoBytes : random.nextInt(mongoMinBytes, mongoMaxBytes + 1);
+        byte[] content = new byte[size];
+        random.nextBytes(content);
+        return content;
+    }
+
+    private int uploadBatch(SplittableRandom random) {
+        List<byte[]> contents = new ArrayList<>(batchFiles);
+        for (int i = 0; i < batchFiles; i++) {
+            byte[] content = new byte[dynamoBytes];
+            random.nextBytes(content);
+            contents.add(content);
+        }
+        try {
+            return client.uploadBatch(contents, "loadtest-owner-" + random.nextInt(owners));
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private int rangeRead(SplittableRandom random) {
+        LoadTestClient.StoredResource target = rangeTargets.get(random.nextInt(rangeTargets.size()));
+        long length = Math.min(rangeBytes, target.size);
+        long offset = target.size > length ? random.nextLong(target.size - length + 1) : 0;
+        try {
+            return client.rangeRead(target.id, offset, length);
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+
+    private int pick(int value) {
+        for (int i = 0; i < weights.length; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private Map<String, Object> config() {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("concurrency", concurrency);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("durationSeconds", durationSeconds);
+        config.put("rate", rate);
+        config.put("mix", mix);
+        config.put("dynamoBytes", dynamoBytes);
+        config.put("mongoMinBytes", mongoMinBytes);
+        config.put("mongoMaxBytes", mongoMaxBytes);
+        config.put("listLimit", listLimit);
+        config.put("listPages", listPages);
+        config.put("rangeBytes", rangeBytes);
+        config.put("batchFiles", batchFiles);
+        config.put("duplicateRatio", duplicateRatio);
+        config.put("duplicatePool", duplicatePool);
+        config.put("owners", owners);
+        config.put("randomSeed", randomSeed);
+        return config;
+    }
+
+    /**
+     * GC counts and times and the bytes allocated by the live threads of this JVM, to check the
+     * load generator itself was not the bottleneck.
+     */
+    private static Map<String, Long> loadGeneratorJvm() {
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        long collections = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(gc.getCollectionCount(), 0);
+            millis += Math.max(gc.getCollectionTime(), 0);
+        }
+        metrics.put("gcCollections", collections);
+        metrics.put("gcMillis", millis);
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            long allocated = 0;
+            for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                allocated += Math.max(bytes, 0);
+            }
+            metrics.put("allocatedBytes", allocated);
+        }
+        return metrics;
+    }
+
+    /**
+     * Parks until {@code System.nanoTime()} reaches the deadline; a single park may return early.
+     */
+    private static void sleepUntil(long deadline) {
+        for (long wait = deadline - System.nanoTime(); wait > 0; wait = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
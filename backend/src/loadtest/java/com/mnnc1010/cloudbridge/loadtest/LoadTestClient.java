@@ -0,0 +1,300 @@
+package com.mnnc1010.cloudbridge.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The HTTP calls made by the load test, on one shared {@link HttpClient}.
+ *
+ * <p>Uploads go to the store-specific endpoints ({@code POST /api/dynamo/resources} and
+ * {@code POST /api/mongo/resources}), so every upload is measured against the store it is meant
+ * for and never falls through to another tier. Batch uploads go to {@code POST /api/resources/batch}
+ * and are routed by the storage policy. Listing reads go to the aggregated
+ * {@code GET /api/resources} and never send {@code If-None-Match}, so each read is a full
+ * listing rather than a 304. Range reads go to {@code GET /api/resources/{id}/content} and
+ * discard the body as it arrives.</p>
+ */
+final class LoadTestClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final URI baseUrl;
+    private final Duration timeout;
+
+    /**
+     * @param baseUrl the backend, e.g. {@code http://localhost:8080}.
+     * @param timeout the timeout of every request.
+     */
+    LoadTestClient(URI baseUrl, Duration timeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Waits until {@code GET /api/health} answers successfully.
+     *
+     * @param maxWait how long to wait.
+     * @throws IllegalStateException if the backend did not become healthy in time.
+     */
+    void awaitHealthy(Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (send(get("/api/health")).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("The backend at " + baseUrl + " did not become healthy within " + maxWait + ".");
+    }
+
+    /**
+     * Uploads one file to a single store.
+     *
+     * @param store   {@code dynamo} or {@code mongo}.
+     * @param content the file content.
+     * @param owner   the file owner.
+     * @return the HTTP status.
+     */
+    int upload(String store, byte[] content, String owner) throws IOException, InterruptedException {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 1024);
+        String fileName = "loadtest-" + UUID.randomUUID() + ".bin";
+        field(body, boundary, "fileName", fileName);
+        field(body, boundary, "fileType", "application/octet-stream");
+        field(body, boundary, "fileDescription", "Load test upload of " + content.length + " bytes");
+        field(body, boundary, "fileOwner", owner);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/api/" + store + "/resources"))
+                .timeout(timeout)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return send(request).statusCode();
+    }
+
+    /**
+     * Uploads many files in one {@code POST /api/resources/batch} request.
+     *
+     * @param contents the content of every file.
+     * @param owner    the owner of every file.
+     * @return the HTTP status.
+     */
+    int uploadBatch(List<byte[]> contents, String owner) throws IOException, InterruptedException {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(contents.size() * (contents.get(0).length + 256) + 1024);
+        field(body, boundary, "fileDescription", "Load test batch of " + contents.size() + " files");
+        field(body, boundary, "fileOwner", owner);
+        for (byte[] content : contents) {
+            body.writeBytes(("--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"files\"; filename=\"loadtest-" + UUID.randomUUID() + ".bin\"\r\n"
+                    + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            body.writeBytes(content);
+            body.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        body.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/api/resources/batch"))
+                .timeout(timeout)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+        return send(request).statusCode();
+    }
+
+    /**
+     * Reads one page of the aggregated listing.
+     *
+     * @param limit  the page size.
+     * @param cursor the cursor of the page, or null for the first page.
+     * @return the HTTP status and, on success, the cursor of the next page (null on the last page).
+     */
+    ListResult list(int limit, String cursor) throws IOException, InterruptedException {
+        String path = "/api/resources?limit=" + limit;
+        if (cursor != null) {
+            path += "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+        }
+        HttpResponse<byte[]> response = send(get(path));
+        if (response.statusCode() != 200) {
+            return new ListResult(response.statusCode(), null);
+        }
+        JsonNode next = MAPPER.readTree(response.body()).get("nextCursor");
+        return new ListResult(200, next == null || next.isNull() ? null : next.asText());
+    }
+
+    /**
+     * Lists the resources of a single store, following the cursors until {@code max} are found.
+     *
+     * @param store {@code dynamo} or {@code mongo}.
+     * @param max   the maximum number of resources to return.
+     * @return the id and size of every listed resource that has a size.
+     */
+    List<StoredResource> resources(String store, int max) throws IOException, InterruptedException {
+        List<StoredResource> resources = new ArrayList<>();
+        String cursor = null;
+        do {
+            String path = "/api/" + store + "/resources?limit=" + Math.min(max, 500);
+            if (cursor != null) {
+                path += "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.UTF_8);
+            }
+            HttpResponse<byte[]> response = send(get(path));
+            if (response.statusCode() != 200) {
+                throw new IOException("Listing " + store + " resources failed with status " + response.statusCode() + ".");
+            }
+            JsonNode page = MAPPER.readTree(response.body());
+            for (JsonNode item : page.path("items")) {
+                if (resources.size() < max && item.path("fileSize").canConvertToLong()) {
+                    resources.add(new StoredResource(item.path("id").asText(), item.path("fileSize").asLong()));
+                }
+            }
+            JsonNode next = page.get("nextCursor");
+            cursor = next == null || next.isNull() ? null : next.asText();
+        } while (cursor != null && resources.size() < max);
+        return resources;
+    }
+
+    /**
+     * Reads one byte range of a resource's content.
+     *
+     * @param id     the resource id.
+     * @param offset the position of the first byte.
+     * @param length the number of bytes.
+     * @return the HTTP status, 206 when the range was served.
+     */
+    int rangeRead(String id, long offset, long length) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUrl.resolve("/api/resources/" + id + "/content"))
+                .timeout(timeout)
+                .header("Range", "bytes=" + offset + "-" + (offset + length - 1))
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Reads the JVM metrics of the backend from {@code /actuator/metrics}.
+     *
+     * <p>The values are cumulative since the backend started, so the difference between two
+     * snapshots covers the time in between. Metrics the backend does not publish are left out.</p>
+     *
+     * @return the GC pause count and total seconds, and the bytes allocated in and promoted to the heap.
+     */
+    Map<String, Double> jvmMetrics() throws IOException, InterruptedException {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        measurement("jvm.gc.pause", "COUNT", "gcPauses", metrics);
+        measurement("jvm.gc.pause", "TOTAL_TIME", "gcPauseSeconds", metrics);
+        measurement("jvm.gc.memory.allocated", "COUNT", "allocatedBytes", metrics);
+        measurement("jvm.gc.memory.promoted", "COUNT", "promotedBytes", metrics);
+        return metrics;
+    }
+
+    /**
+     * Reads the write-cost counters of the stores: {@code GET /api/content/dedup-stats} and the
+     * DynamoDB capacity consumed so far.
+     *
+     * <p>Like {@link #jvmMetrics()}, the values are cumulative since the backend started.</p>
+     *
+     * @return the dedup counters as {@code <store>.<counter>}, and {@code DynamoDB.consumedCapacityUnits}.
+     */
+    Map<String, Double> storeMetrics() throws IOException, InterruptedException {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        HttpResponse<byte[]> response = send(get("/api/content/dedup-stats"));
+        if (response.statusCode() == 200) {
+            MAPPER.readTree(response.body()).fields().forEachRemaining(store -> store.getValue().fields()
+                    .forEachRemaining(counter -> {
+                        // The ratio is not cumulative; the caller derives it from the byte counters.
+                        if (counter.getValue().isNumber() && !"dedupRatio".equals(counter.getKey())) {
+                            metrics.put(store.getKey() + "." + counter.getKey(), counter.getValue().asDouble());
+                        }
+                    }));
+        }
+        measurement("cloudbridge.dynamodb.consumed.capacity", "TOTAL", "DynamoDB.consumedCapacityUnits", metrics);
+        return metrics;
+    }
+
+    private void measurement(String metric, String statistic, String name, Map<String, Double> metrics)
+            throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = send(get("/actuator/metrics/" + metric));
+        if (response.statusCode() != 200) {
+            return;
+        }
+        for (JsonNode measurement : MAPPER.readTree(response.body()).path("measurements")) {
+            if (statistic.equals(measurement.path("statistic").asText())) {
+                metrics.put(name, measurement.path("value").asDouble());
+            }
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static void field(ByteArrayOutputStream body, String boundary, String name, String value) {
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A resource found by {@link #resources(String, int)}.
+     */
+    static final class StoredResource {
+
+        final String id;
+        final long size;
+
+        StoredResource(String id, long size) {
+            this.id = id;
+            this.size = size;
+        }
+    }
+
+    /**
+     * The outcome of one listing read.
+     */
+    static final class ListResult {
+
+        final int status;
+        final String nextCursor;
+
+        ListResult(int status, String nextCursor) {
+            this.status = status;
+            this.nextCursor = nextCursor;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.mnnc1010.cloudbridge.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * DynamoDB clients shared by the DynamoDB repositories.
+ *
+ * <p>Both clients honour {@code aws.dynamodb.endpoint} as an endpoint override, so the application
+ * can run against DynamoDB Local (e.g. {@code http://localhost:8000}); leave it empty to use the
+ * regional endpoint.</p>
+ *
+ * <p>The non-blocking client is only created when {@code aws.dynamodb.async.enabled} is true. It
+ * uses a Netty HTTP client whose connection pool, keep-alive and timeouts are configured under
+ * {@code aws.dynamodb.async.*}; requests wait on the Netty event loop instead of on a request
+ * thread, so a small number of threads can keep many DynamoDB calls in flight.</p>
+ *
+ * <p>Both clients report every call to {@link DynamoDbMetricsInterceptor}.</p>
+ *
+ * <p>Both clients are lazy beans and are injected as lazy proxies, so building them (resolving the
+ * region and the credentials provider chain, starting the HTTP client) is left out of startup
+ * and paid by the first DynamoDB call. Set {@code aws.dynamodb.warmup.enabled} to pay it in the
+ * background right after startup instead (see {@link DynamoDbClientWarmup}).</p>
+ */
+@Configuration
+public class CloudBridgeDynamoClientConfig {
+
+    /**
+     * Blocking client used for scans, batch writes and chunked content.
+     *
+     * @param region   the AWS region where the DynamoDB tables are hosted.
+     * @param endpoint the endpoint override, or empty for the regional endpoint.
+     * @param metricsInterceptor the interceptor recording latency and consumed capacity.
+     * @return the client, closed with the application context.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy
+    public DynamoDbClient dynamoDbClient(@Value("${aws.dynamodb.region}") String region,
+                                         @Value("${aws.dynamodb.endpoint:}") String endpoint,
+                                         DynamoDbMetricsInterceptor metricsInterceptor) {
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+                .region(Region.of(region))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(metricsInterceptor)
+                        .build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Non-blocking client used for single-item reads and writes and for listing pages.
+     *
+     * @param region                       the AWS region where the DynamoDB tables are hosted.
+     * @param endpoint                     the endpoint override, or empty for the regional endpoint.
+     * @param maxConcurrency               the maximum number of open connections.
+     * @param maxPendingConnectionAcquires the maximum number of requests waiting for a connection.
+     * @param connectionTimeoutMs          the timeout for opening a connection.
+     * @param connectionAcquisitionTimeoutMs the timeout for obtaining a connection from the pool.
+     * @param readTimeoutMs                the timeout for reading from a connection.
+     * @param writeTimeoutMs               the timeout for writing to a connection.
+     * @param connectionMaxIdleMs          how long an idle connection is kept in the pool.
+     * @param tcpKeepAlive                 whether TCP keep-alive probes are sent on pooled connections.
+     * @param metricsInterceptor           the interceptor recording latency and consumed capacity.
+     * @return the client, closed with the application context.
+     */
+    @Bean(destroyMethod = "close")
+    @Lazy
+    @ConditionalOnProperty(name = "aws.dynamodb.async.enabled", havingValue = "true")
+    public DynamoDbAsyncClient dynamoDbAsyncClient(
+            @Value("${aws.dynamodb.region}") String region,
+            @Value("${aws.dynamodb.endpoint:}") String endpoint,
+            @Value("${aws.dynamodb.async.maxConcurrency:200}") int maxConcurrency,
+            @Value("${aws.dynamodb.async.maxPendingConnectionAcquires:10000}") int maxPendingConnectionAcquires,
+            @Value("${aws.dynamodb.async.connectionTimeoutMs:2000}") long connectionTimeoutMs,
+            @Value("${aws.dynamodb.async.connectionAcquisitionTimeoutMs:5000}") long connectionAcquisitionTimeoutMs,
+            @Value("${aws.dynamodb.async.readTimeoutMs:30000}") long readTimeoutMs,
+            @Value("${aws.dynamodb.async.writeTimeoutMs:30000}") long writeTimeoutMs,
+            @Value("${aws.dynamodb.async.connectionMaxIdleMs:60000}") long connectionMaxIdleMs,
+            @Value("${aws.dynamodb.async.tcpKeepAlive:true}") boolean tcpKeepAlive,
+            DynamoDbMetricsInterceptor metricsInterceptor) {
+        DynamoDbAsyncClientBuilder builder = DynamoDbAsyncClient.builder()
+                .region(Region.of(region))
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(metricsInterceptor)
+                        .build())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(maxConcurrency)
+                        .maxPendingConnectionAcquires(maxPendingConnectionAcquires)
+                        .connectionTimeout(Duration.ofMillis(connectionTimeoutMs))
+                        .connectionAcquisitionTimeout(Duration.ofMillis(connectionAcquisitionTimeoutMs))
+                        .readTimeout(Duration.ofMillis(readTimeoutMs))
+                        .writeTimeout(Duration.ofMillis(writeTimeoutMs))
+                        .connectionMaxIdleTime(Duration.ofMillis(connectionMaxIdleMs))
+                        .tcpKeepAlive(tcpKeepAlive));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+}
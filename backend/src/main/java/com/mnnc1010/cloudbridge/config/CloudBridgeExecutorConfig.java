@@ -0,0 +1,78 @@
+package com.mnnc1010.cloudbridge.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools used to run data store calls off the request thread.
+ *
+ * <p>Pools are bounded in both threads and queued tasks, so a slow store can never make the
+ * application pile up unbounded work. Tasks that do not fit are rejected and callers treat
+ * them like a failed store call.</p>
+ */
+@Configuration
+public class CloudBridgeExecutorConfig {
+
+    /**
+     * Executor that runs the per-store reads of aggregated listings concurrently.
+     *
+     * @param threads   the maximum number of concurrent store reads.
+     * @param queueSize the maximum number of store reads waiting for a thread.
+     * @return the executor, shut down with the application context.
+     */
+    @Bean(name = "storeReadExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService storeReadExecutor(@Value("${cloudbridge.aggregation.threads:16}") int threads,
+                                             @Value("${cloudbridge.aggregation.queueSize:256}") int queueSize) {
+        return newBoundedExecutor("store-read-", threads, queueSize);
+    }
+
+    /**
+     * Executor that runs the segment workers of parallel DynamoDB scans.
+     *
+     * @param threads   the maximum number of segments scanned at once across all scans.
+     * @param queueSize the maximum number of segments waiting for a thread.
+     * @return the executor, shut down with the application context.
+     */
+    @Bean(name = "dynamoScanExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService dynamoScanExecutor(@Value("${aws.dynamodb.scan.threads:16}") int threads,
+                                              @Value("${aws.dynamodb.scan.queueSize:64}") int queueSize) {
+        return newBoundedExecutor("dynamo-scan-", threads, queueSize);
+    }
+
+    /**
+     * Executor that runs parallel {@code BatchWriteItem} calls for DynamoDB content chunks.
+     *
+     * @param threads   the maximum number of batch writes in flight.
+     * @param queueSize the maximum number of batch writes waiting for a thread.
+     * @return the executor, shut down with the application context.
+     */
+    @Bean(name = "dynamoWriteExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService dynamoWriteExecutor(@Value("${aws.dynamodb.batchWrite.threads:8}") int threads,
+                                               @Value("${aws.dynamodb.batchWrite.queueSize:256}") int queueSize) {
+        return newBoundedExecutor("dynamo-write-", threads, queueSize);
+    }
+
+    static ExecutorService newBoundedExecutor(String namePrefix, int threads, int queueSize) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), daemonThreads(namePrefix), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.mnnc1010.cloudbridge.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics for the data stores, exported with the other Micrometer meters on
+ * {@code /actuator/prometheus}.
+ *
+ * <p>Every MongoDB command and every DynamoDB API call is timed as
+ * {@value #STORE_OPERATION_TIMER}, tagged by {@code store}, {@code operation} and
+ * {@code outcome} and published with a percentile histogram, so latency quantiles can be
+ * aggregated across replicas.</p>
+ */
+@Configuration
+public class CloudBridgeMetricsConfig {
+
+    /**
+     * Name of the timer recorded for every data store operation.
+     */
+    public static final String STORE_OPERATION_TIMER = "cloudbridge.store.operation";
+
+    /**
+     * Registers the command timer with the MongoDB client Spring Boot creates.
+     *
+     * @param registry the registry the meters are registered with.
+     * @return the customizer adding the listener.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetrics(MeterRegistry registry) {
+        return builder -> builder.addCommandListener(new MongoCommandMetricsListener(registry));
+    }
+
+    /**
+     * Interceptor added to both DynamoDB clients.
+     *
+     * @param registry         the registry the meters are registered with.
+     * @param consumedCapacity whether requests ask DynamoDB to return the capacity they consumed.
+     * @return the interceptor.
+     */
+    @Bean
+    public DynamoDbMetricsInterceptor dynamoDbMetricsInterceptor(MeterRegistry registry,
+                                                                 @Value("${aws.dynamodb.metrics.consumedCapacity:true}") boolean consumedCapacity) {
+        return new DynamoDbMetricsInterceptor(registry, consumedCapacity);
+    }
+}
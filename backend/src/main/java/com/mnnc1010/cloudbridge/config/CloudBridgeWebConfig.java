@@ -0,0 +1,53 @@
+package com.mnnc1010.cloudbridge.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC settings for asynchronous responses.
+ *
+ * <p>NDJSON listings and resource content are written as {@code StreamingResponseBody} on the
+ * MVC task executor. The executors of {@link CloudBridgeExecutorConfig} make Spring Boot skip its
+ * own {@code applicationTaskExecutor}, which would leave MVC on a {@code SimpleAsyncTaskExecutor}
+ * that starts a new thread for every response; this bounded pool is used instead. The timeout
+ * stays {@code spring.mvc.async.request-timeout}.</p>
+ */
+@Configuration
+public class CloudBridgeWebConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor mvcAsyncExecutor;
+
+    public CloudBridgeWebConfig(@Qualifier("mvcAsyncExecutor") ThreadPoolTaskExecutor mvcAsyncExecutor) {
+        this.mvcAsyncExecutor = mvcAsyncExecutor;
+    }
+
+    /**
+     * Executor that writes streamed response bodies.
+     *
+     * @param threads   the maximum number of responses written at once.
+     * @param queueSize the maximum number of responses waiting for a thread; further ones fail.
+     * @return the executor, shut down with the application context.
+     */
+    @Bean(name = "mvcAsyncExecutor")
+    public static ThreadPoolTaskExecutor mvcAsyncExecutor(@Value("${cloudbridge.streaming.threads:64}") int threads,
+                                                          @Value("${cloudbridge.streaming.queueSize:256}") int queueSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("mvc-async-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueSize);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setDaemon(true);
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+    }
+}
@@ -0,0 +1,82 @@
+package com.mnnc1010.cloudbridge.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+
+/**
+ * Builds the lazy DynamoDB clients in the background once the application is ready.
+ *
+ * <p>Enabled with {@code aws.dynamodb.warmup.enabled}. Each client describes the resource and
+ * content tables, which resolves the region and credentials, opens the first connection and
+ * loads the SDK classes, so the first request does not pay for it. Startup itself is not delayed:
+ * the warm-up runs on its own thread after the application has started serving requests, and a
+ * failure is only logged.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "aws.dynamodb.warmup.enabled", havingValue = "true")
+public class DynamoDbClientWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(DynamoDbClientWarmup.class);
+
+    private final DynamoDbClient dynamoDbClient;
+    private final ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient;
+    private final String tableName;
+    private final String contentTableName;
+
+    /**
+     * Constructor for dependency injection of the clients to warm up.
+     *
+     * @param dynamoDbClient      the blocking client.
+     * @param dynamoDbAsyncClient the non-blocking client, if async mode is enabled.
+     * @param tableName           the name of the resource table.
+     * @param contentTableName    the name of the content chunk table.
+     */
+    @Autowired
+    public DynamoDbClientWarmup(@Lazy DynamoDbClient dynamoDbClient,
+                                ObjectProvider<DynamoDbAsyncClient> dynamoDbAsyncClient,
+                                @Value("${aws.dynamodb.tableName}") String tableName,
+                                @Value("${aws.dynamodb.contentTableName}") String contentTableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.tableName = tableName;
+        this.contentTableName = contentTableName;
+    }
+
+    /**
+     * Starts the warm-up thread.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Thread thread = new Thread(this::describeTables, "dynamodb-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void describeTables() {
+        long start = System.nanoTime();
+        try {
+            for (String table : new String[]{tableName, contentTableName}) {
+                DescribeTableRequest request = DescribeTableRequest.builder().tableName(table).build();
+                dynamoDbClient.describeTable(request);
+                DynamoDbAsyncClient asyncClient = dynamoDbAsyncClient.getIfAvailable();
+                if (asyncClient != null) {
+                    asyncClient.describeTable(request).join();
+                }
+            }
+            log.info("DynamoDB clients warmed up in {} ms.", (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("DynamoDB client warm-up failed", e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.mnnc1010.cloudbridge.config;
+
+import com.mnnc1010.cloudbridge.service.CloudBridgeDynamoResourceService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records metrics for every call made through the DynamoDB clients.
+ *
+ * <p>Each API call is timed as {@code cloudbridge.store.operation} tagged with
+ * {@code store=DynamoDB}, the API name as {@code operation} (e.g. {@code PutItem},
+ * {@code Scan}) and the {@code outcome}; the time includes SDK retries. The capacity units
+ * each call consumed are recorded in {@code cloudbridge.dynamodb.consumed.capacity} per table
+ * and operation; its sum is the consumed capacity, so {@code rate()} over it gives units per
+ * second. Item and batch requests that do not ask for consumed capacity are changed to ask for
+ * the total. Meters are built once per tag set and reused.</p>
+ */
+public class DynamoDbMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("CloudBridgeMetricsStartNanos");
+
+    private final MeterRegistry registry;
+    private final boolean consumedCapacity;
+    private final Map<LatencyKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<CapacityKey, DistributionSummary> capacitySummaries = new ConcurrentHashMap<>();
+
+    /**
+     * @param registry         the registry the meters are registered with.
+     * @param consumedCapacity whether requests ask DynamoDB to return the capacity they consumed.
+     */
+    public DynamoDbMetricsInterceptor(MeterRegistry registry, boolean consumedCapacity) {
+        this.registry = registry;
+        this.consumedCapacity = consumedCapacity;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes executionAttributes) {
+        SdkRequest request = context.request();
+        if (!consumedCapacity) {
+            return request;
+        }
+        if (request instanceof GetItemRequest get && get.returnConsumedCapacity() == null) {
+            return get.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        if (request instanceof PutItemRequest put && put.returnConsumedCapacity() == null) {
+            return put.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        if (request instanceof UpdateItemRequest update && update.returnConsumedCapacity() == null) {
+            return update.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        if (request instanceof DeleteItemRequest delete && delete.returnConsumedCapacity() == null) {
+            return delete.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        if (request instanceof QueryRequest query && query.returnConsumedCapacity() == null) {
+            return query.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        if (request instanceof ScanRequest scan && scan.returnConsumedCapacity() == null) {
+            return scan.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        if (request instanceof BatchWriteItemRequest batchWrite && batchWrite.returnConsumedCapacity() == null) {
+            return batchWrite.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        if (request instanceof BatchGetItemRequest batchGet && batchGet.returnConsumedCapacity() == null) {
+            return batchGet.toBuilder().returnConsumedCapacity(ReturnConsumedCapacity.TOTAL).build();
+        }
+        return request;
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        recordLatency(operation, "success", executionAttributes);
+
+        SdkResponse response = context.response();
+        if (response instanceof BatchWriteItemResponse batchWrite) {
+            recordCapacity(operation, batchWrite.consumedCapacity());
+        } else if (response instanceof BatchGetItemResponse batchGet) {
+            recordCapacity(operation, batchGet.consumedCapacity());
+        } else {
+            response.getValueForField("ConsumedCapacity", ConsumedCapacity.class)
+                    .ifPresent(capacity -> recordCapacity(operation, capacity));
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        recordLatency(executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME), "failure", executionAttributes);
+    }
+
+    private void recordLatency(String operation, String outcome, ExecutionAttributes executionAttributes) {
+        Long start = executionAttributes.getAttribute(START_NANOS);
+        if (start == null) {
+            return;
+        }
+        timers.computeIfAbsent(new LatencyKey(operation, outcome), key -> Timer.builder(CloudBridgeMetricsConfig.STORE_OPERATION_TIMER)
+                        .description("Latency of data store operations")
+                        .tag("store", CloudBridgeDynamoResourceService.STORE_NAME)
+                        .tag("operation", key.operation())
+                        .tag("outcome", key.outcome())
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordCapacity(String operation, List<ConsumedCapacity> capacities) {
+        if (capacities != null) {
+            capacities.forEach(capacity -> recordCapacity(operation, capacity));
+        }
+    }
+
+    private void recordCapacity(String operation, ConsumedCapacity capacity) {
+        if (capacity.capacityUnits() == null) {
+            return;
+        }
+        String table = capacity.tableName() != null ? capacity.tableName() : "unknown";
+        capacitySummaries.computeIfAbsent(new CapacityKey(table, operation), key -> DistributionSummary.builder("cloudbridge.dynamodb.consumed.capacity")
+                        .description("Capacity units consumed by DynamoDB calls")
+                        .baseUnit("capacity.units")
+                        .tag("table", key.table())
+                        .tag("operation", key.operation())
+                        .register(registry))
+                .record(capacity.capacityUnits());
+    }
+
+    private record LatencyKey(String operation, String outcome) {
+    }
+
+    private record CapacityKey(String table, String operation) {
+    }
+}
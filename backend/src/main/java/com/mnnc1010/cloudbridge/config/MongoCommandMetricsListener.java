@@ -0,0 +1,56 @@
+package com.mnnc1010.cloudbridge.config;
+
+import com.mnnc1010.cloudbridge.service.CloudBridgeMongoResourceService;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every command the MongoDB driver sends, as {@code cloudbridge.store.operation} tagged
+ * with {@code store=MongoDB}, the command name as {@code operation} and the {@code outcome}.
+ *
+ * <p>Repository calls map onto commands: {@code findAll} and paged reads are {@code find} (and
+ * {@code getMore}), {@code save} is {@code update} or {@code insert}, bulk writes are
+ * {@code insert}/{@code update} with many documents, and GridFS uploads are {@code insert}s of
+ * chunks. The driver measures the time itself; the only state kept is one timer per command and
+ * outcome, built on first use.</p>
+ */
+public class MongoCommandMetricsListener implements CommandListener {
+
+    private final MeterRegistry registry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public MongoCommandMetricsListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        record(event.getCommandName(), "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        record(event.getCommandName(), "failure", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(String command, String outcome, long nanos) {
+        timers.computeIfAbsent(new TimerKey(command, outcome), key -> Timer.builder(CloudBridgeMetricsConfig.STORE_OPERATION_TIMER)
+                        .description("Latency of data store operations")
+                        .tag("store", CloudBridgeMongoResourceService.STORE_NAME)
+                        .tag("operation", key.command())
+                        .tag("outcome", key.outcome())
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private record TimerKey(String command, String outcome) {
+    }
+}
@@ -1,21 +1,66 @@
 package com.mnnc1010.cloudbridge.controller;
 
+import com.mnnc1010.cloudbridge.model.BatchUploadResult;
+import com.mnnc1010.cloudbridge.model.CacheInvalidation;
 import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.IngestJob;
+import com.mnnc1010.cloudbridge.model.ResourcePage;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
 import com.mnnc1010.cloudbridge.service.CloudBridgeDynamoResourceService;
 import com.mnnc1010.cloudbridge.service.CloudBridgeMongoResourceService;
+import com.mnnc1010.cloudbridge.service.CloudBridgeResourceAggregationService;
+import com.mnnc1010.cloudbridge.service.ContentCompressionStats;
+import com.mnnc1010.cloudbridge.service.ContentDedupStats;
+import com.mnnc1010.cloudbridge.service.IngestQueue;
+import com.mnnc1010.cloudbridge.service.PeerCacheInvalidationPublisher;
+import com.mnnc1010.cloudbridge.service.ResourceAccessTracker;
+import com.mnnc1010.cloudbridge.service.ResourceCollectionVersions;
+import com.mnnc1010.cloudbridge.service.ResourceContent;
+import com.mnnc1010.cloudbridge.service.ResourceEventStream;
+import com.mnnc1010.cloudbridge.service.ResourceMetadataCache;
+import com.mnnc1010.cloudbridge.service.StorageBackend;
+import com.mnnc1010.cloudbridge.service.StorageStatsService;
+import com.mnnc1010.cloudbridge.service.StorageTierRouter;
+import com.mnnc1010.cloudbridge.service.TierMigrationService;
+import com.mnnc1010.cloudbridge.service.UploadMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * CloudbridgeController exposes RESTful endpoints for managing resources
@@ -30,18 +75,47 @@ import java.util.UUID;
  *   <li><b>GET /api/health</b> - Returns the health status of the application.</li>
  *   <li><b>MongoDB Endpoints</b>
  *     <ul>
- *       <li><b>GET /api/mongo/resources</b> - Retrieves all resources stored in MongoDB.</li>
- *       <li><b>POST /api/mongo/resources</b> - Creates a new resource in MongoDB.</li>
+ *       <li><b>GET /api/mongo/resources</b> - Retrieves a page of resources stored in MongoDB.</li>
+ *       <li><b>POST /api/mongo/resources</b> - Creates a new resource in MongoDB, within the MongoDB tier's policy.</li>
  *     </ul>
  *   </li>
  *   <li><b>DynamoDB Endpoints</b>
  *     <ul>
- *       <li><b>GET /api/dynamo/resources</b> - Retrieves all resources stored in AWS DynamoDB.</li>
- *       <li><b>POST /api/dynamo/resources</b> - Creates a new resource in AWS DynamoDB.</li>
+ *       <li><b>GET /api/dynamo/resources</b> - Retrieves a page of resources stored in AWS DynamoDB.</li>
+ *       <li><b>POST /api/dynamo/resources</b> - Creates a new resource in AWS DynamoDB, within the DynamoDB tier's policy.</li>
  *     </ul>
  *   </li>
- *   <li><b>GET /api/resources</b> - Aggregates resources from both databases.</li>
+ *   <li><b>GET /api/resources</b> - Aggregates a page of resource metadata from both databases, or streams all of it as NDJSON.</li>
+ *   <li><b>POST /api/resources</b> - Uploads a file to the storage tier chosen by the storage policy, optionally through the write-behind ingest queue.</li>
+ *   <li><b>GET /api/resources/events</b> - Pushes the metadata of every new resource as Server-Sent Events, after catching up from a given time.</li>
+ *   <li><b>GET /api/resources/query</b> - Returns a page of resources filtered by owner, type, store and insertion time, served from indexes.</li>
+ *   <li><b>POST /api/resources/backfill-dates</b> - Adds the epoch date fields used by queries to resources stored without them.</li>
+ *   <li><b>POST /api/resources/batch</b> - Uploads many files at once, routing each one to a tier by the storage policy.</li>
+ *   <li><b>GET /api/resources/{id}/content</b> - Streams the raw file content of a single resource (supports Range requests).</li>
+ *   <li><b>DELETE /api/resources/{id}</b> - Deletes a resource from whichever store holds it.</li>
+ *   <li><b>GET /api/content/dedup-stats</b> - Returns upload counts, bytes saved and the dedup ratio per store.</li>
+ *   <li><b>GET /api/content/compression-stats</b> - Returns original and stored bytes per store and codec.</li>
+ *   <li><b>GET /api/stats</b> - Returns file counts, total bytes and size histograms per owner, type and store, from materialized counters.</li>
+ *   <li><b>POST /api/stats/rebuild</b> - Recounts the storage counters of every store from its metadata.</li>
+ *   <li><b>GET /api/ingest/{id}</b> - Returns the status of an upload accepted by the ingest queue.</li>
+ *   <li><b>GET /api/ingest</b> - Returns the number and size of uploads waiting in the ingest queue.</li>
+ *   <li><b>GET /api/storage/tiers</b> - Returns the storage tiers in routing order with the size and type ranges they accept.</li>
+ *   <li><b>GET /api/storage/migrations</b> - Returns the state of the hot/cold tier migration and the content read counters.</li>
+ *   <li><b>POST /api/storage/migrations/run</b> - Starts a tier migration run right away.</li>
+ *   <li><b>GET /api/cache/stats</b> - Returns hit, miss and eviction counts of the metadata cache.</li>
+ *   <li><b>POST /api/cache/invalidations</b> - Applies a cache invalidation published by another replica.</li>
  * </ul>
+ * All list endpoints accept optional {@code limit} and {@code cursor} parameters and return a
+ * page of resource summaries together with the cursor for the next page. List endpoints and the
+ * DynamoDB upload return a {@link CompletableFuture}, so the request thread is released while
+ * the stores are read or written.
+ * </p>
+ * <p>
+ * Listings carry a strong {@code ETag} and {@code Last-Modified} built from the
+ * {@link ResourceCollectionVersions collection versions} of the stores they read, and are
+ * answered with {@code 304 Not Modified} when {@code If-None-Match} still matches, without
+ * reading any store. Resource content never changes after upload and is served with immutable
+ * cache headers.
  * </p>
  */
 
@@ -51,18 +125,90 @@ import java.util.UUID;
 public class CloudbridgeController {
     private final CloudBridgeMongoResourceService mongoService;
     private final CloudBridgeDynamoResourceService dynamoService;
+    private final CloudBridgeResourceAggregationService aggregationService;
+    private final ResourceMetadataCache cache;
+    private final ContentDedupStats dedupStats;
+    private final ContentCompressionStats compressionStats;
+    private final StorageTierRouter storageRouter;
+    private final UploadMetrics uploadMetrics;
+    private final int batchMaxFiles;
+    private final ObjectWriter streamWriter;
+    private final int streamFlushEvery;
+    private final ObjectProvider<IngestQueue> ingestQueue;
+    private final long ingestRetryAfterSeconds;
+    private final ResourceEventStream eventStream;
+    private final ResourceCollectionVersions versions;
+    private final CacheControl contentCacheControl;
+    private final StorageStatsService storageStats;
+    private final ResourceAccessTracker accessTracker;
+    private final ObjectProvider<TierMigrationService> tierMigration;
+    private final byte[] peerSecret;
 
     /**
-     * Constructor for dependency injection of the two service layers.
+     * Constructor for dependency injection of the service layers.
      *
-     * @param mongoService  The service handling MongoDB operations.
-     * @param dynamoService The service handling AWS DynamoDB operations.
+     * @param mongoService       The service handling MongoDB operations.
+     * @param dynamoService      The service handling AWS DynamoDB operations.
+     * @param aggregationService The service building paginated listings across stores.
+     * @param cache              The metadata cache in front of both stores.
+     * @param dedupStats         The content deduplication counters of both stores.
+     * @param compressionStats   The content compression counters of both stores.
+     * @param storageRouter      The router choosing the storage tier of each upload.
+     * @param uploadMetrics      The upload size and rejection metrics.
+     * @param batchMaxFiles      The largest number of files accepted by one batch upload.
+     * @param objectMapper       The JSON mapper used to write streamed listings.
+     * @param streamFlushEvery   The number of streamed resources written between two flushes.
+     * @param ingestQueue        The write-behind ingest queue, if enabled.
+     * @param ingestRetryAfterSeconds The {@code Retry-After} sent when the ingest queue is full.
+     * @param eventStream        The Server-Sent Events stream of new resources.
+     * @param versions           The collection versions the listing ETags are built from.
+     * @param contentMaxAgeSeconds How long clients may cache resource content without revalidating.
+     * @param storageStats       The storage counters of all stores.
+     * @param accessTracker      The counter of content reads the tier migration picks resources by.
+     * @param tierMigration      The hot/cold tier migration, if enabled.
+     * @param peerSecret         The shared secret other replicas send with cache invalidations.
      */
     @Autowired
     public CloudbridgeController(CloudBridgeMongoResourceService mongoService,
-                                 CloudBridgeDynamoResourceService dynamoService) {
+                                 CloudBridgeDynamoResourceService dynamoService,
+                                 CloudBridgeResourceAggregationService aggregationService,
+                                 ResourceMetadataCache cache,
+                                 ContentDedupStats dedupStats,
+                                 ContentCompressionStats compressionStats,
+                                 StorageTierRouter storageRouter,
+                                 UploadMetrics uploadMetrics,
+                                 @Value("${cloudbridge.batch.maxFiles:1000}") int batchMaxFiles,
+                                 ObjectMapper objectMapper,
+                                 @Value("${cloudbridge.streaming.flushEvery:100}") int streamFlushEvery,
+                                 ObjectProvider<IngestQueue> ingestQueue,
+                                 @Value("${cloudbridge.ingest.retryAfterSeconds:5}") long ingestRetryAfterSeconds,
+                                 ResourceEventStream eventStream,
+                                 ResourceCollectionVersions versions,
+                                 @Value("${cloudbridge.content.maxAgeSeconds:31536000}") long contentMaxAgeSeconds,
+                                 StorageStatsService storageStats,
+                                 ResourceAccessTracker accessTracker,
+                                 ObjectProvider<TierMigrationService> tierMigration,
+                                 @Value("${cloudbridge.cache.peerSecret:}") String peerSecret) {
         this.mongoService = mongoService;
         this.dynamoService = dynamoService;
+        this.aggregationService = aggregationService;
+        this.cache = cache;
+        this.dedupStats = dedupStats;
+        this.compressionStats = compressionStats;
+        this.storageRouter = storageRouter;
+        this.uploadMetrics = uploadMetrics;
+        this.batchMaxFiles = batchMaxFiles;
+        this.streamWriter = objectMapper.writerFor(CloudBridgeResourceSummary.class);
+        this.streamFlushEvery = Math.max(streamFlushEvery, 1);
+        this.ingestQueue = ingestQueue;
+        this.ingestRetryAfterSeconds = ingestRetryAfterSeconds;
+        this.eventStream = eventStream;
+        this.versions = versions;
+        this.contentCacheControl = CacheControl.maxAge(contentMaxAgeSeconds, TimeUnit.SECONDS).cachePublic().immutable();
+        this.storageStats = storageStats;
+        this.accessTracker = accessTracker;
+        this.tierMigration = tierMigration;
+        this.peerSecret = peerSecret.getBytes(StandardCharsets.UTF_8);
     }
 
     /**
@@ -88,20 +234,29 @@ public class CloudbridgeController {
     // ---------------------- MongoDB Endpoints ---------------------- //
 
     /**
-     * Retrieves all CloudBridge resources stored in MongoDB.
+     * Retrieves a page of CloudBridge resource metadata stored in MongoDB, newest first.
      *
-     * @return A list of {@link CloudBridgeResource} objects retrieved from MongoDB.
+     * @param limit  the maximum number of resources to return (optional).
+     * @param cursor the continuation token from the previous page (optional).
+     * @param ifNoneMatch the {@code ETag} of a copy the client already has (optional).
+     * @return A {@link ResourcePage} of summaries retrieved from MongoDB, 304 if MongoDB did not change, or a bad request error for an invalid limit or cursor.
      */
     @GetMapping("/mongo/resources")
-    public List<CloudBridgeResource> getAllMongoResources() {
-        return mongoService.getAllResources();
+    public CompletableFuture<ResponseEntity<?>> getAllMongoResources(@RequestParam(value = "limit", required = false) Integer limit,
+                                                                     @RequestParam(value = "cursor", required = false) String cursor,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalPage("page", List.of(CloudBridgeMongoResourceService.STORE_NAME), ifNoneMatch,
+                () -> aggregationService.getResourcePage(mongoService, limit, cursor));
     }
 
     /**
      * Endpoint for uploading a file into MongoDB.
      * Accepts a multipart/form-data request with file and metadata.
      *
-     * File size must be greater than 1MB and less than or equal to 2MB.
+     * The file must be within the size and type range of the MongoDB tier's storage policy
+     * (by default greater than or equal to 1MB and no larger than {@code cloudbridge.mongo.maxFileSize}).
+     * The file is streamed from the multipart request into GridFS without being read into memory.
+     * Clients that do not need to pick the store use {@code POST /api/resources} instead.
      *
      * @param file the uploaded file
      * @param fileName the file name
@@ -111,62 +266,40 @@ public class CloudbridgeController {
      * @return a success message if uploaded, or a bad request error if validation fails
      */
     @PostMapping(value = "/mongo/resources", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> uploadToMongo(
+    public CompletableFuture<ResponseEntity<?>> uploadToMongo(
             @RequestParam("file") MultipartFile file,
             @RequestParam("fileName") String fileName,
             @RequestParam("fileType") String fileType,
             @RequestParam("fileDescription") String fileDescription,
             @RequestParam("fileOwner") String fileOwner) {
-
-        long fileSize = file.getSize();
-        long oneMB = 1048576;
-        long twoMB = 2097152;
-
-        // Validate file size for MongoDB: must be > 1MB and <= 2MB.
-        if (fileSize <= oneMB || fileSize > twoMB) {
-            return ResponseEntity.badRequest()
-                    .body("For MongoDB, file size must be greater than 1MB and less than or equal to 2MB.");
-        }
-
-        CloudBridgeResource resource = new CloudBridgeResource();
-        resource.setId(UUID.randomUUID().toString());
-        resource.setFileName(fileName);
-        resource.setFileType(fileType);
-        resource.setFileStorage("MongoDB");
-        resource.setFileDescription(fileDescription);
-        resource.setFileOwner(fileOwner);
-        resource.setFileSize(fileSize);
-
-        try {
-            // Read file content as bytes and set it in the resource.
-            resource.setFileContent(file.getBytes());
-        } catch (IOException e) {
-            return ResponseEntity.status(500).body("Error reading file content.");
-        }
-
-        // Save the resource (dateInserted and dateModified are set by the service or database).
-        mongoService.createResource(resource);
-        // Return a simple success message.
-        return ResponseEntity.ok("Successfully Uploaded to MongoDB");
+        return uploadTo(CloudBridgeMongoResourceService.STORE_NAME, file, fileName, fileType, fileDescription, fileOwner);
     }
 
     // ---------------------- DynamoDB Endpoints ---------------------- //
 
     /**
-     * Retrieves all CloudBridge resources stored in AWS DynamoDB.
+     * Retrieves a page of CloudBridge resource metadata stored in AWS DynamoDB, in scan order.
      *
-     * @return A list of {@link CloudBridgeResource} objects retrieved from DynamoDB.
+     * @param limit  the maximum number of resources to return (optional).
+     * @param cursor the continuation token from the previous page (optional).
+     * @param ifNoneMatch the {@code ETag} of a copy the client already has (optional).
+     * @return A {@link ResourcePage} of summaries retrieved from DynamoDB, 304 if DynamoDB did not change, or a bad request error for an invalid limit or cursor.
      */
     @GetMapping("/dynamo/resources")
-    public List<CloudBridgeResource> getAllDynamoResources() {
-        return dynamoService.getAllResources();
+    public CompletableFuture<ResponseEntity<?>> getAllDynamoResources(@RequestParam(value = "limit", required = false) Integer limit,
+                                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalPage("page", List.of(CloudBridgeDynamoResourceService.STORE_NAME), ifNoneMatch,
+                () -> aggregationService.getResourcePage(dynamoService, limit, cursor));
     }
 
     /**
      * Endpoint for uploading a file into DynamoDB.
      * Accepts a multipart/form-data request with file and metadata.
      *
-     * File size must be less than 1MB.
+     * The file must be within the size and type range of the DynamoDB tier's storage policy
+     * (by default less than 1MB). Clients that do not need to pick the store use
+     * {@code POST /api/resources} instead.
      *
      * @param file the uploaded file
      * @param fileName the file name
@@ -176,66 +309,794 @@ public class CloudbridgeController {
      * @return a success message if uploaded, or a bad request error if validation fails
      */
     @PostMapping(value = "/dynamo/resources", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<?> uploadToDynamo(
+    public CompletableFuture<ResponseEntity<?>> uploadToDynamo(
             @RequestParam("file") MultipartFile file,
             @RequestParam("fileName") String fileName,
             @RequestParam("fileType") String fileType,
             @RequestParam("fileDescription") String fileDescription,
             @RequestParam("fileOwner") String fileOwner) {
+        return uploadTo(CloudBridgeDynamoResourceService.STORE_NAME, file, fileName, fileType, fileDescription, fileOwner);
+    }
 
-        long fileSize = file.getSize();
-        long oneMB = 1048576;
+    /**
+     * Uploads a file to the given tier if that tier's storage policy accepts it.
+     */
+    private CompletableFuture<ResponseEntity<?>> uploadTo(String storeName, MultipartFile file, String fileName,
+                                                          String fileType, String fileDescription, String fileOwner) {
+        Optional<StorageBackend> backend = storageRouter.getBackend(storeName);
+        if (backend.isEmpty() || !storageRouter.accepts(storeName, file.getSize(), fileType)) {
+            uploadMetrics.recordRejected(UploadMetrics.TIER_POLICY);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(storageRouter.describe(storeName) + "."));
+        }
+        return upload(backend.get(), file, fileName, fileType, fileDescription, fileOwner);
+    }
 
-        // Validate file size for DynamoDB: must be < 1MB.
-        if (fileSize >= oneMB) {
-            return ResponseEntity.badRequest()
-                    .body("For DynamoDB, file size must be less than 1MB.");
+    /**
+     * Stores an uploaded file in a tier and answers with a success message once the tier has stored it.
+     */
+    private CompletableFuture<ResponseEntity<?>> upload(StorageBackend backend, MultipartFile file, String fileName,
+                                                        String fileType, String fileDescription, String fileOwner) {
+        CloudBridgeResource resource = newResource(backend, file, fileName, fileType, fileDescription, fileOwner);
+
+        // Size, checksum and dates are set by the tier.
+        CompletableFuture<CloudBridgeResource> stored;
+        try {
+            stored = backend.store(resource, file);
+        } catch (IOException e) {
+            uploadMetrics.recordFailed(backend.getStoreName());
+            return CompletableFuture.completedFuture(ResponseEntity.status(500).body("Error reading file content."));
+        } catch (RuntimeException e) {
+            uploadMetrics.recordFailed(backend.getStoreName());
+            throw e;
         }
+        return stored.whenComplete((saved, error) -> {
+                    if (error != null) {
+                        uploadMetrics.recordFailed(backend.getStoreName());
+                    } else {
+                        uploadMetrics.recordStored(backend.getStoreName(), saved.getFileSize());
+                    }
+                })
+                .thenApply(saved -> ResponseEntity.ok("Successfully Uploaded to " + backend.getStoreName()));
+    }
 
+    /**
+     * Spools an upload into the ingest queue.
+     *
+     * @return 202 with the job and its status URL, or 429 with {@code Retry-After} if the queue is full.
+     */
+    private ResponseEntity<?> enqueue(IngestQueue queue, StorageBackend backend, MultipartFile file, String fileName,
+                                      String fileType, String fileDescription, String fileOwner) {
+        CloudBridgeResource resource = newResource(backend, file, fileName, fileType, fileDescription, fileOwner);
+        Optional<IngestJob> job;
+        try {
+            job = queue.submit(resource, file);
+        } catch (IOException e) {
+            return ResponseEntity.status(500).body("Error reading file content.");
+        }
+        if (job.isEmpty()) {
+            uploadMetrics.recordRejected(UploadMetrics.QUEUE_FULL);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(ingestRetryAfterSeconds))
+                    .body("The ingest queue is full. Retry later.");
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/ingest/" + job.get().getId()))
+                .body(job.get());
+    }
+
+    private static CloudBridgeResource newResource(StorageBackend backend, MultipartFile file, String fileName,
+                                                   String fileType, String fileDescription, String fileOwner) {
         CloudBridgeResource resource = new CloudBridgeResource();
         resource.setId(UUID.randomUUID().toString());
         resource.setFileName(fileName);
         resource.setFileType(fileType);
-        resource.setFileStorage("DynamoDB");
+        resource.setFileStorage(backend.getStoreName());
         resource.setFileDescription(fileDescription);
         resource.setFileOwner(fileOwner);
-        resource.setFileSize(fileSize);
+        resource.setFileSize(file.getSize());
+        return resource;
+    }
+
+    // ---------------------- Aggregated Endpoint ---------------------- //
+
+    /**
+     * Retrieves a page of CloudBridge resource metadata from both MongoDB and DynamoDB.
+     *
+     * <p>
+     * Each page is a k-way merge of the two stores that reads at most one page from each, so the
+     * cost of a request does not grow with the number of stored resources. Every resource is
+     * listed once across the pages, but in no global order: DynamoDB is read in scan order. Use
+     * {@code GET /api/resources/query} for resources in insertion order. File content is not
+     * included; use {@code GET /api/resources/{id}/content} to fetch it.
+     * </p>
+     *
+     * @param limit  the maximum number of resources to return (optional).
+     * @param cursor the continuation token from the previous page (optional).
+     * @param ifNoneMatch the {@code ETag} of a copy the client already has (optional).
+     * @return A {@link ResourcePage} of summaries from both databases, 304 if no store changed, or a bad request error for an invalid limit or cursor.
+     */
+    @GetMapping("/resources")
+    public CompletableFuture<ResponseEntity<?>> getAllResources(@RequestParam(value = "limit", required = false) Integer limit,
+                                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalPage("page", null, ifNoneMatch, () -> aggregationService.getResourcePage(limit, cursor));
+    }
+
+    /**
+     * Streams the metadata of every resource in every store as newline-delimited JSON.
+     *
+     * <p>
+     * Selected by {@code Accept: application/x-ndjson}. Each resource is written as one JSON
+     * line as soon as it is read from the MongoDB cursor or a DynamoDB scan page, and the
+     * response is flushed every {@code cloudbridge.streaming.flushEvery} lines, so the first rows
+     * arrive right away and the full listing is never held in memory. The stores are streamed
+     * one after the other and are not merged by date.
+     * </p>
+     *
+     * @param ifNoneMatch the {@code ETag} of a copy the client already has (optional).
+     * @return a chunked response with one {@link CloudBridgeResourceSummary} per line, or 304 if no store changed.
+     */
+    @GetMapping(value = "/resources", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllResources(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versions.etag("ndjson", null);
+        long lastModified = versions.lastModified(null);
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).lastModified(lastModified).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(this::writeAllResources);
+    }
+
+    /**
+     * Streams the metadata of every resource as newline-delimited JSON, for clients that cannot
+     * set the {@code Accept} header.
+     *
+     * @param ifNoneMatch the {@code ETag} of a copy the client already has (optional).
+     * @return the same response as {@link #streamAllResources(String)}.
+     */
+    @GetMapping(value = "/resources", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllResourcesByFlag(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return streamAllResources(ifNoneMatch);
+    }
+
+    private void writeAllResources(OutputStream out) throws IOException {
+        int[] written = {0};
+        try (Stream<CloudBridgeResourceSummary> summaries = aggregationService.streamResourceSummaries()) {
+            summaries.forEach(summary -> {
+                try {
+                    out.write(streamWriter.writeValueAsBytes(summary));
+                    out.write('\n');
+                    if (++written[0] % streamFlushEvery == 0) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // Usually the client went away; closing the stream releases the store cursor.
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
 
+    /**
+     * Endpoint for uploading a file to whichever storage tier the storage policy picks for it.
+     *
+     * <p>
+     * The tiers listed in {@code cloudbridge.storage.order} are tried in order and the first whose
+     * policy accepts the file's size and type stores it; by default files under 1MB go to
+     * DynamoDB and larger files up to {@code cloudbridge.mongo.maxFileSize} to MongoDB. The file
+     * name and type default to those of the multipart part.
+     * </p>
+     *
+     * <p>
+     * With {@code async=true} and the ingest queue enabled ({@code cloudbridge.ingest.enabled}),
+     * the file is only spooled to local disk and the request is answered with {@code 202} and the
+     * job, whose status can be polled at the {@code Location} URL; a full queue is answered with
+     * {@code 429} and {@code Retry-After}. Without the queue, {@code async} is ignored and the file
+     * is stored before the request completes.
+     * </p>
+     *
+     * @param file            the uploaded file
+     * @param fileName        the file name (optional)
+     * @param fileType        the file type (optional)
+     * @param fileDescription description of the file
+     * @param fileOwner       owner of the file
+     * @param async           whether to store the file through the ingest queue (optional)
+     * @return a success message naming the tier, the queued job, or a bad request error if no tier accepts the file
+     */
+    @PostMapping(value = "/resources", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<ResponseEntity<?>> uploadResource(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "fileName", required = false) String fileName,
+            @RequestParam(value = "fileType", required = false) String fileType,
+            @RequestParam("fileDescription") String fileDescription,
+            @RequestParam("fileOwner") String fileOwner,
+            @RequestParam(value = "async", defaultValue = "false") boolean async) {
+        String name = fileName != null && !fileName.isBlank() ? fileName : file.getOriginalFilename();
+        String type = fileType != null && !fileType.isBlank() ? fileType : file.getContentType();
+        Optional<StorageBackend> backend = storageRouter.route(file.getSize(), type);
+        if (backend.isEmpty()) {
+            uploadMetrics.recordRejected(UploadMetrics.NO_TIER);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body("No storage tier accepts this file: " + storageRouter.describe() + "."));
+        }
+        IngestQueue queue = ingestQueue.getIfAvailable();
+        if (async && queue != null) {
+            return CompletableFuture.completedFuture(enqueue(queue, backend.get(), file, name, type, fileDescription, fileOwner));
+        }
+        return upload(backend.get(), file, name, type, fileDescription, fileOwner);
+    }
+
+    /**
+     * Retrieves a page of resources matching the given filters, newest first by insertion time.
+     *
+     * <p>
+     * Every filter is optional, but a query without an owner or type must give
+     * {@code insertedFrom}, and unless it is limited to another store, its time range may span at
+     * most {@code aws.dynamodb.query.maxDays} days. Queries are answered from indexes (MongoDB compound indexes, DynamoDB
+     * global secondary indexes), so their cost grows with the number of matches rather than the
+     * number of stored resources. Resources stored before insertion times were recorded as epoch
+     * values only match after {@code POST /api/resources/backfill-dates}.
+     * </p>
+     *
+     * @param fileOwner    only resources of this owner (optional).
+     * @param fileType     only resources of this type, e.g. "application/pdf" (optional).
+     * @param fileStorage  only resources in this store, e.g. "MongoDB", "DynamoDB" or "Local" (optional).
+     * @param insertedFrom only resources inserted at or after this time, as an ISO-8601 instant or epoch milliseconds (optional).
+     * @param insertedTo   only resources inserted before this time, as an ISO-8601 instant or epoch milliseconds (optional).
+     * @param limit        the maximum number of resources to return (optional).
+     * @param cursor       the continuation token from the previous page (optional).
+     * @param ifNoneMatch  the {@code ETag} of a copy the client already has (optional).
+     * @return A {@link ResourcePage} of matching summaries, 304 if no store changed, or a bad request error for invalid filters, limit or cursor.
+     */
+    @GetMapping("/resources/query")
+    public CompletableFuture<ResponseEntity<?>> queryResources(@RequestParam(value = "fileOwner", required = false) String fileOwner,
+                                                               @RequestParam(value = "fileType", required = false) String fileType,
+                                                               @RequestParam(value = "fileStorage", required = false) String fileStorage,
+                                                               @RequestParam(value = "insertedFrom", required = false) String insertedFrom,
+                                                               @RequestParam(value = "insertedTo", required = false) String insertedTo,
+                                                               @RequestParam(value = "limit", required = false) Integer limit,
+                                                               @RequestParam(value = "cursor", required = false) String cursor,
+                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditionalPage("query", null, ifNoneMatch, () -> {
+            ResourceQuery query = new ResourceQuery(fileOwner, fileType, fileStorage,
+                    parseTime("insertedFrom", insertedFrom), parseTime("insertedTo", insertedTo));
+            if (query.getFileOwner() == null && query.getFileType() == null && query.getInsertedFrom() == null) {
+                throw new IllegalArgumentException("Give fileOwner, fileType or insertedFrom.");
+            }
+            if (query.insertedFromOrMin() >= query.insertedToOrMax()) {
+                throw new IllegalArgumentException("insertedFrom must be before insertedTo.");
+            }
+            return aggregationService.query(query, limit, cursor);
+        });
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of new resources.
+     *
+     * <p>
+     * Every resource created afterwards, in any store, is sent as a {@code resource} event whose
+     * data is its summary and whose id is its insertion time in epoch milliseconds. Given
+     * {@code since}, or the {@code Last-Event-ID} header a browser sends when it reconnects, the
+     * resources inserted at or after that time are sent first, oldest first; the resource with
+     * exactly that time is sent again, so clients should skip ids they already have. If too many
+     * resources were missed, a {@code reset} event asks the client to reload the listing instead.
+     * </p>
+     *
+     * @param since       catch up from this time, as an ISO-8601 instant or epoch milliseconds (optional).
+     * @param lastEventId the id of the last event received before a reconnect (optional).
+     * @return the event stream, a bad request error for an invalid time, or 503 if too many clients are connected.
+     */
+    @GetMapping(value = "/resources/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamResourceEvents(@RequestParam(value = "since", required = false) String since,
+                                                           @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // The body must stay an SseEmitter for Spring MVC to stream it, so errors carry no message.
+        Long from;
         try {
-            // Read file content as bytes.
-            resource.setFileContent(file.getBytes());
-        } catch (IOException e) {
-            return ResponseEntity.status(500).body("Error reading file content.");
+            from = parseTime("since", since != null ? since : lastEventId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+        SseEmitter emitter = eventStream.subscribe(from);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
 
-        // Save the resource.
-        dynamoService.createResource(resource);
-        // Return a success message.
-        return ResponseEntity.ok("Successfully Uploaded to DynamoDB");
+    /**
+     * Sets the epoch date fields used by queries on resources stored before they were recorded.
+     *
+     * <p>
+     * Both stores are read in full, so this is meant to be run once after upgrading. Running it
+     * again only touches resources that are still missing the fields.
+     * </p>
+     *
+     * @return the number of resources updated per store.
+     */
+    @PostMapping("/resources/backfill-dates")
+    public Map<String, Long> backfillDates() {
+        Map<String, Long> updated = new LinkedHashMap<>();
+        updated.put(CloudBridgeMongoResourceService.STORE_NAME, mongoService.backfillDateFields());
+        updated.put(CloudBridgeDynamoResourceService.STORE_NAME, dynamoService.backfillDateFields());
+        return updated;
     }
 
-    // ---------------------- Aggregated Endpoint ---------------------- //
+    /**
+     * Wraps a page request into a response, answering an invalid limit or cursor with a bad request error.
+     */
+    private static CompletableFuture<ResponseEntity<?>> page(Supplier<CompletableFuture<ResourcePage>> request) {
+        CompletableFuture<ResourcePage> page;
+        try {
+            page = request.get();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(e.getMessage()));
+        }
+        return page.<ResponseEntity<?>>thenApply(ResponseEntity::ok)
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof IllegalArgumentException) {
+                        return ResponseEntity.badRequest().body(cause.getMessage());
+                    }
+                    throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                });
+    }
 
     /**
-     * Retrieves all CloudBridge resources from both MongoDB and DynamoDB.
+     * Wraps a page request like {@link #page(Supplier)}, answering it with 304 if the stores it
+     * reads did not change since the client's copy.
      *
      * <p>
-     * This endpoint aggregates the resources retrieved from both data stores into a single list.
-     * This is useful when you want to see a combined view of all resources in the system.
+     * Complete pages are sent with the {@code ETag} and {@code Last-Modified} of the stores'
+     * collection versions, read before the stores, and {@code Cache-Control: no-cache} so that
+     * clients revalidate on every use. A page missing a store that timed out gets no tag, so
+     * it is not kept by the client.
      * </p>
      *
-     * @return A combined list of {@link CloudBridgeResource} objects from both databases.
+     * @param variant     the kind of listing, part of the tag.
+     * @param stores      the stores the page reads, or {@code null} for all of them.
+     * @param ifNoneMatch the {@code If-None-Match} request header, or {@code null}.
      */
-    @GetMapping("/resources")
-    public List<CloudBridgeResource> getAllResources() {
-        // Retrieve resources from MongoDB.
-        List<CloudBridgeResource> mongoResources = mongoService.getAllResources();
-        // Retrieve resources from DynamoDB.
-        List<CloudBridgeResource> dynamoResources = dynamoService.getAllResources();
-        // Combine the two lists.
-        List<CloudBridgeResource> combinedResources = new ArrayList<>();
-        combinedResources.addAll(mongoResources);
-        combinedResources.addAll(dynamoResources);
-        return combinedResources;
-    }
-}
\ No newline at end of file
+    private CompletableFuture<ResponseEntity<?>> conditionalPage(String variant, Collection<String> stores, String ifNoneMatch,
+                                                                 Supplier<CompletableFuture<ResourcePage>> request) {
+        String etag = versions.etag(variant, stores);
+        long lastModified = versions.lastModified(stores);
+        if (matches(ifNoneMatch, etag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .build());
+        }
+        return page(request).thenApply(response -> {
+            if (!(response.getBody() instanceof ResourcePage)) {
+                return response;
+            }
+            ResourcePage body = (ResourcePage) response.getBody();
+            if (body.getPartial() != null && body.getPartial().containsValue(true)) {
+                return response;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .lastModified(lastModified)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(body);
+        });
+    }
+
+    /**
+     * Evaluates {@code If-None-Match} against a current tag, with the weak comparison it calls for.
+     *
+     * @return {@code true} if the client's copy is current.
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Endpoint for uploading many files in one multipart/form-data request.
+     *
+     * <p>
+     * Each file is routed to a tier by the same storage policy as {@code POST /api/resources}.
+     * The files of each tier are then stored together through the tier's bulk path: DynamoDB
+     * files with 25-item {@code BatchWriteItem} calls and MongoDB documents with one unordered
+     * bulk insert, so a batch costs a handful of round trips instead of one per file. The file
+     * name and type are taken from each part; the description and owner apply to every file.
+     * </p>
+     *
+     * @param files           the uploaded files
+     * @param fileDescription description applied to every file
+     * @param fileOwner       owner of every file
+     * @return the outcome of every file, in upload order, or a bad request error if the batch is empty or too large
+     */
+    @PostMapping(value = "/resources/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> uploadBatch(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam("fileDescription") String fileDescription,
+            @RequestParam("fileOwner") String fileOwner) {
+
+        if (files.isEmpty() || files.size() > batchMaxFiles) {
+            uploadMetrics.recordRejected(UploadMetrics.BATCH_SIZE);
+            return ResponseEntity.badRequest()
+                    .body("A batch must contain between 1 and " + batchMaxFiles + " files.");
+        }
+
+        List<BatchUploadResult> results = new ArrayList<>(files.size());
+        Map<StorageBackend, List<CloudBridgeResource>> resourcesByTier = new LinkedHashMap<>();
+        Map<StorageBackend, List<MultipartFile>> filesByTier = new LinkedHashMap<>();
+        Map<StorageBackend, List<BatchUploadResult>> resultsByTier = new LinkedHashMap<>();
+
+        for (MultipartFile file : files) {
+            long fileSize = file.getSize();
+            String fileName = file.getOriginalFilename();
+            Optional<StorageBackend> backend = storageRouter.route(fileSize, file.getContentType());
+            if (backend.isEmpty()) {
+                uploadMetrics.recordRejected(UploadMetrics.NO_TIER);
+                results.add(new BatchUploadResult(fileName, null, null, BatchUploadResult.REJECTED,
+                        "No storage tier accepts this file: " + storageRouter.describe() + "."));
+                continue;
+            }
+            String storage = backend.get().getStoreName();
+
+            CloudBridgeResource resource = new CloudBridgeResource();
+            resource.setId(UUID.randomUUID().toString());
+            resource.setFileName(fileName);
+            resource.setFileType(file.getContentType());
+            resource.setFileStorage(storage);
+            resource.setFileDescription(fileDescription);
+            resource.setFileOwner(fileOwner);
+            resource.setFileSize(fileSize);
+            BatchUploadResult result = new BatchUploadResult(fileName, resource.getId(), storage, BatchUploadResult.CREATED, null);
+            results.add(result);
+
+            resourcesByTier.computeIfAbsent(backend.get(), tier -> new ArrayList<>()).add(resource);
+            filesByTier.computeIfAbsent(backend.get(), tier -> new ArrayList<>()).add(file);
+            resultsByTier.computeIfAbsent(backend.get(), tier -> new ArrayList<>()).add(result);
+        }
+
+        resourcesByTier.forEach((backend, resources) -> {
+            List<BatchUploadResult> tierResults = resultsByTier.get(backend);
+            applyFailures(tierResults, backend.storeAll(resources, filesByTier.get(backend)));
+            for (int i = 0; i < resources.size(); i++) {
+                if (BatchUploadResult.CREATED.equals(tierResults.get(i).getStatus())) {
+                    uploadMetrics.recordStored(backend.getStoreName(), resources.get(i).getFileSize());
+                } else {
+                    uploadMetrics.recordFailed(backend.getStoreName());
+                }
+            }
+        });
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Marks the results whose resource id has a store error as failed.
+     */
+    private static void applyFailures(List<BatchUploadResult> results, Map<String, String> failures) {
+        for (BatchUploadResult result : results) {
+            String error = failures.get(result.getId());
+            if (error != null) {
+                result.setStatus(BatchUploadResult.FAILED);
+                result.setMessage(error);
+            }
+        }
+    }
+
+    /**
+     * Streams the raw file content of a single resource, supporting HTTP range requests.
+     *
+     * <p>
+     * The resource is looked up in every storage tier in routing order. The bytes are streamed
+     * as-is with a {@code Content-Type} taken from the stored {@code fileType}, the exact
+     * {@code Content-Length}, an {@code ETag} derived from the content checksum and
+     * {@code Accept-Ranges: bytes}. A single-range {@code Range} header is answered with
+     * {@code 206 Partial Content} and only the requested bytes are read from the store; an
+     * unsatisfiable range is answered with {@code 416}. Requests with several ranges are served
+     * the full content.
+     * </p>
+     * <p>
+     * Content is never modified after upload, so it is served with
+     * {@code Cache-Control: public, max-age=<cloudbridge.content.maxAgeSeconds>, immutable}, and a
+     * matching {@code If-None-Match} is answered with {@code 304} without reading the content.
+     * </p>
+     *
+     * @param id      the resource identifier.
+     * @param headers the request headers, used for {@code Range} and {@code If-None-Match}.
+     * @return the (partial) file content, 304 if the client's copy matches, or 404 if no store holds content for that id.
+     */
+    @GetMapping("/resources/{id}/content")
+    public ResponseEntity<StreamingResponseBody> getResourceContent(@PathVariable("id") String id,
+                                                                    @RequestHeader HttpHeaders headers) {
+        Optional<ResourceContent> stored = storageRouter.getContent(id);
+        if (stored.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ResourceContent content = stored.get();
+        CloudBridgeResource resource = content.getResource();
+        String etag = "\"" + (resource.getContentHash() != null ? resource.getContentHash() : resource.getId()) + "\"";
+        if (matches(headers.getFirst(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(contentCacheControl)
+                    .build();
+        }
+        long length = content.getLength();
+
+        List<HttpRange> ranges;
+        try {
+            ranges = headers.getRange();
+        } catch (IllegalArgumentException e) {
+            // A malformed Range header is ignored and the full content is served.
+            ranges = Collections.emptyList();
+        }
+
+        long offset = 0;
+        long count = length;
+        ResponseEntity.BodyBuilder response;
+        if (ranges.size() == 1) {
+            try {
+                offset = ranges.get(0).getRangeStart(length);
+                count = ranges.get(0).getRangeEnd(length) - offset + 1;
+            } catch (IllegalArgumentException e) {
+                count = 0;
+            }
+            // Ranges past the end, an empty suffix ("bytes=-0") and any range of empty content select no bytes.
+            if (count <= 0) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                        .build();
+            }
+            response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + (offset + count - 1) + "/" + length);
+        } else {
+            response = ResponseEntity.ok();
+        }
+
+        // A client reading in ranges counts once, with the range that starts at the beginning.
+        if (offset == 0) {
+            accessTracker.record(resource);
+        }
+        long start = offset;
+        long bytes = count;
+        return response
+                .contentType(contentTypeOf(resource))
+                .contentLength(count)
+                .eTag(etag)
+                .cacheControl(contentCacheControl)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(out -> content.writeTo(out, start, bytes));
+    }
+
+    /**
+     * Deletes a single resource.
+     *
+     * <p>
+     * The resource is looked up in every storage tier in routing order. Its content is released:
+     * content shared with other resources is kept until the last of them is deleted.
+     * </p>
+     *
+     * @param id the resource identifier.
+     * @return 204 once the resource is deleted, or 404 if no store holds it.
+     */
+    @DeleteMapping("/resources/{id}")
+    public ResponseEntity<?> deleteResource(@PathVariable("id") String id) {
+        if (storageRouter.delete(id)) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Returns the content deduplication statistics of both stores since the application started.
+     *
+     * @return upload and duplicate counts, bytes uploaded, written and saved, and the dedup ratio per store.
+     */
+    @GetMapping("/content/dedup-stats")
+    public Map<String, Map<String, Object>> getDedupStats() {
+        return dedupStats.getStats();
+    }
+
+    /**
+     * Returns the content compression statistics of both stores since the application started.
+     *
+     * @return write counts, original and stored bytes and the size reduction per store and codec.
+     */
+    @GetMapping("/content/compression-stats")
+    public Map<String, Map<String, Map<String, Object>>> getCompressionStats() {
+        return compressionStats.getStats();
+    }
+
+    /**
+     * Returns how many files and bytes each owner, type and store holds.
+     *
+     * <p>
+     * Served from counters every store updates on each create and delete, so the cost does not
+     * depend on the number of stored resources. Each entry has the file {@code count}, the
+     * {@code totalBytes} and a {@code histogram} of file counts per size bucket.
+     * </p>
+     *
+     * @return the counters per {@code fileOwner}, {@code fileType} and {@code fileStorage}, and the stores that could not be read.
+     */
+    @GetMapping("/stats")
+    public Map<String, Object> getStorageStats() {
+        return storageStats.getStats();
+    }
+
+    /**
+     * Recounts the storage counters of every store from its metadata.
+     *
+     * <p>
+     * Reads every store in full (DynamoDB with the rate-limited parallel scan), so it is meant to
+     * be run when nothing is being uploaded: after the counters are introduced, or if a counter
+     * update failed.
+     * </p>
+     *
+     * @return the number of counters written per store.
+     */
+    @PostMapping("/stats/rebuild")
+    public Map<String, Integer> rebuildStorageStats() {
+        return storageStats.rebuild();
+    }
+
+    /**
+     * Returns the status of an upload accepted by the ingest queue.
+     *
+     * @param id the job id returned when the upload was accepted, which is also the resource id.
+     * @return the job, or 404 if the ingest queue is disabled or does not know the job (anymore).
+     */
+    @GetMapping("/ingest/{id}")
+    public ResponseEntity<?> getIngestJob(@PathVariable("id") String id) {
+        IngestQueue queue = ingestQueue.getIfAvailable();
+        if (queue == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return queue.getJob(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Returns the number and total size of uploads waiting in the ingest queue, and its limits.
+     *
+     * @return the queue statistics, or {@code enabled: false} if the ingest queue is disabled.
+     */
+    @GetMapping("/ingest")
+    public Map<String, Object> getIngestStats() {
+        IngestQueue queue = ingestQueue.getIfAvailable();
+        return queue != null ? queue.getStats() : Collections.singletonMap("enabled", false);
+    }
+
+    /**
+     * Returns the storage tiers uploads are routed to, in the order they are tried.
+     *
+     * @return the store name and the size and type range each tier accepts.
+     */
+    @GetMapping("/storage/tiers")
+    public List<Map<String, Object>> getStorageTiers() {
+        return storageRouter.getPolicy();
+    }
+
+    /**
+     * Returns the state of the hot/cold tier migration.
+     *
+     * @return the configuration, counters and journal of the migration (or {@code enabled: false}
+     *         if it is disabled on this replica), together with the read counters of this replica.
+     */
+    @GetMapping("/storage/migrations")
+    public Map<String, Object> getStorageMigrations() {
+        TierMigrationService migration = tierMigration.getIfAvailable();
+        Map<String, Object> status = new LinkedHashMap<>(
+                migration != null ? migration.getStatus() : Collections.singletonMap("enabled", false));
+        status.put("access", accessTracker.getStats());
+        return status;
+    }
+
+    /**
+     * Starts a tier migration run without waiting for the next scheduled one.
+     *
+     * @return 202 if a run was started, 409 if one is already in progress, or 404 if the
+     *         migration is disabled on this replica.
+     */
+    @PostMapping("/storage/migrations/run")
+    public ResponseEntity<?> runStorageMigration() {
+        TierMigrationService migration = tierMigration.getIfAvailable();
+        if (migration == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!migration.runNow()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A tier migration run is already in progress.");
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    // ---------------------- Cache Endpoints ---------------------- //
+
+    /**
+     * Returns the statistics of the metadata cache.
+     *
+     * @return hit, miss and eviction counts and the size of the page and resource caches.
+     */
+    @GetMapping("/cache/stats")
+    public Map<String, Map<String, Object>> getCacheStats() {
+        return cache.getStats();
+    }
+
+    /**
+     * Applies a cache invalidation published by another backend replica.
+     *
+     * <p>The invalidation is applied locally only and is not published again. Only replicas that
+     * send the shared {@code cloudbridge.cache.peerSecret} may invalidate; without a configured
+     * secret every invalidation is refused.</p>
+     *
+     * @param invalidation the store and the ids of the resources that changed.
+     * @param secret       the shared peer secret.
+     * @return 204 once the cached entries are dropped, 403 without the right secret, or a bad request error if the store or ids are missing.
+     */
+    @PostMapping("/cache/invalidations")
+    public ResponseEntity<?> invalidateCache(@RequestBody CacheInvalidation invalidation,
+                                             @RequestHeader(value = PeerCacheInvalidationPublisher.SECRET_HEADER, required = false) String secret) {
+        if (peerSecret.length == 0 || secret == null
+                || !MessageDigest.isEqual(peerSecret, secret.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (invalidation.getStore() == null || invalidation.getIds() == null) {
+            return ResponseEntity.badRequest().body("store and ids are required.");
+        }
+        cache.invalidateLocally(invalidation.getStore(), invalidation.getIds());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Parses a time filter given as an ISO-8601 instant or as epoch milliseconds.
+     *
+     * @return the epoch milliseconds, or {@code null} if the parameter is absent.
+     * @throws IllegalArgumentException if the value is neither.
+     */
+    private static Long parseTime(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            Long epochMillis = CloudBridgeResource.epochMillisOf(value);
+            if (epochMillis == null) {
+                throw new IllegalArgumentException(name + " must be an ISO-8601 instant or epoch milliseconds.");
+            }
+            return epochMillis;
+        }
+    }
+
+    /**
+     * Resolves the response media type from the stored {@code fileType}.
+     */
+    private static MediaType contentTypeOf(CloudBridgeResource resource) {
+        if (resource.getFileType() != null && !resource.getFileType().isBlank()) {
+            try {
+                return MediaType.parseMediaType(resource.getFileType());
+            } catch (IllegalArgumentException e) {
+                // Fall back to a generic binary type for unrecognized file types.
+            }
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+}
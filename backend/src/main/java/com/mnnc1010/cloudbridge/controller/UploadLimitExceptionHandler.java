@@ -0,0 +1,38 @@
+package com.mnnc1010.cloudbridge.controller;
+
+import com.mnnc1010.cloudbridge.service.UploadMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+/**
+ * Answers uploads above the multipart limits ({@code spring.servlet.multipart.*}) with 413.
+ *
+ * <p>The limits are enforced while the request is parsed, before a controller method is chosen,
+ * so this has to be a controller advice rather than a handler in {@link CloudbridgeController}.</p>
+ */
+@RestControllerAdvice
+public class UploadLimitExceptionHandler {
+
+    private final UploadMetrics uploadMetrics;
+
+    @Autowired
+    public UploadLimitExceptionHandler(UploadMetrics uploadMetrics) {
+        this.uploadMetrics = uploadMetrics;
+    }
+
+    /**
+     * Counts the upload as rejected and answers with 413.
+     *
+     * @param e the exception raised while parsing the request.
+     * @return a payload too large error.
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<?> uploadTooLarge(MaxUploadSizeExceededException e) {
+        uploadMetrics.recordRejected(UploadMetrics.TOO_LARGE);
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("The upload is larger than the maximum upload size.");
+    }
+}
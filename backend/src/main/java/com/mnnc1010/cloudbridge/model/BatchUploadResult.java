@@ -0,0 +1,72 @@
+package com.mnnc1010.cloudbridge.model;
+
+/**
+ * The outcome of one file in a batch upload.
+ *
+ * <p>{@code status} is one of {@code CREATED}, {@code REJECTED} (the file failed validation and
+ * was not sent to any store) or {@code FAILED} (the store write failed); {@code message}
+ * explains the latter two.</p>
+ */
+public class BatchUploadResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String REJECTED = "REJECTED";
+    public static final String FAILED = "FAILED";
+
+    private String fileName;
+    private String id;
+    private String fileStorage;
+    private String status;
+    private String message;
+
+    public BatchUploadResult() {
+    }
+
+    public BatchUploadResult(String fileName, String id, String fileStorage, String status, String message) {
+        this.fileName = fileName;
+        this.id = id;
+        this.fileStorage = fileStorage;
+        this.status = status;
+        this.message = message;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFileStorage() {
+        return fileStorage;
+    }
+
+    public void setFileStorage(String fileStorage) {
+        this.fileStorage = fileStorage;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,37 @@
+package com.mnnc1010.cloudbridge.model;
+
+import java.util.List;
+
+/**
+ * A cache invalidation sent between backend replicas: the resources {@code ids} in {@code store}
+ * were created or changed.
+ */
+public class CacheInvalidation {
+
+    private String store;
+    private List<String> ids;
+
+    public CacheInvalidation() {
+    }
+
+    public CacheInvalidation(String store, List<String> ids) {
+        this.store = store;
+        this.ids = ids;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mnnc1010.cloudbridge.model;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSortKey;
+
+/**
+ * One fixed-size slice of a file's content stored in DynamoDB.
+ *
+ * <p>DynamoDB items cannot exceed 400 KB, so file content above the inline limit is split into
+ * chunks stored in a separate content table under the composite key
+ * ({@code contentKey}, {@code chunkIndex}). The owning {@link CloudBridgeResource} acts as the
+ * manifest and records how many chunks make up the content.</p>
+ */
+@DynamoDbBean
+public class CloudBridgeContentChunk {
+
+    private String contentKey;
+    private Integer chunkIndex;
+    private byte[] data;
+
+    public CloudBridgeContentChunk() {
+    }
+
+    public CloudBridgeContentChunk(String contentKey, Integer chunkIndex, byte[] data) {
+        this.contentKey = contentKey;
+        this.chunkIndex = chunkIndex;
+        this.data = data;
+    }
+
+    /**
+     * The partition key: identifies the content all chunks belong to.
+     *
+     * @return the content key.
+     */
+    @DynamoDbPartitionKey
+    public String getContentKey() {
+        return contentKey;
+    }
+
+    public void setContentKey(String contentKey) {
+        this.contentKey = contentKey;
+    }
+
+    /**
+     * The sort key: the zero-based position of this chunk within the content.
+     *
+     * @return the chunk index.
+     */
+    @DynamoDbSortKey
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public void setChunkIndex(Integer chunkIndex) {
+        this.chunkIndex = chunkIndex;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+}
@@ -1,9 +1,16 @@
 package com.mnnc1010.cloudbridge.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondarySortKey;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 
 /**
  * Represents a file resource in the CloudBridge Platform.
@@ -15,11 +22,27 @@ import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbParti
  *   <li>fileOwner: The owner or uploader of the file.</li>
  * </ul>
  * These fields will be returned in the JSON response so that your Angular UI can display them.</p>
+ *
+ * <p>{@code insertedAt} and {@code modifiedAt} hold the same instants as {@code dateInserted} and
+ * {@code dateModified} as epoch milliseconds, which sort and range-compare correctly. Resource
+ * queries are served from indexes on them: MongoDB compound indexes led by owner or type, and
+ * DynamoDB global secondary indexes keyed by owner, type or insertion day.</p>
  */
 @Document(collection = "resources")  // For MongoDB mapping.
+@CompoundIndex(name = "owner_inserted", def = "{ 'fileOwner' : 1, 'insertedAt' : -1, '_id' : -1 }")
+@CompoundIndex(name = "owner_type_inserted", def = "{ 'fileOwner' : 1, 'fileType' : 1, 'insertedAt' : -1, '_id' : -1 }")
+@CompoundIndex(name = "type_inserted", def = "{ 'fileType' : 1, 'insertedAt' : -1, '_id' : -1 }")
+@CompoundIndex(name = "inserted", def = "{ 'insertedAt' : -1, '_id' : -1 }")
 @DynamoDbBean                        // For DynamoDB mapping.
 public class CloudBridgeResource {
 
+    /** DynamoDB index on {@code fileOwner}, sorted by {@code insertedAt}. */
+    public static final String OWNER_INDEX = "fileOwner-insertedAt-index";
+    /** DynamoDB index on {@code fileType}, sorted by {@code insertedAt}. */
+    public static final String TYPE_INDEX = "fileType-insertedAt-index";
+    /** DynamoDB index on {@code insertedDay}, sorted by {@code insertedAt}. */
+    public static final String DAY_INDEX = "insertedDay-insertedAt-index";
+
     @Id  // MongoDB document ID.
     private String id;
     private String fileName;
@@ -30,7 +53,16 @@ public class CloudBridgeResource {
     private String fileOwner;
     private String dateInserted;
     private String dateModified;
+    private Long insertedAt;
+    private Long modifiedAt;
     private byte[] fileContent;
+    private Integer contentChunkCount;
+    private Integer contentChunkSize;
+    private String contentRef;
+    private String contentHash;
+    private String contentCodec;
+    private String movedTo;
+    private String movedFrom;
 
     /**
      * The partition key for DynamoDB.
@@ -54,6 +86,7 @@ public class CloudBridgeResource {
         this.fileName = fileName;
     }
 
+    @DynamoDbSecondaryPartitionKey(indexNames = TYPE_INDEX)
     public String getFileType() {
         return fileType;
     }
@@ -86,6 +119,7 @@ public class CloudBridgeResource {
         this.fileSize = fileSize;
     }
 
+    @DynamoDbSecondaryPartitionKey(indexNames = OWNER_INDEX)
     public String getFileOwner() {
         return fileOwner;
     }
@@ -110,6 +144,70 @@ public class CloudBridgeResource {
         this.dateModified = dateModified;
     }
 
+    /**
+     * Gets the time the resource was inserted, as epoch milliseconds.
+     * @return the insertion time, or {@code null} for resources stored before it was recorded.
+     */
+    @DynamoDbSecondarySortKey(indexNames = {OWNER_INDEX, TYPE_INDEX, DAY_INDEX})
+    public Long getInsertedAt() {
+        return insertedAt;
+    }
+
+    public void setInsertedAt(Long insertedAt) {
+        this.insertedAt = insertedAt;
+    }
+
+    /**
+     * Gets the time the resource was last modified, as epoch milliseconds.
+     * @return the modification time, or {@code null} for resources stored before it was recorded.
+     */
+    public Long getModifiedAt() {
+        return modifiedAt;
+    }
+
+    public void setModifiedAt(Long modifiedAt) {
+        this.modifiedAt = modifiedAt;
+    }
+
+    /**
+     * Gets the UTC day the resource was inserted on (e.g. "2024-03-01"), derived from
+     * {@code insertedAt}. DynamoDB partitions date-range queries by it; it is not stored in MongoDB.
+     * @return the insertion day, or {@code null} if {@code insertedAt} is not set.
+     */
+    @DynamoDbSecondaryPartitionKey(indexNames = DAY_INDEX)
+    public String getInsertedDay() {
+        return insertedAt == null ? null : dayOf(insertedAt);
+    }
+
+    public void setInsertedDay(String insertedDay) {
+        // Derived from insertedAt.
+    }
+
+    /**
+     * Converts a {@code dateInserted}/{@code dateModified} value to epoch milliseconds.
+     *
+     * @param isoInstant an ISO-8601 instant such as "2024-03-01T10:15:30.123Z".
+     * @return the epoch milliseconds, or {@code null} if the value is missing or not an ISO-8601 instant.
+     */
+    public static Long epochMillisOf(String isoInstant) {
+        if (isoInstant == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(isoInstant.trim()).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param epochMillis an instant as epoch milliseconds.
+     * @return the UTC day of that instant, as stored in {@code insertedDay}.
+     */
+    public static String dayOf(long epochMillis) {
+        return Instant.ofEpochMilli(epochMillis).atOffset(ZoneOffset.UTC).toLocalDate().toString();
+    }
+
     /**
      * Gets the binary content of the file.
      * @return the file content as a byte array.
@@ -126,4 +224,107 @@ public class CloudBridgeResource {
         this.fileContent = fileContent;
     }
 
-}
\ No newline at end of file
+    /**
+     * Gets the number of content chunks when the file content is stored in chunks
+     * (see {@link CloudBridgeContentChunk}) rather than inline in {@code fileContent}.
+     * @return the number of chunks, or {@code null} if the content is stored inline.
+     */
+    public Integer getContentChunkCount() {
+        return contentChunkCount;
+    }
+
+    public void setContentChunkCount(Integer contentChunkCount) {
+        this.contentChunkCount = contentChunkCount;
+    }
+
+    /**
+     * Gets the size in bytes of every content chunk except possibly the last one.
+     * @return the chunk size, or {@code null} if the content is stored inline.
+     */
+    public Integer getContentChunkSize() {
+        return contentChunkSize;
+    }
+
+    public void setContentChunkSize(Integer contentChunkSize) {
+        this.contentChunkSize = contentChunkSize;
+    }
+
+    /**
+     * Gets the reference to content stored outside the resource document: the GridFS file id
+     * for MongoDB resources, or the key of shared content chunks for DynamoDB resources.
+     * @return the content reference, or {@code null} if the content is stored with the resource
+     *         (or, for DynamoDB, in chunks keyed by the resource id).
+     */
+    public String getContentRef() {
+        return contentRef;
+    }
+
+    public void setContentRef(String contentRef) {
+        this.contentRef = contentRef;
+    }
+
+    /**
+     * Gets the SHA-256 checksum of the file content, computed while it was uploaded.
+     * @return the lowercase hex checksum, or {@code null} if it was not recorded.
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Gets the name of the codec the stored content is encoded with (see
+     * {@code ContentCodec}). {@code fileContent} and content chunks hold the encoded bytes, while
+     * {@code fileSize} and {@code contentHash} always describe the original content.
+     * @return the codec name, or {@code null} for content stored before compression was introduced (stored as-is).
+     */
+    public String getContentCodec() {
+        return contentCodec;
+    }
+
+    public void setContentCodec(String contentCodec) {
+        this.contentCodec = contentCodec;
+    }
+
+    /**
+     * Gets the tier this resource has been moved to by the tier migration. A resource carrying it
+     * is a tombstone: its content is served from the new tier, a delete no longer removes it, and
+     * it is removed by the migration once the copy in the new tier has taken over.
+     * @return the store name of the new tier, or {@code null} if the resource has not been moved.
+     */
+    public String getMovedTo() {
+        return movedTo;
+    }
+
+    public void setMovedTo(String movedTo) {
+        this.movedTo = movedTo;
+    }
+
+    /**
+     * Gets the tier a copy written by the tier migration was moved from. The copy stays out of
+     * listings while it carries it; the migration clears it once the old record has become a
+     * tombstone, so a listing never shows the resource twice.
+     * @return the store name of the old tier, or {@code null} if the copy has taken over or the resource was not moved.
+     */
+    public String getMovedFrom() {
+        return movedFrom;
+    }
+
+    public void setMovedFrom(String movedFrom) {
+        this.movedFrom = movedFrom;
+    }
+
+    /**
+     * Checks whether a resource shows up in listings, queries and storage counters: it is
+     * neither the tombstone nor the unfinished copy of a move between tiers.
+     * @param resource the resource to check.
+     * @return {@code true} unless {@code movedTo} or {@code movedFrom} is set.
+     */
+    public static boolean isListed(CloudBridgeResource resource) {
+        return resource.getMovedTo() == null && resource.getMovedFrom() == null;
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.mnnc1010.cloudbridge.model;
+
+/**
+ * Metadata-only view of a {@link CloudBridgeResource}.
+ *
+ * <p>List endpoints return this summary instead of the full resource so that the binary
+ * {@code fileContent} is never read from the stores or serialized into list responses.
+ * The file bytes are served separately by the per-id content endpoint.</p>
+ */
+public class CloudBridgeResourceSummary {
+
+    /**
+     * The stored attributes that make up a summary. Used by repositories to project
+     * queries and scans down to metadata only. {@code movedTo} and {@code movedFrom} are read
+     * along so that the records of an unfinished move between tiers can be left out (see
+     * {@link CloudBridgeResource#isListed(CloudBridgeResource)}); they are not part of the
+     * summary itself.
+     */
+    public static final String[] ATTRIBUTES = {
+            "id", "fileName", "fileType", "fileStorage", "fileDescription",
+            "fileSize", "fileOwner", "dateInserted", "dateModified", "insertedAt",
+            "movedTo", "movedFrom"
+    };
+
+    private String id;
+    private String fileName;
+    private String fileType;
+    private String fileStorage;
+    private String fileDescription;
+    private Long fileSize;
+    private String fileOwner;
+    private String dateInserted;
+    private String dateModified;
+    private Long insertedAt;
+
+    /**
+     * Creates a summary from the metadata fields of the given resource.
+     *
+     * @param resource the resource to summarize; its file content is ignored.
+     * @return the metadata summary.
+     */
+    public static CloudBridgeResourceSummary from(CloudBridgeResource resource) {
+        CloudBridgeResourceSummary summary = new CloudBridgeResourceSummary();
+        summary.setId(resource.getId());
+        summary.setFileName(resource.getFileName());
+        summary.setFileType(resource.getFileType());
+        summary.setFileStorage(resource.getFileStorage());
+        summary.setFileDescription(resource.getFileDescription());
+        summary.setFileSize(resource.getFileSize());
+        summary.setFileOwner(resource.getFileOwner());
+        summary.setDateInserted(resource.getDateInserted());
+        summary.setDateModified(resource.getDateModified());
+        summary.setInsertedAt(resource.getInsertedAt());
+        return summary;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public String getFileStorage() {
+        return fileStorage;
+    }
+
+    public void setFileStorage(String fileStorage) {
+        this.fileStorage = fileStorage;
+    }
+
+    public String getFileDescription() {
+        return fileDescription;
+    }
+
+    public void setFileDescription(String fileDescription) {
+        this.fileDescription = fileDescription;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public String getFileOwner() {
+        return fileOwner;
+    }
+
+    public void setFileOwner(String fileOwner) {
+        this.fileOwner = fileOwner;
+    }
+
+    public String getDateInserted() {
+        return dateInserted;
+    }
+
+    public void setDateInserted(String dateInserted) {
+        this.dateInserted = dateInserted;
+    }
+
+    public String getDateModified() {
+        return dateModified;
+    }
+
+    public void setDateModified(String dateModified) {
+        this.dateModified = dateModified;
+    }
+
+    /**
+     * @return the insertion time as epoch milliseconds, or {@code null} if it was not recorded.
+     */
+    public Long getInsertedAt() {
+        return insertedAt;
+    }
+
+    public void setInsertedAt(Long insertedAt) {
+        this.insertedAt = insertedAt;
+    }
+}
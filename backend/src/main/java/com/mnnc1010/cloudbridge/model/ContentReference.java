@@ -0,0 +1,85 @@
+package com.mnnc1010.cloudbridge.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Shared file content stored once in MongoDB GridFS and referenced by every resource with the
+ * same bytes.
+ *
+ * <p>The document id is the SHA-256 hash of the content, so each distinct content is stored at
+ * most once. {@code refCount} counts the resources that point to it; the GridFS file is deleted
+ * when the count drops to zero. {@code codec} is the codec the GridFS file is encoded with, which
+ * every resource attaching to the content takes over.</p>
+ */
+@Document(collection = "content_refs")
+public class ContentReference {
+
+    @Id
+    private String hash;
+    private String gridFsId;
+    private Long size;
+    private String codec;
+    private Long refCount;
+    private String dateCreated;
+
+    public ContentReference() {
+    }
+
+    public ContentReference(String hash, String gridFsId, Long size, String codec, Long refCount, String dateCreated) {
+        this.hash = hash;
+        this.gridFsId = gridFsId;
+        this.size = size;
+        this.codec = codec;
+        this.refCount = refCount;
+        this.dateCreated = dateCreated;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getGridFsId() {
+        return gridFsId;
+    }
+
+    public void setGridFsId(String gridFsId) {
+        this.gridFsId = gridFsId;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    public Long getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Long refCount) {
+        this.refCount = refCount;
+    }
+
+    public String getDateCreated() {
+        return dateCreated;
+    }
+
+    public void setDateCreated(String dateCreated) {
+        this.dateCreated = dateCreated;
+    }
+}
@@ -0,0 +1,115 @@
+package com.mnnc1010.cloudbridge.model;
+
+/**
+ * An upload accepted by the write-behind ingest queue.
+ *
+ * <p>{@code status} is one of {@code QUEUED} (spooled, waiting to be stored), {@code STORING}
+ * (being written to its store), {@code STORED} or {@code FAILED} (every attempt failed;
+ * {@code lastError} explains the last one). The job id is also the id of the resource it
+ * creates. Times are epoch milliseconds.</p>
+ */
+public class IngestJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String STORING = "STORING";
+    public static final String STORED = "STORED";
+    public static final String FAILED = "FAILED";
+
+    private String id;
+    private String status;
+    private String fileStorage;
+    private int attempts;
+    private String lastError;
+    private long submittedAt;
+    private long updatedAt;
+    private CloudBridgeResource resource;
+
+    public IngestJob() {
+    }
+
+    public IngestJob(CloudBridgeResource resource, long submittedAt) {
+        this.id = resource.getId();
+        this.status = QUEUED;
+        this.fileStorage = resource.getFileStorage();
+        this.submittedAt = submittedAt;
+        this.updatedAt = submittedAt;
+        this.resource = resource;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * @return the store the upload is written to.
+     */
+    public String getFileStorage() {
+        return fileStorage;
+    }
+
+    public void setFileStorage(String fileStorage) {
+        this.fileStorage = fileStorage;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(long submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * @return the metadata of the resource to create; {@code fileContent} is always {@code null}.
+     */
+    public CloudBridgeResource getResource() {
+        return resource;
+    }
+
+    public void setResource(CloudBridgeResource resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * @return {@code true} while the job still holds spooled content and a place in the queue.
+     */
+    public boolean isPending() {
+        return QUEUED.equals(status) || STORING.equals(status);
+    }
+}
@@ -0,0 +1,108 @@
+package com.mnnc1010.cloudbridge.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * The content reads of one resource within one access window, kept in MongoDB for the tier
+ * migration.
+ *
+ * <p>There is one document per resource and window ({@code resourceId|windowStart}), so a window
+ * of reads is counted with {@code $inc} upserts and old windows expire on their own through the
+ * TTL index on {@code expireAt}. {@code store} and {@code fileSize} are those of the last read,
+ * which is what the promotion candidates are picked by. Times are epoch milliseconds.</p>
+ */
+@Document(collection = "resource_access")
+@CompoundIndex(name = "store_window_hits", def = "{ 'store' : 1, 'windowStart' : 1, 'hits' : -1 }")
+public class ResourceAccess {
+
+    @Id
+    private String key;
+    @Indexed
+    private String resourceId;
+    private String store;
+    private Long fileSize;
+    private long windowStart;
+    private long hits;
+    private long lastAccessedAt;
+    @Indexed(expireAfterSeconds = 0)
+    private Date expireAt;
+
+    public ResourceAccess() {
+    }
+
+    /**
+     * @return the document key of a resource's reads in the window starting at {@code windowStart}.
+     */
+    public static String keyOf(String resourceId, long windowStart) {
+        return resourceId + "|" + windowStart;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+
+    public void setResourceId(String resourceId) {
+        this.resourceId = resourceId;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(long windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getLastAccessedAt() {
+        return lastAccessedAt;
+    }
+
+    public void setLastAccessedAt(long lastAccessedAt) {
+        this.lastAccessedAt = lastAccessedAt;
+    }
+
+    public Date getExpireAt() {
+        return expireAt;
+    }
+
+    public void setExpireAt(Date expireAt) {
+        this.expireAt = expireAt;
+    }
+}
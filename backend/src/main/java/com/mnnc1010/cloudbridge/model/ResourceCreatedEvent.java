@@ -0,0 +1,27 @@
+package com.mnnc1010.cloudbridge.model;
+
+/**
+ * Application event published by a store once a new resource has been written.
+ *
+ * <p>Carries the metadata only; the content stays in the store.</p>
+ */
+public class ResourceCreatedEvent {
+
+    private final CloudBridgeResourceSummary resource;
+
+    public ResourceCreatedEvent(CloudBridgeResourceSummary resource) {
+        this.resource = resource;
+    }
+
+    /**
+     * @param resource the resource that has been written.
+     * @return the event for its metadata.
+     */
+    public static ResourceCreatedEvent of(CloudBridgeResource resource) {
+        return new ResourceCreatedEvent(CloudBridgeResourceSummary.from(resource));
+    }
+
+    public CloudBridgeResourceSummary getResource() {
+        return resource;
+    }
+}
@@ -0,0 +1,96 @@
+package com.mnnc1010.cloudbridge.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Continuation state for paginated resource listings.
+ *
+ * <p>The cursor remembers, per store, the position of the last resource that was handed out
+ * (a MongoDB keyset of {@code dateInserted} and {@code id}, or the DynamoDB key to pass as
+ * {@code ExclusiveStartKey}) and which stores have been read to the end. Clients only ever
+ * see the encoded, URL-safe token produced by {@link #encode()}.</p>
+ */
+public class ResourceCursor {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Map<String, String> positions = new HashMap<>();
+    private Set<String> exhausted = new HashSet<>();
+
+    /**
+     * Decodes a continuation token produced by {@link #encode()}.
+     *
+     * @param token the token, or {@code null}/blank to start from the beginning.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static ResourceCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return new ResourceCursor();
+        }
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token);
+            return MAPPER.readValue(json, ResourceCursor.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL-safe token.
+     *
+     * @return the continuation token.
+     */
+    public String encode() {
+        try {
+            byte[] json = MAPPER.writeValueAsString(this).getBytes(StandardCharsets.UTF_8);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to encode cursor.", e);
+        }
+    }
+
+    /**
+     * @param store the store name.
+     * @return the position of the last resource read from the store, or {@code null} to start at the beginning.
+     */
+    public String positionOf(String store) {
+        return positions.get(store);
+    }
+
+    public void advance(String store, String position) {
+        positions.put(store, position);
+    }
+
+    public boolean isExhausted(String store) {
+        return exhausted.contains(store);
+    }
+
+    public void markExhausted(String store) {
+        exhausted.add(store);
+    }
+
+    public Map<String, String> getPositions() {
+        return positions;
+    }
+
+    public void setPositions(Map<String, String> positions) {
+        this.positions = positions;
+    }
+
+    public Set<String> getExhausted() {
+        return exhausted;
+    }
+
+    public void setExhausted(Set<String> exhausted) {
+        this.exhausted = exhausted;
+    }
+}
@@ -0,0 +1,121 @@
+package com.mnnc1010.cloudbridge.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * The journal entry of one resource being moved between storage tiers.
+ *
+ * <p>The document id is the resource id, so a resource is only ever in one migration.
+ * {@code state} is one of {@code COPYING} (the copy in {@code toStore} is being written),
+ * {@code SWITCHING} (the copy is complete and the old record is being marked as moved) or
+ * {@code SWITCHED} (the copy has taken over). A {@code SWITCHED} entry keeps the old record in
+ * {@code source} until its content is released after {@code releaseAfter}; {@code detached} tells
+ * whether the old record has already been removed from {@code fromStore}. Times are epoch
+ * milliseconds.</p>
+ *
+ * <p>After a crash, {@code COPYING} entries are rolled back by deleting the partial copy and
+ * {@code SWITCHING} entries are switched again; both steps are idempotent.</p>
+ */
+@Document(collection = "resource_migrations")
+public class ResourceMigration {
+
+    public static final String COPYING = "COPYING";
+    public static final String SWITCHING = "SWITCHING";
+    public static final String SWITCHED = "SWITCHED";
+
+    @Id
+    private String id;
+    private String fromStore;
+    private String toStore;
+    private String state;
+    private long startedAt;
+    private long updatedAt;
+    private Long releaseAfter;
+    private boolean detached;
+    private CloudBridgeResource source;
+
+    public ResourceMigration() {
+    }
+
+    public ResourceMigration(String id, String fromStore, String toStore, long startedAt) {
+        this.id = id;
+        this.fromStore = fromStore;
+        this.toStore = toStore;
+        this.state = COPYING;
+        this.startedAt = startedAt;
+        this.updatedAt = startedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getFromStore() {
+        return fromStore;
+    }
+
+    public void setFromStore(String fromStore) {
+        this.fromStore = fromStore;
+    }
+
+    public String getToStore() {
+        return toStore;
+    }
+
+    public void setToStore(String toStore) {
+        this.toStore = toStore;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public Long getReleaseAfter() {
+        return releaseAfter;
+    }
+
+    public void setReleaseAfter(Long releaseAfter) {
+        this.releaseAfter = releaseAfter;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public void setDetached(boolean detached) {
+        this.detached = detached;
+    }
+
+    public CloudBridgeResource getSource() {
+        return source;
+    }
+
+    public void setSource(CloudBridgeResource source) {
+        this.source = source;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mnnc1010.cloudbridge.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A single page of resource summaries returned by the paginated list endpoints.
+ *
+ * <p>{@code nextCursor} is an opaque continuation token. Pass it back as the {@code cursor}
+ * request parameter to fetch the following page; it is {@code null} once every store has
+ * been read to the end.</p>
+ *
+ * <p>{@code partial} maps each store name to {@code true} when that store could not be read in
+ * time (or failed) and its resources are missing from this page. Such a store is retried on the
+ * next page.</p>
+ */
+public class ResourcePage {
+
+    private List<CloudBridgeResourceSummary> items;
+    private String nextCursor;
+    private Map<String, Boolean> partial;
+
+    public ResourcePage() {
+    }
+
+    public ResourcePage(List<CloudBridgeResourceSummary> items, String nextCursor, Map<String, Boolean> partial) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.partial = partial;
+    }
+
+    public List<CloudBridgeResourceSummary> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CloudBridgeResourceSummary> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Map<String, Boolean> getPartial() {
+        return partial;
+    }
+
+    public void setPartial(Map<String, Boolean> partial) {
+        this.partial = partial;
+    }
+}
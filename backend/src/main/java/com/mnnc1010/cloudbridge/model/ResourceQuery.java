@@ -0,0 +1,82 @@
+package com.mnnc1010.cloudbridge.model;
+
+/**
+ * Filters of a resource query. Every filter is optional; a resource matches when it matches all
+ * filters that are set.
+ *
+ * <p>{@code insertedFrom} (inclusive) and {@code insertedTo} (exclusive) bound {@code insertedAt}
+ * in epoch milliseconds. {@code fileStorage} selects which stores are queried at all.</p>
+ */
+public class ResourceQuery {
+
+    private String fileOwner;
+    private String fileType;
+    private String fileStorage;
+    private Long insertedFrom;
+    private Long insertedTo;
+
+    public ResourceQuery() {
+    }
+
+    public ResourceQuery(String fileOwner, String fileType, String fileStorage, Long insertedFrom, Long insertedTo) {
+        this.fileOwner = fileOwner;
+        this.fileType = fileType;
+        this.fileStorage = fileStorage;
+        this.insertedFrom = insertedFrom;
+        this.insertedTo = insertedTo;
+    }
+
+    public String getFileOwner() {
+        return fileOwner;
+    }
+
+    public void setFileOwner(String fileOwner) {
+        this.fileOwner = fileOwner;
+    }
+
+    public String getFileType() {
+        return fileType;
+    }
+
+    public void setFileType(String fileType) {
+        this.fileType = fileType;
+    }
+
+    public String getFileStorage() {
+        return fileStorage;
+    }
+
+    public void setFileStorage(String fileStorage) {
+        this.fileStorage = fileStorage;
+    }
+
+    public Long getInsertedFrom() {
+        return insertedFrom;
+    }
+
+    public void setInsertedFrom(Long insertedFrom) {
+        this.insertedFrom = insertedFrom;
+    }
+
+    public Long getInsertedTo() {
+        return insertedTo;
+    }
+
+    public void setInsertedTo(Long insertedTo) {
+        this.insertedTo = insertedTo;
+    }
+
+    /**
+     * @return the inclusive lower bound of {@code insertedAt}; 0 if none was given.
+     */
+    public long insertedFromOrMin() {
+        return insertedFrom == null ? 0L : insertedFrom;
+    }
+
+    /**
+     * @return the exclusive upper bound of {@code insertedAt}; {@link Long#MAX_VALUE} if none was given.
+     */
+    public long insertedToOrMax() {
+        return insertedTo == null ? Long.MAX_VALUE : insertedTo;
+    }
+}
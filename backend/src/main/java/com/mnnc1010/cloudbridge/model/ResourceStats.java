@@ -0,0 +1,181 @@
+package com.mnnc1010.cloudbridge.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Materialized storage counters for one value of one dimension, e.g. all resources of owner
+ * {@code alice} or all resources of type {@code application/pdf}.
+ *
+ * <p>Every store keeps one counter per {@code fileOwner}, {@code fileType} and {@code fileStorage}
+ * value it holds, keyed {@code dimension|value}, and updates it atomically on every create and
+ * delete. {@code count} is the number of resources, {@code totalBytes} the sum of their
+ * {@code fileSize} and {@code histogram} the number of resources per size bucket (see
+ * {@link #BUCKETS}). Resources without an owner or type are counted under {@link #UNKNOWN}.</p>
+ */
+@Document(collection = "resource_stats")
+public class ResourceStats {
+
+    public static final String OWNER = "fileOwner";
+    public static final String TYPE = "fileType";
+    public static final String STORAGE = "fileStorage";
+
+    /**
+     * The dimensions every resource is counted under.
+     */
+    public static final String[] DIMENSIONS = {OWNER, TYPE, STORAGE};
+
+    /**
+     * The value counted for a resource without an owner or type.
+     */
+    public static final String UNKNOWN = "unknown";
+
+    /**
+     * Histogram bucket names; a resource falls into the first bucket whose bound exceeds its size.
+     */
+    public static final String[] BUCKETS = {"under1KB", "under64KB", "under1MB", "under16MB", "under256MB", "over256MB"};
+
+    private static final long[] BUCKET_BOUNDS = {1024L, 64L * 1024, 1024L * 1024, 16L * 1024 * 1024, 256L * 1024 * 1024};
+
+    @Id
+    private String key;
+    private String dimension;
+    private String value;
+    private long count;
+    private long totalBytes;
+    private Map<String, Long> histogram = new LinkedHashMap<>();
+
+    public ResourceStats() {
+    }
+
+    public ResourceStats(String dimension, String value) {
+        this.key = keyOf(dimension, value);
+        this.dimension = dimension;
+        this.value = value;
+    }
+
+    /**
+     * @return the key of the counter of a dimension value.
+     */
+    public static String keyOf(String dimension, String value) {
+        return dimension + "|" + value;
+    }
+
+    /**
+     * @param size a file size in bytes, or {@code null} if unknown.
+     * @return the name of the histogram bucket the size falls into.
+     */
+    public static String bucketOf(Long size) {
+        long bytes = size == null ? 0 : size;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            if (bytes < BUCKET_BOUNDS[i]) {
+                return BUCKETS[i];
+            }
+        }
+        return BUCKETS[BUCKETS.length - 1];
+    }
+
+    /**
+     * Adds a resource to (or, with a negative sign, removes it from) the counters it belongs to.
+     *
+     * @param stats    the counters, keyed by {@link #keyOf(String, String)}; missing ones are created.
+     * @param store    the store holding the resource, counted as its {@code fileStorage}.
+     * @param resource the resource.
+     * @param sign     {@code 1} for a created resource, {@code -1} for a deleted one.
+     */
+    public static void add(Map<String, ResourceStats> stats, String store, CloudBridgeResource resource, int sign) {
+        String[] values = {resource.getFileOwner(), resource.getFileType(), store};
+        for (int i = 0; i < DIMENSIONS.length; i++) {
+            String dimension = DIMENSIONS[i];
+            String value = values[i] == null || values[i].isBlank() ? UNKNOWN : values[i];
+            stats.computeIfAbsent(keyOf(dimension, value), key -> new ResourceStats(dimension, value))
+                    .add(resource.getFileSize(), sign);
+        }
+    }
+
+    /**
+     * Sums the changes a batch of creates or deletes makes to the counters, one entry per counter.
+     *
+     * @param store     the store holding the resources.
+     * @param resources the resources created or deleted.
+     * @param sign      {@code 1} for created resources, {@code -1} for deleted ones.
+     * @return the changes, keyed by {@link #keyOf(String, String)}.
+     */
+    public static Map<String, ResourceStats> deltasOf(String store, Collection<CloudBridgeResource> resources, int sign) {
+        Map<String, ResourceStats> deltas = new LinkedHashMap<>();
+        for (CloudBridgeResource resource : resources) {
+            add(deltas, store, resource, sign);
+        }
+        return deltas;
+    }
+
+    /**
+     * Adds another counter for the same dimension value, e.g. the one of another store.
+     */
+    public void merge(ResourceStats other) {
+        count += other.count;
+        totalBytes += other.totalBytes;
+        other.histogram.forEach((bucket, n) -> histogram.merge(bucket, n, Long::sum));
+    }
+
+    private void add(Long size, int sign) {
+        count += sign;
+        totalBytes += sign * (size == null ? 0 : size);
+        histogram.merge(bucketOf(size), (long) sign, Long::sum);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * @return the number of resources per size bucket; buckets without resources may be missing.
+     */
+    public Map<String, Long> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(Map<String, Long> histogram) {
+        this.histogram = histogram;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link CloudBridgeDynamoResourceRepository}.
+ *
+ * <p>
+ * This class uses the DynamoDB Enhanced Async Client on top of a {@link DynamoDbAsyncClient}.
+ * Every method returns as soon as the request is sent and completes its future from the HTTP
+ * client's event loop, so no thread is held while DynamoDB answers.
+ * </p>
+ */
+public class CloudBridgeDynamoAsyncResourceRepository {
+
+    private final DynamoDbAsyncTable<CloudBridgeResource> resourceTable;
+
+    /**
+     * Constructor that initializes the DynamoDB Enhanced Async Client and maps the table.
+     *
+     * @param dynamoDbAsyncClient The low-level DynamoDbAsyncClient instance.
+     * @param tableName           The name of the DynamoDB table.
+     */
+    public CloudBridgeDynamoAsyncResourceRepository(DynamoDbAsyncClient dynamoDbAsyncClient, String tableName) {
+        DynamoDbEnhancedAsyncClient enhancedClient = DynamoDbEnhancedAsyncClient.builder()
+                .dynamoDbClient(dynamoDbAsyncClient)
+                .build();
+        this.resourceTable = enhancedClient.table(tableName, DynamoDbTableSchemas.RESOURCE);
+    }
+
+    /**
+     * Retrieves up to {@code limit} CloudBridgeResource items, without their binary content,
+     * that follow the given item in scan order.
+     *
+     * @param exclusiveStartId the id of the last item already read, or {@code null} to start at the beginning.
+     * @param limit            the maximum number of items to return.
+     * @return a future of the next items in scan order with {@code fileContent} left {@code null}.
+     * @see CloudBridgeDynamoResourceRepository#findMetadataPage(String, int)
+     */
+    public CompletableFuture<List<CloudBridgeResource>> findMetadataPage(String exclusiveStartId, int limit) {
+        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder()
+                .limit(limit)
+                .filterExpression(Expression.builder().expression(CloudBridgeDynamoResourceRepository.LISTED).build())
+                .attributesToProject(CloudBridgeResourceSummary.ATTRIBUTES);
+        if (exclusiveStartId != null) {
+            request.exclusiveStartKey(Map.of("id", AttributeValue.fromS(exclusiveStartId)));
+        }
+        // The publisher delivers items one at a time and stops requesting pages once the limit is reached.
+        List<CloudBridgeResource> items = new ArrayList<>(limit);
+        return resourceTable.scan(request.build())
+                .items()
+                .limit(limit)
+                .subscribe(items::add)
+                .thenApply(done -> items);
+    }
+
+    /**
+     * Saves the provided CloudBridgeResource item to the DynamoDB table.
+     *
+     * @param resource the CloudBridgeResource object to save.
+     * @return a future of the same CloudBridgeResource object, completed once it is saved.
+     */
+    public CompletableFuture<CloudBridgeResource> save(CloudBridgeResource resource) {
+        return resourceTable.putItem(resource).thenApply(done -> resource);
+    }
+}
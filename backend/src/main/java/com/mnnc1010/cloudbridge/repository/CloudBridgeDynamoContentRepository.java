@@ -0,0 +1,281 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeContentChunk;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository class for the content chunks of large files stored in AWS DynamoDB.
+ *
+ * <p>
+ * Chunks live in their own table keyed by ({@code contentKey}, {@code chunkIndex}). They are
+ * written with {@code BatchWriteItem} and read back with {@code BatchGetItem}, which lets a
+ * whole file be transferred in a handful of round trips instead of one request per chunk.
+ * </p>
+ *
+ * <p>
+ * Deduplicated content is keyed by its SHA-256 hash and shared by every resource with the same
+ * bytes. Next to its chunks, shared content has a reference item at chunk index
+ * {@link #REFERENCE_INDEX} that counts the resources pointing to it ({@code refCount}) and
+ * records the chunk size and codec it was written with. The count is only changed with conditional
+ * {@code UpdateItem} calls, so concurrent uploads and deletes of the same content stay
+ * consistent. When the count drops to zero the item is marked {@code deleting} first; uploads
+ * never attach to content that is being deleted.
+ * </p>
+ */
+public class CloudBridgeDynamoContentRepository {
+
+    /**
+     * The number of chunks requested per {@code BatchGetItem} call. DynamoDB allows 100 keys but
+     * caps a response at 16 MB, so the batch is kept small enough for chunks close to 400 KB.
+     */
+    public static final int READ_BATCH_SIZE = 40;
+
+    /**
+     * The chunk index of the reference item of shared content; real chunks start at 0.
+     */
+    public static final int REFERENCE_INDEX = -1;
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final DynamoDbTable<CloudBridgeContentChunk> chunkTable;
+    private final DynamoDbBatchWriter batchWriter;
+
+    /**
+     * Constructor that initializes the DynamoDB Enhanced Client and maps the content table.
+     *
+     * @param dynamoDbClient The low-level DynamoDbClient instance.
+     * @param tableName      The name of the DynamoDB content table.
+     * @param maxAttempts    How many times a batch write is attempted before unprocessed chunks are given up.
+     */
+    public CloudBridgeDynamoContentRepository(DynamoDbClient dynamoDbClient, String tableName, int maxAttempts) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.enhancedClient = DynamoDbEnhancedClient.builder()
+                .dynamoDbClient(dynamoDbClient)
+                .build();
+        this.chunkTable = enhancedClient.table(tableName, DynamoDbTableSchemas.CONTENT_CHUNK);
+        this.batchWriter = new DynamoDbBatchWriter(enhancedClient, maxAttempts);
+    }
+
+    /**
+     * Writes a group of chunks (at most {@link DynamoDbBatchWriter#MAX_BATCH_SIZE} for a single call).
+     *
+     * @param chunks the chunks to write.
+     * @throws IllegalStateException if some chunks were still unprocessed after all retries.
+     * @throws InterruptedException  if interrupted while backing off between retries.
+     */
+    public void saveAll(List<CloudBridgeContentChunk> chunks) throws InterruptedException {
+        List<CloudBridgeContentChunk> failed = batchWriter.putAll(chunkTable, CloudBridgeContentChunk.class, chunks);
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException(failed.size() + " content chunks were not written after retries.");
+        }
+    }
+
+    /**
+     * Reads a contiguous range of chunks of one content.
+     *
+     * @param contentKey the content the chunks belong to.
+     * @param fromIndex  the index of the first chunk to read (inclusive).
+     * @param toIndex    the index of the last chunk to read (exclusive).
+     * @return the chunk data in index order.
+     * @throws IllegalStateException if a chunk is missing.
+     */
+    public List<byte[]> findChunks(String contentKey, int fromIndex, int toIndex) {
+        ReadBatch.Builder<CloudBridgeContentChunk> batch = ReadBatch.builder(CloudBridgeContentChunk.class)
+                .mappedTableResource(chunkTable);
+        for (int index = fromIndex; index < toIndex; index++) {
+            batch.addGetItem(chunkKey(contentKey, index));
+        }
+        // The result pages follow up on unprocessed keys automatically; chunks arrive in any order.
+        byte[][] ordered = new byte[toIndex - fromIndex][];
+        enhancedClient.batchGetItem(BatchGetItemEnhancedRequest.builder().readBatches(batch.build()).build())
+                .resultsForTable(chunkTable)
+                .forEach(chunk -> ordered[chunk.getChunkIndex() - fromIndex] = chunk.getData());
+
+        List<byte[]> chunks = new ArrayList<>(ordered.length);
+        for (int i = 0; i < ordered.length; i++) {
+            if (ordered[i] == null) {
+                throw new IllegalStateException("Content chunk " + (fromIndex + i) + " of " + contentKey + " is missing.");
+            }
+            chunks.add(ordered[i]);
+        }
+        return chunks;
+    }
+
+    /**
+     * Deletes the first {@code chunkCount} chunks of one content. Missing chunks are ignored.
+     *
+     * @param contentKey the content the chunks belong to.
+     * @param chunkCount the number of chunks to delete.
+     * @return the number of chunks that could not be deleted after all retries.
+     * @throws InterruptedException if interrupted while backing off between retries.
+     */
+    public int deleteChunks(String contentKey, int chunkCount) throws InterruptedException {
+        List<Key> keys = new ArrayList<>(chunkCount);
+        for (int index = 0; index < chunkCount; index++) {
+            keys.add(chunkKey(contentKey, index));
+        }
+        return batchWriter.deleteAll(chunkTable, CloudBridgeContentChunk.class, keys).size();
+    }
+
+    /**
+     * Adds a reference to shared content that is already stored.
+     *
+     * @param contentKey the SHA-256 hash of the content.
+     * @return the layout the content was written with, or {@code null} if the content is not
+     *         stored or is being deleted.
+     */
+    public SharedContent acquireReference(String contentKey) {
+        try {
+            Map<String, AttributeValue> item = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(referenceKey(contentKey))
+                    .updateExpression("ADD refCount :one")
+                    .conditionExpression("attribute_exists(contentKey) AND attribute_not_exists(deleting)")
+                    .expressionAttributeValues(Map.of(":one", AttributeValue.fromN("1")))
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .build()).attributes();
+            AttributeValue codec = item.get("codec");
+            return new SharedContent(Integer.parseInt(item.get("chunkSize").n()), codec == null ? null : codec.s());
+        } catch (ConditionalCheckFailedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates the reference item of newly written shared content with a count of one.
+     *
+     * @param contentKey    the SHA-256 hash of the content.
+     * @param contentLength the content length in bytes.
+     * @param chunkSize     the chunk size the content was written with.
+     * @param codec         the name of the codec each chunk is encoded with.
+     * @return {@code true} if the item was created, {@code false} if it already exists.
+     */
+    public boolean createReference(String contentKey, long contentLength, int chunkSize, String codec) {
+        Map<String, AttributeValue> item = Map.of(
+                "contentKey", AttributeValue.fromS(contentKey),
+                "chunkIndex", AttributeValue.fromN(String.valueOf(REFERENCE_INDEX)),
+                "refCount", AttributeValue.fromN("1"),
+                "contentLength", AttributeValue.fromN(String.valueOf(contentLength)),
+                "chunkSize", AttributeValue.fromN(String.valueOf(chunkSize)),
+                "codec", AttributeValue.fromS(codec),
+                "dateCreated", AttributeValue.fromS(Instant.now().toString()));
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(item)
+                    .conditionExpression("attribute_not_exists(contentKey)")
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Removes a reference to shared content, deleting the content once nothing refers to it.
+     *
+     * @param contentKey the SHA-256 hash of the content.
+     * @param chunkCount the number of chunks the content consists of.
+     * @return {@code true} if the content had a reference item, {@code false} if it is not shared.
+     * @throws InterruptedException if interrupted while deleting the chunks.
+     */
+    public boolean releaseReference(String contentKey, int chunkCount) throws InterruptedException {
+        int remaining;
+        try {
+            Map<String, AttributeValue> item = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(referenceKey(contentKey))
+                    .updateExpression("ADD refCount :minusOne")
+                    .conditionExpression("attribute_exists(contentKey)")
+                    .expressionAttributeValues(Map.of(":minusOne", AttributeValue.fromN("-1")))
+                    .returnValues(ReturnValue.UPDATED_NEW)
+                    .build()).attributes();
+            remaining = Integer.parseInt(item.get("refCount").n());
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+        if (remaining > 0) {
+            return true;
+        }
+
+        // Claim the deletion; this fails if an upload attached to the content in the meantime.
+        try {
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(referenceKey(contentKey))
+                    .updateExpression("SET deleting = :now")
+                    .conditionExpression("refCount <= :zero AND attribute_not_exists(deleting)")
+                    .expressionAttributeValues(Map.of(
+                            ":now", AttributeValue.fromS(Instant.now().toString()),
+                            ":zero", AttributeValue.fromN("0")))
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            return true;
+        }
+        int failed = deleteChunks(contentKey, chunkCount);
+        if (failed > 0) {
+            // Keep the reference item so that the content stays marked as being deleted.
+            throw new IllegalStateException(failed + " content chunks of " + contentKey + " were not deleted.");
+        }
+        dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(referenceKey(contentKey))
+                .build());
+        return true;
+    }
+
+    private static Map<String, AttributeValue> referenceKey(String contentKey) {
+        return Map.of(
+                "contentKey", AttributeValue.fromS(contentKey),
+                "chunkIndex", AttributeValue.fromN(String.valueOf(REFERENCE_INDEX)));
+    }
+
+    private static Key chunkKey(String contentKey, int chunkIndex) {
+        return Key.builder().partitionValue(contentKey).sortValue(chunkIndex).build();
+    }
+
+    /**
+     * The layout of stored shared content, as recorded in its reference item.
+     */
+    public static final class SharedContent {
+        private final int chunkSize;
+        private final String codec;
+
+        public SharedContent(int chunkSize, String codec) {
+            this.chunkSize = chunkSize;
+            this.codec = codec;
+        }
+
+        /**
+         * @return the size of the original content in each chunk, except the last one.
+         */
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        /**
+         * @return the name of the codec each chunk is encoded with, or {@code null} if the chunks are stored as-is.
+         */
+        public String getCodec() {
+            return codec;
+        }
+    }
+}
@@ -1,14 +1,33 @@
 package com.mnnc1010.cloudbridge.repository;
 
 import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.Expression;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.DeleteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.Page;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.UpdateItemEnhancedRequest;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Repository class for managing CloudBridgeResource entities in AWS DynamoDB.
@@ -17,40 +36,367 @@ import java.util.stream.Collectors;
  * This class uses the DynamoDB Enhanced Client to perform CRUD operations on a DynamoDB table.
  * It maps the CloudBridgeResource class to the table specified by the provided table name.
  * </p>
+ *
+ * <p>
+ * Filtered queries read one of three global secondary indexes, all sorted by {@code insertedAt}
+ * and newest first: {@link CloudBridgeResource#OWNER_INDEX} when an owner is given,
+ * {@link CloudBridgeResource#TYPE_INDEX} when only a type is given, and otherwise
+ * {@link CloudBridgeResource#DAY_INDEX}, one insertion day at a time. A query therefore reads the
+ * matching items (plus, for owner and type together, the owner's items of other types) instead
+ * of the whole table. Since a day-index query costs one request per day even when the days are
+ * empty, its time range may span at most {@code maxQueryDays} days.
+ * </p>
+ *
+ * <p>
+ * Paged listings and queries leave out the records of an unfinished move between tiers (see
+ * {@link CloudBridgeResource#isListed(CloudBridgeResource)}) with a filter expression.
+ * </p>
  */
 public class CloudBridgeDynamoResourceRepository {
 
+    /**
+     * The filter expression that leaves out tombstones and unfinished copies of the tier migration.
+     */
+    static final String LISTED = "attribute_not_exists(movedTo) AND attribute_not_exists(movedFrom)";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
     private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbTable<CloudBridgeResource> resourceTable;
+    private final DynamoDbParallelScanner scanner;
+    private final DynamoDbBatchWriter batchWriter;
+    private final int maxQueryDays;
 
     /**
      * Constructor that initializes the DynamoDB Enhanced Client and maps the table.
      *
      * @param dynamoDbClient The low-level DynamoDbClient instance.
      * @param tableName      The name of the DynamoDB table.
+     * @param scanner        The parallel scanner used for full-table reads of the same table.
+     * @param maxAttempts    How many times a batch write is attempted before unprocessed items are given up.
+     * @param maxQueryDays   The most insertion days a query without owner or type may span.
      */
-    public CloudBridgeDynamoResourceRepository(DynamoDbClient dynamoDbClient, String tableName) {
+    public CloudBridgeDynamoResourceRepository(DynamoDbClient dynamoDbClient, String tableName,
+                                               DynamoDbParallelScanner scanner, int maxAttempts, int maxQueryDays) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
         // Build the enhanced client using the provided low-level client.
         this.enhancedClient = DynamoDbEnhancedClient.builder()
                 .dynamoDbClient(dynamoDbClient)
                 .build();
-        // Map the CloudBridgeResource class to the DynamoDB table using the table schema.
-        this.resourceTable = enhancedClient.table(tableName, TableSchema.fromBean(CloudBridgeResource.class));
+        // Map the CloudBridgeResource class to the DynamoDB table using the static table schema.
+        this.resourceTable = enhancedClient.table(tableName, DynamoDbTableSchemas.RESOURCE);
+        this.scanner = scanner;
+        this.batchWriter = new DynamoDbBatchWriter(enhancedClient, maxAttempts);
+        this.maxQueryDays = maxQueryDays;
     }
 
     /**
      * Retrieves all CloudBridgeResource items from the DynamoDB table.
      *
      * @return a list of CloudBridgeResource objects.
+     * @see #streamAll()
      */
     public List<CloudBridgeResource> findAll() {
-        // Scan the entire table and collect the results into a list.
-        return resourceTable.scan(ScanEnhancedRequest.builder().build())
+        try (Stream<CloudBridgeResource> resources = streamAll()) {
+            return resources.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Retrieves all CloudBridgeResource items without their binary content.
+     *
+     * <p>The scan uses a {@code ProjectionExpression} limited to the summary attributes, so
+     * DynamoDB never returns {@code fileContent} and the read stays small regardless of
+     * how large the stored files are.</p>
+     *
+     * @return a list of CloudBridgeResource objects with {@code fileContent} left {@code null}.
+     * @see #streamAllMetadata()
+     */
+    public List<CloudBridgeResource> findAllMetadata() {
+        try (Stream<CloudBridgeResource> resources = streamAllMetadata()) {
+            return resources.collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Streams all CloudBridgeResource items using a parallel segmented scan.
+     *
+     * <p>The caller must close the stream, which stops the scan workers if it was not read to the end.</p>
+     *
+     * @return a stream of CloudBridgeResource objects, in no particular order.
+     */
+    public Stream<CloudBridgeResource> streamAll() {
+        return scanner.scan(null).map(resourceTable.tableSchema()::mapToItem);
+    }
+
+    /**
+     * Streams all CloudBridgeResource items without their binary content using a parallel segmented scan.
+     *
+     * <p>The caller must close the stream, which stops the scan workers if it was not read to the end.</p>
+     *
+     * @return a stream of CloudBridgeResource objects with {@code fileContent} left {@code null}, in no particular order.
+     */
+    public Stream<CloudBridgeResource> streamAllMetadata() {
+        return scanner.scan(Arrays.asList(CloudBridgeResourceSummary.ATTRIBUTES)).map(resourceTable.tableSchema()::mapToItem);
+    }
+
+    /**
+     * Retrieves up to {@code limit} CloudBridgeResource items, without their binary content,
+     * that follow the given item in scan order.
+     *
+     * <p>The id of the last item already read is passed as the scan's {@code ExclusiveStartKey},
+     * so the scan resumes right after it even when that item was in the middle of a page.
+     * Pages are fetched lazily and the scan stops as soon as {@code limit} items were read.
+     * Records of an unfinished move between tiers are filtered out on the server.</p>
+     *
+     * @param exclusiveStartId the id of the last item already read, or {@code null} to start at the beginning.
+     * @param limit            the maximum number of items to return.
+     * @return the next items in scan order with {@code fileContent} left {@code null}.
+     */
+    public List<CloudBridgeResource> findMetadataPage(String exclusiveStartId, int limit) {
+        ScanEnhancedRequest.Builder request = ScanEnhancedRequest.builder()
+                .limit(limit)
+                .filterExpression(Expression.builder().expression(LISTED).build())
+                .attributesToProject(CloudBridgeResourceSummary.ATTRIBUTES);
+        if (exclusiveStartId != null) {
+            request.exclusiveStartKey(Map.of("id", AttributeValue.fromS(exclusiveStartId)));
+        }
+        return resourceTable.scan(request.build())
                 .items()
                 .stream()
+                .limit(limit)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Retrieves up to {@code limit} CloudBridgeResource items matching a query that follow the given
+     * position, newest first by {@code insertedAt}, without their binary content.
+     *
+     * @param query           the filters; {@code fileStorage} is ignored. Without an owner or type, the
+     *                        query walks insertion days back to {@code insertedFrom}, which must be set
+     *                        and at most {@code maxQueryDays} days before {@code insertedTo} (or today).
+     * @param afterInsertedAt the {@code insertedAt} of the last item already read, or {@code null} for the first page.
+     * @param afterId         the id of the last item already read; ignored for the first page.
+     * @param limit           the maximum number of items to return.
+     * @return the matching items that come after the given position.
+     * @throws IllegalArgumentException if neither owner, type nor {@code insertedFrom} is given, or the
+     *                                  days between {@code insertedFrom} and {@code insertedTo} exceed the limit.
+     */
+    public List<CloudBridgeResource> queryMetadata(ResourceQuery query, Long afterInsertedAt, String afterId, int limit) {
+        long lower = query.insertedFromOrMin();
+        long upper = afterInsertedAt != null ? afterInsertedAt : query.insertedToOrMax() - 1;
+        List<CloudBridgeResource> results = new ArrayList<>(limit);
+        if (upper < lower) {
+            return results;
+        }
+
+        if (query.getFileOwner() != null || query.getFileType() != null) {
+            boolean byOwner = query.getFileOwner() != null;
+            String indexName = byOwner ? CloudBridgeResource.OWNER_INDEX : CloudBridgeResource.TYPE_INDEX;
+            String keyName = byOwner ? "fileOwner" : "fileType";
+            String keyValue = byOwner ? query.getFileOwner() : query.getFileType();
+            // With both filters, the owner index narrows the read and the type is filtered on the server.
+            Expression filter = byOwner && query.getFileType() != null
+                    ? Expression.builder()
+                        .expression(LISTED + " AND fileType = :fileType")
+                        .putExpressionValue(":fileType", AttributeValue.fromS(query.getFileType()))
+                        .build()
+                    : Expression.builder().expression(LISTED).build();
+            queryIndex(indexName, keyName, keyValue, lower, upper, startKey(keyName, keyValue, afterInsertedAt, afterId),
+                    filter, limit, results);
+            return results;
+        }
+
+        if (query.getInsertedFrom() == null) {
+            throw new IllegalArgumentException("insertedFrom is required when neither fileOwner nor fileType is given.");
+        }
+        LocalDate firstDay = LocalDate.parse(CloudBridgeResource.dayOf(lower));
+        LocalDate today = LocalDate.parse(CloudBridgeResource.dayOf(System.currentTimeMillis()));
+        LocalDate lastDay = LocalDate.parse(CloudBridgeResource.dayOf(query.insertedToOrMax() - 1));
+        if (lastDay.isAfter(today)) {
+            lastDay = today;
+        }
+        if (ChronoUnit.DAYS.between(firstDay, lastDay) >= maxQueryDays) {
+            throw new IllegalArgumentException("Without fileOwner or fileType, insertedFrom and insertedTo may span at most "
+                    + maxQueryDays + " days.");
+        }
+        LocalDate day = LocalDate.parse(CloudBridgeResource.dayOf(upper));
+        if (day.isAfter(today)) {
+            day = today;
+        }
+        for (; !day.isBefore(firstDay) && results.size() < limit; day = day.minusDays(1)) {
+            String dayKey = day.toString();
+            // The start key only applies to the day the previous page ended on.
+            Map<String, AttributeValue> start = afterInsertedAt != null && dayKey.equals(CloudBridgeResource.dayOf(afterInsertedAt))
+                    ? startKey("insertedDay", dayKey, afterInsertedAt, afterId)
+                    : null;
+            queryIndex(CloudBridgeResource.DAY_INDEX, "insertedDay", dayKey, lower, upper, start,
+                    Expression.builder().expression(LISTED).build(), limit, results);
+        }
+        return results;
+    }
+
+    /**
+     * Reads one index partition newest first, adding items to {@code results} until it holds
+     * {@code limit} items or the partition has no more matches.
+     */
+    private void queryIndex(String indexName, String keyName, String keyValue, long lower, long upper,
+                            Map<String, AttributeValue> exclusiveStartKey, Expression filter, int limit,
+                            List<CloudBridgeResource> results) {
+        QueryEnhancedRequest.Builder request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.sortBetween(
+                        Key.builder().partitionValue(keyValue).sortValue(lower).build(),
+                        Key.builder().partitionValue(keyValue).sortValue(upper).build()))
+                .scanIndexForward(false)
+                .limit(limit)
+                .attributesToProject(CloudBridgeResourceSummary.ATTRIBUTES);
+        if (exclusiveStartKey != null) {
+            request.exclusiveStartKey(exclusiveStartKey);
+        }
+        request.filterExpression(filter);
+        for (Page<CloudBridgeResource> page : resourceTable.index(indexName).query(request.build())) {
+            for (CloudBridgeResource item : page.items()) {
+                results.add(item);
+                if (results.size() == limit) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the {@code ExclusiveStartKey} of an index query: the table key plus the index key.
+     */
+    private static Map<String, AttributeValue> startKey(String keyName, String keyValue, Long afterInsertedAt, String afterId) {
+        if (afterInsertedAt == null) {
+            return null;
+        }
+        Map<String, AttributeValue> key = new HashMap<>();
+        key.put("id", AttributeValue.fromS(afterId));
+        key.put(keyName, AttributeValue.fromS(keyValue));
+        key.put("insertedAt", AttributeValue.fromN(String.valueOf(afterInsertedAt)));
+        return key;
+    }
+
+    /**
+     * Sets the epoch date fields of an existing item, leaving all other attributes untouched.
+     *
+     * @param id         the partition key of the item.
+     * @param insertedAt the insertion time as epoch milliseconds.
+     * @param modifiedAt the modification time as epoch milliseconds, or {@code null} to leave it unset.
+     * @return {@code true} if the item was updated, {@code false} if it no longer exists.
+     */
+    public boolean setDateFields(String id, long insertedAt, Long modifiedAt) {
+        CloudBridgeResource update = new CloudBridgeResource();
+        update.setId(id);
+        update.setInsertedAt(insertedAt);
+        update.setModifiedAt(modifiedAt);
+        try {
+            resourceTable.updateItem(UpdateItemEnhancedRequest.builder(CloudBridgeResource.class)
+                    .item(update)
+                    .ignoreNulls(true)
+                    .conditionExpression(Expression.builder().expression("attribute_exists(id)").build())
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Retrieves a single CloudBridgeResource item, including its content, by id.
+     *
+     * @param id the partition key of the item.
+     * @return the matching resource, or {@code null} if no item exists with that id.
+     */
+    public CloudBridgeResource findById(String id) {
+        return resourceTable.getItem(Key.builder().partitionValue(id).build());
+    }
+
+    /**
+     * Deletes a single CloudBridgeResource item by id, unless the tier migration has moved it.
+     *
+     * <p>An item carrying {@code movedTo} is only a tombstone of a resource that now lives in
+     * another tier; it is left for the migration to remove (see {@link #deleteMoved(String)}).</p>
+     *
+     * @param id the partition key of the item.
+     * @return the deleted resource, or {@code null} if no item existed with that id or it has been moved.
+     */
+    public CloudBridgeResource deleteById(String id) {
+        return deleteIf(id, "attribute_not_exists(movedTo)");
+    }
+
+    /**
+     * Deletes the tombstone of a resource the tier migration has moved to another tier.
+     *
+     * @param id the partition key of the item.
+     * @return the deleted resource, or {@code null} if no item with that id carries {@code movedTo}.
+     */
+    public CloudBridgeResource deleteMoved(String id) {
+        return deleteIf(id, "attribute_exists(movedTo)");
+    }
+
+    private CloudBridgeResource deleteIf(String id, String condition) {
+        try {
+            return resourceTable.deleteItem(DeleteItemEnhancedRequest.builder()
+                    .key(Key.builder().partitionValue(id).build())
+                    .conditionExpression(Expression.builder().expression(condition).build())
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Marks an existing item as moved to another tier by setting its {@code movedTo} attribute.
+     *
+     * <p>The update is conditional, so it only succeeds while the item exists and has not been
+     * moved yet; an item that is already marked is left as it is.</p>
+     *
+     * @param id     the partition key of the item.
+     * @param target the store name of the tier the resource has been copied to.
+     * @return the updated item, or {@code null} if it no longer exists or was already moved.
+     */
+    public CloudBridgeResource markMoved(String id, String target) {
+        CloudBridgeResource update = new CloudBridgeResource();
+        update.setId(id);
+        update.setMovedTo(target);
+        try {
+            return resourceTable.updateItem(UpdateItemEnhancedRequest.builder(CloudBridgeResource.class)
+                    .item(update)
+                    .ignoreNulls(true)
+                    .conditionExpression(Expression.builder()
+                            .expression("attribute_exists(id) AND attribute_not_exists(movedTo)")
+                            .build())
+                    .build());
+        } catch (ConditionalCheckFailedException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Removes the {@code movedFrom} attribute of a copy written by the tier migration, so that it
+     * shows up in listings and queries.
+     *
+     * @param id the partition key of the item.
+     * @return the updated item, or {@code null} if no item with that id carries {@code movedFrom}.
+     */
+    public CloudBridgeResource clearMovedFrom(String id) {
+        try {
+            Map<String, AttributeValue> item = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(Map.of("id", AttributeValue.fromS(id)))
+                    .updateExpression("REMOVE movedFrom")
+                    .conditionExpression("attribute_exists(movedFrom)")
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .build()).attributes();
+            return resourceTable.tableSchema().mapToItem(item);
+        } catch (ConditionalCheckFailedException e) {
+            return null;
+        }
+    }
+
     /**
      * Saves the provided CloudBridgeResource item to the DynamoDB table.
      *
@@ -62,4 +408,16 @@ public class CloudBridgeDynamoResourceRepository {
         resourceTable.putItem(resource);
         return resource;
     }
+
+    /**
+     * Saves the provided CloudBridgeResource items with {@code BatchWriteItem} calls of up to 25 items,
+     * retrying unprocessed items with backoff.
+     *
+     * @param resources the CloudBridgeResource objects to save.
+     * @return the items that were still unprocessed after all retries; empty on success.
+     * @throws InterruptedException if interrupted while backing off between retries.
+     */
+    public List<CloudBridgeResource> saveAll(List<CloudBridgeResource> resources) throws InterruptedException {
+        return batchWriter.putAll(resourceTable, CloudBridgeResource.class, resources);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,150 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.ResourceStats;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Repository for the {@link ResourceStats} counters of the resources stored in AWS DynamoDB.
+ *
+ * <p>
+ * Counters live in their own small table keyed by {@code statKey} ({@code dimension|value}).
+ * They are only changed with {@code UpdateItem ... ADD}, which is atomic and creates the item
+ * on first use, so concurrent writes never lose an update. The histogram is kept as one number
+ * attribute per bucket ({@code hist_<bucket>}), since {@code ADD} only applies to top-level
+ * attributes that may not exist yet.
+ * </p>
+ */
+public class CloudBridgeDynamoStatsRepository {
+
+    private static final String HISTOGRAM_PREFIX = "hist_";
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+
+    /**
+     * @param dynamoDbClient The low-level DynamoDbClient instance.
+     * @param tableName      The name of the DynamoDB stats table.
+     */
+    public CloudBridgeDynamoStatsRepository(DynamoDbClient dynamoDbClient, String tableName) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+    }
+
+    /**
+     * Adds changes to the counters, one {@code UpdateItem} per counter.
+     *
+     * @param deltas the change of each counter, as built by {@link ResourceStats#deltasOf}.
+     */
+    public void increment(Collection<ResourceStats> deltas) {
+        for (ResourceStats delta : deltas) {
+            // count, value and dimension are reserved words, so every attribute goes through a name placeholder.
+            Map<String, String> names = new HashMap<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            names.put("#dimension", "dimension");
+            names.put("#value", "value");
+            names.put("#count", "count");
+            names.put("#totalBytes", "totalBytes");
+            values.put(":dimension", AttributeValue.fromS(delta.getDimension()));
+            values.put(":value", AttributeValue.fromS(delta.getValue()));
+            values.put(":count", AttributeValue.fromN(String.valueOf(delta.getCount())));
+            values.put(":totalBytes", AttributeValue.fromN(String.valueOf(delta.getTotalBytes())));
+            StringBuilder add = new StringBuilder("ADD #count :count, #totalBytes :totalBytes");
+            int i = 0;
+            for (Map.Entry<String, Long> bucket : delta.getHistogram().entrySet()) {
+                names.put("#h" + i, HISTOGRAM_PREFIX + bucket.getKey());
+                values.put(":h" + i, AttributeValue.fromN(String.valueOf(bucket.getValue())));
+                add.append(", #h").append(i).append(" :h").append(i);
+                i++;
+            }
+            dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(tableName)
+                    .key(keyOf(delta.getKey()))
+                    .updateExpression("SET #dimension = :dimension, #value = :value " + add)
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .build());
+        }
+    }
+
+    /**
+     * Reads every counter. The table holds a few items per owner and type, so this is a short scan.
+     *
+     * @return every counter.
+     */
+    public List<ResourceStats> findAll() {
+        List<ResourceStats> stats = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanResponse response = dynamoDbClient.scan(ScanRequest.builder()
+                    .tableName(tableName)
+                    .exclusiveStartKey(startKey)
+                    .build());
+            response.items().forEach(item -> stats.add(fromItem(item)));
+            startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        return stats;
+    }
+
+    /**
+     * Overwrites the counters with recounted totals and deletes counters that no longer have resources.
+     *
+     * @param totals the recounted counters.
+     */
+    public void replaceAll(Collection<ResourceStats> totals) {
+        Set<String> keys = totals.stream().map(ResourceStats::getKey).collect(Collectors.toSet());
+        for (ResourceStats stale : findAll()) {
+            if (!keys.contains(stale.getKey())) {
+                dynamoDbClient.deleteItem(DeleteItemRequest.builder()
+                        .tableName(tableName)
+                        .key(keyOf(stale.getKey()))
+                        .build());
+            }
+        }
+        for (ResourceStats total : totals) {
+            Map<String, AttributeValue> item = new HashMap<>(keyOf(total.getKey()));
+            item.put("dimension", AttributeValue.fromS(total.getDimension()));
+            item.put("value", AttributeValue.fromS(total.getValue()));
+            item.put("count", AttributeValue.fromN(String.valueOf(total.getCount())));
+            item.put("totalBytes", AttributeValue.fromN(String.valueOf(total.getTotalBytes())));
+            total.getHistogram().forEach((bucket, n) -> item.put(HISTOGRAM_PREFIX + bucket, AttributeValue.fromN(String.valueOf(n))));
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(tableName)
+                    .item(item)
+                    .build());
+        }
+    }
+
+    private static Map<String, AttributeValue> keyOf(String statKey) {
+        return Map.of("statKey", AttributeValue.fromS(statKey));
+    }
+
+    private static ResourceStats fromItem(Map<String, AttributeValue> item) {
+        ResourceStats stats = new ResourceStats(item.get("dimension").s(), item.get("value").s());
+        stats.setCount(numberOf(item.get("count")));
+        stats.setTotalBytes(numberOf(item.get("totalBytes")));
+        item.forEach((name, value) -> {
+            if (name.startsWith(HISTOGRAM_PREFIX)) {
+                stats.getHistogram().put(name.substring(HISTOGRAM_PREFIX.length()), numberOf(value));
+            }
+        });
+        return stats;
+    }
+
+    private static long numberOf(AttributeValue value) {
+        return value == null || value.n() == null ? 0 : Long.parseLong(value.n());
+    }
+}
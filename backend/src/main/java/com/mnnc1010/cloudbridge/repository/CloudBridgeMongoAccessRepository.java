@@ -0,0 +1,133 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.ResourceAccess;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository for the {@link ResourceAccess} counts the tier migration picks resources by.
+ *
+ * <p>
+ * Reads are counted with {@code $inc} upserts, one unordered bulk operation per flush, so
+ * replicas counting reads of the same resource never lose an update. Windows that are no longer
+ * needed are removed by MongoDB through the TTL index on {@code expireAt}.
+ * </p>
+ */
+@Repository
+public class CloudBridgeMongoAccessRepository {
+
+    private static final String META_COLLECTION = "resource_access_meta";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @param mongoTemplate the template used for the access documents.
+     */
+    @Autowired
+    public CloudBridgeMongoAccessRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Adds counted reads to their windows.
+     *
+     * @param deltas the reads of each resource and window; {@code hits} is the number of reads to add.
+     */
+    public void increment(Collection<ResourceAccess> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResourceAccess.class);
+        for (ResourceAccess delta : deltas) {
+            Update update = new Update()
+                    .setOnInsert("resourceId", delta.getResourceId())
+                    .setOnInsert("windowStart", delta.getWindowStart())
+                    .setOnInsert("expireAt", delta.getExpireAt())
+                    .set("store", delta.getStore())
+                    .set("fileSize", delta.getFileSize())
+                    .inc("hits", delta.getHits())
+                    .max("lastAccessedAt", delta.getLastAccessedAt());
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.getKey())), update);
+        }
+        bulk.execute();
+    }
+
+    /**
+     * Finds which of the given resources were read in or after a window.
+     *
+     * @param resourceIds the resources to check.
+     * @param windowStart the start of the earliest window that counts.
+     * @return the ids of the resources with at least one read since then.
+     */
+    public Set<String> findAccessedSince(Collection<String> resourceIds, long windowStart) {
+        Set<String> accessed = new HashSet<>();
+        if (resourceIds.isEmpty()) {
+            return accessed;
+        }
+        Query query = Query.query(Criteria.where("resourceId").in(resourceIds).and("windowStart").gte(windowStart));
+        query.fields().include("resourceId");
+        for (ResourceAccess access : mongoTemplate.find(query, ResourceAccess.class)) {
+            accessed.add(access.getResourceId());
+        }
+        return accessed;
+    }
+
+    /**
+     * Finds the most read resources of a store in the windows starting at or after a time.
+     *
+     * <p>Each window is counted on its own, so a resource read often in two windows is returned
+     * once per window.</p>
+     *
+     * @param store       the store the resources were last read from.
+     * @param windowStart the start of the earliest window that counts.
+     * @param minHits     the fewest reads a resource must have within one window.
+     * @param limit       the maximum number of results.
+     * @return the access counts, most reads first.
+     */
+    public List<ResourceAccess> findHot(String store, long windowStart, long minHits, int limit) {
+        Query query = Query.query(Criteria.where("store").is(store).and("windowStart").gte(windowStart).and("hits").gte(minHits))
+                .with(Sort.by(Sort.Direction.DESC, "hits"))
+                .limit(limit);
+        return mongoTemplate.find(query, ResourceAccess.class);
+    }
+
+    /**
+     * Records when access tracking started, unless it already has.
+     *
+     * <p>Resources without reads are only treated as cold once tracking has been running for
+     * longer than the cold threshold, since until then a missing count says nothing.</p>
+     *
+     * @param now the current time.
+     * @return the time tracking started, which is {@code now} on the first call.
+     */
+    public long startTracking(long now) {
+        Document tracking = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is("tracking")),
+                new Update().setOnInsert("since", new Date(now)),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                META_COLLECTION);
+        return tracking.getDate("since").getTime();
+    }
+
+    /**
+     * @return the number of access documents, one per resource and window.
+     */
+    public long count() {
+        return mongoTemplate.count(new Query(), ResourceAccess.class);
+    }
+}
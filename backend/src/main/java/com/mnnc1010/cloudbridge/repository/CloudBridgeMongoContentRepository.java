@@ -0,0 +1,96 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.ContentReference;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for content shared between MongoDB resources through {@link ContentReference} documents.
+ *
+ * <p>
+ * Reference counts are only changed with atomic {@code findAndModify} updates, so concurrent
+ * uploads and deletes of the same content never lose a reference. A reference document is
+ * removed only while its count is still zero, and only the caller that removed it deletes the
+ * GridFS file; an upload that attaches to the content in between keeps it alive.
+ * </p>
+ */
+@Repository
+public class CloudBridgeMongoContentRepository {
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+
+    /**
+     * @param mongoTemplate  the template used for the reference documents.
+     * @param gridFsTemplate the template used to delete unreferenced GridFS files.
+     */
+    @Autowired
+    public CloudBridgeMongoContentRepository(MongoTemplate mongoTemplate, GridFsTemplate gridFsTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+    }
+
+    /**
+     * Adds a reference to content that is already stored.
+     *
+     * @param hash the SHA-256 hash of the content.
+     * @return the updated reference, or {@code null} if the content is not stored.
+     */
+    public ContentReference acquire(String hash) {
+        return mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(hash)),
+                new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                ContentReference.class);
+    }
+
+    /**
+     * Records newly stored content with a reference count of one.
+     *
+     * @param reference the reference to insert.
+     * @return {@code true} if it was inserted, {@code false} if the same content was recorded concurrently.
+     */
+    public boolean create(ContentReference reference) {
+        try {
+            mongoTemplate.insert(reference);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Removes a reference to shared content, deleting the GridFS file once nothing refers to it.
+     *
+     * @param hash     the SHA-256 hash of the content.
+     * @param gridFsId the GridFS file the resource points to.
+     * @return {@code true} if the file is shared content, {@code false} if no reference exists for it.
+     */
+    public boolean release(String hash, String gridFsId) {
+        ContentReference released = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(hash).and("gridFsId").is(gridFsId)),
+                new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true),
+                ContentReference.class);
+        if (released == null) {
+            return false;
+        }
+        if (released.getRefCount() <= 0) {
+            long removed = mongoTemplate.remove(
+                    Query.query(Criteria.where("_id").is(hash).and("refCount").lte(0)),
+                    ContentReference.class).getDeletedCount();
+            if (removed > 0) {
+                gridFsTemplate.delete(Query.query(Criteria.where("_id").is(new ObjectId(gridFsId))));
+            }
+        }
+        return true;
+    }
+}
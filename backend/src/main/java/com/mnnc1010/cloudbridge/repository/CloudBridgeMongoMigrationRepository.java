@@ -0,0 +1,124 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.ResourceMigration;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for the {@link ResourceMigration} journal and the scan positions of the tier
+ * migration.
+ *
+ * <p>
+ * A journal entry is inserted before anything is copied, so a second migration of the same
+ * resource fails on the duplicate id instead of racing the first. The scan position of each
+ * store is kept in {@code tiering_state}, which lets a demotion scan resume where the previous
+ * run stopped, also after a restart.
+ * </p>
+ */
+@Repository
+public class CloudBridgeMongoMigrationRepository {
+
+    private static final String STATE_COLLECTION = "tiering_state";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @param mongoTemplate the template used for the journal.
+     */
+    @Autowired
+    public CloudBridgeMongoMigrationRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Starts the journal entry of a migration.
+     *
+     * @param migration the new entry, in state {@code COPYING}.
+     * @return {@code true} if it was inserted, {@code false} if the resource is already being migrated.
+     */
+    public boolean begin(ResourceMigration migration) {
+        try {
+            mongoTemplate.insert(migration);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Saves the new state of a journal entry.
+     *
+     * @param migration the entry.
+     */
+    public void update(ResourceMigration migration) {
+        mongoTemplate.save(migration);
+    }
+
+    /**
+     * Removes a finished or rolled back journal entry.
+     *
+     * @param id the resource identifier.
+     */
+    public void remove(String id) {
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(id)), ResourceMigration.class);
+    }
+
+    /**
+     * @return the entries in state {@code COPYING} or {@code SWITCHING}, oldest first.
+     */
+    public List<ResourceMigration> findUnfinished() {
+        return mongoTemplate.find(Query.query(Criteria.where("state").in(ResourceMigration.COPYING, ResourceMigration.SWITCHING))
+                .with(Sort.by("startedAt")), ResourceMigration.class);
+    }
+
+    /**
+     * Finds the {@code SWITCHED} entries with work left: an old record still to remove, or
+     * content whose grace period has passed.
+     *
+     * @param now   the current time.
+     * @param limit the maximum number of results.
+     * @return the entries, oldest first.
+     */
+    public List<ResourceMigration> findPurgeable(long now, int limit) {
+        Criteria purgeable = Criteria.where("state").is(ResourceMigration.SWITCHED)
+                .orOperator(Criteria.where("detached").is(false), Criteria.where("releaseAfter").lte(now));
+        return mongoTemplate.find(Query.query(purgeable)
+                .with(Sort.by("startedAt"))
+                .limit(limit), ResourceMigration.class);
+    }
+
+    /**
+     * @param state a journal state.
+     * @return the number of entries in that state.
+     */
+    public long count(String state) {
+        return mongoTemplate.count(Query.query(Criteria.where("state").is(state)), ResourceMigration.class);
+    }
+
+    /**
+     * @param store the store being scanned.
+     * @return the position the last scan of the store stopped at, or {@code null} to start at the beginning.
+     */
+    public String loadPosition(String store) {
+        Document state = mongoTemplate.findById(store, Document.class, STATE_COLLECTION);
+        return state == null ? null : state.getString("position");
+    }
+
+    /**
+     * @param store    the store being scanned.
+     * @param position the position to resume at, or {@code null} to start over.
+     */
+    public void savePosition(String store, String position) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(store)),
+                new Update().set("position", position), STATE_COLLECTION);
+    }
+}
@@ -1,18 +1,76 @@
 package com.mnnc1010.cloudbridge.repository;
 
 import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository interface for performing CRUD operations on CloudBridgeResource entities.
  *
  * <p>This interface extends {@link MongoRepository}, which provides many out-of-the-box
  * methods such as {@code save()}, {@code findAll()}, {@code findById()}, and {@code delete()}.
  * Custom query methods can be defined here following Spring Data's naming conventions.
+ * Filtered queries live in {@link CloudBridgeMongoResourceRepositoryCustom}.
  * </p>
+ *
+ * <p>The metadata listings leave out the records of an unfinished move between tiers, those
+ * carrying {@code movedTo} or {@code movedFrom} (see
+ * {@link CloudBridgeResource#isListed(CloudBridgeResource)}).</p>
  */
 @Repository // Marks this interface as a Spring-managed bean for data access.
-public interface CloudBridgeMongoResourceRepository extends MongoRepository<CloudBridgeResource, String> {
-    // Additional custom query methods (if needed) can be defined here.
-}
\ No newline at end of file
+public interface CloudBridgeMongoResourceRepository extends MongoRepository<CloudBridgeResource, String>,
+        CloudBridgeMongoResourceRepositoryCustom {
+
+    /**
+     * Retrieves every resource without its binary content.
+     *
+     * <p>The field projection excludes {@code fileContent} on the server side, so the
+     * bytes are neither sent over the wire by MongoDB nor materialized on the heap.</p>
+     *
+     * @return all resources with {@code fileContent} left {@code null}.
+     */
+    @Query(value = "{ 'movedTo' : { '$exists' : false }, 'movedFrom' : { '$exists' : false } }", fields = "{ 'fileContent' : 0 }")
+    List<CloudBridgeResource> findAllMetadata();
+
+    /**
+     * Retrieves the first page of resources, without their binary content.
+     *
+     * @param pageable the page size and sort order; the offset should always be zero.
+     * @return the first resources in the requested order.
+     */
+    @Query(value = "{ 'movedTo' : { '$exists' : false }, 'movedFrom' : { '$exists' : false } }", fields = "{ 'fileContent' : 0 }")
+    List<CloudBridgeResource> findMetadataPage(Pageable pageable);
+
+    /**
+     * Retrieves the page of resources that follows a keyset position, sorted by
+     * {@code dateInserted} and {@code id} descending, without their binary content.
+     *
+     * <p>Resources without a {@code dateInserted} sort after every dated resource, so they
+     * are included once the dated resources run out.</p>
+     *
+     * @param dateInserted the {@code dateInserted} of the last resource already read.
+     * @param id           the id of the last resource already read.
+     * @param pageable     the page size and sort order; the offset should always be zero.
+     * @return the resources that come after the given position.
+     */
+    @Query(value = "{ '$or' : [ { 'dateInserted' : { '$lt' : ?0 } }, { 'dateInserted' : ?0, '_id' : { '$lt' : ?1 } }, { 'dateInserted' : null } ],"
+            + " 'movedTo' : { '$exists' : false }, 'movedFrom' : { '$exists' : false } }",
+            fields = "{ 'fileContent' : 0 }")
+    List<CloudBridgeResource> findMetadataPageAfter(String dateInserted, String id, Pageable pageable);
+
+    /**
+     * Retrieves the page of resources without a {@code dateInserted} that follows the given id,
+     * sorted by {@code id} descending, without their binary content.
+     *
+     * @param id       the id of the last resource already read.
+     * @param pageable the page size and sort order; the offset should always be zero.
+     * @return the undated resources that come after the given id.
+     */
+    @Query(value = "{ 'dateInserted' : null, '_id' : { '$lt' : ?0 }, 'movedTo' : { '$exists' : false }, 'movedFrom' : { '$exists' : false } }",
+            fields = "{ 'fileContent' : 0 }")
+    List<CloudBridgeResource> findUndatedMetadataPageAfter(String id, Pageable pageable);
+}
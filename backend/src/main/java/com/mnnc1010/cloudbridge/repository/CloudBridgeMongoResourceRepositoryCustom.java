@@ -0,0 +1,30 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+
+import java.util.List;
+
+/**
+ * Query methods of {@link CloudBridgeMongoResourceRepository} that are built from optional filters
+ * and therefore cannot be expressed as a single derived or annotated query.
+ */
+public interface CloudBridgeMongoResourceRepositoryCustom {
+
+    /**
+     * Retrieves the page of resources matching a query that follows a keyset position, sorted by
+     * {@code insertedAt} and {@code id} descending, without their binary content.
+     *
+     * <p>Every filter combination is served by one of the compound indexes declared on
+     * {@link CloudBridgeResource}, so the cost is proportional to the page, not the collection.
+     * Resources without {@code insertedAt} never match, nor do the records of an unfinished move
+     * between tiers.</p>
+     *
+     * @param query           the filters; {@code fileStorage} is ignored.
+     * @param afterInsertedAt the {@code insertedAt} of the last resource already read, or {@code null} for the first page.
+     * @param afterId         the id of the last resource already read; ignored for the first page.
+     * @param limit           the maximum number of resources to return.
+     * @return the matching resources that come after the given position.
+     */
+    List<CloudBridgeResource> findMetadataByQuery(ResourceQuery query, Long afterInsertedAt, String afterId, int limit);
+}
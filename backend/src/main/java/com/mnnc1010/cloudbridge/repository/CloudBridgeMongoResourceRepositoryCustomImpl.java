@@ -0,0 +1,48 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link CloudBridgeMongoResourceRepositoryCustom} implementation on top of {@link MongoTemplate};
+ * picked up by Spring Data as a fragment of {@link CloudBridgeMongoResourceRepository}.
+ */
+public class CloudBridgeMongoResourceRepositoryCustomImpl implements CloudBridgeMongoResourceRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public CloudBridgeMongoResourceRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<CloudBridgeResource> findMetadataByQuery(ResourceQuery query, Long afterInsertedAt, String afterId, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (query.getFileOwner() != null) {
+            filters.add(Criteria.where("fileOwner").is(query.getFileOwner()));
+        }
+        if (query.getFileType() != null) {
+            filters.add(Criteria.where("fileType").is(query.getFileType()));
+        }
+        filters.add(Criteria.where("insertedAt").gte(query.insertedFromOrMin()).lt(query.insertedToOrMax()));
+        filters.add(Criteria.where("movedTo").exists(false));
+        filters.add(Criteria.where("movedFrom").exists(false));
+        if (afterInsertedAt != null) {
+            filters.add(new Criteria().orOperator(
+                    Criteria.where("insertedAt").lt(afterInsertedAt),
+                    Criteria.where("insertedAt").is(afterInsertedAt).and("id").lt(afterId)));
+        }
+        Query mongoQuery = Query.query(new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "insertedAt", "id"))
+                .limit(limit);
+        mongoQuery.fields().exclude("fileContent");
+        return mongoTemplate.find(mongoQuery, CloudBridgeResource.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.ResourceStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Repository for the {@link ResourceStats} counters of the resources stored in MongoDB.
+ *
+ * <p>
+ * Counters are only changed with {@code $inc} upserts, so concurrent writes never lose an update
+ * and the first resource of a new owner or type creates its counter. All counters touched by one
+ * write go out as a single unordered bulk operation.
+ * </p>
+ */
+@Repository
+public class CloudBridgeMongoStatsRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * @param mongoTemplate the template used for the counter documents.
+     */
+    @Autowired
+    public CloudBridgeMongoStatsRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Adds changes to the counters.
+     *
+     * @param deltas the change of each counter, as built by {@link ResourceStats#deltasOf}.
+     */
+    public void increment(Collection<ResourceStats> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResourceStats.class);
+        for (ResourceStats delta : deltas) {
+            Update update = new Update()
+                    .setOnInsert("dimension", delta.getDimension())
+                    .setOnInsert("value", delta.getValue())
+                    .inc("count", delta.getCount())
+                    .inc("totalBytes", delta.getTotalBytes());
+            delta.getHistogram().forEach((bucket, n) -> update.inc("histogram." + bucket, n));
+            bulk.upsert(Query.query(Criteria.where("_id").is(delta.getKey())), update);
+        }
+        bulk.execute();
+    }
+
+    /**
+     * @return every counter.
+     */
+    public List<ResourceStats> findAll() {
+        return mongoTemplate.findAll(ResourceStats.class);
+    }
+
+    /**
+     * Overwrites the counters with recounted totals and removes counters that no longer have resources.
+     *
+     * @param totals the recounted counters.
+     */
+    public void replaceAll(Collection<ResourceStats> totals) {
+        if (!totals.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResourceStats.class);
+            for (ResourceStats total : totals) {
+                bulk.upsert(Query.query(Criteria.where("_id").is(total.getKey())), new Update()
+                        .set("dimension", total.getDimension())
+                        .set("value", total.getValue())
+                        .set("count", total.getCount())
+                        .set("totalBytes", total.getTotalBytes())
+                        .set("histogram", total.getHistogram()));
+            }
+            bulk.execute();
+        }
+        List<String> keys = totals.stream().map(ResourceStats::getKey).collect(Collectors.toList());
+        mongoTemplate.remove(Query.query(Criteria.where("_id").nin(keys)), ResourceStats.class);
+    }
+}
@@ -0,0 +1,121 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Writes items with {@code BatchWriteItem}, retrying unprocessed items with exponential backoff.
+ *
+ * <p>DynamoDB accepts at most 25 put or delete requests per {@code BatchWriteItem} call and may
+ * hand some of them back as unprocessed when the table is throttled. This helper splits the
+ * work into batches of 25 and resubmits the unprocessed part of each batch, waiting a little
+ * longer (with jitter) after every attempt.</p>
+ */
+public class DynamoDbBatchWriter {
+
+    /**
+     * The maximum number of write requests DynamoDB accepts in a single {@code BatchWriteItem} call.
+     */
+    public static final int MAX_BATCH_SIZE = 25;
+
+    private static final long BASE_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+
+    private final DynamoDbEnhancedClient enhancedClient;
+    private final int maxAttempts;
+
+    /**
+     * @param enhancedClient the client used to issue the batch writes.
+     * @param maxAttempts    how many times a batch is submitted before its unprocessed items are given up.
+     */
+    public DynamoDbBatchWriter(DynamoDbEnhancedClient enhancedClient, int maxAttempts) {
+        this.enhancedClient = enhancedClient;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    /**
+     * Puts every item into the table.
+     *
+     * @param table the target table.
+     * @param type  the item class.
+     * @param items the items to put.
+     * @return the items that were still unprocessed after the last attempt; empty on success.
+     * @throws InterruptedException if interrupted while backing off.
+     */
+    public <T> List<T> putAll(DynamoDbTable<T> table, Class<T> type, List<T> items) throws InterruptedException {
+        return writeAll(items, pending -> {
+            WriteBatch.Builder<T> batch = WriteBatch.builder(type).mappedTableResource(table);
+            pending.forEach(batch::addPutItem);
+            return submit(batch).unprocessedPutItemsForTable(table);
+        });
+    }
+
+    /**
+     * Deletes every key from the table.
+     *
+     * @param table the target table.
+     * @param type  the item class.
+     * @param keys  the keys of the items to delete.
+     * @return the keys that were still unprocessed after the last attempt; empty on success.
+     * @throws InterruptedException if interrupted while backing off.
+     */
+    public <T> List<Key> deleteAll(DynamoDbTable<T> table, Class<T> type, List<Key> keys) throws InterruptedException {
+        return writeAll(keys, pending -> {
+            WriteBatch.Builder<T> batch = WriteBatch.builder(type).mappedTableResource(table);
+            pending.forEach(batch::addDeleteItem);
+            return submit(batch).unprocessedDeleteItemsForTable(table);
+        });
+    }
+
+    /**
+     * Submits the requests in batches of {@link #MAX_BATCH_SIZE}, resubmitting the unprocessed
+     * part of each batch until it is empty or {@code maxAttempts} is reached.
+     *
+     * @param requests the put items or delete keys to write.
+     * @param batch    writes one batch and returns its unprocessed requests.
+     * @return the requests that were still unprocessed after the last attempt.
+     * @throws InterruptedException if interrupted while backing off.
+     */
+    <R> List<R> writeAll(List<R> requests, Function<List<R>, List<R>> batch) throws InterruptedException {
+        List<R> failed = new ArrayList<>();
+        for (int from = 0; from < requests.size(); from += MAX_BATCH_SIZE) {
+            List<R> pending = requests.subList(from, Math.min(requests.size(), from + MAX_BATCH_SIZE));
+            for (int attempt = 1; !pending.isEmpty(); attempt++) {
+                if (attempt > maxAttempts) {
+                    failed.addAll(pending);
+                    break;
+                }
+                backoff(attempt);
+                pending = new ArrayList<>(batch.apply(pending));
+            }
+        }
+        return failed;
+    }
+
+    private BatchWriteResult submit(WriteBatch.Builder<?> batch) {
+        return enhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                .writeBatches(batch.build())
+                .build());
+    }
+
+    /**
+     * Sleeps before a retry: nothing before the first attempt, then exponentially longer with full jitter.
+     */
+    private static void backoff(int attempt) throws InterruptedException {
+        if (attempt <= 1) {
+            return;
+        }
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << Math.min(attempt - 2, 10));
+        TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+}
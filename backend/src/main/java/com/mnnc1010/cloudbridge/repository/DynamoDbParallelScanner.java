@@ -0,0 +1,360 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Full-table reader that splits a DynamoDB scan into parallel segments.
+ *
+ * <p>Each of the {@code totalSegments} workers scans its own {@code Segment} of the table and
+ * hands the items it reads to a bounded queue, which the caller consumes as a single stream.
+ * Because the queue is bounded, a slow consumer slows the workers down instead of letting
+ * them buffer the whole table on the heap.</p>
+ *
+ * <p>Every worker paces itself to a maximum number of read capacity units per second, using the
+ * consumed capacity DynamoDB reports for each page, so a full-table read cannot burn all of the
+ * table's provisioned throughput.</p>
+ *
+ * <p>A scan only starts once the executor can take all of its segments: each segment holds one
+ * of as many permits as the executor has threads and queue slots until it ends or is cancelled.
+ * Concurrent scans beyond that wait for earlier ones to finish instead of having their segments
+ * rejected, and give up after the admission timeout.</p>
+ */
+public class DynamoDbParallelScanner {
+
+    /**
+     * DynamoDB's recommendation for choosing the number of segments is one per 2 GB of table data.
+     */
+    private static final long BYTES_PER_SEGMENT = 2L * 1024 * 1024 * 1024;
+
+    /** Marks the end of one worker's segment in the item queue. */
+    private static final Object END_OF_SEGMENT = new Object();
+
+    private final DynamoDbClient dynamoDbClient;
+    private final String tableName;
+    private final ExecutorService executor;
+    private final int configuredSegments;
+    private final int maxSegments;
+    private final int pageSize;
+    private final double readUnitsPerSecondPerSegment;
+    private final long segmentCountTtlNanos;
+    private final long admissionTimeoutMillis;
+    private final Semaphore segmentPermits;
+    private final int maxPermits;
+
+    /** The derived segment count and when it expires; refreshed by a single caller at a time. */
+    private volatile int derivedSegments;
+    private volatile long derivedSegmentsExpiry;
+
+    /**
+     * @param dynamoDbClient               the low-level client used for the scans.
+     * @param tableName                    the table to scan.
+     * @param executor                     the executor that runs the segment workers.
+     * @param configuredSegments           the number of segments, or 0 to derive it from the table size.
+     * @param maxSegments                  the upper bound for derived segment counts.
+     * @param pageSize                     the maximum number of items per scan request.
+     * @param readUnitsPerSecondPerSegment the read capacity each worker may consume per second, or 0 for no limit.
+     * @param segmentCountTtlMillis        how long a segment count derived from the table size is reused.
+     * @param admissionTimeoutMillis       how long a scan waits for the executor to take its segments.
+     */
+    public DynamoDbParallelScanner(DynamoDbClient dynamoDbClient, String tableName, ExecutorService executor,
+                                   int configuredSegments, int maxSegments, int pageSize,
+                                   double readUnitsPerSecondPerSegment, long segmentCountTtlMillis,
+                                   long admissionTimeoutMillis) {
+        this.dynamoDbClient = dynamoDbClient;
+        this.tableName = tableName;
+        this.executor = executor;
+        this.configuredSegments = configuredSegments;
+        this.maxSegments = Math.max(1, maxSegments);
+        this.pageSize = pageSize;
+        this.readUnitsPerSecondPerSegment = readUnitsPerSecondPerSegment;
+        this.segmentCountTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, segmentCountTtlMillis));
+        this.admissionTimeoutMillis = admissionTimeoutMillis;
+        this.maxPermits = capacityOf(executor);
+        this.segmentPermits = new Semaphore(maxPermits, true);
+    }
+
+    /**
+     * Returns the number of segments a full scan will use.
+     *
+     * <p>A configured count wins; otherwise the count is derived from the table size reported
+     * by {@code DescribeTable}, between 1 and the configured maximum. DynamoDB only refreshes
+     * the table size about every six hours, so the derived count is reused for the configured
+     * TTL instead of describing the table on every scan.</p>
+     *
+     * @return the number of parallel segments.
+     */
+    public int segmentCount() {
+        if (configuredSegments > 0) {
+            return configuredSegments;
+        }
+        if (derivedSegments > 0 && System.nanoTime() - derivedSegmentsExpiry < 0) {
+            return derivedSegments;
+        }
+        synchronized (this) {
+            if (derivedSegments == 0 || System.nanoTime() - derivedSegmentsExpiry >= 0) {
+                int segments = describeSegmentCount();
+                derivedSegmentsExpiry = System.nanoTime() + segmentCountTtlNanos;
+                derivedSegments = segments;
+            }
+            return derivedSegments;
+        }
+    }
+
+    private int describeSegmentCount() {
+        Long tableSizeBytes = dynamoDbClient.describeTable(DescribeTableRequest.builder().tableName(tableName).build())
+                .table()
+                .tableSizeBytes();
+        long bySize = tableSizeBytes == null ? 1 : (tableSizeBytes + BYTES_PER_SEGMENT - 1) / BYTES_PER_SEGMENT;
+        return (int) Math.max(1, Math.min(maxSegments, bySize));
+    }
+
+    /**
+     * Scans the whole table with {@link #segmentCount()} parallel workers.
+     *
+     * @param attributes the attributes to project, or {@code null} to read whole items.
+     * @return a stream over the raw items of every segment; close it to stop the workers early.
+     */
+    public Stream<Map<String, AttributeValue>> scan(Collection<String> attributes) {
+        return scan(attributes, segmentCount());
+    }
+
+    /**
+     * Scans the whole table with the given number of parallel workers.
+     *
+     * @param attributes    the attributes to project, or {@code null} to read whole items.
+     * @param totalSegments the number of segments to split the table into.
+     * @return a stream over the raw items of every segment; close it to stop the workers early.
+     * @throws IllegalArgumentException   if the executor can never run that many segments at once.
+     * @throws RejectedExecutionException if the executor did not free up enough room for the
+     *                                    segments within the admission timeout.
+     */
+    public Stream<Map<String, AttributeValue>> scan(Collection<String> attributes, int totalSegments) {
+        if (totalSegments > maxPermits) {
+            throw new IllegalArgumentException("A scan cannot use more than " + maxPermits + " segments.");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(admissionTimeoutMillis);
+        acquireSegments(totalSegments);
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(Math.max(pageSize, 1) * totalSegments);
+        List<Future<?>> workers = new ArrayList<>(totalSegments);
+        SegmentFailure failure = new SegmentFailure();
+        for (int segment = 0; segment < totalSegments; segment++) {
+            ScanRequest request = baseRequest(attributes)
+                    .segment(segment)
+                    .totalSegments(totalSegments)
+                    .build();
+            // The permit is returned once the worker ends, fails or is cancelled, even before it ran.
+            FutureTask<Void> worker = new FutureTask<>(() -> scanSegment(request, queue, failure), null) {
+                @Override
+                protected void done() {
+                    segmentPermits.release();
+                }
+            };
+            try {
+                execute(worker, deadline);
+            } catch (RejectedExecutionException e) {
+                segmentPermits.release(totalSegments - workers.size());
+                workers.forEach(started -> started.cancel(true));
+                throw e;
+            }
+            workers.add(worker);
+        }
+
+        Iterator<Map<String, AttributeValue>> items = new QueueIterator(queue, totalSegments, failure);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(items, Spliterator.NONNULL), false)
+                .onClose(() -> workers.forEach(worker -> worker.cancel(true)));
+    }
+
+    private void acquireSegments(int totalSegments) {
+        try {
+            if (!segmentPermits.tryAcquire(totalSegments, admissionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Timed out waiting for " + totalSegments + " scan workers.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for scan workers.", e);
+        }
+    }
+
+    /**
+     * Hands a worker to the executor. A permit is released as soon as a segment ends, slightly
+     * before the executor has taken back its thread, so the executor can still briefly reject
+     * a worker that a permit was granted for; such a worker is retried until the deadline.
+     */
+    private void execute(Runnable worker, long deadline) {
+        while (true) {
+            try {
+                executor.execute(worker);
+                return;
+            } catch (RejectedExecutionException e) {
+                if (executor.isShutdown() || System.nanoTime() - deadline >= 0) {
+                    throw e;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    /**
+     * Returns how many tasks the executor accepts at once: its threads plus its queue slots.
+     */
+    private static int capacityOf(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            return (int) Math.min(Integer.MAX_VALUE, (long) pool.getMaximumPoolSize() + pool.getQueue().remainingCapacity());
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private ScanRequest.Builder baseRequest(Collection<String> attributes) {
+        ScanRequest.Builder request = ScanRequest.builder()
+                .tableName(tableName)
+                .limit(pageSize)
+                .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL);
+        if (attributes != null) {
+            // Use placeholders so that attribute names never clash with DynamoDB reserved words.
+            Map<String, String> names = new HashMap<>();
+            StringBuilder projection = new StringBuilder();
+            for (String attribute : attributes) {
+                String placeholder = "#a" + names.size();
+                names.put(placeholder, attribute);
+                projection.append(projection.length() == 0 ? "" : ",").append(placeholder);
+            }
+            request.projectionExpression(projection.toString()).expressionAttributeNames(names);
+        }
+        return request;
+    }
+
+    private void scanSegment(ScanRequest request, BlockingQueue<Object> queue, SegmentFailure failure) {
+        long start = System.nanoTime();
+        double consumedUnits = 0;
+        try {
+            Map<String, AttributeValue> startKey = null;
+            do {
+                ScanResponse response = dynamoDbClient.scan(startKey == null
+                        ? request
+                        : request.toBuilder().exclusiveStartKey(startKey).build());
+                for (Map<String, AttributeValue> item : response.items()) {
+                    queue.put(item);
+                }
+                if (response.consumedCapacity() != null && response.consumedCapacity().capacityUnits() != null) {
+                    consumedUnits += response.consumedCapacity().capacityUnits();
+                }
+                throttle(start, consumedUnits);
+                startKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+            } while (startKey != null);
+        } catch (InterruptedException e) {
+            // The consumer closed the stream; stop scanning.
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            failure.set(e);
+        }
+        try {
+            queue.put(END_OF_SEGMENT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sleeps until the worker's consumed capacity is back under its per-second budget.
+     */
+    private void throttle(long start, double consumedUnits) throws InterruptedException {
+        if (readUnitsPerSecondPerSegment <= 0) {
+            return;
+        }
+        long budgetNanos = (long) (consumedUnits / readUnitsPerSecondPerSegment * TimeUnit.SECONDS.toNanos(1));
+        long aheadNanos = budgetNanos - (System.nanoTime() - start);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+
+    /**
+     * The first error raised by any segment worker.
+     */
+    private static final class SegmentFailure {
+        private volatile RuntimeException error;
+
+        private void set(RuntimeException e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+    }
+
+    /**
+     * Iterates over the item queue until every segment worker has reported its end.
+     */
+    private static final class QueueIterator implements Iterator<Map<String, AttributeValue>> {
+        private final BlockingQueue<Object> queue;
+        private final SegmentFailure failure;
+        private int openSegments;
+        private Object next;
+
+        private QueueIterator(BlockingQueue<Object> queue, int segments, SegmentFailure failure) {
+            this.queue = queue;
+            this.openSegments = segments;
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && openSegments > 0) {
+                Object taken;
+                try {
+                    taken = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for scan results.", e);
+                }
+                if (taken == END_OF_SEGMENT) {
+                    openSegments--;
+                    if (failure.error != null) {
+                        throw failure.error;
+                    }
+                } else {
+                    next = taken;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, AttributeValue> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, AttributeValue> item = (Map<String, AttributeValue>) next;
+            next = null;
+            return item;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeContentChunk;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+import java.util.List;
+
+/**
+ * Table schemas of the DynamoDB tables, written out attribute by attribute.
+ *
+ * <p>{@code TableSchema.fromBean} introspects the bean and generates accessors through
+ * {@code LambdaMetafactory} on first use, which costs a noticeable share of startup time and
+ * does not work well with ahead-of-time processing. These schemas map the same attributes and
+ * index keys as the {@code @DynamoDb*} annotations on the model classes with plain method
+ * references; keep the two in sync when an attribute is added.</p>
+ */
+public final class DynamoDbTableSchemas {
+
+    /**
+     * The schema of the resource table, shared by the blocking and non-blocking repositories.
+     */
+    public static final TableSchema<CloudBridgeResource> RESOURCE = resourceSchema();
+
+    /**
+     * The schema of the content chunk table.
+     */
+    public static final TableSchema<CloudBridgeContentChunk> CONTENT_CHUNK = contentChunkSchema();
+
+    private DynamoDbTableSchemas() {
+    }
+
+    /**
+     * Builds a new schema for {@link CloudBridgeResource}; use {@link #RESOURCE} instead of calling this.
+     *
+     * @return the schema.
+     */
+    public static TableSchema<CloudBridgeResource> resourceSchema() {
+        return StaticTableSchema.builder(CloudBridgeResource.class)
+                .newItemSupplier(CloudBridgeResource::new)
+                .addAttribute(String.class, a -> a.name("id")
+                        .getter(CloudBridgeResource::getId)
+                        .setter(CloudBridgeResource::setId)
+                        .tags(StaticAttributeTags.primaryPartitionKey()))
+                .addAttribute(String.class, a -> a.name("fileName")
+                        .getter(CloudBridgeResource::getFileName)
+                        .setter(CloudBridgeResource::setFileName))
+                .addAttribute(String.class, a -> a.name("fileType")
+                        .getter(CloudBridgeResource::getFileType)
+                        .setter(CloudBridgeResource::setFileType)
+                        .tags(StaticAttributeTags.secondaryPartitionKey(CloudBridgeResource.TYPE_INDEX)))
+                .addAttribute(String.class, a -> a.name("fileStorage")
+                        .getter(CloudBridgeResource::getFileStorage)
+                        .setter(CloudBridgeResource::setFileStorage))
+                .addAttribute(String.class, a -> a.name("fileDescription")
+                        .getter(CloudBridgeResource::getFileDescription)
+                        .setter(CloudBridgeResource::setFileDescription))
+                .addAttribute(Long.class, a -> a.name("fileSize")
+                        .getter(CloudBridgeResource::getFileSize)
+                        .setter(CloudBridgeResource::setFileSize))
+                .addAttribute(String.class, a -> a.name("fileOwner")
+                        .getter(CloudBridgeResource::getFileOwner)
+                        .setter(CloudBridgeResource::setFileOwner)
+                        .tags(StaticAttributeTags.secondaryPartitionKey(CloudBridgeResource.OWNER_INDEX)))
+                .addAttribute(String.class, a -> a.name("dateInserted")
+                        .getter(CloudBridgeResource::getDateInserted)
+                        .setter(CloudBridgeResource::setDateInserted))
+                .addAttribute(String.class, a -> a.name("dateModified")
+                        .getter(CloudBridgeResource::getDateModified)
+                        .setter(CloudBridgeResource::setDateModified))
+                .addAttribute(Long.class, a -> a.name("insertedAt")
+                        .getter(CloudBridgeResource::getInsertedAt)
+                        .setter(CloudBridgeResource::setInsertedAt)
+                        .tags(StaticAttributeTags.secondarySortKey(List.of(CloudBridgeResource.OWNER_INDEX,
+                                CloudBridgeResource.TYPE_INDEX, CloudBridgeResource.DAY_INDEX))))
+                .addAttribute(Long.class, a -> a.name("modifiedAt")
+                        .getter(CloudBridgeResource::getModifiedAt)
+                        .setter(CloudBridgeResource::setModifiedAt))
+                .addAttribute(String.class, a -> a.name("insertedDay")
+                        .getter(CloudBridgeResource::getInsertedDay)
+                        .setter(CloudBridgeResource::setInsertedDay)
+                        .tags(StaticAttributeTags.secondaryPartitionKey(CloudBridgeResource.DAY_INDEX)))
+                .addAttribute(byte[].class, a -> a.name("fileContent")
+                        .getter(CloudBridgeResource::getFileContent)
+                        .setter(CloudBridgeResource::setFileContent))
+                .addAttribute(Integer.class, a -> a.name("contentChunkCount")
+                        .getter(CloudBridgeResource::getContentChunkCount)
+                        .setter(CloudBridgeResource::setContentChunkCount))
+                .addAttribute(Integer.class, a -> a.name("contentChunkSize")
+                        .getter(CloudBridgeResource::getContentChunkSize)
+                        .setter(CloudBridgeResource::setContentChunkSize))
+                .addAttribute(String.class, a -> a.name("contentRef")
+                        .getter(CloudBridgeResource::getContentRef)
+                        .setter(CloudBridgeResource::setContentRef))
+                .addAttribute(String.class, a -> a.name("contentHash")
+                        .getter(CloudBridgeResource::getContentHash)
+                        .setter(CloudBridgeResource::setContentHash))
+                .addAttribute(String.class, a -> a.name("contentCodec")
+                        .getter(CloudBridgeResource::getContentCodec)
+                        .setter(CloudBridgeResource::setContentCodec))
+                .addAttribute(String.class, a -> a.name("movedTo")
+                        .getter(CloudBridgeResource::getMovedTo)
+                        .setter(CloudBridgeResource::setMovedTo))
+                .addAttribute(String.class, a -> a.name("movedFrom")
+                        .getter(CloudBridgeResource::getMovedFrom)
+                        .setter(CloudBridgeResource::setMovedFrom))
+                .build();
+    }
+
+    /**
+     * Builds a new schema for {@link CloudBridgeContentChunk}; use {@link #CONTENT_CHUNK} instead of calling this.
+     *
+     * @return the schema.
+     */
+    public static TableSchema<CloudBridgeContentChunk> contentChunkSchema() {
+        return StaticTableSchema.builder(CloudBridgeContentChunk.class)
+                .newItemSupplier(CloudBridgeContentChunk::new)
+                .addAttribute(String.class, a -> a.name("contentKey")
+                        .getter(CloudBridgeContentChunk::getContentKey)
+                        .setter(CloudBridgeContentChunk::setContentKey)
+                        .tags(StaticAttributeTags.primaryPartitionKey()))
+                .addAttribute(Integer.class, a -> a.name("chunkIndex")
+                        .getter(CloudBridgeContentChunk::getChunkIndex)
+                        .setter(CloudBridgeContentChunk::setChunkIndex)
+                        .tags(StaticAttributeTags.primarySortKey()))
+                .addAttribute(byte[].class, a -> a.name("data")
+                        .getter(CloudBridgeContentChunk::getData)
+                        .setter(CloudBridgeContentChunk::setData))
+                .build();
+    }
+}
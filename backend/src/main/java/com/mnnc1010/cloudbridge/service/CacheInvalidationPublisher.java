@@ -0,0 +1,22 @@
+package com.mnnc1010.cloudbridge.service;
+
+import java.util.Collection;
+
+/**
+ * Hook that tells the other backend replicas to drop cached metadata.
+ *
+ * <p>{@link ResourceMetadataCache} calls the publisher after every local invalidation. An
+ * implementation delivers the invalidation to the other replicas, which apply it with
+ * {@link ResourceMetadataCache#invalidateLocally(String, Collection)}. Delivery is best effort: a
+ * replica that misses a message serves stale metadata until the entry's TTL expires.</p>
+ */
+public interface CacheInvalidationPublisher {
+
+    /**
+     * Publishes the invalidation of resources to the other replicas.
+     *
+     * @param store the store that holds the resources (e.g. "MongoDB").
+     * @param ids   the ids of the resources that were created or changed.
+     */
+    void publish(String store, Collection<String> ids);
+}
@@ -1,49 +1,309 @@
 package com.mnnc1010.cloudbridge.service;
 
+import com.mnnc1010.cloudbridge.model.CloudBridgeContentChunk;
 import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourceCreatedEvent;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import com.mnnc1010.cloudbridge.model.ResourceStats;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeDynamoAsyncResourceRepository;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeDynamoContentRepository;
 import com.mnnc1010.cloudbridge.repository.CloudBridgeDynamoResourceRepository;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeDynamoStatsRepository;
+import com.mnnc1010.cloudbridge.repository.DynamoDbBatchWriter;
+import com.mnnc1010.cloudbridge.repository.DynamoDbParallelScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing CloudBridgeResource entities in AWS DynamoDB.
  *
  * <p>This service encapsulates business logic and interacts with the DynamoDB repository to
  * perform operations such as retrieving all resources and creating new ones.</p>
+ *
+ * <p>DynamoDB items are limited to 400 KB, so file content larger than
+ * {@code aws.dynamodb.content.inlineMaxBytes} is not stored in the resource item. It is split into
+ * {@code aws.dynamodb.content.chunkSize} chunks that are written to the content table with
+ * parallel {@code BatchWriteItem} calls, and the resource item is then written as the manifest
+ * that records the chunk layout. Because the manifest is written last, readers never see a
+ * partially written file.</p>
+ *
+ * <p>Chunked content is deduplicated: its chunks are keyed by the SHA-256 hash of the content and
+ * shared, with a reference count, by every resource holding the same bytes (see
+ * {@link CloudBridgeDynamoContentRepository}). Uploading content that is already stored only
+ * writes the resource item. The chunks are deleted when the last resource referring to them is
+ * deleted.</p>
+ *
+ * <p>Content is compressed at rest when {@link ContentCodecSelector} finds it worthwhile, which
+ * directly lowers the write and read capacity units it costs. Inline content is encoded as a
+ * whole; chunked content is encoded chunk by chunk, so every chunk still covers exactly
+ * {@code contentChunkSize} bytes of the original content and range reads fetch the same chunks as
+ * before. The codec is recorded in {@code contentCodec}.</p>
+ *
+ * <p>When a {@link DynamoDbAsyncClient} is configured ({@code aws.dynamodb.async.enabled}),
+ * listing pages and inline resource writes go through the non-blocking repository and complete
+ * without holding a thread. Scans, batch writes and chunked content keep using the blocking client.</p>
+ *
+ * <p>Every create and delete also updates the {@link ResourceStats} counters of the resource's
+ * owner, type and store with atomic {@code UpdateItem ... ADD} calls on the stats table (see
+ * {@link CloudBridgeDynamoStatsRepository}).</p>
  */
 @Service
-public class CloudBridgeDynamoResourceService {
+public class CloudBridgeDynamoResourceService implements ResourcePageSource, ResourceQuerySource, ResourceStatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(CloudBridgeDynamoResourceService.class);
+
+    /**
+     * The store name reported in {@code fileStorage} and used in pagination cursors.
+     */
+    public static final String STORE_NAME = "DynamoDB";
 
     private final CloudBridgeDynamoResourceRepository repository;
-    private final DynamoDbClient dynamoDbClient;
+    private final CloudBridgeDynamoAsyncResourceRepository asyncRepository;
+    private final CloudBridgeDynamoContentRepository contentRepository;
+    private final CloudBridgeDynamoStatsRepository statsRepository;
+    private final ExecutorService writeExecutor;
+    private final ResourceMetadataCache cache;
+    private final ContentDedupStats dedupStats;
+    private final ContentCodecSelector codecSelector;
+    private final ContentCompressionStats compressionStats;
+    private final int inlineMaxBytes;
+    private final int chunkSize;
+    private final ApplicationEventPublisher events;
 
     /**
-     * Constructor for initializing the DynamoDbClient and the repository.
+     * Constructor for initializing the repositories on top of the shared DynamoDB clients.
+     *
+     * <p>Full-table reads use a parallel segmented scan. The number of segments is taken from
+     * {@code aws.dynamodb.scan.segments}, or derived from the table size when it is 0, and every
+     * segment worker is limited to {@code aws.dynamodb.scan.readUnitsPerSecondPerSegment}. A derived
+     * count is reused for {@code aws.dynamodb.scan.segmentCountTtlSeconds}, and a scan waits up to
+     * {@code aws.dynamodb.scan.admissionTimeoutMs} for the scan executor to take its segments.</p>
+     *
+     * <p>Both clients are injected as lazy proxies: region, credentials and the HTTP client are
+     * only resolved on the first DynamoDB call (or by the optional warm-up), not while the
+     * application context starts.</p>
      *
-     * @param region    The AWS region where the DynamoDB table is hosted (e.g., "us-east-2").
-     * @param tableName The name of the DynamoDB table.
+     * @param dynamoDbClient               The blocking DynamoDB client.
+     * @param dynamoDbAsyncClient          The non-blocking DynamoDB client; only used if async mode is enabled.
+     * @param asyncEnabled                 Whether async mode is enabled.
+     * @param tableName                    The name of the DynamoDB table.
+     * @param scanExecutor                 The executor that runs the parallel scan workers.
+     * @param scanSegments                 The number of scan segments, or 0 to derive it from the table size.
+     * @param scanMaxSegments              The upper bound for derived segment counts.
+     * @param scanPageSize                 The maximum number of items per scan request.
+     * @param readUnitsPerSecondPerSegment The read capacity each scan worker may consume per second, or 0 for no limit.
+     * @param segmentCountTtlSeconds       How long a segment count derived from the table size is reused.
+     * @param scanAdmissionTimeoutMs       How long a scan waits for the scan executor to take its segments.
+     * @param contentTableName             The name of the DynamoDB table holding content chunks.
+     * @param statsTableName               The name of the DynamoDB table holding the storage counters.
+     * @param inlineMaxBytes               The largest content stored inline in the resource item.
+     * @param chunkSize                    The size of each content chunk in bytes.
+     * @param batchWriteMaxAttempts        How many times a batch write is attempted before giving up.
+     * @param queryMaxDays                 The most insertion days a query without owner or type may span.
+     * @param writeExecutor                The executor that runs parallel chunk batch writes.
+     * @param cache                        The metadata cache in front of listing pages and per-id lookups.
+     * @param dedupStats                   The counters updated for every upload.
+     * @param codecSelector                Chooses the codec new content is stored with.
+     * @param compressionStats             The counters updated for every content write.
+     * @param events                       The publisher of {@link ResourceCreatedEvent}s.
      */
-    public CloudBridgeDynamoResourceService(@Value("${aws.dynamodb.region}") String region,
-                                            @Value("${aws.dynamodb.tableName}") String tableName) {
-        this.dynamoDbClient = DynamoDbClient.builder()
-                .region(Region.of(region))
-                .build();
-        this.repository = new CloudBridgeDynamoResourceRepository(dynamoDbClient, tableName);
+    public CloudBridgeDynamoResourceService(@Lazy DynamoDbClient dynamoDbClient,
+                                            @Lazy DynamoDbAsyncClient dynamoDbAsyncClient,
+                                            @Value("${aws.dynamodb.async.enabled:false}") boolean asyncEnabled,
+                                            @Value("${aws.dynamodb.tableName}") String tableName,
+                                            @Qualifier("dynamoScanExecutor") ExecutorService scanExecutor,
+                                            @Value("${aws.dynamodb.scan.segments:0}") int scanSegments,
+                                            @Value("${aws.dynamodb.scan.maxSegments:16}") int scanMaxSegments,
+                                            @Value("${aws.dynamodb.scan.pageSize:100}") int scanPageSize,
+                                            @Value("${aws.dynamodb.scan.readUnitsPerSecondPerSegment:50}") double readUnitsPerSecondPerSegment,
+                                            @Value("${aws.dynamodb.scan.segmentCountTtlSeconds:900}") long segmentCountTtlSeconds,
+                                            @Value("${aws.dynamodb.scan.admissionTimeoutMs:30000}") long scanAdmissionTimeoutMs,
+                                            @Value("${aws.dynamodb.contentTableName}") String contentTableName,
+                                            @Value("${aws.dynamodb.statsTableName:CloudBridgeResourceStats}") String statsTableName,
+                                            @Value("${aws.dynamodb.content.inlineMaxBytes:262144}") int inlineMaxBytes,
+                                            @Value("${aws.dynamodb.content.chunkSize:262144}") int chunkSize,
+                                            @Value("${aws.dynamodb.batchWrite.maxAttempts:8}") int batchWriteMaxAttempts,
+                                            @Value("${aws.dynamodb.query.maxDays:31}") int queryMaxDays,
+                                            @Qualifier("dynamoWriteExecutor") ExecutorService writeExecutor,
+                                            ResourceMetadataCache cache,
+                                            ContentDedupStats dedupStats,
+                                            ContentCodecSelector codecSelector,
+                                            ContentCompressionStats compressionStats,
+                                            ApplicationEventPublisher events) {
+        DynamoDbParallelScanner scanner = new DynamoDbParallelScanner(dynamoDbClient, tableName, scanExecutor,
+                scanSegments, scanMaxSegments, scanPageSize, readUnitsPerSecondPerSegment,
+                TimeUnit.SECONDS.toMillis(segmentCountTtlSeconds), scanAdmissionTimeoutMs);
+        this.repository = new CloudBridgeDynamoResourceRepository(dynamoDbClient, tableName, scanner, batchWriteMaxAttempts,
+                queryMaxDays);
+        this.asyncRepository = asyncEnabled ? new CloudBridgeDynamoAsyncResourceRepository(dynamoDbAsyncClient, tableName) : null;
+        this.contentRepository = new CloudBridgeDynamoContentRepository(dynamoDbClient, contentTableName, batchWriteMaxAttempts);
+        this.statsRepository = new CloudBridgeDynamoStatsRepository(dynamoDbClient, statsTableName);
+        this.writeExecutor = writeExecutor;
+        this.cache = cache;
+        this.dedupStats = dedupStats;
+        this.codecSelector = codecSelector;
+        this.compressionStats = compressionStats;
+        this.inlineMaxBytes = inlineMaxBytes;
+        this.chunkSize = chunkSize;
+        this.events = events;
     }
 
     /**
-     * Retrieves all CloudBridgeResource items from the DynamoDB table.
+     * Retrieves all CloudBridgeResource items from the DynamoDB table, except the records of an
+     * unfinished move between tiers.
      *
      * @return a list of CloudBridgeResource objects.
      */
     public List<CloudBridgeResource> getAllResources() {
-        return repository.findAll();
+        return repository.findAll().stream()
+                .filter(CloudBridgeResource::isListed)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the metadata of all CloudBridgeResource items, without their file content, except
+     * the records of an unfinished move between tiers.
+     *
+     * @return a list of {@link CloudBridgeResourceSummary} objects.
+     */
+    public List<CloudBridgeResourceSummary> getAllResourceSummaries() {
+        return repository.findAllMetadata().stream()
+                .filter(CloudBridgeResource::isListed)
+                .map(CloudBridgeResourceSummary::from)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String getStoreName() {
+        return STORE_NAME;
+    }
+
+    /**
+     * Retrieves the page of resource summaries that follows the given item in scan order.
+     *
+     * @param position the id of the last item already read, or {@code null} to start at the beginning.
+     * @param limit    the maximum number of summaries to return.
+     * @return the next summaries in scan order.
+     */
+    @Override
+    public List<CloudBridgeResourceSummary> getResourcePage(String position, int limit) {
+        return repository.findMetadataPage(position, limit).stream()
+                .map(CloudBridgeResourceSummary::from)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the page of resource summaries that follows the given item in scan order, through
+     * the non-blocking client when async mode is enabled.
+     */
+    @Override
+    public CompletableFuture<List<CloudBridgeResourceSummary>> getResourcePageAsync(String position, int limit,
+                                                                                     Executor executor) {
+        if (asyncRepository == null) {
+            return ResourcePageSource.super.getResourcePageAsync(position, limit, executor);
+        }
+        return asyncRepository.findMetadataPage(position, limit)
+                .thenApply(resources -> resources.stream()
+                        .map(CloudBridgeResourceSummary::from)
+                        .collect(Collectors.toList()));
+    }
+
+    @Override
+    public String positionOf(CloudBridgeResourceSummary resource) {
+        return resource.getId();
+    }
+
+    /**
+     * Streams the summaries of every item as the pages of a parallel segmented scan arrive.
+     *
+     * <p>The scan projects only the summary attributes and its workers are bounded by the
+     * scanner's queue, so at most a few pages are buffered however large the table is. The
+     * page size of the scan is configured on the scanner and {@code pageSize} is ignored. The
+     * records of an unfinished move between tiers are left out.</p>
+     *
+     * @see CloudBridgeDynamoResourceRepository#streamAllMetadata()
+     */
+    @Override
+    public Stream<CloudBridgeResourceSummary> streamResourceSummaries(int pageSize) {
+        return repository.streamAllMetadata()
+                .filter(CloudBridgeResource::isListed)
+                .map(CloudBridgeResourceSummary::from);
+    }
+
+    /**
+     * Returns a view that pages through the resources matching a query, served from the global
+     * secondary indexes on {@code insertedAt}.
+     *
+     * @see CloudBridgeDynamoResourceRepository#queryMetadata(ResourceQuery, Long, String, int)
+     */
+    @Override
+    public ResourcePageSource query(ResourceQuery query) {
+        return new ResourceQueryView(STORE_NAME,
+                (afterInsertedAt, afterId, limit) -> repository.queryMetadata(query, afterInsertedAt, afterId, limit));
+    }
+
+    /**
+     * Sets {@code insertedAt}, {@code modifiedAt} and {@code insertedDay} on items stored before
+     * they were recorded, so that they are added to the query indexes. Items whose
+     * {@code dateInserted} is not an ISO-8601 instant are left as they are.
+     *
+     * <p>The table is read with the same rate-limited parallel scan as full listings.</p>
+     *
+     * @return the number of items updated.
+     */
+    public long backfillDateFields() {
+        List<String> updated = new ArrayList<>();
+        try (Stream<CloudBridgeResource> resources = repository.streamAllMetadata()) {
+            resources.filter(resource -> resource.getInsertedAt() == null).forEach(resource -> {
+                Long insertedAt = CloudBridgeResource.epochMillisOf(resource.getDateInserted());
+                if (insertedAt == null) {
+                    return;
+                }
+                Long modifiedAt = CloudBridgeResource.epochMillisOf(resource.getDateModified());
+                if (repository.setDateFields(resource.getId(), insertedAt, modifiedAt != null ? modifiedAt : insertedAt)) {
+                    updated.add(resource.getId());
+                }
+            });
+        }
+        cache.invalidate(STORE_NAME, updated);
+        return updated.size();
+    }
+
+    /**
+     * Retrieves a single CloudBridgeResource item, including its file content.
+     *
+     * @param id the resource identifier.
+     * @return the resource, or an empty {@link Optional} if it is not stored in DynamoDB.
+     */
+    public Optional<CloudBridgeResource> getResourceById(String id) {
+        return cache.getResource(STORE_NAME, id, () -> Optional.ofNullable(repository.findById(id)));
     }
 
     /**
@@ -52,25 +312,576 @@ public class CloudBridgeDynamoResourceService {
      * <p>If the resource does not have an ID, a unique identifier is generated before saving.
      * This ensures that the required partition key for DynamoDB is present.</p>
      *
+     * <p>Content above the inline limit is moved into chunks before the resource item is written,
+     * leaving {@code fileContent} empty and recording the chunk layout on the resource. If the same
+     * content is already stored, the resource only takes a reference to its chunks.</p>
+     *
      * @param resource the CloudBridgeResource object to create.
      * @return the created CloudBridgeResource, including its generated identifier.
+     * @throws IllegalStateException if the content chunks could not be written.
      */
     public CloudBridgeResource createResource(CloudBridgeResource resource) {
+        return create(resource, true);
+    }
+
+    /**
+     * Writes the copy of a resource the tier migration moves into DynamoDB.
+     *
+     * <p>Like {@link #createResource(CloudBridgeResource)}, but the copy keeps the id and dates it
+     * is given and no {@link ResourceCreatedEvent} is published, since the resource is not new.
+     * While the copy carries {@code movedFrom} it is neither listed nor counted in the storage
+     * counters (see {@link #publishCopy(String)}).</p>
+     *
+     * @param resource the resource to copy, with its decoded content in {@code fileContent}.
+     * @return the written CloudBridgeResource.
+     * @throws IllegalStateException if the content chunks could not be written.
+     */
+    public CloudBridgeResource copyResource(CloudBridgeResource resource) {
+        return create(resource, false);
+    }
+
+    private CloudBridgeResource create(CloudBridgeResource resource, boolean announce) {
+        prepare(resource);
+
+        byte[] content = resource.getFileContent();
+        if (content == null || content.length <= inlineMaxBytes) {
+            encodeInline(resource);
+            repository.save(resource);
+            recordInline(resource);
+            cache.invalidate(STORE_NAME, List.of(resource.getId()));
+            if (CloudBridgeResource.isListed(resource)) {
+                countStats(List.of(resource), 1);
+            }
+            if (announce) {
+                events.publishEvent(ResourceCreatedEvent.of(resource));
+            }
+            return resource;
+        }
+
+        storeChunks(resource, content);
+        try {
+            repository.save(resource);
+        } catch (RuntimeException e) {
+            releaseChunksQuietly(resource);
+            throw e;
+        }
+        cache.invalidate(STORE_NAME, List.of(resource.getId()));
+        if (CloudBridgeResource.isListed(resource)) {
+            countStats(List.of(resource), 1);
+        }
+        if (announce) {
+            events.publishEvent(ResourceCreatedEvent.of(resource));
+        }
+        return resource;
+    }
+
+    /**
+     * Deletes a CloudBridgeResource item and releases its content chunks.
+     *
+     * <p>Shared chunks are only deleted once no other resource refers to them. A resource the tier
+     * migration has moved to another tier is left for the migration to remove.</p>
+     *
+     * @param id the resource identifier.
+     * @return {@code true} if the resource was stored in DynamoDB and has been deleted.
+     */
+    public boolean deleteResource(String id) {
+        CloudBridgeResource deleted = repository.deleteById(id);
+        if (deleted == null) {
+            return false;
+        }
+        cache.invalidate(STORE_NAME, List.of(id));
+        // The unfinished copy of a move was never counted.
+        if (CloudBridgeResource.isListed(deleted)) {
+            countStats(List.of(deleted), -1);
+        }
+        if (deleted.getContentChunkCount() != null) {
+            releaseChunksQuietly(deleted);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a resource item exists, bypassing the metadata cache.
+     *
+     * @param id the resource identifier.
+     * @return {@code true} if DynamoDB holds a resource with that id, moved or not.
+     */
+    public boolean exists(String id) {
+        return repository.findById(id) != null;
+    }
+
+    /**
+     * Marks a resource as moved to another tier, turning its item into a tombstone that is no
+     * longer listed or counted in the storage counters.
+     *
+     * <p>An item already marked for the same target is returned as it is, so an interrupted
+     * switch can be repeated.</p>
+     *
+     * @param id     the resource identifier.
+     * @param target the store name of the tier the resource has been copied to.
+     * @return the updated resource, or {@code null} if it no longer exists or was moved to another tier.
+     * @see CloudBridgeDynamoResourceRepository#markMoved(String, String)
+     */
+    public CloudBridgeResource markMoved(String id, String target) {
+        CloudBridgeResource moved = repository.markMoved(id, target);
+        if (moved != null) {
+            cache.invalidate(STORE_NAME, List.of(id));
+            countStats(List.of(moved), -1);
+            return moved;
+        }
+        CloudBridgeResource existing = repository.findById(id);
+        return existing != null && target.equals(existing.getMovedTo()) ? existing : null;
+    }
+
+    /**
+     * Lets the copy of a moved resource show up in listings and the storage counters, once its
+     * old record has become a tombstone.
+     *
+     * @param id the resource identifier.
+     * @return the copy, or {@code null} if no copy with that id still carries {@code movedFrom}.
+     * @see CloudBridgeDynamoResourceRepository#clearMovedFrom(String)
+     */
+    public CloudBridgeResource publishCopy(String id) {
+        CloudBridgeResource published = repository.clearMovedFrom(id);
+        if (published != null) {
+            cache.invalidate(STORE_NAME, List.of(id));
+            countStats(List.of(published), 1);
+        }
+        return published;
+    }
+
+    /**
+     * Deletes the tombstone of a moved resource without releasing its chunks, which readers
+     * that looked the resource up before the switch may still be fetching.
+     *
+     * @param id the resource identifier.
+     * @return the deleted resource, or {@code null} if no moved resource with that id exists.
+     * @see #releaseDetachedContent(CloudBridgeResource)
+     */
+    public CloudBridgeResource detachMoved(String id) {
+        CloudBridgeResource detached = repository.deleteMoved(id);
+        if (detached != null) {
+            cache.invalidate(STORE_NAME, List.of(id));
+        }
+        return detached;
+    }
+
+    /**
+     * Releases the chunks of a tombstone deleted with {@link #detachMoved(String)}.
+     *
+     * @param resource the deleted resource.
+     */
+    public void releaseDetachedContent(CloudBridgeResource resource) {
+        if (resource.getContentChunkCount() != null) {
+            releaseChunksQuietly(resource);
+        }
+    }
+
+    /**
+     * Creates a new CloudBridgeResource without blocking on the DynamoDB write.
+     *
+     * <p>In async mode, resources whose content fits inline are written through the non-blocking
+     * client. Otherwise, and for chunked content, the resource is written with
+     * {@link #createResource(CloudBridgeResource)} on the calling thread.</p>
+     *
+     * @param resource the CloudBridgeResource object to create.
+     * @return a future of the created CloudBridgeResource, including its generated identifier.
+     */
+    public CompletableFuture<CloudBridgeResource> createResourceAsync(CloudBridgeResource resource) {
+        byte[] content = resource.getFileContent();
+        if (asyncRepository != null && (content == null || content.length <= inlineMaxBytes)) {
+            prepare(resource);
+            encodeInline(resource);
+            return asyncRepository.save(resource)
+                    .thenApply(saved -> {
+                        recordInline(saved);
+                        cache.invalidate(STORE_NAME, List.of(saved.getId()));
+                        countStatsAsync(List.of(saved));
+                        events.publishEvent(ResourceCreatedEvent.of(saved));
+                        return saved;
+                    });
+        }
+        try {
+            return CompletableFuture.completedFuture(createResource(resource));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Creates many CloudBridgeResources in the DynamoDB table.
+     *
+     * <p>Resources whose content fits inline are written with {@code BatchWriteItem} in groups
+     * of 25 items, several groups in parallel, with unprocessed items retried with backoff.
+     * Resources with chunked content go through {@link #createResource(CloudBridgeResource)}
+     * one by one, since their chunks are already batch-written.</p>
+     *
+     * @param resources the resources to create; ids and dates are assigned as in {@link #createResource(CloudBridgeResource)}.
+     * @return the error message for every resource that could not be written, keyed by resource id; empty on success.
+     */
+    public Map<String, String> createResources(List<CloudBridgeResource> resources) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        List<CloudBridgeResource> inline = new ArrayList<>();
+        for (CloudBridgeResource resource : resources) {
+            prepare(resource);
+            if (resource.getFileContent() != null && resource.getFileContent().length > inlineMaxBytes) {
+                try {
+                    createResource(resource);
+                } catch (RuntimeException e) {
+                    failures.put(resource.getId(), e.getMessage());
+                }
+            } else {
+                encodeInline(resource);
+                inline.add(resource);
+            }
+        }
+
+        List<List<CloudBridgeResource>> groups = new ArrayList<>();
+        List<Future<List<CloudBridgeResource>>> writes = new ArrayList<>();
+        for (int from = 0; from < inline.size(); from += DynamoDbBatchWriter.MAX_BATCH_SIZE) {
+            List<CloudBridgeResource> group = inline.subList(from, Math.min(inline.size(), from + DynamoDbBatchWriter.MAX_BATCH_SIZE));
+            try {
+                writes.add(writeExecutor.submit(() -> repository.saveAll(group)));
+                groups.add(group);
+            } catch (RuntimeException e) {
+                group.forEach(resource -> failures.put(resource.getId(), "Write executor is saturated."));
+            }
+        }
+        for (int i = 0; i < writes.size(); i++) {
+            try {
+                writes.get(i).get().forEach(resource -> failures.put(resource.getId(), "Unprocessed after retries."));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                groups.get(i).forEach(resource -> failures.put(resource.getId(), "Interrupted."));
+            } catch (ExecutionException e) {
+                String message = String.valueOf(e.getCause().getMessage());
+                groups.get(i).forEach(resource -> failures.put(resource.getId(), message));
+            }
+        }
+        List<CloudBridgeResource> written = new ArrayList<>();
+        for (CloudBridgeResource resource : inline) {
+            if (!failures.containsKey(resource.getId())) {
+                written.add(resource);
+                recordInline(resource);
+            }
+        }
+        cache.invalidate(STORE_NAME, written.stream().map(CloudBridgeResource::getId).collect(Collectors.toList()));
+        countStats(written, 1);
+        written.forEach(resource -> events.publishEvent(ResourceCreatedEvent.of(resource)));
+        return failures;
+    }
+
+    /**
+     * @return the storage counters of the resources stored in DynamoDB.
+     */
+    @Override
+    public List<ResourceStats> getStats() {
+        return statsRepository.findAll();
+    }
+
+    /**
+     * Recounts the storage counters from the same rate-limited parallel scan as full listings,
+     * which only reads the summary attributes, and overwrites them. Like listings, the counters
+     * leave out the records of an unfinished move between tiers.
+     */
+    @Override
+    public List<ResourceStats> rebuildStats() {
+        Map<String, ResourceStats> totals = new LinkedHashMap<>();
+        try (Stream<CloudBridgeResource> resources = repository.streamAllMetadata()) {
+            // The scan workers hand their pages over to this thread, so the tally needs no locking.
+            resources.filter(CloudBridgeResource::isListed).forEach(resource -> ResourceStats.add(totals, STORE_NAME, resource, 1));
+        }
+        statsRepository.replaceAll(totals.values());
+        return new ArrayList<>(totals.values());
+    }
+
+    /**
+     * Adds created (sign 1) or deleted (sign -1) resources to the storage counters. The resources
+     * are already written, so a failure is only logged; a rebuild corrects the counters.
+     */
+    private void countStats(Collection<CloudBridgeResource> resources, int sign) {
+        if (resources.isEmpty()) {
+            return;
+        }
+        try {
+            statsRepository.increment(ResourceStats.deltasOf(STORE_NAME, resources, sign).values());
+        } catch (RuntimeException e) {
+            log.warn("Could not update the DynamoDB storage statistics", e);
+        }
+    }
+
+    /**
+     * Counts created resources on the write executor, so that an async write does not block the
+     * client's completion thread on the blocking counter updates.
+     */
+    private void countStatsAsync(Collection<CloudBridgeResource> resources) {
+        try {
+            writeExecutor.execute(() -> countStats(resources, 1));
+        } catch (RuntimeException e) {
+            log.warn("Could not update the DynamoDB storage statistics", e);
+        }
+    }
+
+    /**
+     * Assigns a UUID if the id is missing, and sets dateInserted and dateModified to the current
+     * timestamp if not provided.
+     */
+    private void prepare(CloudBridgeResource resource) {
         // Generate a UUID if the id is missing or empty
         if (resource.getId() == null || resource.getId().trim().isEmpty()) {
             resource.setId(UUID.randomUUID().toString());
-            System.out.println("Generated new UUID: " + resource.getId());
+            log.debug("Generated new UUID: {}", resource.getId());
         }
 
         // Set dateInserted and dateModified to current timestamp if not provided.
-        String now = Instant.now().toString();
+        Instant now = Instant.now();
         if (resource.getDateInserted() == null || resource.getDateInserted().trim().isEmpty()) {
-            resource.setDateInserted(now);
+            resource.setDateInserted(now.toString());
         }
         if (resource.getDateModified() == null || resource.getDateModified().trim().isEmpty()) {
-            resource.setDateModified(now);
+            resource.setDateModified(now.toString());
+        }
+        // Sortable copies for indexed queries; free-form dates fall back to the current time.
+        if (resource.getInsertedAt() == null) {
+            Long insertedAt = CloudBridgeResource.epochMillisOf(resource.getDateInserted());
+            resource.setInsertedAt(insertedAt != null ? insertedAt : now.toEpochMilli());
+        }
+        if (resource.getModifiedAt() == null) {
+            Long modifiedAt = CloudBridgeResource.epochMillisOf(resource.getDateModified());
+            resource.setModifiedAt(modifiedAt != null ? modifiedAt : now.toEpochMilli());
+        }
+        // The hash is taken once, before the content is encoded.
+        if (resource.getFileContent() != null && resource.getContentHash() == null) {
+            resource.setContentHash(ContentDigestInputStream.sha256(resource.getFileContent()));
+        }
+    }
+
+    /**
+     * Replaces inline content with its encoded form and records the codec and original size.
+     */
+    private void encodeInline(CloudBridgeResource resource) {
+        byte[] content = resource.getFileContent();
+        if (content == null || resource.getContentCodec() != null) {
+            return;
         }
+        ContentCodec codec = codecSelector.select(resource.getFileType(), content, content.length);
+        resource.setFileSize((long) content.length);
+        resource.setFileContent(codec.encode(content));
+        resource.setContentCodec(codec.getName());
+    }
+
+    /**
+     * Records a written inline resource in the dedup and compression stats.
+     */
+    private void recordInline(CloudBridgeResource resource) {
+        if (resource.getFileContent() != null) {
+            dedupStats.record(STORE_NAME, resource.getFileSize(), false);
+            compressionStats.record(STORE_NAME, ContentCodec.of(resource.getContentCodec()),
+                    resource.getFileSize(), resource.getFileContent().length);
+        }
+    }
+
+    /**
+     * Stores content as chunks keyed by its hash, or takes a reference to identical stored
+     * content, and records the chunk layout on the resource.
+     *
+     * <p>If the content is being deleted while it is uploaded again, or concurrent uploads keep
+     * conflicting, the resource gets its own copy keyed by its id instead.</p>
+     */
+    private void storeChunks(CloudBridgeResource resource, byte[] content) {
+        String hash = resource.getContentHash();
+        resource.setFileContent(null);
+        resource.setFileSize((long) content.length);
 
-        return repository.save(resource);
+        CloudBridgeDynamoContentRepository.SharedContent shared = contentRepository.acquireReference(hash);
+        if (shared == null) {
+            ContentCodec codec = codecSelector.select(resource.getFileType(), content, Math.min(content.length, codecSelector.getSampleBytes()));
+            // Shared chunks are not cleaned up on failure: another upload may already refer to them.
+            long storedBytes = writeChunks(hash, content, chunkSize, codec, false);
+            if (contentRepository.createReference(hash, content.length, chunkSize, codec.getName())) {
+                setChunkLayout(resource, hash, content.length, chunkSize, codec.getName());
+                dedupStats.record(STORE_NAME, content.length, false);
+                compressionStats.record(STORE_NAME, codec, content.length, storedBytes);
+                return;
+            }
+            // A concurrent upload created the reference item first; its chunks hold the same bytes.
+            shared = contentRepository.acquireReference(hash);
+        }
+        if (shared != null) {
+            setChunkLayout(resource, hash, content.length, shared.getChunkSize(), shared.getCodec());
+            dedupStats.record(STORE_NAME, content.length, true);
+            return;
+        }
+
+        ContentCodec codec = codecSelector.select(resource.getFileType(), content, Math.min(content.length, codecSelector.getSampleBytes()));
+        long storedBytes = writeChunks(resource.getId(), content, chunkSize, codec, true);
+        setChunkLayout(resource, null, content.length, chunkSize, codec.getName());
+        dedupStats.record(STORE_NAME, content.length, false);
+        compressionStats.record(STORE_NAME, codec, content.length, storedBytes);
+    }
+
+    private static void setChunkLayout(CloudBridgeResource resource, String contentKey, long length, int chunkSize, String codec) {
+        resource.setContentRef(contentKey);
+        resource.setContentCodec(codec);
+        resource.setContentChunkSize(chunkSize);
+        resource.setContentChunkCount((int) ((length + chunkSize - 1) / chunkSize));
+    }
+
+    /**
+     * Releases the chunks of a resource: a reference to shared chunks, or the chunks it owns.
+     * Failures are only logged; the resource item is already gone or was never written.
+     */
+    private void releaseChunksQuietly(CloudBridgeResource resource) {
+        if (resource.getContentRef() == null) {
+            deleteChunksQuietly(resource.getId(), resource.getContentChunkCount());
+            return;
+        }
+        try {
+            contentRepository.releaseReference(resource.getContentRef(), resource.getContentChunkCount());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Could not release content {}", resource.getContentRef(), e);
+        }
+    }
+
+    /**
+     * Retrieves the stored file content of a resource.
+     *
+     * <p>Chunked content is read with one {@code BatchGetItem} call per
+     * {@link CloudBridgeDynamoContentRepository#READ_BATCH_SIZE} chunks, and only the chunks that
+     * overlap the requested range are fetched, so at most one batch is held in memory at a time.</p>
+     *
+     * <p>A resource moved to another tier is served from there, so its tombstone has no content.</p>
+     *
+     * @param id the resource identifier.
+     * @return the content, or an empty {@link Optional} if DynamoDB holds no content for that id.
+     */
+    public Optional<ResourceContent> getContent(String id) {
+        Optional<CloudBridgeResource> found = getResourceById(id);
+        if (found.isEmpty() || found.get().getMovedTo() != null) {
+            return Optional.empty();
+        }
+        CloudBridgeResource resource = found.get();
+        if (resource.getContentChunkCount() == null) {
+            return resource.getFileContent() == null ? Optional.empty() : Optional.of(ResourceContent.inline(resource));
+        }
+        return Optional.of(new ChunkedContent(resource));
+    }
+
+    /**
+     * Content stored as chunks in the content table.
+     */
+    private final class ChunkedContent implements ResourceContent {
+        private final CloudBridgeResource resource;
+
+        private ChunkedContent(CloudBridgeResource resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public CloudBridgeResource getResource() {
+            return resource;
+        }
+
+        @Override
+        public long getLength() {
+            return resource.getFileSize();
+        }
+
+        @Override
+        public void writeTo(OutputStream out, long offset, long length) throws IOException {
+            if (length <= 0) {
+                return;
+            }
+            // Shared chunks are keyed by the content hash, chunks owned by the resource by its id.
+            String contentKey = resource.getContentRef() != null ? resource.getContentRef() : resource.getId();
+            ContentCodec codec = ContentCodec.of(resource.getContentCodec());
+            int chunkSize = resource.getContentChunkSize();
+            int first = (int) (offset / chunkSize);
+            int last = (int) ((offset + length - 1) / chunkSize);
+            long end = offset + length;
+            long chunkStart = (long) first * chunkSize;
+            for (int from = first; from <= last; from += CloudBridgeDynamoContentRepository.READ_BATCH_SIZE) {
+                int to = Math.min(last + 1, from + CloudBridgeDynamoContentRepository.READ_BATCH_SIZE);
+                for (byte[] stored : contentRepository.findChunks(contentKey, from, to)) {
+                    byte[] chunk = codec.decode(stored);
+                    // Write only the part of the chunk that overlaps the requested range.
+                    long sliceStart = Math.max(offset, chunkStart);
+                    long sliceEnd = Math.min(end, chunkStart + chunk.length);
+                    if (sliceEnd > sliceStart) {
+                        out.write(chunk, (int) (sliceStart - chunkStart), (int) (sliceEnd - sliceStart));
+                    }
+                    chunkStart += chunk.length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits content into chunks, encodes each chunk and writes them in parallel groups of up to
+     * 25 chunks. Chunks are encoded on the write executor, so compression runs in parallel too.
+     *
+     * @param cleanUpOnFailure whether chunks already written are deleted if any group fails.
+     * @return the number of encoded bytes written.
+     * @throws IllegalStateException if any group failed.
+     */
+    private long writeChunks(String contentKey, byte[] content, int chunkSize, ContentCodec codec, boolean cleanUpOnFailure) {
+        int chunkCount = (content.length + chunkSize - 1) / chunkSize;
+        List<Future<Long>> writes = new ArrayList<>();
+        try {
+            for (int first = 0; first < chunkCount; first += DynamoDbBatchWriter.MAX_BATCH_SIZE) {
+                int from = first;
+                int to = Math.min(chunkCount, first + DynamoDbBatchWriter.MAX_BATCH_SIZE);
+                writes.add(writeExecutor.submit(() -> {
+                    List<CloudBridgeContentChunk> group = new ArrayList<>(to - from);
+                    long encodedBytes = 0;
+                    for (int index = from; index < to; index++) {
+                        int start = index * chunkSize;
+                        byte[] data = codec.encode(content, start, Math.min(content.length, start + chunkSize) - start);
+                        encodedBytes += data.length;
+                        group.add(new CloudBridgeContentChunk(contentKey, index, data));
+                    }
+                    contentRepository.saveAll(group);
+                    return encodedBytes;
+                }));
+            }
+            long encodedBytes = 0;
+            for (Future<Long> write : writes) {
+                encodedBytes += write.get();
+            }
+            return encodedBytes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writes.forEach(write -> write.cancel(true));
+            if (cleanUpOnFailure) {
+                deleteChunksQuietly(contentKey, chunkCount);
+            }
+            throw new IllegalStateException("Interrupted while writing content chunks.", e);
+        } catch (ExecutionException | RuntimeException e) {
+            writes.forEach(write -> write.cancel(true));
+            if (cleanUpOnFailure) {
+                deleteChunksQuietly(contentKey, chunkCount);
+            }
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new IllegalStateException("Failed to write content chunks for " + contentKey + ".", cause);
+        }
+    }
+
+    /**
+     * Best-effort removal of chunks owned by a single resource. Chunk keys are deterministic, so
+     * any chunk left behind is overwritten when the same resource is written again.
+     */
+    private void deleteChunksQuietly(String contentKey, int chunkCount) {
+        try {
+            int remaining = contentRepository.deleteChunks(contentKey, chunkCount);
+            if (remaining > 0) {
+                log.warn("Could not clean up {} content chunks of {}", remaining, contentKey);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Could not clean up content chunks of {}", contentKey, e);
+        }
     }
 }
\ No newline at end of file
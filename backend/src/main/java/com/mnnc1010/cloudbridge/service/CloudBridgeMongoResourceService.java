@@ -1,11 +1,47 @@
 package com.mnnc1010.cloudbridge.service;
 
 import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ContentReference;
+import com.mnnc1010.cloudbridge.model.ResourceCreatedEvent;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import com.mnnc1010.cloudbridge.model.ResourceStats;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoContentRepository;
 import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoResourceRepository;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoStatsRepository;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 /**
  * Service class that encapsulates the business logic for managing CloudBridge resources.
@@ -14,41 +50,667 @@ import java.util.List;
  * It uses {@link CloudBridgeMongoResourceRepository} for data access and provides methods for
  * retrieving and creating resources.
  * </p>
+ *
+ * <p>Uploaded file content is streamed into GridFS rather than stored inline in the
+ * {@code resources} document, so it is not bound by the 16 MB BSON document limit and is never
+ * held on the heap as a whole. The resource document only keeps a reference to the GridFS file
+ * together with the size and SHA-256 checksum computed while streaming.</p>
+ *
+ * <p>Content is deduplicated by its SHA-256 hash: an upload whose bytes are already stored only
+ * adds a reference to the existing GridFS file (see {@link CloudBridgeMongoContentRepository}),
+ * so a duplicate upload costs a metadata write instead of a full content write.</p>
+ *
+ * <p>New content is compressed on its way into GridFS when {@link ContentCodecSelector} finds it
+ * worthwhile, and the codec is recorded in {@code contentCodec}. Range reads of compressed content
+ * decompress from the start of the file up to the requested offset.</p>
+ *
+ * <p>Every create and delete also updates the {@link ResourceStats} counters of the resource's
+ * owner, type and store with one bulk of {@code $inc} upserts (see
+ * {@link CloudBridgeMongoStatsRepository}).</p>
  */
 @Service // Indicates that this class is a service component in the Spring context.
-public class CloudBridgeMongoResourceService {
+public class CloudBridgeMongoResourceService implements ResourcePageSource, ResourceQuerySource, ResourceStatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(CloudBridgeMongoResourceService.class);
+
+    /**
+     * The store name reported in {@code fileStorage} and used in pagination cursors.
+     */
+    public static final String STORE_NAME = "MongoDB";
+
+    /**
+     * Keyset order for paginated listings: newest first, ties broken by id.
+     */
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "dateInserted", "id");
+
+    /**
+     * Number of resources updated per bulk write by {@link #backfillDateFields()}.
+     */
+    private static final int BACKFILL_BATCH_SIZE = 1000;
 
     private final CloudBridgeMongoResourceRepository repository;
+    private final GridFsTemplate gridFsTemplate;
+    private final MongoTemplate mongoTemplate;
+    private final CloudBridgeMongoContentRepository contentRepository;
+    private final ResourceMetadataCache cache;
+    private final ContentDedupStats dedupStats;
+    private final ContentCodecSelector codecSelector;
+    private final ContentCompressionStats compressionStats;
+    private final ApplicationEventPublisher events;
+    private final CloudBridgeMongoStatsRepository statsRepository;
 
     /**
      * Constructor for dependency injection of the repository.
      *
-     * @param repository the repository used for data access.
+     * @param repository     the repository used for data access.
+     * @param gridFsTemplate the template used to store and read file content in GridFS.
+     * @param mongoTemplate  the template used for bulk writes.
+     * @param contentRepository the repository tracking content shared between resources.
+     * @param cache          the metadata cache in front of listing pages and per-id lookups.
+     * @param dedupStats     the counters updated for every upload.
+     * @param codecSelector  chooses the codec new content is stored with.
+     * @param compressionStats the counters updated for every content write.
+     * @param events         the publisher of {@link ResourceCreatedEvent}s.
+     * @param statsRepository the storage counters updated for every create and delete.
      */
     @Autowired
-    public CloudBridgeMongoResourceService(CloudBridgeMongoResourceRepository repository) {
+    public CloudBridgeMongoResourceService(CloudBridgeMongoResourceRepository repository,
+                                           GridFsTemplate gridFsTemplate,
+                                           MongoTemplate mongoTemplate,
+                                           CloudBridgeMongoContentRepository contentRepository,
+                                           ResourceMetadataCache cache,
+                                           ContentDedupStats dedupStats,
+                                           ContentCodecSelector codecSelector,
+                                           ContentCompressionStats compressionStats,
+                                           ApplicationEventPublisher events,
+                                           CloudBridgeMongoStatsRepository statsRepository) {
         this.repository = repository;
+        this.gridFsTemplate = gridFsTemplate;
+        this.mongoTemplate = mongoTemplate;
+        this.contentRepository = contentRepository;
+        this.cache = cache;
+        this.dedupStats = dedupStats;
+        this.codecSelector = codecSelector;
+        this.compressionStats = compressionStats;
+        this.events = events;
+        this.statsRepository = statsRepository;
     }
 
     /**
-     * Retrieves all CloudBridge resources from the database.
+     * Retrieves all CloudBridge resources from the database, except the records of an unfinished
+     * move between tiers.
      *
      * @return a list of all {@link CloudBridgeResource} objects.
      * @see CloudBridgeMongoResourceRepository#findAll()
      */
     public List<CloudBridgeResource> getAllResources() {
-        return repository.findAll();
+        return repository.findAll().stream()
+                .filter(CloudBridgeResource::isListed)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the metadata of all CloudBridge resources, without their file content.
+     *
+     * @return a list of {@link CloudBridgeResourceSummary} objects.
+     * @see CloudBridgeMongoResourceRepository#findAllMetadata()
+     */
+    public List<CloudBridgeResourceSummary> getAllResourceSummaries() {
+        return repository.findAllMetadata().stream()
+                .map(CloudBridgeResourceSummary::from)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String getStoreName() {
+        return STORE_NAME;
+    }
+
+    /**
+     * Retrieves the page of resource summaries that follows the given keyset position.
+     *
+     * <p>The position has the form {@code dateInserted|id}, with an empty {@code dateInserted}
+     * for resources stored before dates were recorded.</p>
+     *
+     * @param position the position of the last resource already read, or {@code null} to start at the beginning.
+     * @param limit    the maximum number of summaries to return.
+     * @return the next summaries, newest first.
+     */
+    @Override
+    public List<CloudBridgeResourceSummary> getResourcePage(String position, int limit) {
+        Pageable page = PageRequest.of(0, limit, NEWEST_FIRST);
+        List<CloudBridgeResource> resources;
+        if (position == null) {
+            resources = repository.findMetadataPage(page);
+        } else {
+            int separator = position.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            String dateInserted = position.substring(0, separator);
+            String id = position.substring(separator + 1);
+            resources = dateInserted.isEmpty()
+                    ? repository.findUndatedMetadataPageAfter(id, page)
+                    : repository.findMetadataPageAfter(dateInserted, id, page);
+        }
+        return resources.stream()
+                .map(CloudBridgeResourceSummary::from)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String positionOf(CloudBridgeResourceSummary resource) {
+        String dateInserted = resource.getDateInserted() == null ? "" : resource.getDateInserted();
+        return dateInserted + "|" + resource.getId();
+    }
+
+    /**
+     * Streams the summaries of every resource, newest first, straight off a MongoDB cursor.
+     *
+     * <p>The cursor fetches {@code pageSize} documents per round trip and never reads
+     * {@code fileContent}, so only one batch of metadata is in memory at a time. The records of
+     * an unfinished move between tiers are left out.</p>
+     */
+    @Override
+    public Stream<CloudBridgeResourceSummary> streamResourceSummaries(int pageSize) {
+        Query all = new Query(listed()).with(NEWEST_FIRST).cursorBatchSize(pageSize);
+        all.fields().exclude("fileContent");
+        return mongoTemplate.stream(all, CloudBridgeResource.class)
+                .map(CloudBridgeResourceSummary::from);
+    }
+
+    /**
+     * Returns a view that pages through the resources matching a query, served from the compound
+     * indexes on {@code insertedAt}.
+     *
+     * @see CloudBridgeMongoResourceRepository#findMetadataByQuery(ResourceQuery, Long, String, int)
+     */
+    @Override
+    public ResourcePageSource query(ResourceQuery query) {
+        return new ResourceQueryView(STORE_NAME,
+                (afterInsertedAt, afterId, limit) -> repository.findMetadataByQuery(query, afterInsertedAt, afterId, limit));
+    }
+
+    /**
+     * Sets {@code insertedAt} and {@code modifiedAt} on resources stored before they were
+     * recorded, so that they show up in queries. Resources whose {@code dateInserted} is not an
+     * ISO-8601 instant are left as they are.
+     *
+     * @return the number of resources updated.
+     */
+    public long backfillDateFields() {
+        Query missing = Query.query(Criteria.where("insertedAt").exists(false));
+        missing.fields().include("dateInserted", "dateModified");
+        long updated = 0;
+        List<String> ids = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CloudBridgeResource.class);
+        try (Stream<CloudBridgeResource> resources = mongoTemplate.stream(missing, CloudBridgeResource.class)) {
+            for (CloudBridgeResource resource : (Iterable<CloudBridgeResource>) resources::iterator) {
+                Long insertedAt = CloudBridgeResource.epochMillisOf(resource.getDateInserted());
+                if (insertedAt == null) {
+                    continue;
+                }
+                Long modifiedAt = CloudBridgeResource.epochMillisOf(resource.getDateModified());
+                bulk.updateOne(Query.query(Criteria.where("id").is(resource.getId())),
+                        new Update().set("insertedAt", insertedAt).set("modifiedAt", modifiedAt != null ? modifiedAt : insertedAt));
+                ids.add(resource.getId());
+                if (ids.size() == BACKFILL_BATCH_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    cache.invalidate(STORE_NAME, ids);
+                    ids = new ArrayList<>();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CloudBridgeResource.class);
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            updated += bulk.execute().getModifiedCount();
+            cache.invalidate(STORE_NAME, ids);
+        }
+        return updated;
+    }
+
+    /**
+     * Retrieves a single CloudBridge resource, including its file content.
+     *
+     * @param id the resource identifier.
+     * @return the resource, or an empty {@link Optional} if it is not stored in MongoDB.
+     */
+    public Optional<CloudBridgeResource> getResourceById(String id) {
+        return cache.getResource(STORE_NAME, id, () -> repository.findById(id));
     }
 
     /**
      * Creates a new CloudBridge resource and saves it to the database.
      *
+     * <p>dateInserted and dateModified are set to the current timestamp if not provided, since
+     * paginated listings use them as the keyset order.</p>
+     *
      * @param resource the resource to create.
      * @return the saved {@link CloudBridgeResource} with an assigned identifier.
      * @see CloudBridgeMongoResourceRepository#save(Object)
      */
     public CloudBridgeResource createResource(CloudBridgeResource resource) {
-        return repository.save(resource);
+        return save(resource, true);
+    }
+
+    private CloudBridgeResource save(CloudBridgeResource resource, boolean announce) {
+        stampDates(resource);
+        CloudBridgeResource saved = repository.save(resource);
+        cache.invalidate(STORE_NAME, List.of(saved.getId()));
+        if (CloudBridgeResource.isListed(saved)) {
+            countStats(List.of(saved), 1);
+        }
+        if (announce) {
+            events.publishEvent(ResourceCreatedEvent.of(saved));
+        }
+        return saved;
+    }
+
+    /**
+     * Creates a new CloudBridge resource whose content is stored in GridFS.
+     *
+     * <p>The content is read twice: first to compute its size and SHA-256 checksum, then, only if
+     * no identical content is stored yet, to stream it into GridFS chunks. Upload sources are
+     * spooled to disk by the servlet container, so the first pass is a local read. If the resource
+     * document cannot be saved, its reference to the content is released again.</p>
+     *
+     * @param resource the resource metadata; {@code fileContent} should be left empty.
+     * @param content  the file content; it must be readable more than once.
+     * @return the saved {@link CloudBridgeResource}.
+     * @throws IOException if the content cannot be read.
+     */
+    public CloudBridgeResource createResource(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+        storeContent(resource, content);
+        try {
+            return createResource(resource);
+        } catch (RuntimeException e) {
+            releaseContent(resource);
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes a CloudBridge resource and releases its content.
+     *
+     * <p>Shared content is only deleted from GridFS once no other resource refers to it. The
+     * document is removed with a single {@code findAndRemove}, so of two concurrent deletes only
+     * the one that removed it releases the content reference. A resource the tier migration has
+     * moved to another tier is left for the migration to remove.</p>
+     *
+     * @param id the resource identifier.
+     * @return {@code true} if the resource was stored in MongoDB and has been deleted.
+     */
+    public boolean deleteResource(String id) {
+        CloudBridgeResource deleted = mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("id").is(id).and("movedTo").exists(false)), CloudBridgeResource.class);
+        if (deleted == null) {
+            return false;
+        }
+        cache.invalidate(STORE_NAME, List.of(id));
+        // The unfinished copy of a move was never counted.
+        if (CloudBridgeResource.isListed(deleted)) {
+            countStats(List.of(deleted), -1);
+        }
+        if (deleted.getContentRef() != null) {
+            releaseContent(deleted);
+        }
+        return true;
+    }
+
+    /**
+     * Writes the copy of a resource the tier migration moves into MongoDB.
+     *
+     * <p>Like {@link #createResource(CloudBridgeResource, InputStreamSource)}, but the copy keeps
+     * the id and dates it is given and no {@link ResourceCreatedEvent} is published, since the
+     * resource is not new. While the copy carries {@code movedFrom} it is neither listed nor
+     * counted in the storage counters (see {@link #publishCopy(String)}).</p>
+     *
+     * @param resource the resource metadata; {@code fileContent} should be left empty.
+     * @param content  the file content; it must be readable more than once.
+     * @return the saved {@link CloudBridgeResource}.
+     * @throws IOException if the content cannot be read.
+     */
+    public CloudBridgeResource copyResource(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+        storeContent(resource, content);
+        try {
+            return save(resource, false);
+        } catch (RuntimeException e) {
+            releaseContent(resource);
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a resource document exists, bypassing the metadata cache.
+     *
+     * @param id the resource identifier.
+     * @return {@code true} if MongoDB holds a resource with that id, moved or not.
+     */
+    public boolean exists(String id) {
+        return repository.existsById(id);
+    }
+
+    /**
+     * Marks a resource as moved to another tier, turning its document into a tombstone that is
+     * no longer listed or counted in the storage counters.
+     *
+     * <p>The update only matches a document that has not been moved yet. A document already
+     * marked for the same target is returned as it is, so an interrupted switch can be repeated.</p>
+     *
+     * @param id     the resource identifier.
+     * @param target the store name of the tier the resource has been copied to.
+     * @return the updated resource, or {@code null} if it no longer exists or was moved to another tier.
+     */
+    public CloudBridgeResource markMoved(String id, String target) {
+        CloudBridgeResource moved = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(id).and("movedTo").exists(false)), new Update().set("movedTo", target),
+                FindAndModifyOptions.options().returnNew(true), CloudBridgeResource.class);
+        if (moved != null) {
+            cache.invalidate(STORE_NAME, List.of(id));
+            countStats(List.of(moved), -1);
+            return moved;
+        }
+        return mongoTemplate.findOne(Query.query(Criteria.where("id").is(id).and("movedTo").is(target)), CloudBridgeResource.class);
+    }
+
+    /**
+     * Lets the copy of a moved resource show up in listings and the storage counters, once its
+     * old document has become a tombstone.
+     *
+     * @param id the resource identifier.
+     * @return the copy, or {@code null} if no copy with that id still carries {@code movedFrom}.
+     */
+    public CloudBridgeResource publishCopy(String id) {
+        CloudBridgeResource published = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("id").is(id).and("movedFrom").exists(true)), new Update().unset("movedFrom"),
+                FindAndModifyOptions.options().returnNew(true), CloudBridgeResource.class);
+        if (published != null) {
+            cache.invalidate(STORE_NAME, List.of(id));
+            countStats(List.of(published), 1);
+        }
+        return published;
+    }
+
+    /**
+     * Removes the tombstone of a moved resource without releasing its content, which readers
+     * that looked the resource up before the switch may still be streaming.
+     *
+     * @param id the resource identifier.
+     * @return the removed resource, or {@code null} if no moved resource with that id exists.
+     * @see #releaseDetachedContent(CloudBridgeResource)
+     */
+    public CloudBridgeResource detachMoved(String id) {
+        CloudBridgeResource detached = mongoTemplate.findAndRemove(
+                Query.query(Criteria.where("id").is(id).and("movedTo").exists(true)), CloudBridgeResource.class);
+        if (detached != null) {
+            cache.invalidate(STORE_NAME, List.of(id));
+        }
+        return detached;
+    }
+
+    /**
+     * Releases the content of a tombstone removed with {@link #detachMoved(String)}.
+     *
+     * @param resource the removed resource.
+     */
+    public void releaseDetachedContent(CloudBridgeResource resource) {
+        if (resource.getContentRef() != null) {
+            releaseContent(resource);
+        }
+    }
+
+    /**
+     * Creates many CloudBridge resources whose content is streamed into GridFS.
+     *
+     * <p>Each file is stored (or deduplicated) in turn; the resource documents are then written
+     * together with a single unordered bulk insert, so one failing document does not stop the
+     * others. The content reference of every document that could not be inserted is released again.</p>
+     *
+     * @param resources the resource metadata; {@code fileContent} should be left empty.
+     *                  Resources without an id are assigned one.
+     * @param contents  the file content of each resource, in the same order.
+     * @return the error message for every resource that could not be created, keyed by resource id; empty on success.
+     */
+    public Map<String, String> createResources(List<CloudBridgeResource> resources,
+                                               List<? extends InputStreamSource> contents) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        List<CloudBridgeResource> stored = new ArrayList<>(resources.size());
+        for (int i = 0; i < resources.size(); i++) {
+            CloudBridgeResource resource = resources.get(i);
+            if (resource.getId() == null) {
+                resource.setId(new ObjectId().toHexString());
+            }
+            try {
+                storeContent(resource, contents.get(i));
+                stampDates(resource);
+                stored.add(resource);
+            } catch (IOException | RuntimeException e) {
+                failures.put(resource.getId(), "Error storing file content: " + e.getMessage());
+            }
+        }
+        if (stored.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CloudBridgeResource.class)
+                    .insert(stored)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                CloudBridgeResource failed = stored.get(error.getIndex());
+                failures.put(failed.getId(), error.getMessage());
+                releaseContent(failed);
+            }
+        } catch (RuntimeException e) {
+            for (CloudBridgeResource failed : stored) {
+                failures.put(failed.getId(), e.getMessage());
+                releaseContent(failed);
+            }
+        }
+        List<CloudBridgeResource> created = stored.stream()
+                .filter(resource -> !failures.containsKey(resource.getId()))
+                .collect(Collectors.toList());
+        cache.invalidate(STORE_NAME, created.stream()
+                .map(CloudBridgeResource::getId)
+                .collect(Collectors.toList()));
+        countStats(created, 1);
+        created.forEach(resource -> events.publishEvent(ResourceCreatedEvent.of(resource)));
+        return failures;
+    }
+
+    /**
+     * @return the storage counters of the resources stored in MongoDB.
+     */
+    @Override
+    public List<ResourceStats> getStats() {
+        return statsRepository.findAll();
+    }
+
+    /**
+     * Recounts the storage counters from a cursor over the owner, type and size of every listed
+     * resource, and overwrites them.
+     */
+    @Override
+    public List<ResourceStats> rebuildStats() {
+        Query all = new Query(listed());
+        all.fields().include("fileOwner", "fileType", "fileSize");
+        Map<String, ResourceStats> totals = new LinkedHashMap<>();
+        try (Stream<CloudBridgeResource> resources = mongoTemplate.stream(all, CloudBridgeResource.class)) {
+            resources.forEach(resource -> ResourceStats.add(totals, STORE_NAME, resource, 1));
+        }
+        statsRepository.replaceAll(totals.values());
+        return new ArrayList<>(totals.values());
+    }
+
+    /**
+     * Adds created (sign 1) or deleted (sign -1) resources to the storage counters. The resources
+     * are already written, so a failure is only logged; a rebuild corrects the counters.
+     */
+    private void countStats(Collection<CloudBridgeResource> resources, int sign) {
+        if (resources.isEmpty()) {
+            return;
+        }
+        try {
+            statsRepository.increment(ResourceStats.deltasOf(STORE_NAME, resources, sign).values());
+        } catch (RuntimeException e) {
+            log.warn("Could not update the MongoDB storage statistics", e);
+        }
+    }
+
+    /**
+     * Stores content in GridFS unless identical content is already stored, and records the GridFS
+     * file id, codec, size and SHA-256 checksum on the resource.
+     */
+    private void storeContent(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+        String hash;
+        long size;
+        byte[] sample;
+        try (ContentDigestInputStream digesting = new ContentDigestInputStream(content.getInputStream())) {
+            sample = digesting.readNBytes(codecSelector.getSampleBytes());
+            digesting.transferTo(OutputStream.nullOutputStream());
+            hash = digesting.getSha256();
+            size = digesting.getSize();
+        }
+        resource.setContentHash(hash);
+        resource.setFileSize(size);
+
+        ContentCodec codec = codecSelector.select(resource.getFileType(), sample, sample.length);
+        ObjectId uploaded = null;
+        long storedSize = 0;
+        // A concurrent upload of the same content can win the insert; attach to it on the next round.
+        for (int attempt = 0; attempt < 3; attempt++) {
+            ContentReference existing = contentRepository.acquire(hash);
+            if (existing != null) {
+                if (uploaded != null) {
+                    deleteGridFsFile(uploaded.toHexString());
+                }
+                resource.setContentRef(existing.getGridFsId());
+                resource.setContentCodec(existing.getCodec());
+                dedupStats.record(STORE_NAME, size, true);
+                return;
+            }
+            if (uploaded == null) {
+                try (ContentCodec.EncodingInputStream in = codec.encode(content.getInputStream())) {
+                    uploaded = gridFsTemplate.store(in, resource.getFileName(), resource.getFileType());
+                    storedSize = in.getEncodedSize();
+                }
+            }
+            if (contentRepository.create(new ContentReference(hash, uploaded.toHexString(), size, codec.getName(), 1L, Instant.now().toString()))) {
+                resource.setContentRef(uploaded.toHexString());
+                resource.setContentCodec(codec.getName());
+                dedupStats.record(STORE_NAME, size, false);
+                compressionStats.record(STORE_NAME, codec, size, storedSize);
+                return;
+            }
+        }
+        deleteGridFsFile(uploaded.toHexString());
+        throw new IllegalStateException("Could not store content " + hash + ": concurrent updates kept conflicting.");
+    }
+
+    /**
+     * Releases the resource's reference to its content. Content stored before deduplication is
+     * owned by a single resource and its GridFS file is deleted directly.
+     */
+    private void releaseContent(CloudBridgeResource resource) {
+        if (resource.getContentHash() == null || !contentRepository.release(resource.getContentHash(), resource.getContentRef())) {
+            deleteGridFsFile(resource.getContentRef());
+        }
+    }
+
+    /**
+     * Matches the documents that listings show: neither the tombstone nor the unfinished copy of a move.
+     */
+    private static Criteria listed() {
+        return Criteria.where("movedTo").exists(false).and("movedFrom").exists(false);
+    }
+
+    private void deleteGridFsFile(String fileId) {
+        gridFsTemplate.delete(Query.query(Criteria.where("_id").is(new ObjectId(fileId))));
+    }
+
+    /**
+     * Sets dateInserted and dateModified to the current timestamp if not provided, since
+     * paginated listings use them as the keyset order, and their epoch copies used by queries.
+     */
+    private static void stampDates(CloudBridgeResource resource) {
+        Instant now = Instant.now();
+        if (resource.getDateInserted() == null || resource.getDateInserted().trim().isEmpty()) {
+            resource.setDateInserted(now.toString());
+        }
+        if (resource.getDateModified() == null || resource.getDateModified().trim().isEmpty()) {
+            resource.setDateModified(now.toString());
+        }
+        // Sortable copies for indexed queries; free-form dates fall back to the current time.
+        if (resource.getInsertedAt() == null) {
+            Long insertedAt = CloudBridgeResource.epochMillisOf(resource.getDateInserted());
+            resource.setInsertedAt(insertedAt != null ? insertedAt : now.toEpochMilli());
+        }
+        if (resource.getModifiedAt() == null) {
+            Long modifiedAt = CloudBridgeResource.epochMillisOf(resource.getDateModified());
+            resource.setModifiedAt(modifiedAt != null ? modifiedAt : now.toEpochMilli());
+        }
+    }
+
+    /**
+     * Retrieves the stored file content of a resource.
+     *
+     * <p>GridFS content is read straight from the GridFS download stream; a range read skips to
+     * the GridFS chunk holding the first requested byte instead of reading the preceding
+     * chunks. Resources stored before GridFS was used still carry their content inline.</p>
+     *
+     * <p>A resource moved to another tier is served from there, so its tombstone has no content.</p>
+     *
+     * @param id the resource identifier.
+     * @return the content, or an empty {@link Optional} if MongoDB holds no content for that id.
+     */
+    public Optional<ResourceContent> getContent(String id) {
+        Optional<CloudBridgeResource> found = getResourceById(id);
+        if (found.isEmpty() || found.get().getMovedTo() != null) {
+            return Optional.empty();
+        }
+        CloudBridgeResource resource = found.get();
+        if (resource.getContentRef() == null) {
+            return resource.getFileContent() == null ? Optional.empty() : Optional.of(ResourceContent.inline(resource));
+        }
+        GridFSFile file = gridFsTemplate.findOne(Query.query(Criteria.where("_id").is(new ObjectId(resource.getContentRef()))));
+        if (file == null) {
+            log.warn("GridFS content {} of resource {} is missing.", resource.getContentRef(), id);
+            return Optional.empty();
+        }
+        return Optional.of(new GridFsContent(resource, file));
+    }
+
+    /**
+     * Content stored as a GridFS file.
+     */
+    private final class GridFsContent implements ResourceContent {
+        private final CloudBridgeResource resource;
+        private final GridFSFile file;
+
+        private GridFsContent(CloudBridgeResource resource, GridFSFile file) {
+            this.resource = resource;
+            this.file = file;
+        }
+
+        @Override
+        public CloudBridgeResource getResource() {
+            return resource;
+        }
+
+        @Override
+        public long getLength() {
+            // The GridFS file holds the encoded bytes; fileSize is the original length.
+            return resource.getContentCodec() == null ? file.getLength() : resource.getFileSize();
+        }
+
+        @Override
+        public void writeTo(OutputStream out, long offset, long length) throws IOException {
+            ContentCodec codec = ContentCodec.of(resource.getContentCodec());
+            try (InputStream in = codec.decode(gridFsTemplate.getResource(file).getInputStream())) {
+                ResourceContent.copyRange(in, out, offset, length, getLength());
+            }
+        }
     }
 
     // More business logic methods can be added here as needed.
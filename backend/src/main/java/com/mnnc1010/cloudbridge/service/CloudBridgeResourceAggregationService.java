@@ -0,0 +1,319 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourceCursor;
+import com.mnnc1010.cloudbridge.model.ResourcePage;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service that builds paginated resource listings across all configured data stores.
+ *
+ * <p>Each page is a k-way merge of the stores: every store that still has data contributes at
+ * most one page worth of summaries, read after the position stored in the cursor, and the
+ * heads of those pages are interleaved by {@code dateInserted} until the page is full. Only the
+ * resources that were actually handed out advance the cursor, so memory per request is bounded
+ * by {@code limit * stores} regardless of how many resources exist.</p>
+ *
+ * <p>A listing has no order across stores. MongoDB pages are sorted newest first, but DynamoDB
+ * pages follow the table's scan order, which has nothing to do with insertion time; the
+ * interleave only keeps each store's own order, so every resource is listed exactly once but a
+ * later page may hold newer resources than an earlier one. Clients that need resources in time
+ * order use {@link #query}, which reads the stores through their {@code insertedAt} indexes.</p>
+ *
+ * <p>The per-store reads run concurrently, so a page costs as much as the slowest store rather
+ * than the sum of all stores. Stores with a non-blocking client read without holding a thread;
+ * the others run on a bounded executor. No thread waits for the reads: the page is merged
+ * once the last store has answered or missed its deadline. Each store read has a deadline
+ * ({@code cloudbridge.aggregation.timeoutMs.<store>}, falling back to
+ * {@code cloudbridge.aggregation.timeoutMs.default}). A store that misses its deadline or fails is
+ * flagged as partial in the page, its cursor position is left untouched and it is retried on
+ * the next page, while the results of the other stores are still returned. A read that misses
+ * its deadline is abandoned rather than interrupted; it only ever reads a single page.</p>
+ *
+ * <p>Store pages are served from the {@link ResourceMetadataCache} when a recent read of the
+ * same position is cached there.</p>
+ *
+ * <p>Listings too large to page through can be streamed instead, store by store, with
+ * {@link #streamResourceSummaries()}.</p>
+ *
+ * <p>Filtered queries are merged the same way from the {@link ResourceQuerySource} views of the
+ * stores, ordered by {@code insertedAt}. Their pages are not cached.</p>
+ */
+@Service
+public class CloudBridgeResourceAggregationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CloudBridgeResourceAggregationService.class);
+
+    /**
+     * Newest resources first, with resources that have no {@code dateInserted} last.
+     * Ties are broken by id so that the order is total. Listing pages only use it to pick
+     * between the heads of the store pages; see the class comment.
+     */
+    static final Comparator<CloudBridgeResourceSummary> NEWEST_FIRST = Comparator
+            .comparing(CloudBridgeResourceSummary::getDateInserted, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(CloudBridgeResourceSummary::getId, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .reversed();
+
+    /**
+     * Newest resources first by {@code insertedAt}, ties broken by id; the order of query results.
+     */
+    static final Comparator<CloudBridgeResourceSummary> NEWEST_INSERTED_FIRST = Comparator
+            .comparing(CloudBridgeResourceSummary::getInsertedAt, Comparator.nullsFirst(Comparator.<Long>naturalOrder()))
+            .thenComparing(CloudBridgeResourceSummary::getId, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .reversed();
+
+    private final List<ResourcePageSource> sources;
+    private final List<ResourceQuerySource> querySources;
+    private final ExecutorService executor;
+    private final ResourceMetadataCache cache;
+    private final Environment environment;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    /**
+     * Constructor for dependency injection of the stores to aggregate.
+     *
+     * @param sources      every store that can be listed page by page.
+     * @param querySources every store that can answer filtered queries.
+     * @param executor     the executor that runs the per-store reads.
+     * @param cache        the cache that serves recently read pages.
+     * @param environment  the environment used to resolve per-store deadlines.
+     * @param defaultLimit the page size used when the client does not request one.
+     * @param maxLimit     the largest page size a client may request.
+     */
+    @Autowired
+    public CloudBridgeResourceAggregationService(List<ResourcePageSource> sources,
+                                                 List<ResourceQuerySource> querySources,
+                                                 @Qualifier("storeReadExecutor") ExecutorService executor,
+                                                 ResourceMetadataCache cache,
+                                                 Environment environment,
+                                                 @Value("${cloudbridge.pagination.defaultLimit:50}") int defaultLimit,
+                                                 @Value("${cloudbridge.pagination.maxLimit:500}") int maxLimit) {
+        this.sources = sources;
+        this.querySources = querySources;
+        this.executor = executor;
+        this.cache = cache;
+        this.environment = environment;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Retrieves one page of resource summaries merged across all stores, in no global order.
+     *
+     * @param limit  the requested page size, or {@code null} for the default.
+     * @param cursor the continuation token from the previous page, or {@code null} for the first page.
+     * @return a future of the page and the token for the next one; it fails with an
+     *         {@link IllegalArgumentException} if a store rejects the cursor position.
+     * @throws IllegalArgumentException if the limit or cursor is invalid.
+     */
+    public CompletableFuture<ResourcePage> getResourcePage(Integer limit, String cursor) {
+        return merge(sources, resolveLimit(limit), ResourceCursor.decode(cursor), NEWEST_FIRST, true);
+    }
+
+    /**
+     * Retrieves one page of resource summaries from a single store.
+     *
+     * @param source the store to list.
+     * @param limit  the requested page size, or {@code null} for the default.
+     * @param cursor the continuation token from the previous page, or {@code null} for the first page.
+     * @return a future of the page and the token for the next one; it fails with an
+     *         {@link IllegalArgumentException} if the store rejects the cursor position.
+     * @throws IllegalArgumentException if the limit or cursor is invalid.
+     */
+    public CompletableFuture<ResourcePage> getResourcePage(ResourcePageSource source, Integer limit, String cursor) {
+        return merge(List.of(source), resolveLimit(limit), ResourceCursor.decode(cursor), NEWEST_FIRST, true);
+    }
+
+    /**
+     * Streams the summaries of every resource in every store, for listings too large to page.
+     *
+     * <p>The stores are read one after the other, each straight off its cursor or scan in pages
+     * of {@code cloudbridge.pagination.maxLimit}, so the full listing is never held in memory.
+     * Resources are in store order within each store; the stores are not merged by date. The
+     * caller must close the stream, which releases the cursor of the store being read.</p>
+     *
+     * @return a lazy stream of all summaries.
+     */
+    public Stream<CloudBridgeResourceSummary> streamResourceSummaries() {
+        return sources.stream().flatMap(source -> source.streamResourceSummaries(maxLimit));
+    }
+
+    /**
+     * Retrieves one page of the resources matching a query, merged across the queried stores.
+     *
+     * @param query  the filters; {@code fileStorage}, if set, selects the single store to query.
+     * @param limit  the requested page size, or {@code null} for the default.
+     * @param cursor the continuation token from the previous page, or {@code null} for the first page.
+     * @return a future of the page and the token for the next one; it fails with an
+     *         {@link IllegalArgumentException} if a store rejects the query or cursor position.
+     * @throws IllegalArgumentException if the limit, cursor or {@code fileStorage} is invalid.
+     */
+    public CompletableFuture<ResourcePage> query(ResourceQuery query, Integer limit, String cursor) {
+        List<ResourcePageSource> stores = querySources.stream()
+                .filter(store -> query.getFileStorage() == null || store.getStoreName().equalsIgnoreCase(query.getFileStorage()))
+                .map(store -> store.query(query))
+                .collect(Collectors.toList());
+        if (stores.isEmpty()) {
+            throw new IllegalArgumentException("Unknown fileStorage: " + query.getFileStorage() + ".");
+        }
+        return merge(stores, resolveLimit(limit), ResourceCursor.decode(cursor), NEWEST_INSERTED_FIRST, false);
+    }
+
+    private int resolveLimit(Integer limit) {
+        if (limit == null) {
+            return defaultLimit;
+        }
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit + ".");
+        }
+        return limit;
+    }
+
+    private long timeoutMillis(ResourcePageSource store) {
+        long fallback = environment.getProperty("cloudbridge.aggregation.timeoutMs.default", Long.class, 2000L);
+        return environment.getProperty("cloudbridge.aggregation.timeoutMs." + store.getStoreName(), Long.class, fallback);
+    }
+
+    private CompletableFuture<ResourcePage> merge(List<ResourcePageSource> stores, int limit, ResourceCursor cursor,
+                                                  Comparator<CloudBridgeResourceSummary> order, boolean cached) {
+        // Start reading at most one page from every store that still has data, all at once,
+        // each bounded by its own deadline.
+        Map<ResourcePageSource, CompletableFuture<List<CloudBridgeResourceSummary>>> reads = new LinkedHashMap<>();
+        Map<String, Boolean> partial = new LinkedHashMap<>();
+        for (ResourcePageSource store : stores) {
+            if (cursor.isExhausted(store.getStoreName())) {
+                partial.put(store.getStoreName(), false);
+                continue;
+            }
+            String position = cursor.positionOf(store.getStoreName());
+            try {
+                CompletableFuture<List<CloudBridgeResourceSummary>> read = cached
+                        ? cache.getPage(store.getStoreName(), position, limit, () -> store.getResourcePageAsync(position, limit, executor))
+                        : store.getResourcePageAsync(position, limit, executor);
+                reads.put(store, read.orTimeout(timeoutMillis(store), TimeUnit.MILLISECONDS));
+            } catch (RejectedExecutionException e) {
+                log.warn("Skipped {} listing: read executor is saturated.", store.getStoreName());
+                partial.put(store.getStoreName(), true);
+            }
+        }
+
+        // Merge once every read has completed, failed or timed out.
+        return CompletableFuture.allOf(reads.values().toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, error) -> mergePages(stores, limit, cursor, order, reads, partial));
+    }
+
+    private ResourcePage mergePages(List<ResourcePageSource> stores, int limit, ResourceCursor cursor,
+                                    Comparator<CloudBridgeResourceSummary> order,
+                                    Map<ResourcePageSource, CompletableFuture<List<CloudBridgeResourceSummary>>> reads,
+                                    Map<String, Boolean> partial) {
+        List<StoreHead> heads = new ArrayList<>();
+        PriorityQueue<StoreHead> queue = new PriorityQueue<>((a, b) -> order.compare(a.current, b.current));
+        for (Map.Entry<ResourcePageSource, CompletableFuture<List<CloudBridgeResourceSummary>>> read : reads.entrySet()) {
+            ResourcePageSource store = read.getKey();
+            List<CloudBridgeResourceSummary> page = pageOf(store, read.getValue());
+            partial.put(store.getStoreName(), page == null);
+            if (page == null) {
+                continue;
+            }
+            StoreHead head = new StoreHead(store, page, limit);
+            heads.add(head);
+            if (head.advance()) {
+                queue.add(head);
+            }
+        }
+
+        // Merge the heads until the page is full, advancing each store's position as its items are taken.
+        List<CloudBridgeResourceSummary> items = new ArrayList<>(limit);
+        while (items.size() < limit && !queue.isEmpty()) {
+            StoreHead head = queue.poll();
+            items.add(head.current);
+            cursor.advance(head.store.getStoreName(), head.store.positionOf(head.current));
+            if (head.advance()) {
+                queue.add(head);
+            }
+        }
+
+        // A store is exhausted once it returned a short page and every item of it was handed out.
+        for (StoreHead head : heads) {
+            if (head.isDrained()) {
+                cursor.markExhausted(head.store.getStoreName());
+            }
+        }
+        boolean allExhausted = stores.stream().allMatch(store -> cursor.isExhausted(store.getStoreName()));
+        return new ResourcePage(items, allExhausted ? null : cursor.encode(), partial);
+    }
+
+    /**
+     * Returns the page of a completed store read.
+     *
+     * @return the page, or {@code null} if the store missed its deadline or failed.
+     * @throws IllegalArgumentException if the store rejected the cursor position.
+     */
+    private static List<CloudBridgeResourceSummary> pageOf(ResourcePageSource store,
+                                                           CompletableFuture<List<CloudBridgeResourceSummary>> read) {
+        try {
+            return read.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+            if (cause instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) cause;
+            }
+            if (cause instanceof TimeoutException) {
+                log.warn("Listing {} exceeded its deadline; returning partial results.", store.getStoreName());
+            } else {
+                log.warn("Listing {} failed; returning partial results.", store.getStoreName(), cause);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The unread remainder of one store's page during a merge.
+     */
+    private static final class StoreHead {
+        private final ResourcePageSource store;
+        private final Iterator<CloudBridgeResourceSummary> remaining;
+        private final boolean lastPage;
+        private CloudBridgeResourceSummary current;
+
+        private StoreHead(ResourcePageSource store, List<CloudBridgeResourceSummary> page, int limit) {
+            this.store = store;
+            this.remaining = page.iterator();
+            this.lastPage = page.size() < limit;
+        }
+
+        private boolean advance() {
+            current = remaining.hasNext() ? remaining.next() : null;
+            return current != null;
+        }
+
+        private boolean isDrained() {
+            return lastPage && current == null;
+        }
+    }
+}
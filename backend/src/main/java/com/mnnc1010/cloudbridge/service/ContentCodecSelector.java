@@ -0,0 +1,90 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Chooses the codec new content is stored with.
+ *
+ * <p>Content whose {@code fileType} is already compressed (JPEG, PNG, video, ZIP and the
+ * ZIP-based office formats, ...) is stored as-is without looking at it, since compressing it
+ * again only costs CPU. Any other content is compressed with {@link ContentCodec#DEFLATE} if a
+ * sample from its start shrinks by at least {@code cloudbridge.compression.minSavings}; text,
+ * JSON, CSV and most PDFs pass easily, while random-looking content is stored as-is.</p>
+ */
+@Component
+public class ContentCodecSelector {
+
+    private final boolean enabled;
+    private final List<String> storedTypes;
+    private final int sampleBytes;
+    private final double minSavings;
+
+    /**
+     * @param enabled     whether new content is compressed at all.
+     * @param storedTypes comma-separated media types (or prefixes ending in "/") stored without compression.
+     * @param sampleBytes how many bytes from the start of the content are test-compressed.
+     * @param minSavings  the fraction of the sample that compression must save, e.g. 0.1 for 10%.
+     */
+    @Autowired
+    public ContentCodecSelector(@Value("${cloudbridge.compression.enabled:true}") boolean enabled,
+                                @Value("${cloudbridge.compression.storedTypes:image/jpeg,image/png,image/gif,image/webp,image/avif,video/,audio/,application/zip,application/gzip,application/x-gzip,application/x-7z-compressed,application/x-rar-compressed,application/x-bzip2,application/x-xz,application/zstd,application/vnd.openxmlformats-officedocument.}") String storedTypes,
+                                @Value("${cloudbridge.compression.sampleBytes:65536}") int sampleBytes,
+                                @Value("${cloudbridge.compression.minSavings:0.1}") double minSavings) {
+        this.enabled = enabled;
+        this.storedTypes = Arrays.stream(storedTypes.split(","))
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .filter(type -> !type.isEmpty())
+                .collect(Collectors.toList());
+        this.sampleBytes = sampleBytes;
+        this.minSavings = minSavings;
+    }
+
+    /**
+     * @return how many bytes from the start of the content {@link #select(String, byte[], int)} looks at.
+     */
+    public int getSampleBytes() {
+        return sampleBytes;
+    }
+
+    /**
+     * Chooses the codec for content of the given type.
+     *
+     * @param fileType     the declared media type of the content, may be {@code null}.
+     * @param sample       the start of the content.
+     * @param sampleLength the number of valid bytes in {@code sample}.
+     * @return the codec to store the content with.
+     */
+    public ContentCodec select(String fileType, byte[] sample, int sampleLength) {
+        if (!enabled || sampleLength == 0 || isStoredAsIs(fileType)) {
+            return ContentCodec.IDENTITY;
+        }
+        int length = Math.min(sampleLength, sampleBytes);
+        int encoded = ContentCodec.DEFLATE.encode(sample, 0, length).length;
+        return encoded <= length * (1 - minSavings) ? ContentCodec.DEFLATE : ContentCodec.IDENTITY;
+    }
+
+    private boolean isStoredAsIs(String fileType) {
+        if (fileType == null) {
+            return false;
+        }
+        String type = fileType.toLowerCase(Locale.ROOT);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters);
+        }
+        type = type.trim();
+        for (String stored : storedTypes) {
+            if (stored.endsWith("/") || stored.endsWith(".") ? type.startsWith(stored) : type.equals(stored)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for content compression, kept per store and codec since the application started.
+ *
+ * <p>Every content write is recorded with its original and stored size, which gives the
+ * stored-size reduction each codec achieves on the content actually uploaded.</p>
+ */
+@Component
+public class ContentCompressionStats {
+
+    private final Map<String, Map<ContentCodec, Counters>> stores = new ConcurrentHashMap<>();
+
+    /**
+     * Records one content write.
+     *
+     * @param store       the store the content was written to.
+     * @param codec       the codec the content was stored with.
+     * @param rawBytes    the original content size in bytes.
+     * @param storedBytes the stored size in bytes.
+     */
+    public void record(String store, ContentCodec codec, long rawBytes, long storedBytes) {
+        Counters counters = stores.computeIfAbsent(store, name -> new ConcurrentHashMap<>())
+                .computeIfAbsent(codec, name -> new Counters());
+        counters.writes.incrementAndGet();
+        counters.rawBytes.addAndGet(rawBytes);
+        counters.storedBytes.addAndGet(storedBytes);
+    }
+
+    /**
+     * @return write counts, original and stored bytes and the size reduction per store and codec.
+     */
+    public Map<String, Map<String, Map<String, Object>>> getStats() {
+        Map<String, Map<String, Map<String, Object>>> stats = new LinkedHashMap<>();
+        stores.forEach((store, codecs) -> {
+            Map<String, Map<String, Object>> byCodec = new LinkedHashMap<>();
+            codecs.forEach((codec, counters) -> {
+                long raw = counters.rawBytes.get();
+                long stored = counters.storedBytes.get();
+                Map<String, Object> values = new LinkedHashMap<>();
+                values.put("writes", counters.writes.get());
+                values.put("rawBytes", raw);
+                values.put("storedBytes", stored);
+                // The fraction of the original size that did not have to be stored.
+                values.put("reduction", raw == 0 ? null : 1 - (double) stored / raw);
+                byCodec.put(codec.getName(), values);
+            });
+            stats.put(store, byCodec);
+        });
+        return stats;
+    }
+
+    private static final class Counters {
+        private final AtomicLong writes = new AtomicLong();
+        private final AtomicLong rawBytes = new AtomicLong();
+        private final AtomicLong storedBytes = new AtomicLong();
+    }
+}
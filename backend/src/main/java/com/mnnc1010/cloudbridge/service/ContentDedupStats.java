@@ -0,0 +1,67 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for content deduplication, kept per store since the application started.
+ *
+ * <p>Every upload that goes through a content store is recorded with its size and whether its
+ * content was already stored. From that the stats report the dedup ratio (bytes uploaded per
+ * byte actually written) and the bytes that did not have to be written.</p>
+ */
+@Component
+public class ContentDedupStats {
+
+    private final Map<String, Counters> stores = new ConcurrentHashMap<>();
+
+    /**
+     * Records one upload.
+     *
+     * @param store     the store the content was uploaded to.
+     * @param size      the content size in bytes.
+     * @param duplicate whether the content was already stored and only a reference was added.
+     */
+    public void record(String store, long size, boolean duplicate) {
+        Counters counters = stores.computeIfAbsent(store, name -> new Counters());
+        counters.uploads.incrementAndGet();
+        counters.bytesUploaded.addAndGet(size);
+        if (duplicate) {
+            counters.duplicateUploads.incrementAndGet();
+            counters.bytesSaved.addAndGet(size);
+        }
+    }
+
+    /**
+     * @return upload and duplicate counts, bytes uploaded, written and saved, and the dedup ratio per store.
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stores.forEach((store, counters) -> {
+            long uploaded = counters.bytesUploaded.get();
+            long saved = counters.bytesSaved.get();
+            long written = uploaded - saved;
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("uploads", counters.uploads.get());
+            values.put("duplicateUploads", counters.duplicateUploads.get());
+            values.put("bytesUploaded", uploaded);
+            values.put("bytesWritten", written);
+            values.put("bytesSaved", saved);
+            // Undefined until some content has actually been written.
+            values.put("dedupRatio", written == 0 ? null : (double) uploaded / written);
+            stats.put(store, values);
+        });
+        return stats;
+    }
+
+    private static final class Counters {
+        private final AtomicLong uploads = new AtomicLong();
+        private final AtomicLong duplicateUploads = new AtomicLong();
+        private final AtomicLong bytesUploaded = new AtomicLong();
+        private final AtomicLong bytesSaved = new AtomicLong();
+    }
+}
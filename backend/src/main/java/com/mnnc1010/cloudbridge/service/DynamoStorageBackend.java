@@ -0,0 +1,120 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The DynamoDB tier: content is read into memory and stored inline or in content chunks by
+ * {@link CloudBridgeDynamoResourceService}, so this tier is meant for small files.
+ */
+@Component
+public class DynamoStorageBackend implements MigratableStorageBackend {
+
+    private final CloudBridgeDynamoResourceService dynamoService;
+    private final long maxFileSize;
+
+    /**
+     * @param dynamoService the service storing resources in DynamoDB.
+     * @param maxFileSize   the largest file, in bytes, stored in DynamoDB.
+     */
+    @Autowired
+    public DynamoStorageBackend(CloudBridgeDynamoResourceService dynamoService,
+                                @Value("${aws.dynamodb.content.maxFileSize:1048575}") long maxFileSize) {
+        this.dynamoService = dynamoService;
+        this.maxFileSize = maxFileSize;
+    }
+
+    @Override
+    public String getStoreName() {
+        return CloudBridgeDynamoResourceService.STORE_NAME;
+    }
+
+    @Override
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    @Override
+    public CompletableFuture<CloudBridgeResource> store(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+        resource.setFileContent(readAll(content));
+        return dynamoService.createResourceAsync(resource);
+    }
+
+    @Override
+    public Map<String, String> storeAll(List<CloudBridgeResource> resources, List<? extends InputStreamSource> contents) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        List<CloudBridgeResource> readable = new ArrayList<>(resources.size());
+        for (int i = 0; i < resources.size(); i++) {
+            CloudBridgeResource resource = resources.get(i);
+            try {
+                resource.setFileContent(readAll(contents.get(i)));
+                readable.add(resource);
+            } catch (IOException e) {
+                failures.put(resource.getId(), "Error reading file content.");
+            }
+        }
+        if (!readable.isEmpty()) {
+            failures.putAll(dynamoService.createResources(readable));
+        }
+        return failures;
+    }
+
+    @Override
+    public Optional<ResourceContent> getContent(String id) {
+        return dynamoService.getContent(id);
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return dynamoService.deleteResource(id);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return dynamoService.exists(id);
+    }
+
+    @Override
+    public CloudBridgeResource copy(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+        resource.setFileContent(readAll(content));
+        return dynamoService.copyResource(resource);
+    }
+
+    @Override
+    public CloudBridgeResource markMoved(String id, String target) {
+        return dynamoService.markMoved(id, target);
+    }
+
+    @Override
+    public CloudBridgeResource publishCopy(String id) {
+        return dynamoService.publishCopy(id);
+    }
+
+    @Override
+    public CloudBridgeResource detachMoved(String id) {
+        return dynamoService.detachMoved(id);
+    }
+
+    @Override
+    public void releaseDetachedContent(CloudBridgeResource resource) {
+        dynamoService.releaseDetachedContent(resource);
+    }
+
+    private static byte[] readAll(InputStreamSource content) throws IOException {
+        try (InputStream in = content.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
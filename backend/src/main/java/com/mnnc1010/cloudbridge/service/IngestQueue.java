@@ -0,0 +1,502 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.IngestJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Write-behind ingest: uploads are spooled to local disk and stored in the background.
+ *
+ * <p>Enabled with {@code cloudbridge.ingest.enabled}. {@link #submit} writes the upload into
+ * {@code cloudbridge.ingest.directory} (content and a JSON job record, each renamed into place
+ * once complete and forced to disk) and returns as soon as it is durable, so a slow store no
+ * longer holds the request thread. A single drain thread takes up to {@code batchSize} jobs at a
+ * time, groups them by target store and writes each group with
+ * {@link StorageBackend#storeAll}. Failed jobs are retried with exponential backoff, starting at
+ * {@code initialBackoffMs} and capped at {@code maxBackoffMs}, until {@code maxAttempts} is
+ * reached.</p>
+ *
+ * <p>The queue is bounded by {@code maxJobs} and {@code maxBytes} of pending uploads; a
+ * submission that does not fit is refused instead of being spooled, and the caller answers with
+ * {@code 429}. Pending jobs are reloaded from the spool at startup. A job that was being stored
+ * when the application stopped is checked against its store before it is written again, so it
+ * is not stored twice.</p>
+ *
+ * <p>Finished jobs keep their record, without content, for {@code retentionMs} so that clients
+ * can still read their status. The spool directory belongs to one replica.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "cloudbridge.ingest.enabled", havingValue = "true")
+public class IngestQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestQueue.class);
+
+    private static final String CONTENT_SUFFIX = ".bin";
+    private static final String RECORD_SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Job ids become file names, so only these characters are accepted.
+     */
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+
+    private final Path directory;
+    private final StorageTierRouter storageRouter;
+    private final UploadMetrics uploadMetrics;
+    private final ObjectMapper objectMapper;
+    private final int maxJobs;
+    private final long maxBytes;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final long retentionMs;
+
+    private final Map<String, IngestJob> jobs = new ConcurrentHashMap<>();
+    private final DelayQueue<Ready> ready = new DelayQueue<>();
+    private final AtomicInteger pendingJobs = new AtomicInteger();
+    private final AtomicLong pendingBytes = new AtomicLong();
+    private final Thread drainer;
+    private volatile boolean running = true;
+
+    /**
+     * Creates the spool directory if needed, reloads the jobs it holds and starts draining.
+     *
+     * @param directory        the spool directory.
+     * @param maxJobs          the largest number of pending jobs.
+     * @param maxBytes         the largest total size of pending uploads.
+     * @param batchSize        the largest number of jobs stored together.
+     * @param maxAttempts      how many times a job is attempted before it fails.
+     * @param initialBackoffMs the delay before the first retry; it doubles with every further attempt.
+     * @param maxBackoffMs     the longest delay between two attempts.
+     * @param retentionMs      how long the record of a finished job is kept.
+     * @param storageRouter    the router resolving each job's store.
+     * @param uploadMetrics    the upload metrics updated when a job finishes.
+     * @param objectMapper     the mapper for the job records.
+     */
+    @Autowired
+    public IngestQueue(@Value("${cloudbridge.ingest.directory:./data/ingest-spool}") String directory,
+                       @Value("${cloudbridge.ingest.maxJobs:1000}") int maxJobs,
+                       @Value("${cloudbridge.ingest.maxBytes:2147483648}") long maxBytes,
+                       @Value("${cloudbridge.ingest.batchSize:25}") int batchSize,
+                       @Value("${cloudbridge.ingest.maxAttempts:8}") int maxAttempts,
+                       @Value("${cloudbridge.ingest.initialBackoffMs:500}") long initialBackoffMs,
+                       @Value("${cloudbridge.ingest.maxBackoffMs:60000}") long maxBackoffMs,
+                       @Value("${cloudbridge.ingest.retentionMs:3600000}") long retentionMs,
+                       StorageTierRouter storageRouter,
+                       UploadMetrics uploadMetrics,
+                       ObjectMapper objectMapper) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.maxJobs = maxJobs;
+        this.maxBytes = maxBytes;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxAttempts = Math.max(maxAttempts, 1);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.retentionMs = retentionMs;
+        this.storageRouter = storageRouter;
+        this.uploadMetrics = uploadMetrics;
+        this.objectMapper = objectMapper;
+        try {
+            Files.createDirectories(this.directory);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the ingest spool directory " + this.directory, e);
+        }
+        log.info("Ingest queue recovered {} pending uploads from {}", pendingJobs.get(), this.directory);
+        this.drainer = new Thread(this::drain, "ingest-drain");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /**
+     * Spools an upload and queues it for its store.
+     *
+     * <p>The multipart file is moved into the spool when the servlet container already holds it
+     * on disk, and copied otherwise.</p>
+     *
+     * @param resource the resource metadata, with its id, {@code fileStorage} and {@code fileSize} set.
+     * @param file     the uploaded file.
+     * @return the queued job, or an empty {@link Optional} if the queue is full.
+     * @throws IOException if the upload cannot be spooled.
+     */
+    public Optional<IngestJob> submit(CloudBridgeResource resource, MultipartFile file) throws IOException {
+        if (!isValidId(resource.getId())) {
+            throw new IllegalArgumentException("Invalid resource id.");
+        }
+        long size = file.getSize();
+        if (!reserve(size)) {
+            return Optional.empty();
+        }
+        IngestJob job = new IngestJob(resource, System.currentTimeMillis());
+        Path contentFile = fileOf(job.getId(), CONTENT_SUFFIX);
+        Path tempFile = fileOf(job.getId(), CONTENT_SUFFIX + TEMP_SUFFIX);
+        try {
+            file.transferTo(tempFile.toFile());
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempFile, contentFile, StandardCopyOption.ATOMIC_MOVE);
+            writeRecord(job);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            Files.deleteIfExists(contentFile);
+            release(size);
+            throw e;
+        }
+        jobs.put(job.getId(), job);
+        ready.add(new Ready(job.getId(), 0));
+        return Optional.of(job);
+    }
+
+    /**
+     * @param id the job id, which is also the id of the resource it creates.
+     * @return the job, or an empty {@link Optional} if it is unknown or its record has expired.
+     */
+    public Optional<IngestJob> getJob(String id) {
+        return isValidId(id) ? Optional.ofNullable(jobs.get(id)) : Optional.empty();
+    }
+
+    /**
+     * @return the number and size of pending uploads together with the limits.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", true);
+        stats.put("pendingJobs", pendingJobs.get());
+        stats.put("pendingBytes", pendingBytes.get());
+        stats.put("maxJobs", maxJobs);
+        stats.put("maxBytes", maxBytes);
+        return stats;
+    }
+
+    /**
+     * Stops the drain thread. Jobs that have not been stored stay in the spool and are resumed at
+     * the next startup.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        drainer.interrupt();
+        drainer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private boolean reserve(long size) {
+        while (true) {
+            int jobsNow = pendingJobs.get();
+            if (jobsNow >= maxJobs) {
+                return false;
+            }
+            if (pendingJobs.compareAndSet(jobsNow, jobsNow + 1)) {
+                break;
+            }
+        }
+        while (true) {
+            long bytesNow = pendingBytes.get();
+            // A single upload larger than the whole budget is still accepted into an empty queue.
+            if (bytesNow > 0 && bytesNow + size > maxBytes) {
+                pendingJobs.decrementAndGet();
+                return false;
+            }
+            if (pendingBytes.compareAndSet(bytesNow, bytesNow + size)) {
+                return true;
+            }
+        }
+    }
+
+    private void release(long size) {
+        pendingJobs.decrementAndGet();
+        pendingBytes.addAndGet(-size);
+    }
+
+    private void drain() {
+        while (running) {
+            List<Ready> batch = new ArrayList<>(batchSize);
+            try {
+                Ready first = ready.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    purgeFinished();
+                    continue;
+                }
+                batch.add(first);
+                ready.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Could not purge finished ingest jobs", e);
+                continue;
+            }
+            Map<String, List<IngestJob>> byStore = new LinkedHashMap<>();
+            for (Ready entry : batch) {
+                IngestJob job = jobs.get(entry.id);
+                if (job != null && job.isPending()) {
+                    byStore.computeIfAbsent(job.getFileStorage(), store -> new ArrayList<>()).add(job);
+                }
+            }
+            byStore.forEach((store, jobsOfStore) -> {
+                try {
+                    storeBatch(store, jobsOfStore);
+                } catch (RuntimeException e) {
+                    // The drain thread must survive anything a store throws; the jobs it was
+                    // storing are queued again like after any other failed attempt.
+                    log.warn("Storing {} ingest jobs to {} failed", jobsOfStore.size(), store, e);
+                    for (IngestJob job : jobsOfStore) {
+                        if (IngestJob.STORING.equals(job.getStatus())) {
+                            retryOrFail(job, e.getMessage());
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private void storeBatch(String store, List<IngestJob> batch) {
+        // From here on a job is either finished or queued again, also when something throws.
+        for (IngestJob job : batch) {
+            job.setStatus(IngestJob.STORING);
+            job.setAttempts(job.getAttempts() + 1);
+            update(job);
+        }
+        Optional<StorageBackend> backend = storageRouter.getBackend(store);
+        if (backend.isEmpty()) {
+            batch.forEach(job -> fail(job, "Storage tier " + store + " is not available."));
+            return;
+        }
+
+        List<IngestJob> toStore = new ArrayList<>(batch.size());
+        for (IngestJob job : batch) {
+            if (job.getAttempts() == 1) {
+                toStore.add(job);
+                continue;
+            }
+            // A job attempted before may have been stored just before a failure or restart.
+            try {
+                if (backend.get().getContent(job.getId()).isPresent()) {
+                    complete(job);
+                } else {
+                    toStore.add(job);
+                }
+            } catch (RuntimeException e) {
+                retryOrFail(job, e.getMessage());
+            }
+        }
+        if (toStore.isEmpty()) {
+            return;
+        }
+
+        List<CloudBridgeResource> resources = new ArrayList<>(toStore.size());
+        List<InputStreamSource> contents = new ArrayList<>(toStore.size());
+        for (IngestJob job : toStore) {
+            resources.add(job.getResource());
+            contents.add(new FileSystemResource(fileOf(job.getId(), CONTENT_SUFFIX)));
+        }
+
+        Map<String, String> failures;
+        try {
+            failures = backend.get().storeAll(resources, contents);
+        } catch (RuntimeException e) {
+            failures = new LinkedHashMap<>();
+            for (IngestJob job : toStore) {
+                failures.put(job.getId(), e.getMessage());
+            }
+        }
+        // Stores that take content inline set it on the resource; it must not end up in the job record.
+        resources.forEach(resource -> resource.setFileContent(null));
+        for (IngestJob job : toStore) {
+            String error = failures.get(job.getId());
+            if (error == null) {
+                complete(job);
+            } else {
+                retryOrFail(job, error);
+            }
+        }
+    }
+
+    private void complete(IngestJob job) {
+        job.setStatus(IngestJob.STORED);
+        job.setLastError(null);
+        finish(job);
+        uploadMetrics.recordStored(job.getFileStorage(), job.getResource().getFileSize());
+    }
+
+    private void retryOrFail(IngestJob job, String error) {
+        if (job.getAttempts() >= maxAttempts) {
+            fail(job, error);
+            return;
+        }
+        job.setStatus(IngestJob.QUEUED);
+        job.setLastError(error);
+        update(job);
+        long backoff = Math.min(maxBackoffMs, initialBackoffMs << Math.min(job.getAttempts() - 1, 20));
+        ready.add(new Ready(job.getId(), backoff));
+    }
+
+    private void fail(IngestJob job, String error) {
+        job.setStatus(IngestJob.FAILED);
+        job.setLastError(error);
+        finish(job);
+        uploadMetrics.recordFailed(job.getFileStorage());
+    }
+
+    /**
+     * Releases the place of a job that has left the queue and its spooled content.
+     */
+    private void finish(IngestJob job) {
+        update(job);
+        release(job.getResource().getFileSize());
+        try {
+            Files.deleteIfExists(fileOf(job.getId(), CONTENT_SUFFIX));
+        } catch (IOException e) {
+            log.warn("Could not delete the spooled content of ingest job {}", job.getId(), e);
+        }
+    }
+
+    private void update(IngestJob job) {
+        job.setUpdatedAt(System.currentTimeMillis());
+        try {
+            writeRecord(job);
+        } catch (IOException e) {
+            // The in-memory state stays authoritative; at worst a restart repeats an attempt.
+            log.warn("Could not update the record of ingest job {}", job.getId(), e);
+        }
+    }
+
+    private void purgeFinished() {
+        long expired = System.currentTimeMillis() - retentionMs;
+        for (IngestJob job : jobs.values()) {
+            if (!job.isPending() && job.getUpdatedAt() < expired) {
+                jobs.remove(job.getId());
+                try {
+                    Files.deleteIfExists(fileOf(job.getId(), RECORD_SUFFIX));
+                } catch (IOException e) {
+                    log.warn("Could not delete the record of ingest job {}", job.getId(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reloads the job records and queues the pending jobs again; removes temporary files and
+     * content without a record.
+     */
+    private void load() throws IOException {
+        List<Path> contentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(CONTENT_SUFFIX)) {
+                    contentFiles.add(file);
+                } else if (name.endsWith(RECORD_SUFFIX)) {
+                    IngestJob job = objectMapper.readValue(file.toFile(), IngestJob.class);
+                    jobs.put(job.getId(), job);
+                }
+            }
+        }
+        for (Path file : contentFiles) {
+            String name = file.getFileName().toString();
+            IngestJob job = jobs.get(name.substring(0, name.length() - CONTENT_SUFFIX.length()));
+            if (job == null || !job.isPending()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (IngestJob job : jobs.values()) {
+            if (!job.isPending()) {
+                continue;
+            }
+            if (!Files.exists(fileOf(job.getId(), CONTENT_SUFFIX))) {
+                job.setStatus(IngestJob.FAILED);
+                job.setLastError("The spooled content is missing.");
+                job.setUpdatedAt(System.currentTimeMillis());
+                writeRecord(job);
+                continue;
+            }
+            job.setStatus(IngestJob.QUEUED);
+            pendingJobs.incrementAndGet();
+            pendingBytes.addAndGet(job.getResource().getFileSize());
+            ready.add(new Ready(job.getId(), 0));
+        }
+    }
+
+    private void writeRecord(IngestJob job) throws IOException {
+        Path recordFile = fileOf(job.getId(), RECORD_SUFFIX);
+        Path tempFile = fileOf(job.getId(), RECORD_SUFFIX + TEMP_SUFFIX);
+        try (FileChannel target = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.wrap(objectMapper.writeValueAsBytes(job));
+            while (record.hasRemaining()) {
+                target.write(record);
+            }
+            target.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, recordFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path fileOf(String id, String suffix) {
+        return directory.resolve(id + suffix);
+    }
+
+    private static boolean isValidId(String id) {
+        return id != null && VALID_ID.matcher(id).matches();
+    }
+
+    /**
+     * A job that may be attempted once its delay has passed.
+     */
+    private static final class Ready implements Delayed {
+        private final String id;
+        private final long dueNanos;
+
+        private Ready(String id, long delayMs) {
+            this.id = id;
+            this.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
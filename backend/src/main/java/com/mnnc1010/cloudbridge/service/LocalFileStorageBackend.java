@@ -0,0 +1,494 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourceCreatedEvent;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import com.mnnc1010.cloudbridge.model.ResourceStats;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The local-disk tier: content is kept in files under {@code cloudbridge.storage.local.directory}.
+ *
+ * <p>Uploads are written through a {@link FileChannel} into a temporary file that is renamed
+ * into place once complete, so a crash never leaves a partial file behind under a resource id.
+ * Reads are positional reads into a single buffer per request, which is written to the response
+ * as it fills. (The response is a servlet stream, not a channel the kernel can transfer a file
+ * into, so neither memory mapping nor {@link FileChannel#transferTo} would save a copy.)</p>
+ *
+ * <p>The metadata of each resource is stored next to its content as JSON and loaded into an
+ * in-memory index at startup, which serves listings and queries. The {@link ResourceStats}
+ * counters are kept in memory alongside the index and updated with it. Content is stored as-is
+ * (not compressed or deduplicated) so that any byte range maps directly onto the file.</p>
+ *
+ * <p>The directory belongs to one replica. With several replicas, either point them at shared
+ * storage or only enable the tier where a single replica serves the data.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "cloudbridge.storage.local.enabled", havingValue = "true")
+public class LocalFileStorageBackend implements StorageBackend, ResourcePageSource, ResourceQuerySource, ResourceStatsSource {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalFileStorageBackend.class);
+
+    /**
+     * The store name reported in {@code fileStorage} and used in pagination cursors.
+     */
+    public static final String STORE_NAME = "Local";
+
+    private static final String CONTENT_SUFFIX = ".bin";
+    private static final String METADATA_SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Ids become file names, so only these characters are accepted.
+     */
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+
+    /**
+     * Bytes transferred from an upload into its file per call.
+     */
+    private static final long TRANSFER_BYTES = 8L * 1024 * 1024;
+
+    /**
+     * Buffer size for content reads.
+     */
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Listing order: newest first by {@code dateInserted}, ties broken by id, as in the other stores.
+     */
+    private static final Comparator<CloudBridgeResource> NEWEST_FIRST = Comparator
+            .comparing(CloudBridgeResource::getDateInserted, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(CloudBridgeResource::getId, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .reversed();
+
+    /**
+     * Query order: newest first by {@code insertedAt}, ties broken by id.
+     */
+    private static final Comparator<CloudBridgeResource> NEWEST_INSERTED_FIRST = Comparator
+            .comparing(CloudBridgeResource::getInsertedAt, Comparator.nullsFirst(Comparator.<Long>naturalOrder()))
+            .thenComparing(CloudBridgeResource::getId, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .reversed();
+
+    private final Path directory;
+    private final long maxFileSize;
+    private final boolean fsync;
+    private final ObjectMapper objectMapper;
+    private final ResourceMetadataCache cache;
+    private final ApplicationEventPublisher events;
+
+    private final Map<String, CloudBridgeResource> resources = new ConcurrentHashMap<>();
+    private final NavigableSet<CloudBridgeResource> byDateInserted = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+    private final NavigableSet<CloudBridgeResource> byInsertedAt = new ConcurrentSkipListSet<>(NEWEST_INSERTED_FIRST);
+    private final Map<String, ResourceStats> stats = new LinkedHashMap<>();
+
+    /**
+     * Creates the directory if needed and loads the metadata of the stored resources.
+     *
+     * @param directory       the directory holding content and metadata files.
+     * @param maxFileSize     the largest file, in bytes, stored in this tier.
+     * @param fsync           whether content and metadata are forced to disk before an upload completes.
+     * @param objectMapper    the mapper for the metadata files.
+     * @param cache           the metadata cache in front of listing pages.
+     * @param events          the publisher of {@link ResourceCreatedEvent}s.
+     */
+    @Autowired
+    public LocalFileStorageBackend(@Value("${cloudbridge.storage.local.directory:./data/local-tier}") String directory,
+                                   @Value("${cloudbridge.storage.local.maxFileSize:536870912}") long maxFileSize,
+                                   @Value("${cloudbridge.storage.local.fsync:true}") boolean fsync,
+                                   ObjectMapper objectMapper,
+                                   ResourceMetadataCache cache,
+                                   ApplicationEventPublisher events) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.maxFileSize = maxFileSize;
+        this.fsync = fsync;
+        this.objectMapper = objectMapper;
+        this.cache = cache;
+        this.events = events;
+        try {
+            Files.createDirectories(this.directory);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the local storage directory " + this.directory, e);
+        }
+        log.info("Local storage tier holds {} resources in {}", resources.size(), this.directory);
+    }
+
+    @Override
+    public String getStoreName() {
+        return STORE_NAME;
+    }
+
+    @Override
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Writes the content to a new file and then the metadata next to it.
+     *
+     * <p>The upload is transferred into a temporary file with {@link FileChannel#transferFrom},
+     * which lets the channel copy straight from the upload stream, while its size and SHA-256
+     * checksum are computed. The file is renamed into place only once it is complete.</p>
+     */
+    @Override
+    public CompletableFuture<CloudBridgeResource> store(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+        if (resource.getId() == null) {
+            resource.setId(UUID.randomUUID().toString());
+        }
+        if (!isValidId(resource.getId())) {
+            throw new IllegalArgumentException("Invalid resource id.");
+        }
+        resource.setFileStorage(STORE_NAME);
+        resource.setFileContent(null);
+        stampDates(resource);
+
+        Path contentFile = fileOf(resource.getId(), CONTENT_SUFFIX);
+        Path tempFile = fileOf(resource.getId(), CONTENT_SUFFIX + TEMP_SUFFIX);
+        try (ContentDigestInputStream in = new ContentDigestInputStream(content.getInputStream());
+             ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = target.transferFrom(source, position, TRANSFER_BYTES)) > 0) {
+                position += transferred;
+            }
+            if (fsync) {
+                target.force(true);
+            }
+            resource.setFileSize(in.getSize());
+            resource.setContentHash(in.getSha256());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, contentFile, StandardCopyOption.ATOMIC_MOVE);
+
+        try {
+            writeMetadata(resource);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(contentFile);
+            throw e;
+        }
+        index(resource);
+        cache.invalidate(STORE_NAME, List.of(resource.getId()));
+        events.publishEvent(ResourceCreatedEvent.of(resource));
+        return CompletableFuture.completedFuture(resource);
+    }
+
+    @Override
+    public Optional<ResourceContent> getContent(String id) {
+        if (!isValidId(id)) {
+            return Optional.empty();
+        }
+        CloudBridgeResource resource = resources.get(id);
+        if (resource == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileContent(resource, fileOf(id, CONTENT_SUFFIX)));
+    }
+
+    @Override
+    public boolean delete(String id) {
+        if (!isValidId(id)) {
+            return false;
+        }
+        CloudBridgeResource removed = resources.remove(id);
+        if (removed == null) {
+            return false;
+        }
+        byDateInserted.remove(removed);
+        byInsertedAt.remove(removed);
+        countStats(removed, -1);
+        cache.invalidate(STORE_NAME, List.of(id));
+        try {
+            // The metadata goes first, so a failure in between leaves an orphaned content file that
+            // is removed at the next startup rather than metadata without content.
+            Files.deleteIfExists(fileOf(id, METADATA_SUFFIX));
+            Files.deleteIfExists(fileOf(id, CONTENT_SUFFIX));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error deleting the files of resource " + id, e);
+        }
+        return true;
+    }
+
+    /**
+     * Retrieves the page of resource summaries that follows the given position, newest first.
+     *
+     * <p>The position has the form {@code dateInserted|id}, as in MongoDB.</p>
+     */
+    @Override
+    public List<CloudBridgeResourceSummary> getResourcePage(String position, int limit) {
+        NavigableSet<CloudBridgeResource> remaining = byDateInserted;
+        if (position != null) {
+            int separator = position.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor.");
+            }
+            CloudBridgeResource after = new CloudBridgeResource();
+            after.setDateInserted(separator == 0 ? null : position.substring(0, separator));
+            after.setId(position.substring(separator + 1));
+            remaining = byDateInserted.tailSet(after, false);
+        }
+        return remaining.stream()
+                .limit(limit)
+                .map(CloudBridgeResourceSummary::from)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String positionOf(CloudBridgeResourceSummary resource) {
+        String dateInserted = resource.getDateInserted() == null ? "" : resource.getDateInserted();
+        return dateInserted + "|" + resource.getId();
+    }
+
+    /**
+     * Streams the summaries of every resource, newest first, from the in-memory index.
+     */
+    @Override
+    public Stream<CloudBridgeResourceSummary> streamResourceSummaries(int pageSize) {
+        return byDateInserted.stream().map(CloudBridgeResourceSummary::from);
+    }
+
+    /**
+     * Returns a view that pages through the resources matching a query, read from the in-memory
+     * index ordered by {@code insertedAt}.
+     */
+    @Override
+    public ResourcePageSource query(ResourceQuery query) {
+        return new ResourceQueryView(STORE_NAME, (afterInsertedAt, afterId, limit) -> {
+            CloudBridgeResource start = null;
+            if (query.getInsertedTo() != null) {
+                // Sorts after every resource inserted at insertedTo, since ids sort last when missing.
+                start = probe(query.getInsertedTo(), null);
+            }
+            if (afterInsertedAt != null) {
+                CloudBridgeResource after = probe(afterInsertedAt, afterId);
+                if (start == null || NEWEST_INSERTED_FIRST.compare(after, start) > 0) {
+                    start = after;
+                }
+            }
+            NavigableSet<CloudBridgeResource> remaining = start == null ? byInsertedAt : byInsertedAt.tailSet(start, false);
+            List<CloudBridgeResource> page = new ArrayList<>(limit);
+            for (CloudBridgeResource resource : remaining) {
+                if (page.size() == limit || resource.getInsertedAt() < query.insertedFromOrMin()) {
+                    break;
+                }
+                if ((query.getFileOwner() == null || query.getFileOwner().equals(resource.getFileOwner()))
+                        && (query.getFileType() == null || query.getFileType().equals(resource.getFileType()))) {
+                    page.add(resource);
+                }
+            }
+            return page;
+        });
+    }
+
+    /**
+     * @return copies of the in-memory storage counters.
+     */
+    @Override
+    public List<ResourceStats> getStats() {
+        synchronized (stats) {
+            List<ResourceStats> copies = new ArrayList<>(stats.size());
+            for (ResourceStats counter : stats.values()) {
+                ResourceStats copy = new ResourceStats(counter.getDimension(), counter.getValue());
+                copy.merge(counter);
+                copies.add(copy);
+            }
+            return copies;
+        }
+    }
+
+    /**
+     * Recounts the in-memory storage counters from the index.
+     */
+    @Override
+    public List<ResourceStats> rebuildStats() {
+        Map<String, ResourceStats> totals = new LinkedHashMap<>();
+        resources.values().forEach(resource -> ResourceStats.add(totals, STORE_NAME, resource, 1));
+        synchronized (stats) {
+            stats.clear();
+            stats.putAll(totals);
+        }
+        return getStats();
+    }
+
+    /**
+     * Loads the metadata files into the index and removes what an interrupted upload or delete
+     * left behind: temporary files, metadata without content and content without metadata.
+     */
+    private void load() throws IOException {
+        List<Path> contentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(CONTENT_SUFFIX)) {
+                    contentFiles.add(file);
+                } else if (name.endsWith(METADATA_SUFFIX)) {
+                    CloudBridgeResource resource = objectMapper.readValue(file.toFile(), CloudBridgeResource.class);
+                    if (Files.exists(fileOf(resource.getId(), CONTENT_SUFFIX))) {
+                        index(resource);
+                    } else {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+        }
+        for (Path file : contentFiles) {
+            String name = file.getFileName().toString();
+            if (!resources.containsKey(name.substring(0, name.length() - CONTENT_SUFFIX.length()))) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void writeMetadata(CloudBridgeResource resource) throws IOException {
+        Path metadataFile = fileOf(resource.getId(), METADATA_SUFFIX);
+        Path tempFile = fileOf(resource.getId(), METADATA_SUFFIX + TEMP_SUFFIX);
+        try (FileChannel target = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer metadata = ByteBuffer.wrap(objectMapper.writeValueAsBytes(resource));
+            while (metadata.hasRemaining()) {
+                target.write(metadata);
+            }
+            if (fsync) {
+                target.force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, metadataFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void index(CloudBridgeResource resource) {
+        resources.put(resource.getId(), resource);
+        byDateInserted.add(resource);
+        byInsertedAt.add(resource);
+        countStats(resource, 1);
+    }
+
+    private void countStats(CloudBridgeResource resource, int sign) {
+        synchronized (stats) {
+            ResourceStats.add(stats, STORE_NAME, resource, sign);
+        }
+    }
+
+    private Path fileOf(String id, String suffix) {
+        return directory.resolve(id + suffix);
+    }
+
+    private static boolean isValidId(String id) {
+        return id != null && VALID_ID.matcher(id).matches();
+    }
+
+    private static CloudBridgeResource probe(long insertedAt, String id) {
+        CloudBridgeResource probe = new CloudBridgeResource();
+        probe.setInsertedAt(insertedAt);
+        probe.setId(id);
+        return probe;
+    }
+
+    /**
+     * Sets the dates of a new resource, as the other stores do.
+     */
+    private static void stampDates(CloudBridgeResource resource) {
+        Instant now = Instant.now();
+        if (resource.getDateInserted() == null || resource.getDateInserted().trim().isEmpty()) {
+            resource.setDateInserted(now.toString());
+        }
+        if (resource.getDateModified() == null || resource.getDateModified().trim().isEmpty()) {
+            resource.setDateModified(now.toString());
+        }
+        if (resource.getInsertedAt() == null) {
+            Long insertedAt = CloudBridgeResource.epochMillisOf(resource.getDateInserted());
+            resource.setInsertedAt(insertedAt != null ? insertedAt : now.toEpochMilli());
+        }
+        if (resource.getModifiedAt() == null) {
+            Long modifiedAt = CloudBridgeResource.epochMillisOf(resource.getDateModified());
+            resource.setModifiedAt(modifiedAt != null ? modifiedAt : now.toEpochMilli());
+        }
+    }
+
+    /**
+     * Content read from a local file.
+     */
+    private final class FileContent implements ResourceContent {
+        private final CloudBridgeResource resource;
+        private final Path file;
+
+        private FileContent(CloudBridgeResource resource, Path file) {
+            this.resource = resource;
+            this.file = file;
+        }
+
+        @Override
+        public CloudBridgeResource getResource() {
+            return resource;
+        }
+
+        @Override
+        public long getLength() {
+            return resource.getFileSize();
+        }
+
+        @Override
+        public void writeTo(OutputStream out, long offset, long length) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, READ_BUFFER_BYTES));
+                long position = offset;
+                long remaining = length;
+                while (remaining > 0) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new EOFException("Content ended before the requested range was read.");
+                    }
+                    out.write(buffer.array(), 0, read);
+                    position += read;
+                    remaining -= read;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+
+/**
+ * A storage tier that {@link TierMigrationService} can move resources into and out of.
+ *
+ * <p>A move copies the resource into the new tier first, marked with {@code movedFrom}, then
+ * marks the old record as moved ({@code movedTo}) and finally publishes the copy by clearing its
+ * {@code movedFrom}. The marked record is a tombstone: it no longer serves content and a delete
+ * leaves it alone, but its content stays in place until the migration detaches the record and,
+ * after a grace period, releases the content. Listings, queries and storage counters leave out
+ * records carrying either marker, so they never show a resource twice.</p>
+ */
+public interface MigratableStorageBackend extends StorageBackend {
+
+    /**
+     * Checks whether this tier holds a record with the given id, moved or not, bypassing any cache.
+     *
+     * @param id the resource identifier.
+     * @return {@code true} if a record with that id exists.
+     */
+    boolean exists(String id);
+
+    /**
+     * Writes a copy of a resource moved from another tier, keeping its id and dates. The copy
+     * serves content right away but is not listed until {@link #publishCopy(String)}.
+     *
+     * @param resource the resource metadata; {@code fileSize} and {@code movedFrom} are set and
+     *                 {@code fileContent} is left empty.
+     * @param content  the file content; it may be read more than once.
+     * @return the stored copy.
+     * @throws IOException if the content cannot be read.
+     */
+    CloudBridgeResource copy(CloudBridgeResource resource, InputStreamSource content) throws IOException;
+
+    /**
+     * Marks a resource as moved to another tier. Marking it again for the same target succeeds.
+     *
+     * @param id     the resource identifier.
+     * @param target the store name of the tier holding the copy.
+     * @return the marked record, or {@code null} if it no longer exists or was moved elsewhere.
+     */
+    CloudBridgeResource markMoved(String id, String target);
+
+    /**
+     * Lets a copy written with {@link #copy(CloudBridgeResource, InputStreamSource)} show up in
+     * listings by clearing its {@code movedFrom}.
+     *
+     * @param id the resource identifier.
+     * @return the published copy, or {@code null} if no copy with that id still carries {@code movedFrom}.
+     */
+    CloudBridgeResource publishCopy(String id);
+
+    /**
+     * Removes the record of a moved resource, keeping its content.
+     *
+     * @param id the resource identifier.
+     * @return the removed record, or {@code null} if no moved record with that id exists.
+     */
+    CloudBridgeResource detachMoved(String id);
+
+    /**
+     * Releases the content of a record removed with {@link #detachMoved(String)}.
+     *
+     * @param resource the removed record.
+     */
+    void releaseDetachedContent(CloudBridgeResource resource);
+}
@@ -0,0 +1,94 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The MongoDB tier: content is streamed into GridFS by {@link CloudBridgeMongoResourceService}.
+ */
+@Component
+public class MongoStorageBackend implements MigratableStorageBackend {
+
+    private final CloudBridgeMongoResourceService mongoService;
+    private final long maxFileSize;
+
+    /**
+     * @param mongoService the service storing resources in MongoDB.
+     * @param maxFileSize  the largest file, in bytes, stored in MongoDB.
+     */
+    @Autowired
+    public MongoStorageBackend(CloudBridgeMongoResourceService mongoService,
+                               @Value("${cloudbridge.mongo.maxFileSize:536870912}") long maxFileSize) {
+        this.mongoService = mongoService;
+        this.maxFileSize = maxFileSize;
+    }
+
+    @Override
+    public String getStoreName() {
+        return CloudBridgeMongoResourceService.STORE_NAME;
+    }
+
+    @Override
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    @Override
+    public CompletableFuture<CloudBridgeResource> store(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+        return CompletableFuture.completedFuture(mongoService.createResource(resource, content));
+    }
+
+    @Override
+    public Map<String, String> storeAll(List<CloudBridgeResource> resources, List<? extends InputStreamSource> contents) {
+        return mongoService.createResources(resources, contents);
+    }
+
+    @Override
+    public Optional<ResourceContent> getContent(String id) {
+        return mongoService.getContent(id);
+    }
+
+    @Override
+    public boolean delete(String id) {
+        return mongoService.deleteResource(id);
+    }
+
+    @Override
+    public boolean exists(String id) {
+        return mongoService.exists(id);
+    }
+
+    @Override
+    public CloudBridgeResource copy(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+        return mongoService.copyResource(resource, content);
+    }
+
+    @Override
+    public CloudBridgeResource markMoved(String id, String target) {
+        return mongoService.markMoved(id, target);
+    }
+
+    @Override
+    public CloudBridgeResource publishCopy(String id) {
+        return mongoService.publishCopy(id);
+    }
+
+    @Override
+    public CloudBridgeResource detachMoved(String id) {
+        return mongoService.detachMoved(id);
+    }
+
+    @Override
+    public void releaseDetachedContent(CloudBridgeResource resource) {
+        mongoService.releaseDetachedContent(resource);
+    }
+}
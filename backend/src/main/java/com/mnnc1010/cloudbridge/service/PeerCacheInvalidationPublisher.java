@@ -0,0 +1,106 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CacheInvalidation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CacheInvalidationPublisher} that posts invalidations to the other replicas over HTTP.
+ *
+ * <p>The replicas are listed in {@code cloudbridge.cache.peers} as base URLs (e.g. the pod
+ * addresses behind the ingress); each receives a {@code POST /api/cache/invalidations}. Requests
+ * are sent asynchronously and failures are only logged, so a slow or missing replica never
+ * delays a write. With no peers configured, publishing does nothing.</p>
+ *
+ * <p>Every request carries the shared secret {@code cloudbridge.cache.peerSecret} in the
+ * {@value #SECRET_HEADER} header; replicas refuse invalidations without it, so all replicas must
+ * be configured with the same secret.</p>
+ */
+@Component
+public class PeerCacheInvalidationPublisher implements CacheInvalidationPublisher {
+
+    /**
+     * The request header carrying the shared peer secret.
+     */
+    public static final String SECRET_HEADER = "X-CloudBridge-Peer-Secret";
+
+    private static final Logger log = LoggerFactory.getLogger(PeerCacheInvalidationPublisher.class);
+
+    private final List<URI> peers;
+    private final String secret;
+    private final Duration timeout;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    /**
+     * @param peers        comma-separated base URLs of the other replicas, or empty.
+     * @param secret       the shared secret sent to the replicas.
+     * @param timeoutMs    the timeout for connecting to and hearing back from a replica.
+     * @param objectMapper the mapper used to serialize invalidations.
+     */
+    @Autowired
+    public PeerCacheInvalidationPublisher(@Value("${cloudbridge.cache.peers:}") String peers,
+                                          @Value("${cloudbridge.cache.peerSecret:}") String secret,
+                                          @Value("${cloudbridge.cache.peerTimeoutMs:1000}") long timeoutMs,
+                                          ObjectMapper objectMapper) {
+        this.peers = Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                .map(peer -> URI.create(peer.replaceAll("/+$", "") + "/api/cache/invalidations"))
+                .collect(Collectors.toList());
+        this.secret = secret;
+        if (!this.peers.isEmpty() && secret.isBlank()) {
+            log.warn("cloudbridge.cache.peers is set without cloudbridge.cache.peerSecret; the replicas will refuse the invalidations.");
+        }
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    @Override
+    public void publish(String store, Collection<String> ids) {
+        if (peers.isEmpty()) {
+            return;
+        }
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(new CacheInvalidation(store, List.copyOf(ids)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize cache invalidation.", e);
+        }
+        for (URI peer : peers) {
+            HttpRequest request = HttpRequest.newBuilder(peer)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header(SECRET_HEADER, secret)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null || response.statusCode() >= 300) {
+                            if (error != null) {
+                                log.warn("Cache invalidation of {} {} resources was not delivered to {}.", ids.size(), store, peer, error);
+                            } else {
+                                log.warn("Cache invalidation of {} {} resources was not delivered to {}: HTTP {}.", ids.size(), store, peer,
+                                        response.statusCode());
+                            }
+                        }
+                    });
+        }
+    }
+}
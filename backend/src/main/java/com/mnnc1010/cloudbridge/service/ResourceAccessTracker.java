@@ -0,0 +1,195 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.ResourceAccess;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoAccessRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts content reads per resource for the tier migration (see {@link TierMigrationService}).
+ *
+ * <p>Reads are counted in memory and written to MongoDB every {@code flushIntervalMs} as one
+ * bulk of {@code $inc} upserts (see {@link CloudBridgeMongoAccessRepository}), so a read costs a
+ * map update instead of a database write, and every replica adds its own counts to the same
+ * documents. Counts are kept per access window of {@code windowHours}; a window is kept for
+ * {@code coldAfterDays} plus one day, after which MongoDB expires it.</p>
+ *
+ * <p>At most {@code maxPending} resources are counted between two flushes; reads of further
+ * resources are dropped and counted in {@code dropped}. Counts not yet flushed are lost when a
+ * replica stops without shutting down, which only makes a resource look a little colder.
+ * Disabled with {@code cloudbridge.tiering.access.enabled: false}.</p>
+ */
+@Service
+public class ResourceAccessTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceAccessTracker.class);
+
+    private final CloudBridgeMongoAccessRepository accessRepository;
+    private final boolean enabled;
+    private final long windowMs;
+    private final long retentionMs;
+    private final int maxPending;
+    private final Map<String, ResourceAccess> pending = new ConcurrentHashMap<>();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final ScheduledExecutorService flusher;
+    private volatile boolean trackingStarted;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param accessRepository the repository the counts are written to.
+     * @param enabled          whether reads are counted at all.
+     * @param flushIntervalMs  the interval between two writes of the counts.
+     * @param windowHours      the length of an access window.
+     * @param coldAfterDays    how long a resource must go unread to be demoted; windows are kept one day longer.
+     * @param maxPending       the largest number of resources counted between two flushes.
+     */
+    @Autowired
+    public ResourceAccessTracker(CloudBridgeMongoAccessRepository accessRepository,
+                                 @Value("${cloudbridge.tiering.access.enabled:true}") boolean enabled,
+                                 @Value("${cloudbridge.tiering.access.flushIntervalMs:10000}") long flushIntervalMs,
+                                 @Value("${cloudbridge.tiering.access.windowHours:24}") long windowHours,
+                                 @Value("${cloudbridge.tiering.coldAfterDays:30}") long coldAfterDays,
+                                 @Value("${cloudbridge.tiering.access.maxPending:100000}") int maxPending) {
+        this.accessRepository = accessRepository;
+        this.enabled = enabled;
+        this.windowMs = TimeUnit.HOURS.toMillis(Math.max(windowHours, 1));
+        this.retentionMs = TimeUnit.DAYS.toMillis(coldAfterDays + 1);
+        this.maxPending = maxPending;
+        if (enabled) {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "access-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    /**
+     * Counts one content read of a resource.
+     *
+     * @param resource the resource whose content was served.
+     */
+    public void record(CloudBridgeResource resource) {
+        if (!enabled || resource.getId() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long windowStart = windowStart(now);
+        String key = ResourceAccess.keyOf(resource.getId(), windowStart);
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        // compute runs atomically per key, so a flush removing the entry never misses an increment.
+        pending.compute(key, (k, access) -> {
+            if (access == null) {
+                access = new ResourceAccess();
+                access.setKey(k);
+                access.setResourceId(resource.getId());
+                access.setWindowStart(windowStart);
+                access.setExpireAt(new Date(windowStart + windowMs + retentionMs));
+            }
+            access.setStore(resource.getFileStorage());
+            access.setFileSize(resource.getFileSize());
+            access.setHits(access.getHits() + 1);
+            access.setLastAccessedAt(now);
+            return access;
+        });
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * @param time a time as epoch milliseconds.
+     * @return the start of the access window holding that time.
+     */
+    public long windowStart(long time) {
+        return time - Math.floorMod(time, windowMs);
+    }
+
+    /**
+     * @return the length of an access window in milliseconds.
+     */
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    /**
+     * Writes the counted reads to MongoDB. Counts that cannot be written are put back and
+     * written with the next flush.
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        List<ResourceAccess> deltas = new ArrayList<>();
+        for (String key : pending.keySet()) {
+            ResourceAccess access = pending.remove(key);
+            if (access != null) {
+                deltas.add(access);
+            }
+        }
+        try {
+            if (!trackingStarted) {
+                accessRepository.startTracking(System.currentTimeMillis());
+                trackingStarted = true;
+            }
+            accessRepository.increment(deltas);
+        } catch (RuntimeException e) {
+            flushFailures.incrementAndGet();
+            log.warn("Could not write {} access counts", deltas.size(), e);
+            for (ResourceAccess access : deltas) {
+                pending.merge(access.getKey(), access, (current, failed) -> {
+                    current.setHits(current.getHits() + failed.getHits());
+                    return current;
+                });
+            }
+        }
+    }
+
+    /**
+     * @return the counters of this replica and the number of counts waiting to be written.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("windowHours", TimeUnit.MILLISECONDS.toHours(windowMs));
+        stats.put("recorded", recorded.get());
+        stats.put("pending", pending.size());
+        stats.put("dropped", dropped.get());
+        stats.put("flushFailures", flushFailures.get());
+        return stats;
+    }
+
+    /**
+     * Writes the remaining counts before the application stops.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flush();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the resource collection of each store, used to answer conditional listing requests.
+ *
+ * <p>Every write that changes a listing (create, delete, backfill), on this replica or announced
+ * by another one, bumps the version of its store through
+ * {@link ResourceMetadataCache#invalidateLocally(String, Collection)}. A listing's {@code ETag}
+ * is built from the versions of the stores it reads, so comparing it with {@code If-None-Match}
+ * is a few map lookups and never reaches MongoDB or DynamoDB.</p>
+ *
+ * <p>The versions live in memory. The {@code ETag} includes the start time of this process, so
+ * a restart never reuses one, and each replica answers with its own tags: a client whose requests
+ * move between replicas gets a full {@code 200} rather than a wrong {@code 304}, so the tags only
+ * save reads behind a single replica or sticky sessions. Invalidations from other replicas are
+ * best effort, so every tag expires after {@code cloudbridge.etag.maxStaleSeconds} (30 by
+ * default), bounding how long a lost invalidation can keep answering {@code 304}.
+ * {@code Last-Modified} is the time of the last bump, or the start of the process if the store
+ * was not written since.</p>
+ */
+@Component
+public class ResourceCollectionVersions {
+
+    private final String instance = Long.toString(System.currentTimeMillis(), 36);
+    private final long startedAt = System.currentTimeMillis();
+    private final long maxStaleMillis;
+    private final Map<String, Version> versions = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxStaleSeconds how long one tag stays valid without a write, or 0 for as long as nothing is written.
+     */
+    @Autowired
+    public ResourceCollectionVersions(@Value("${cloudbridge.etag.maxStaleSeconds:30}") long maxStaleSeconds) {
+        this.maxStaleMillis = maxStaleSeconds * 1000;
+    }
+
+    /**
+     * Records a change to the resources of a store.
+     *
+     * @param store the store that was written.
+     */
+    public void bump(String store) {
+        Version version = versionOf(store);
+        version.lastModified = System.currentTimeMillis();
+        version.counter.incrementAndGet();
+    }
+
+    /**
+     * Builds the strong entity tag of a listing.
+     *
+     * <p>Read it before the stores are read: a write racing with the listing then leaves the
+     * response with the older tag, and the next request fetches it again.</p>
+     *
+     * @param variant the representation, so that e.g. a JSON page and an NDJSON stream never share a tag.
+     * @param stores  the stores the listing reads, or {@code null} for all of them.
+     * @return the quoted tag.
+     */
+    public String etag(String variant, Collection<String> stores) {
+        StringBuilder tag = new StringBuilder("\"").append(variant).append('-').append(instance);
+        if (maxStaleMillis > 0) {
+            tag.append('-').append(Long.toString(System.currentTimeMillis() / maxStaleMillis, 36));
+        }
+        // Sorted, so that the tag does not depend on the order the stores were first written in.
+        Map<String, Version> selected = new TreeMap<>(versions);
+        if (stores != null) {
+            selected.keySet().retainAll(stores);
+        }
+        selected.forEach((store, version) -> tag.append('-').append(store).append('.')
+                .append(Long.toString(version.counter.get(), 36)));
+        return tag.append('"').toString();
+    }
+
+    /**
+     * @param stores the stores a listing reads, or {@code null} for all of them.
+     * @return the time of the latest change to any of them, in epoch milliseconds.
+     */
+    public long lastModified(Collection<String> stores) {
+        long latest = startedAt;
+        for (Map.Entry<String, Version> entry : versions.entrySet()) {
+            if (stores == null || stores.contains(entry.getKey())) {
+                latest = Math.max(latest, entry.getValue().lastModified);
+            }
+        }
+        return latest;
+    }
+
+    private Version versionOf(String store) {
+        return versions.computeIfAbsent(store, name -> new Version());
+    }
+
+    private static final class Version {
+        private final AtomicLong counter = new AtomicLong();
+        private volatile long lastModified;
+    }
+}
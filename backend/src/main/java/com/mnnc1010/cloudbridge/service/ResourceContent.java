@@ -0,0 +1,106 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The stored file content of a resource, readable in whole or by byte range.
+ *
+ * <p>Each store returns an implementation that reads only the part of the content that was
+ * asked for (GridFS chunks, DynamoDB content chunks or a slice of inline bytes), so serving a
+ * range never loads the whole object onto the heap.</p>
+ */
+public interface ResourceContent {
+
+    /**
+     * @return the resource the content belongs to.
+     */
+    CloudBridgeResource getResource();
+
+    /**
+     * @return the total length of the content in bytes.
+     */
+    long getLength();
+
+    /**
+     * Writes a range of the content to the given stream.
+     *
+     * @param out    the stream to write to.
+     * @param offset the position of the first byte to write.
+     * @param length the number of bytes to write.
+     * @throws IOException if reading the content or writing to the stream fails.
+     */
+    void writeTo(OutputStream out, long offset, long length) throws IOException;
+
+    /**
+     * Wraps content stored inline in {@code fileContent}, decoded with the resource's codec.
+     *
+     * @param resource a resource whose {@code fileContent} is set.
+     * @return the content view.
+     */
+    static ResourceContent inline(CloudBridgeResource resource) {
+        byte[] content = ContentCodec.of(resource.getContentCodec()).decode(resource.getFileContent());
+        return new ResourceContent() {
+            @Override
+            public CloudBridgeResource getResource() {
+                return resource;
+            }
+
+            @Override
+            public long getLength() {
+                return content.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out, long offset, long length) throws IOException {
+                out.write(content, (int) offset, (int) length);
+            }
+        };
+    }
+
+    /**
+     * Copies a range of a stream to another stream.
+     *
+     * <p>Whole-stream copies use {@link InputStream#transferTo(OutputStream)}; ranges skip to
+     * the offset, which stream implementations such as GridFS serve without reading the
+     * skipped data, and then copy exactly {@code length} bytes.</p>
+     *
+     * @param in       the source stream, positioned at its start.
+     * @param out      the stream to write to.
+     * @param offset   the position of the first byte to copy.
+     * @param length   the number of bytes to copy.
+     * @param total    the total length of the source stream.
+     * @throws IOException if the source ends early or either stream fails.
+     */
+    static void copyRange(InputStream in, OutputStream out, long offset, long length, long total) throws IOException {
+        if (offset == 0 && length == total) {
+            in.transferTo(out);
+            return;
+        }
+        long skipped = 0;
+        while (skipped < offset) {
+            long n = in.skip(offset - skipped);
+            if (n <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException("Content ended before offset " + offset + ".");
+                }
+                n = 1;
+            }
+            skipped += n;
+        }
+        byte[] buffer = new byte[64 * 1024];
+        long remaining = length;
+        while (remaining > 0) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (n < 0) {
+                throw new EOFException("Content ended before the requested range was read.");
+            }
+            out.write(buffer, 0, n);
+            remaining -= n;
+        }
+    }
+}
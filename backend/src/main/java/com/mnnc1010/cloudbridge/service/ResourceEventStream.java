@@ -0,0 +1,330 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourceCreatedEvent;
+import com.mnnc1010.cloudbridge.model.ResourcePage;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the metadata of new resources to connected clients as Server-Sent Events.
+ *
+ * <p>The stores publish a {@link ResourceCreatedEvent} on the application event bus after every
+ * successful create; this service forwards it to every subscriber as a {@code resource} event
+ * whose id is the resource's {@code insertedAt}. Connections are held by the servlet container's
+ * async support, not by a thread: one dispatch thread hands every event to the subscribers, and
+ * every {@code cloudbridge.events.heartbeatMs} a comment, so that closed connections are noticed
+ * and dropped. The publishing store only hands the event over to that thread.</p>
+ *
+ * <p>The dispatch thread never writes to a connection itself. Each subscriber has an outbox that
+ * a pool of {@code cloudbridge.events.sendThreads} threads writes out, so a client that reads
+ * slowly only holds up its own events. A client whose outbox grows beyond
+ * {@code cloudbridge.events.maxCatchUp} events is disconnected; it reconnects and catches up from
+ * the last event it received.</p>
+ *
+ * <p>A client that reconnects passes the last event id it has seen (or any point in time) and
+ * first receives the resources inserted since then, oldest first, read with an indexed query on
+ * {@code insertedAt}. Catch-up is limited to {@code cloudbridge.events.maxCatchUp} resources; if
+ * more were inserted, a {@code reset} event tells the client to reload the listing instead. Live
+ * events that arrive during the catch-up are held back and sent right after it, so nothing is
+ * lost in between; clients should ignore resources whose id they already have.</p>
+ */
+@Service
+public class ResourceEventStream {
+
+    /**
+     * Name of the event carrying a new resource.
+     */
+    public static final String RESOURCE_EVENT = "resource";
+
+    /**
+     * Name of the event telling the client that it missed too much and must reload.
+     */
+    public static final String RESET_EVENT = "reset";
+
+    private final CloudBridgeResourceAggregationService aggregationService;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    private final int maxCatchUp;
+    private final int maxPending;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher;
+    private final ThreadPoolExecutor sender;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param aggregationService the service answering the catch-up queries.
+     * @param timeoutMs          how long a connection stays open before the client has to reconnect.
+     * @param heartbeatMs        the interval between two heartbeat comments.
+     * @param maxSubscribers     the largest number of connected clients.
+     * @param maxCatchUp         the largest number of missed resources sent on reconnect, and of
+     *                           events waiting to be sent to one client.
+     * @param sendThreads        the number of threads writing events to the clients.
+     */
+    @Autowired
+    public ResourceEventStream(CloudBridgeResourceAggregationService aggregationService,
+                               @Value("${cloudbridge.events.timeoutMs:1800000}") long timeoutMs,
+                               @Value("${cloudbridge.events.heartbeatMs:15000}") long heartbeatMs,
+                               @Value("${cloudbridge.events.maxSubscribers:1000}") int maxSubscribers,
+                               @Value("${cloudbridge.events.maxCatchUp:1000}") int maxCatchUp,
+                               @Value("${cloudbridge.events.sendThreads:8}") int sendThreads) {
+        this.aggregationService = aggregationService;
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.maxCatchUp = maxCatchUp;
+        this.maxPending = maxCatchUp;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "resource-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        // Each subscriber has at most one task queued or running, so the queue never overflows.
+        AtomicInteger senders = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(sendThreads, sendThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(maxSubscribers, 1)), runnable -> {
+            Thread thread = new Thread(runnable, "resource-events-send-" + senders.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sender.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Opens a new event stream.
+     *
+     * @param since send the resources inserted at or after this time (epoch milliseconds) first, or {@code null} for none.
+     * @return the emitter to return from the controller, or {@code null} if too many clients are connected.
+     */
+    public SseEmitter subscribe(Long since) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), since == null);
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        if (since != null) {
+            catchUp(subscriber, since);
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Hands a new resource over to the dispatch thread.
+     *
+     * @param event the event published by a store.
+     */
+    @EventListener
+    public void onResourceCreated(ResourceCreatedEvent event) {
+        if (!subscribers.isEmpty()) {
+            dispatcher.execute(() -> subscribers.forEach(subscriber -> subscriber.offer(event.getResource())));
+        }
+    }
+
+    /**
+     * @return the number of connected clients.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Closes all connections; clients reconnect to another replica.
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void catchUp(Subscriber subscriber, long since) {
+        List<CloudBridgeResourceSummary> missed = new ArrayList<>();
+        boolean complete = true;
+        try {
+            ResourceQuery query = new ResourceQuery(null, null, null, since, null);
+            String cursor = null;
+            do {
+                ResourcePage page = aggregationService.query(query, null, cursor).join();
+                missed.addAll(page.getItems());
+                cursor = page.getNextCursor();
+                if (!page.getPartial().isEmpty() && page.getPartial().containsValue(true)) {
+                    complete = false;
+                }
+            } while (cursor != null && missed.size() <= maxCatchUp);
+        } catch (CompletionException | IllegalArgumentException e) {
+            complete = false;
+        }
+        if (!complete || missed.size() > maxCatchUp) {
+            subscriber.reset();
+            return;
+        }
+        // Query results are newest first; clients expect events in insertion order.
+        Collections.reverse(missed);
+        subscriber.goLive(missed);
+    }
+
+    private void heartbeat() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    /**
+     * One connected client. Until its catch-up has been sent, live events are held back. Events
+     * are queued in its outbox and written by one sender task at a time.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private boolean live;
+        private List<CloudBridgeResourceSummary> held = new ArrayList<>();
+        private final Deque<SseEmitter.SseEventBuilder> outbox = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, boolean live) {
+            this.emitter = emitter;
+            this.live = live;
+        }
+
+        private synchronized void offer(CloudBridgeResourceSummary resource) {
+            if (live) {
+                enqueue(resourceEvent(resource));
+            } else if (held.size() < maxPending) {
+                held.add(resource);
+            } else {
+                reset();
+            }
+        }
+
+        private synchronized void goLive(List<CloudBridgeResourceSummary> missed) {
+            if (live) {
+                // Reset while catching up: the client reloads instead.
+                return;
+            }
+            Set<String> sent = new HashSet<>();
+            for (CloudBridgeResourceSummary resource : missed) {
+                enqueue(resourceEvent(resource));
+                sent.add(resource.getId());
+            }
+            for (CloudBridgeResourceSummary resource : held) {
+                if (!sent.contains(resource.getId())) {
+                    enqueue(resourceEvent(resource));
+                }
+            }
+            held = null;
+            live = true;
+        }
+
+        private synchronized void reset() {
+            enqueue(SseEmitter.event().name(RESET_EVENT).data(""));
+            held = null;
+            live = true;
+        }
+
+        private synchronized void heartbeat() {
+            // A non-empty outbox is being written already, which notices a closed connection too.
+            if (outbox.isEmpty()) {
+                enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (outbox.size() >= maxPending) {
+                // The client does not keep up; it reconnects and catches up from its last event.
+                close(null);
+                return;
+            }
+            outbox.add(event);
+            if (!sending) {
+                sending = true;
+                try {
+                    sender.execute(this::drainOutbox);
+                } catch (RejectedExecutionException e) {
+                    sending = false;
+                    close(null);
+                }
+            }
+        }
+
+        /**
+         * Writes the outbox until it is empty, on a sender thread.
+         */
+        private void drainOutbox() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = outbox.poll();
+                    if (event == null || closed) {
+                        sending = false;
+                        if (closed) {
+                            emitter.complete();
+                        }
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    synchronized (this) {
+                        sending = false;
+                        close(e);
+                    }
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Drops the client. While a sender task is writing, the emitter is completed by that task
+         * once its write returns, so the dispatch thread never waits for a blocked connection.
+         */
+        private void close(Throwable error) {
+            closed = true;
+            outbox.clear();
+            subscribers.remove(this);
+            if (!sending) {
+                if (error != null) {
+                    emitter.completeWithError(error);
+                } else {
+                    emitter.complete();
+                }
+            }
+        }
+
+        private SseEmitter.SseEventBuilder resourceEvent(CloudBridgeResourceSummary resource) {
+            return SseEmitter.event()
+                    .name(RESOURCE_EVENT)
+                    .id(String.valueOf(resource.getInsertedAt()))
+                    .data(resource, MediaType.APPLICATION_JSON);
+        }
+    }
+}
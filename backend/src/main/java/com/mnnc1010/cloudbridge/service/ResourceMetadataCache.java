@@ -0,0 +1,199 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process read-through cache for resource metadata.
+ *
+ * <p>Two caches sit in front of the stores:</p>
+ * <ul>
+ *   <li><b>pages</b> - listing pages of resource summaries, keyed by store, position and limit.
+ *       Bounded by entry count ({@code cloudbridge.cache.pages.maxEntries}) and expired
+ *       {@code cloudbridge.cache.pages.ttlSeconds} after they were loaded.</li>
+ *   <li><b>resources</b> - per-id lookups, including inline file content and lookups that found
+ *       nothing. Bounded by weight in bytes ({@code cloudbridge.cache.resources.maxWeightBytes})
+ *       and expired {@code cloudbridge.cache.resources.ttlSeconds} after they were loaded.</li>
+ * </ul>
+ *
+ * <p>Writes call {@link #invalidate(String, Collection)}, which drops the resource entries and every
+ * page of their store right away and passes the invalidation on to the other replicas through
+ * the {@link CacheInvalidationPublisher}. Each store has a generation counter that every
+ * invalidation bumps; a load that started before an invalidation is not cached, so a read
+ * racing with a write cannot put stale data back. Invalidations also bump the store's
+ * {@link ResourceCollectionVersions collection version}, which conditional listing requests
+ * are answered from.</p>
+ */
+@Service
+public class ResourceMetadataCache {
+
+    /** Approximate per-entry overhead of a cached resource, in bytes, on top of its inline content. */
+    private static final int RESOURCE_BASE_WEIGHT = 1024;
+
+    private final boolean enabled;
+    private final Cache<String, List<CloudBridgeResourceSummary>> pages;
+    private final Cache<String, Optional<CloudBridgeResource>> resources;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final CacheInvalidationPublisher publisher;
+    private final ResourceCollectionVersions versions;
+
+    /**
+     * @param enabled                whether lookups are cached at all.
+     * @param pagesMaxEntries        the maximum number of cached listing pages.
+     * @param pagesTtlSeconds        how long a listing page stays cached.
+     * @param resourcesMaxWeightBytes the maximum total weight of cached resources, in bytes.
+     * @param resourcesTtlSeconds    how long a resource lookup stays cached.
+     * @param publisher              the hook that passes invalidations on to other replicas.
+     * @param versions               the collection versions bumped by every invalidation.
+     */
+    @Autowired
+    public ResourceMetadataCache(@Value("${cloudbridge.cache.enabled:true}") boolean enabled,
+                                 @Value("${cloudbridge.cache.pages.maxEntries:1000}") long pagesMaxEntries,
+                                 @Value("${cloudbridge.cache.pages.ttlSeconds:30}") long pagesTtlSeconds,
+                                 @Value("${cloudbridge.cache.resources.maxWeightBytes:67108864}") long resourcesMaxWeightBytes,
+                                 @Value("${cloudbridge.cache.resources.ttlSeconds:300}") long resourcesTtlSeconds,
+                                 CacheInvalidationPublisher publisher,
+                                 ResourceCollectionVersions versions) {
+        this.enabled = enabled;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(pagesMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(pagesTtlSeconds))
+                .recordStats()
+                .build();
+        this.resources = Caffeine.newBuilder()
+                .maximumWeight(resourcesMaxWeightBytes)
+                .weigher((String key, Optional<CloudBridgeResource> resource) -> RESOURCE_BASE_WEIGHT
+                        + resource.map(CloudBridgeResource::getFileContent).map(content -> content.length).orElse(0))
+                .expireAfterWrite(Duration.ofSeconds(resourcesTtlSeconds))
+                .recordStats()
+                .build();
+        this.publisher = publisher;
+        this.versions = versions;
+    }
+
+    /**
+     * Returns a listing page from the cache, or loads and caches it.
+     *
+     * @param store    the store the page is read from.
+     * @param position the position the page starts after, or {@code null} for the first page.
+     * @param limit    the page size.
+     * @param loader   reads the page from the store on a cache miss.
+     * @return a future of the page; completed right away on a cache hit.
+     */
+    public CompletableFuture<List<CloudBridgeResourceSummary>> getPage(String store, String position, int limit,
+                                                                       Supplier<CompletableFuture<List<CloudBridgeResourceSummary>>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String key = store + "|" + limit + "|" + (position == null ? "" : position);
+        List<CloudBridgeResourceSummary> cached = pages.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long generation = generationOf(store).get();
+        return loader.get().thenApply(page -> {
+            if (generationOf(store).get() == generation) {
+                pages.put(key, List.copyOf(page));
+            }
+            return page;
+        });
+    }
+
+    /**
+     * Returns a resource from the cache, or loads and caches it.
+     *
+     * @param store  the store the resource is read from.
+     * @param id     the resource identifier.
+     * @param loader reads the resource from the store on a cache miss.
+     * @return the resource, or an empty {@link Optional} if the store does not hold it.
+     */
+    public Optional<CloudBridgeResource> getResource(String store, String id,
+                                                     Supplier<Optional<CloudBridgeResource>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        String key = store + "|" + id;
+        Optional<CloudBridgeResource> cached = resources.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = generationOf(store).get();
+        Optional<CloudBridgeResource> loaded = loader.get();
+        if (generationOf(store).get() == generation) {
+            resources.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the cached entries affected by a write and tells the other replicas to do the same.
+     *
+     * @param store the store that holds the resources.
+     * @param ids   the ids of the resources that were created or changed.
+     */
+    public void invalidate(String store, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        invalidateLocally(store, ids);
+        publisher.publish(store, ids);
+    }
+
+    /**
+     * Drops the cached entries affected by a write on this replica only.
+     *
+     * @param store the store that holds the resources.
+     * @param ids   the ids of the resources that were created or changed.
+     */
+    public void invalidateLocally(String store, Collection<String> ids) {
+        generationOf(store).incrementAndGet();
+        versions.bump(store);
+        for (String id : ids) {
+            resources.invalidate(store + "|" + id);
+        }
+        // A new resource can land on any page of its store, so every page of that store is dropped.
+        pages.asMap().keySet().removeIf(key -> key.startsWith(store + "|"));
+    }
+
+    /**
+     * @return hit, miss and eviction counts and the current size of both caches.
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("pages", statsOf(pages.stats(), pages.estimatedSize()));
+        stats.put("resources", statsOf(resources.stats(), resources.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> statsOf(CacheStats stats, long size) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("hitCount", stats.hitCount());
+        values.put("missCount", stats.missCount());
+        values.put("hitRate", stats.hitRate());
+        values.put("evictionCount", stats.evictionCount());
+        values.put("evictionWeight", stats.evictionWeight());
+        values.put("size", size);
+        return values;
+    }
+
+    private AtomicLong generationOf(String store) {
+        return generations.computeIfAbsent(store, name -> new AtomicLong());
+    }
+}
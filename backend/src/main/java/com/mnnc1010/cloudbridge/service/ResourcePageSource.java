@@ -0,0 +1,103 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A data store that can hand out resource summaries one bounded page at a time.
+ *
+ * <p>Implementations read strictly after the given position, so a listing can be resumed
+ * from a {@link com.mnnc1010.cloudbridge.model.ResourceCursor} without re-reading what was
+ * already returned. A page shorter than the requested limit means the store has no more
+ * resources after it.</p>
+ */
+public interface ResourcePageSource {
+
+    /**
+     * @return the store name used in cursors and in the {@code fileStorage} field (e.g. "MongoDB").
+     */
+    String getStoreName();
+
+    /**
+     * Reads up to {@code limit} resource summaries that come after {@code position}.
+     *
+     * @param position the position of the last resource already read, or {@code null} to start at the beginning.
+     * @param limit    the maximum number of summaries to return.
+     * @return the next summaries in store order.
+     */
+    List<CloudBridgeResourceSummary> getResourcePage(String position, int limit);
+
+    /**
+     * Reads up to {@code limit} resource summaries that come after {@code position} without
+     * blocking the calling thread.
+     *
+     * <p>The default implementation runs {@link #getResourcePage(String, int)} on the given
+     * executor; stores with a non-blocking client override it.</p>
+     *
+     * @param position the position of the last resource already read, or {@code null} to start at the beginning.
+     * @param limit    the maximum number of summaries to return.
+     * @param executor the executor for stores that can only read with a blocking call.
+     * @return a future of the next summaries in store order.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor cannot accept the read.
+     */
+    default CompletableFuture<List<CloudBridgeResourceSummary>> getResourcePageAsync(String position, int limit,
+                                                                                      Executor executor) {
+        return CompletableFuture.supplyAsync(() -> getResourcePage(position, limit), executor);
+    }
+
+    /**
+     * Returns the position to resume from after the given resource has been read.
+     *
+     * @param resource a summary previously returned by {@link #getResourcePage(String, int)}.
+     * @return the position of that resource.
+     */
+    String positionOf(CloudBridgeResourceSummary resource);
+
+    /**
+     * Streams the summaries of every resource in this store.
+     *
+     * <p>The default implementation reads the store lazily, one page of {@code pageSize} at a
+     * time, so at most one page is held in memory; stores with a cursor or scan API override it.
+     * The caller must close the stream, which releases any cursor the store still holds.</p>
+     *
+     * @param pageSize the number of summaries to read per round trip.
+     * @return a stream of all summaries in store order.
+     */
+    default Stream<CloudBridgeResourceSummary> streamResourceSummaries(int pageSize) {
+        Iterator<CloudBridgeResourceSummary> pages = new Iterator<>() {
+            private Iterator<CloudBridgeResourceSummary> page = Collections.emptyIterator();
+            private CloudBridgeResourceSummary last;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (!page.hasNext() && !exhausted) {
+                    List<CloudBridgeResourceSummary> next = getResourcePage(last == null ? null : positionOf(last), pageSize);
+                    exhausted = next.size() < pageSize;
+                    page = next.iterator();
+                }
+                return page.hasNext();
+            }
+
+            @Override
+            public CloudBridgeResourceSummary next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                last = page.next();
+                return last;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+}
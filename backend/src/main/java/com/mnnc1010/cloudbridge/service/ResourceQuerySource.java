@@ -0,0 +1,59 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+
+/**
+ * A data store that can answer filtered resource queries from its indexes.
+ *
+ * <p>A query is served as a {@link ResourcePageSource} view of the store that only lists the
+ * matching resources, newest first by {@code insertedAt}. Positions in the view have the form
+ * {@code insertedAt|id}, so query results can be merged and resumed exactly like listings.</p>
+ */
+public interface ResourceQuerySource {
+
+    /**
+     * @return the store name used in cursors and in the {@code fileStorage} field (e.g. "MongoDB").
+     */
+    String getStoreName();
+
+    /**
+     * Returns a view of this store that pages through the resources matching a query.
+     *
+     * @param query the filters; {@code fileStorage} has already been applied by the caller.
+     * @return the page source for the query.
+     */
+    ResourcePageSource query(ResourceQuery query);
+
+    /**
+     * Formats the position of a resource in a query view.
+     *
+     * @param insertedAt the resource's {@code insertedAt}.
+     * @param id         the resource id.
+     * @return the position.
+     */
+    static String positionOf(Long insertedAt, String id) {
+        return insertedAt + "|" + id;
+    }
+
+    /**
+     * @param position a position produced by {@link #positionOf(Long, String)}.
+     * @return the {@code insertedAt} part of the position.
+     * @throws IllegalArgumentException if the position is malformed.
+     */
+    static long insertedAtOf(String position) {
+        int separator = position.indexOf('|');
+        try {
+            return Long.parseLong(position.substring(0, Math.max(separator, 0)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    /**
+     * @param position a position produced by {@link #positionOf(Long, String)}.
+     * @return the id part of the position.
+     */
+    static String idOf(String position) {
+        return position.substring(position.indexOf('|') + 1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The {@link ResourcePageSource} view of a store returned by {@link ResourceQuerySource#query}.
+ *
+ * <p>Translates {@code insertedAt|id} positions to and from the keyset arguments of the store's
+ * query method.</p>
+ */
+final class ResourceQueryView implements ResourcePageSource {
+
+    /**
+     * Reads the page of matching resources that follows a keyset position.
+     */
+    @FunctionalInterface
+    interface Reader {
+        List<CloudBridgeResource> read(Long afterInsertedAt, String afterId, int limit);
+    }
+
+    private final String storeName;
+    private final Reader reader;
+
+    ResourceQueryView(String storeName, Reader reader) {
+        this.storeName = storeName;
+        this.reader = reader;
+    }
+
+    @Override
+    public String getStoreName() {
+        return storeName;
+    }
+
+    @Override
+    public List<CloudBridgeResourceSummary> getResourcePage(String position, int limit) {
+        Long afterInsertedAt = position == null ? null : ResourceQuerySource.insertedAtOf(position);
+        String afterId = position == null ? null : ResourceQuerySource.idOf(position);
+        return reader.read(afterInsertedAt, afterId, limit).stream()
+                .map(CloudBridgeResourceSummary::from)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String positionOf(CloudBridgeResourceSummary resource) {
+        return ResourceQuerySource.positionOf(resource.getInsertedAt(), resource.getId());
+    }
+}
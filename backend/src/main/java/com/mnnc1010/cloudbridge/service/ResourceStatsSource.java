@@ -0,0 +1,36 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.ResourceStats;
+
+import java.util.List;
+
+/**
+ * A data store that maintains {@link ResourceStats} counters for the resources it holds.
+ *
+ * <p>The counters are updated on every create and delete, so reading them costs one small read
+ * regardless of how many resources are stored. Since a counter update is a separate write from
+ * the resource itself, a failure between the two can leave the counters slightly off;
+ * {@link #rebuildStats()} recounts them from the stored resources.</p>
+ */
+public interface ResourceStatsSource {
+
+    /**
+     * @return the store name used in cursors and in the {@code fileStorage} field (e.g. "MongoDB").
+     */
+    String getStoreName();
+
+    /**
+     * @return the current counters of this store.
+     */
+    List<ResourceStats> getStats();
+
+    /**
+     * Recounts the counters from a full read of the store's metadata and overwrites them.
+     *
+     * <p>Meant to run while the store is not written: the recounted totals overwrite whatever
+     * counter updates were made while the store was being read.</p>
+     *
+     * @return the recounted counters.
+     */
+    List<ResourceStats> rebuildStats();
+}
@@ -0,0 +1,87 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import org.springframework.core.io.InputStreamSource;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A storage tier that uploaded files can be stored in.
+ *
+ * <p>Every tier is a Spring bean; {@link StorageTierRouter} picks the tier for each upload from
+ * the configured policy, so adding a tier does not require changes to the controller.</p>
+ */
+public interface StorageBackend {
+
+    /**
+     * @return the store name used in the policy, in cursors and in the {@code fileStorage} field (e.g. "MongoDB").
+     */
+    String getStoreName();
+
+    /**
+     * @return the largest file, in bytes, this tier can store at all; the policy can only lower it.
+     */
+    long getMaxFileSize();
+
+    /**
+     * Stores a new resource together with its content.
+     *
+     * <p>Ids and dates are assigned as by the underlying store. The content may be read more than
+     * once.</p>
+     *
+     * @param resource the resource metadata; {@code fileSize} is set and {@code fileContent} is left empty.
+     * @param content  the file content.
+     * @return a future of the stored resource.
+     * @throws IOException if the content cannot be read.
+     */
+    CompletableFuture<CloudBridgeResource> store(CloudBridgeResource resource, InputStreamSource content) throws IOException;
+
+    /**
+     * Stores many resources together with their content.
+     *
+     * <p>The default implementation stores them one by one; tiers with a bulk write path
+     * override it.</p>
+     *
+     * @param resources the resource metadata, as for {@link #store(CloudBridgeResource, InputStreamSource)}.
+     * @param contents  the file content of each resource, in the same order.
+     * @return the error message for every resource that could not be stored, keyed by resource id; empty on success.
+     */
+    default Map<String, String> storeAll(List<CloudBridgeResource> resources, List<? extends InputStreamSource> contents) {
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (int i = 0; i < resources.size(); i++) {
+            CloudBridgeResource resource = resources.get(i);
+            try {
+                store(resource, contents.get(i)).join();
+            } catch (IOException e) {
+                failures.put(resource.getId(), "Error reading file content.");
+            } catch (CompletionException e) {
+                failures.put(resource.getId(), e.getCause().getMessage());
+            } catch (RuntimeException e) {
+                failures.put(resource.getId(), e.getMessage());
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Retrieves the stored file content of a resource.
+     *
+     * @param id the resource identifier.
+     * @return the content, or an empty {@link Optional} if this tier does not hold the resource.
+     */
+    Optional<ResourceContent> getContent(String id);
+
+    /**
+     * Deletes a resource and releases its content.
+     *
+     * @param id the resource identifier.
+     * @return {@code true} if this tier held the resource and it has been deleted.
+     */
+    boolean delete(String id);
+}
@@ -0,0 +1,101 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.ResourceStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Combines the {@link ResourceStats} counters of every store into storage statistics per owner,
+ * type and store.
+ *
+ * <p>Each store keeps its own counters next to its resources and updates them on every create
+ * and delete, so building the statistics reads a few counters per store instead of the resources
+ * themselves. {@link #rebuild()} recounts the counters of every store from its metadata, for use
+ * after an outage or when the counters are first introduced.</p>
+ */
+@Service
+public class StorageStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageStatsService.class);
+
+    private final List<ResourceStatsSource> sources;
+
+    /**
+     * @param sources every store that maintains storage counters.
+     */
+    @Autowired
+    public StorageStatsService(List<ResourceStatsSource> sources) {
+        this.sources = sources;
+    }
+
+    /**
+     * Reads and sums the counters of all stores.
+     *
+     * <p>Counters of the same owner or type in different stores are added up. A store whose
+     * counters cannot be read is listed under {@code unavailable} and left out of the totals.</p>
+     *
+     * @return per dimension ({@code fileOwner}, {@code fileType}, {@code fileStorage}) the counters
+     *         of every value, largest count first, and the list of unavailable stores.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Map<String, ResourceStats>> merged = new LinkedHashMap<>();
+        for (String dimension : ResourceStats.DIMENSIONS) {
+            merged.put(dimension, new LinkedHashMap<>());
+        }
+        List<String> unavailable = new ArrayList<>();
+        for (ResourceStatsSource source : sources) {
+            List<ResourceStats> counters;
+            try {
+                counters = source.getStats();
+            } catch (RuntimeException e) {
+                log.warn("Could not read the storage statistics of {}", source.getStoreName(), e);
+                unavailable.add(source.getStoreName());
+                continue;
+            }
+            for (ResourceStats counter : counters) {
+                Map<String, ResourceStats> values = merged.get(counter.getDimension());
+                if (values != null) {
+                    values.computeIfAbsent(counter.getValue(), value -> new ResourceStats(counter.getDimension(), value))
+                            .merge(counter);
+                }
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        merged.forEach((dimension, values) -> {
+            // Counters stay behind at zero once the last resource of a value is deleted.
+            Map<String, ResourceStats> sorted = new LinkedHashMap<>();
+            values.values().stream()
+                    .filter(counter -> counter.getCount() > 0)
+                    .sorted(Comparator.comparingLong(ResourceStats::getCount).reversed())
+                    .forEach(counter -> sorted.put(counter.getValue(), counter));
+            stats.put(dimension, sorted);
+        });
+        stats.put("unavailable", unavailable);
+        return stats;
+    }
+
+    /**
+     * Recounts the counters of every store from its stored metadata.
+     *
+     * @return the number of counters written per store.
+     */
+    public Map<String, Integer> rebuild() {
+        Map<String, Integer> rebuilt = new LinkedHashMap<>();
+        for (ResourceStatsSource source : sources) {
+            long start = System.nanoTime();
+            rebuilt.put(source.getStoreName(), source.rebuildStats().size());
+            log.info("Rebuilt the storage statistics of {} in {} ms.", source.getStoreName(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+        return rebuilt;
+    }
+}
@@ -0,0 +1,226 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the storage tier for each upload from a configured policy.
+ *
+ * <p>The tiers listed in {@code cloudbridge.storage.order} are tried in that order, and the first
+ * whose policy accepts the file's size and type stores it. The policy of a tier is read from
+ * {@code cloudbridge.storage.tiers.<name>}:</p>
+ * <ul>
+ *   <li>{@code minBytes} - smallest file stored in the tier (default 0).</li>
+ *   <li>{@code maxBytes} - largest file stored in the tier (default and upper bound: the tier's own maximum).</li>
+ *   <li>{@code fileTypes} - comma-separated media types (or prefixes ending in "/") stored in the tier (default: all).</li>
+ * </ul>
+ *
+ * <p>Names in the order without a matching {@link StorageBackend} bean (a disabled tier, for
+ * example) are skipped. Content lookups go to the tiers in the same order and stop at the first
+ * tier holding the resource; deletes go to every tier.</p>
+ */
+@Service
+public class StorageTierRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageTierRouter.class);
+
+    private final List<Tier> tiers;
+
+    /**
+     * Constructor for dependency injection of the storage tiers.
+     *
+     * @param backends    every storage tier.
+     * @param environment the environment used to resolve the per-tier policy.
+     * @param order       comma-separated tier names in the order they are tried.
+     */
+    @Autowired
+    public StorageTierRouter(List<StorageBackend> backends,
+                             Environment environment,
+                             @Value("${cloudbridge.storage.order:DynamoDB,MongoDB,Local}") String order) {
+        Map<String, StorageBackend> byName = backends.stream()
+                .collect(Collectors.toMap(StorageBackend::getStoreName, Function.identity()));
+        List<Tier> tiers = new ArrayList<>();
+        for (String name : order.split(",")) {
+            StorageBackend backend = byName.get(name.trim());
+            if (backend == null) {
+                log.warn("Storage tier {} is not available and is skipped.", name.trim());
+                continue;
+            }
+            tiers.add(new Tier(backend, environment));
+        }
+        this.tiers = Collections.unmodifiableList(tiers);
+    }
+
+    /**
+     * Chooses the tier for a file.
+     *
+     * @param fileSize the file size in bytes.
+     * @param fileType the declared media type of the file, may be {@code null}.
+     * @return the first tier whose policy accepts the file, or an empty {@link Optional} if none does.
+     */
+    public Optional<StorageBackend> route(long fileSize, String fileType) {
+        return tiers.stream()
+                .filter(tier -> tier.accepts(fileSize, fileType))
+                .map(tier -> tier.backend)
+                .findFirst();
+    }
+
+    /**
+     * @param storeName the store name of a tier.
+     * @return the tier, or an empty {@link Optional} if it is not configured.
+     */
+    public Optional<StorageBackend> getBackend(String storeName) {
+        return tiers.stream()
+                .filter(tier -> tier.backend.getStoreName().equals(storeName))
+                .map(tier -> tier.backend)
+                .findFirst();
+    }
+
+    /**
+     * Checks whether the policy of a given tier accepts a file.
+     *
+     * @param storeName the store name of the tier.
+     * @param fileSize  the file size in bytes.
+     * @param fileType  the declared media type of the file, may be {@code null}.
+     * @return {@code true} if the tier is configured and its policy accepts the file.
+     */
+    public boolean accepts(String storeName, long fileSize, String fileType) {
+        return tiers.stream()
+                .anyMatch(tier -> tier.backend.getStoreName().equals(storeName) && tier.accepts(fileSize, fileType));
+    }
+
+    /**
+     * Retrieves the stored file content of a resource from whichever tier holds it.
+     *
+     * @param id the resource identifier.
+     * @return the content, or an empty {@link Optional} if no tier holds the resource.
+     */
+    public Optional<ResourceContent> getContent(String id) {
+        for (Tier tier : tiers) {
+            Optional<ResourceContent> content = tier.backend.getContent(id);
+            if (content.isPresent()) {
+                return content;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Deletes a resource from every tier that holds it.
+     *
+     * <p>Every tier is asked, not just the first hit: while {@link TierMigrationService} moves a
+     * resource, it briefly exists in two tiers, and a delete must remove the copy as well.</p>
+     *
+     * @param id the resource identifier.
+     * @return {@code true} if a tier held the resource and it has been deleted.
+     */
+    public boolean delete(String id) {
+        boolean deleted = false;
+        for (Tier tier : tiers) {
+            deleted |= tier.backend.delete(id);
+        }
+        return deleted;
+    }
+
+    /**
+     * @return the effective policy of every tier, in the order they are tried.
+     */
+    public List<Map<String, Object>> getPolicy() {
+        return tiers.stream().map(Tier::describe).collect(Collectors.toList());
+    }
+
+    /**
+     * @param storeName the store name of a tier.
+     * @return a human-readable description of what the tier accepts, for error messages.
+     */
+    public String describe(String storeName) {
+        return tiers.stream()
+                .filter(tier -> tier.backend.getStoreName().equals(storeName))
+                .map(Tier::toString)
+                .findFirst()
+                .orElse(storeName + " is not available");
+    }
+
+    /**
+     * @return a human-readable description of what all tiers accept, for error messages.
+     */
+    public String describe() {
+        return tiers.stream().map(Tier::toString).collect(Collectors.joining("; "));
+    }
+
+    /**
+     * A tier together with its policy.
+     */
+    private static final class Tier {
+        private final StorageBackend backend;
+        private final long minBytes;
+        private final long maxBytes;
+        private final List<String> fileTypes;
+
+        private Tier(StorageBackend backend, Environment environment) {
+            String prefix = "cloudbridge.storage.tiers." + backend.getStoreName() + ".";
+            this.backend = backend;
+            this.minBytes = environment.getProperty(prefix + "minBytes", Long.class, 0L);
+            this.maxBytes = Math.min(environment.getProperty(prefix + "maxBytes", Long.class, backend.getMaxFileSize()),
+                    backend.getMaxFileSize());
+            this.fileTypes = Arrays.stream(environment.getProperty(prefix + "fileTypes", "").split(","))
+                    .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                    .filter(type -> !type.isEmpty())
+                    .collect(Collectors.toList());
+        }
+
+        private boolean accepts(long fileSize, String fileType) {
+            if (fileSize < minBytes || fileSize > maxBytes) {
+                return false;
+            }
+            if (fileTypes.isEmpty()) {
+                return true;
+            }
+            if (fileType == null) {
+                return false;
+            }
+            String type = fileType.toLowerCase(Locale.ROOT);
+            int parameters = type.indexOf(';');
+            if (parameters >= 0) {
+                type = type.substring(0, parameters);
+            }
+            type = type.trim();
+            for (String accepted : fileTypes) {
+                if (accepted.endsWith("/") ? type.startsWith(accepted) : type.equals(accepted)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Map<String, Object> describe() {
+            Map<String, Object> policy = new LinkedHashMap<>();
+            policy.put("store", backend.getStoreName());
+            policy.put("minBytes", minBytes);
+            policy.put("maxBytes", maxBytes);
+            policy.put("fileTypes", fileTypes);
+            return policy;
+        }
+
+        @Override
+        public String toString() {
+            return backend.getStoreName() + " stores files of " + minBytes + " to " + maxBytes + " bytes"
+                    + (fileTypes.isEmpty() ? "" : " of type " + String.join(", ", fileTypes));
+        }
+    }
+}
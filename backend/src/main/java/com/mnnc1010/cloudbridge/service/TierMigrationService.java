@@ -0,0 +1,618 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourceAccess;
+import com.mnnc1010.cloudbridge.model.ResourceMigration;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoAccessRepository;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoMigrationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves resources between a hot and a cold storage tier in the background.
+ *
+ * <p>Enabled with {@code cloudbridge.tiering.enabled}, on one replica only. Every
+ * {@code intervalSeconds} a run demotes resources of the hot tier ({@code hotTier}, DynamoDB by
+ * default) that were inserted more than {@code coldAfterDays} ago and have not been read since,
+ * and promotes resources of the cold tier ({@code coldTier}) that were read at least
+ * {@code promoteMinHits} times in the current or previous access window and fit the hot tier's
+ * policy. Reads are counted by {@link ResourceAccessTracker}; demotion only starts once reads
+ * have been counted for {@code coldAfterDays}, since until then a resource without reads is not
+ * known to be cold.</p>
+ *
+ * <p>A move copies, then switches, and never deletes first:</p>
+ * <ol>
+ *   <li>A {@link ResourceMigration} journal entry is inserted ({@code COPYING}).</li>
+ *   <li>The content is spooled to a temporary file and a copy with the same id and dates is
+ *       written to the new tier, with {@code fileStorage} naming the new tier and
+ *       {@code dateModified} set to the time of the move in the same write. The copy carries
+ *       {@code movedFrom}, so listings, queries and storage counters still only see the old record.</li>
+ *   <li>The old record is marked as moved ({@code SWITCHING}); from then on it is a tombstone
+ *       that is not listed, serves no content and that a delete leaves alone, so reads go to the
+ *       copy. The copy is then published by clearing its {@code movedFrom}.</li>
+ *   <li>The old record is removed ({@code SWITCHED}); its content is released after
+ *       {@code graceSeconds}, so that replicas that looked the resource up before the switch can
+ *       still read it. The grace period must exceed the resource cache TTL.</li>
+ * </ol>
+ * <p>A listing therefore shows the resource once, from the old tier until the switch and from
+ * the new one after it; between the two writes of the switch it is briefly not listed at all.
+ * Each step is idempotent and recorded in the journal first, so a run interrupted by a crash is
+ * finished by the next one and, after a restart, right away: unfinished copies are deleted,
+ * unfinished switches repeated.</p>
+ *
+ * <p>A run moves at most {@code maxPerRun} resources in batches of {@code batchSize}, at most
+ * {@code maxBytesPerSecond} and {@code maxObjectsPerSecond}. Before each move it waits in steps
+ * of {@code busyBackoffMs} while the store read or DynamoDB write executors have queued work, so
+ * foreground requests go first. The demotion scan resumes where the previous run stopped, also
+ * after a restart, and pauses {@code scanPauseMs} between pages.</p>
+ */
+@Service
+@ConditionalOnProperty(name = "cloudbridge.tiering.enabled", havingValue = "true")
+public class TierMigrationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TierMigrationService.class);
+
+    private final StorageTierRouter router;
+    private final MigratableStorageBackend hotTier;
+    private final MigratableStorageBackend coldTier;
+    private final ResourcePageSource hotSource;
+    private final ResourceAccessTracker accessTracker;
+    private final CloudBridgeMongoAccessRepository accessRepository;
+    private final CloudBridgeMongoMigrationRepository migrationRepository;
+    private final ExecutorService readExecutor;
+    private final ExecutorService writeExecutor;
+    private final long intervalSeconds;
+    private final long coldAfterMs;
+    private final long promoteMinHits;
+    private final int batchSize;
+    private final int maxPerRun;
+    private final long maxBytesPerSecond;
+    private final double maxObjectsPerSecond;
+    private final long scanPauseMs;
+    private final long busyBackoffMs;
+    private final long graceMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicBoolean inProgress = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong demoted = new AtomicLong();
+    private final AtomicLong promoted = new AtomicLong();
+    private final AtomicLong bytesMoved = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rolledBack = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong busyWaits = new AtomicLong();
+    private volatile long lastRunStartedAt;
+    private volatile long lastRunFinishedAt;
+    private volatile String lastError;
+
+    /**
+     * Resolves the two tiers and schedules the runs.
+     *
+     * @param router              the router holding the storage tiers and their policies.
+     * @param pageSources         every store that can list its resources; the hot tier's is scanned.
+     * @param accessTracker       the tracker counting content reads.
+     * @param accessRepository    the repository holding the read counts.
+     * @param migrationRepository the repository holding the journal and the scan position.
+     * @param readExecutor        the executor of foreground store reads, watched for queued work.
+     * @param writeExecutor       the executor of foreground DynamoDB batch writes, watched for queued work.
+     * @param hotTier             the store name of the hot tier.
+     * @param coldTier            the store name of the cold tier.
+     * @param intervalSeconds     the delay between the end of one run and the start of the next.
+     * @param coldAfterDays       how long a resource must go unread to be demoted.
+     * @param promoteMinHits      the fewest reads within one access window for a promotion.
+     * @param batchSize           the number of resources read per scan page or journal query.
+     * @param maxPerRun           the largest number of resources moved per run.
+     * @param maxBytesPerSecond   the largest content throughput of the moves.
+     * @param maxObjectsPerSecond the largest number of moves per second.
+     * @param scanPauseMs         the pause between two pages of the demotion scan.
+     * @param busyBackoffMs       the wait before checking the foreground executors again.
+     * @param graceSeconds        how long the content of a moved resource is kept in its old tier.
+     * @param cacheTtlSeconds     the TTL of cached resources, a lower bound for the grace period.
+     */
+    @Autowired
+    public TierMigrationService(StorageTierRouter router,
+                                List<ResourcePageSource> pageSources,
+                                ResourceAccessTracker accessTracker,
+                                CloudBridgeMongoAccessRepository accessRepository,
+                                CloudBridgeMongoMigrationRepository migrationRepository,
+                                @Qualifier("storeReadExecutor") ExecutorService readExecutor,
+                                @Qualifier("dynamoWriteExecutor") ExecutorService writeExecutor,
+                                @Value("${cloudbridge.tiering.hotTier:DynamoDB}") String hotTier,
+                                @Value("${cloudbridge.tiering.coldTier:MongoDB}") String coldTier,
+                                @Value("${cloudbridge.tiering.intervalSeconds:300}") long intervalSeconds,
+                                @Value("${cloudbridge.tiering.coldAfterDays:30}") long coldAfterDays,
+                                @Value("${cloudbridge.tiering.promoteMinHits:20}") long promoteMinHits,
+                                @Value("${cloudbridge.tiering.batchSize:25}") int batchSize,
+                                @Value("${cloudbridge.tiering.maxPerRun:500}") int maxPerRun,
+                                @Value("${cloudbridge.tiering.maxBytesPerSecond:4194304}") long maxBytesPerSecond,
+                                @Value("${cloudbridge.tiering.maxObjectsPerSecond:10}") double maxObjectsPerSecond,
+                                @Value("${cloudbridge.tiering.scanPauseMs:200}") long scanPauseMs,
+                                @Value("${cloudbridge.tiering.busyBackoffMs:500}") long busyBackoffMs,
+                                @Value("${cloudbridge.tiering.graceSeconds:600}") long graceSeconds,
+                                @Value("${cloudbridge.cache.resources.ttlSeconds:300}") long cacheTtlSeconds) {
+        this.router = router;
+        this.hotTier = migratable(router, hotTier);
+        this.coldTier = migratable(router, coldTier);
+        this.hotSource = pageSources.stream()
+                .filter(source -> source.getStoreName().equals(hotTier))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Storage tier " + hotTier + " cannot list its resources."));
+        this.accessTracker = accessTracker;
+        this.accessRepository = accessRepository;
+        this.migrationRepository = migrationRepository;
+        this.readExecutor = readExecutor;
+        this.writeExecutor = writeExecutor;
+        this.intervalSeconds = intervalSeconds;
+        this.coldAfterMs = TimeUnit.DAYS.toMillis(coldAfterDays);
+        this.promoteMinHits = promoteMinHits;
+        this.batchSize = Math.max(batchSize, 1);
+        this.maxPerRun = maxPerRun;
+        this.maxBytesPerSecond = maxBytesPerSecond;
+        this.maxObjectsPerSecond = maxObjectsPerSecond;
+        this.scanPauseMs = scanPauseMs;
+        this.busyBackoffMs = Math.max(busyBackoffMs, 1);
+        if (graceSeconds <= cacheTtlSeconds) {
+            log.warn("cloudbridge.tiering.graceSeconds ({}) must exceed the resource cache TTL; using {} seconds.",
+                    graceSeconds, cacheTtlSeconds + 60);
+            graceSeconds = cacheTtlSeconds + 60;
+        }
+        this.graceMs = TimeUnit.SECONDS.toMillis(graceSeconds);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tier-migration");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleWithFixedDelay(this::run, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private static MigratableStorageBackend migratable(StorageTierRouter router, String storeName) {
+        StorageBackend backend = router.getBackend(storeName)
+                .orElseThrow(() -> new IllegalStateException("Storage tier " + storeName + " is not available."));
+        if (!(backend instanceof MigratableStorageBackend)) {
+            throw new IllegalStateException("Storage tier " + storeName + " does not support migration.");
+        }
+        return (MigratableStorageBackend) backend;
+    }
+
+    /**
+     * Finishes the moves a crash interrupted as soon as the application has started, rather than
+     * after the first interval, since their resources are not listed until the switch is done.
+     */
+    @PostConstruct
+    void recoverOnStartup() {
+        scheduler.execute(() -> {
+            if (!inProgress.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                recover();
+            } catch (RuntimeException e) {
+                lastError = e.toString();
+                log.warn("Could not finish interrupted tier migrations", e);
+            } finally {
+                inProgress.set(false);
+            }
+        });
+    }
+
+    /**
+     * Starts a run right away, unless one is in progress.
+     *
+     * @return {@code true} if a run was started.
+     */
+    public boolean runNow() {
+        if (inProgress.get()) {
+            return false;
+        }
+        scheduler.execute(this::run);
+        return true;
+    }
+
+    /**
+     * One run: finishes interrupted moves, removes old records and releases their content, then
+     * promotes and demotes within the run's budget.
+     */
+    void run() {
+        if (!inProgress.compareAndSet(false, true)) {
+            return;
+        }
+        lastRunStartedAt = System.currentTimeMillis();
+        runs.incrementAndGet();
+        try {
+            recover();
+            purge();
+            Budget budget = new Budget();
+            promote(budget);
+            demote(budget);
+            lastError = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            lastError = e.toString();
+            log.warn("Tier migration run failed", e);
+        } finally {
+            lastRunFinishedAt = System.currentTimeMillis();
+            inProgress.set(false);
+        }
+    }
+
+    /**
+     * Rolls back the copies and repeats the switches a previous run did not finish.
+     */
+    private void recover() {
+        for (ResourceMigration migration : migrationRepository.findUnfinished()) {
+            Optional<MigratableStorageBackend> from = tierOf(migration.getFromStore());
+            Optional<MigratableStorageBackend> to = tierOf(migration.getToStore());
+            if (from.isEmpty() || to.isEmpty()) {
+                log.warn("Migration of {} refers to a tier that is not available; left as is.", migration.getId());
+                continue;
+            }
+            if (ResourceMigration.COPYING.equals(migration.getState())) {
+                rollBack(migration, to.get());
+            } else {
+                switchOver(migration, from.get(), to.get());
+            }
+        }
+    }
+
+    /**
+     * Removes the old records of switched moves, and releases their content once the grace
+     * period has passed.
+     */
+    private void purge() {
+        List<ResourceMigration> purgeable;
+        do {
+            long now = System.currentTimeMillis();
+            purgeable = migrationRepository.findPurgeable(now, batchSize);
+            for (ResourceMigration migration : purgeable) {
+                Optional<MigratableStorageBackend> from = tierOf(migration.getFromStore());
+                if (from.isEmpty()) {
+                    log.warn("Migration of {} refers to a tier that is not available; left as is.", migration.getId());
+                    return;
+                }
+                if (!migration.isDetached()) {
+                    detach(migration, from.get());
+                }
+                if (migration.getReleaseAfter() != null && migration.getReleaseAfter() <= now) {
+                    if (migration.getSource() != null) {
+                        from.get().releaseDetachedContent(migration.getSource());
+                    }
+                    migrationRepository.remove(migration.getId());
+                    released.incrementAndGet();
+                }
+            }
+            // Entries still within their grace period are not returned again, so every full page makes progress.
+        } while (purgeable.size() == batchSize);
+    }
+
+    /**
+     * Moves the most read resources of the cold tier to the hot tier.
+     */
+    private void promote(Budget budget) throws InterruptedException {
+        long since = accessTracker.windowStart(System.currentTimeMillis()) - accessTracker.getWindowMs();
+        List<ResourceAccess> hot = accessRepository.findHot(coldTier.getStoreName(), since, promoteMinHits, maxPerRun);
+        Set<String> ids = new LinkedHashSet<>();
+        for (ResourceAccess access : hot) {
+            if (access.getFileSize() == null || access.getFileSize() <= hotTier.getMaxFileSize()) {
+                ids.add(access.getResourceId());
+            }
+        }
+        for (String id : ids) {
+            if (budget.isExhausted()) {
+                return;
+            }
+            if (move(coldTier, hotTier, id, budget, true)) {
+                promoted.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Scans the hot tier from the saved position and moves resources that have gone cold to the
+     * cold tier.
+     */
+    private void demote(Budget budget) throws InterruptedException {
+        long now = System.currentTimeMillis();
+        if (accessRepository.startTracking(now) > now - coldAfterMs) {
+            // Reads have not been counted for long enough to tell a cold resource from an unknown one.
+            return;
+        }
+        long cutoff = now - coldAfterMs;
+        long accessedSince = accessTracker.windowStart(cutoff);
+        String position = migrationRepository.loadPosition(hotTier.getStoreName());
+        while (!budget.isExhausted()) {
+            List<CloudBridgeResourceSummary> page = hotSource.getResourcePage(position, batchSize);
+            scanned.addAndGet(page.size());
+            List<String> candidateIds = page.stream()
+                    .filter(resource -> resource.getInsertedAt() != null && resource.getInsertedAt() < cutoff)
+                    .filter(resource -> resource.getFileSize() != null && resource.getFileSize() <= coldTier.getMaxFileSize())
+                    .map(CloudBridgeResourceSummary::getId)
+                    .collect(Collectors.toList());
+            Set<String> accessed = accessRepository.findAccessedSince(candidateIds, accessedSince);
+
+            boolean stopped = false;
+            for (CloudBridgeResourceSummary resource : page) {
+                if (budget.isExhausted()) {
+                    stopped = true;
+                    break;
+                }
+                if (candidateIds.contains(resource.getId()) && !accessed.contains(resource.getId())
+                        && move(hotTier, coldTier, resource.getId(), budget, false)) {
+                    demoted.incrementAndGet();
+                }
+                position = hotSource.positionOf(resource);
+            }
+            if (!stopped && page.size() < batchSize) {
+                // The scan reached the end; the next run starts over.
+                migrationRepository.savePosition(hotTier.getStoreName(), null);
+                return;
+            }
+            migrationRepository.savePosition(hotTier.getStoreName(), position);
+            Thread.sleep(scanPauseMs);
+        }
+    }
+
+    /**
+     * Moves one resource: copies it to the new tier, switches over and removes the old record.
+     *
+     * @return {@code true} if the resource was moved, {@code false} if it was skipped or the move failed.
+     */
+    private boolean move(MigratableStorageBackend from, MigratableStorageBackend to, String id, Budget budget,
+                         boolean checkPolicy) throws InterruptedException {
+        waitForForeground();
+        Optional<ResourceContent> found = from.getContent(id);
+        if (found.isEmpty()) {
+            skipped.incrementAndGet();
+            return false;
+        }
+        ResourceContent content = found.get();
+        CloudBridgeResource source = content.getResource();
+        if ((checkPolicy && !router.accepts(to.getStoreName(), content.getLength(), source.getFileType())) || to.exists(id)) {
+            skipped.incrementAndGet();
+            return false;
+        }
+
+        Path spool = null;
+        try {
+            spool = Files.createTempFile("tier-migration-", ".bin");
+            try (OutputStream out = Files.newOutputStream(spool)) {
+                content.writeTo(out, 0, content.getLength());
+            }
+            ResourceMigration migration = new ResourceMigration(id, from.getStoreName(), to.getStoreName(), System.currentTimeMillis());
+            if (!migrationRepository.begin(migration)) {
+                skipped.incrementAndGet();
+                return false;
+            }
+            try {
+                to.copy(copyOf(source, from.getStoreName(), to.getStoreName(), content.getLength()), new FileSystemResource(spool));
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                log.warn("Could not copy {} from {} to {}", id, from.getStoreName(), to.getStoreName(), e);
+                rollBack(migration, to);
+                return false;
+            }
+            migration.setState(ResourceMigration.SWITCHING);
+            migration.setUpdatedAt(System.currentTimeMillis());
+            migrationRepository.update(migration);
+            if (!switchOver(migration, from, to)) {
+                return false;
+            }
+        } catch (IOException e) {
+            failed.incrementAndGet();
+            log.warn("Could not read {} from {}", id, from.getStoreName(), e);
+            return false;
+        } finally {
+            deleteQuietly(spool);
+        }
+        bytesMoved.addAndGet(content.getLength());
+        budget.spend(content.getLength());
+        return true;
+    }
+
+    /**
+     * Marks the old record as moved, publishes the copy and removes the old record. If the old
+     * record is gone or was moved elsewhere in the meantime (a delete, for example), the copy is
+     * rolled back instead.
+     *
+     * @return {@code true} if the copy has taken over.
+     */
+    private boolean switchOver(ResourceMigration migration, MigratableStorageBackend from, MigratableStorageBackend to) {
+        CloudBridgeResource moved = from.markMoved(migration.getId(), to.getStoreName());
+        if (moved == null) {
+            rollBack(migration, to);
+            return false;
+        }
+        // Nothing to publish if an earlier attempt did, or if the copy was deleted since the old record was marked.
+        to.publishCopy(migration.getId());
+        // Inline content goes away with the record; the snapshot is only needed to release the rest.
+        moved.setFileContent(null);
+        long now = System.currentTimeMillis();
+        migration.setSource(moved);
+        migration.setState(ResourceMigration.SWITCHED);
+        migration.setReleaseAfter(now + graceMs);
+        migration.setUpdatedAt(now);
+        migrationRepository.update(migration);
+        detach(migration, from);
+        return true;
+    }
+
+    private void detach(ResourceMigration migration, MigratableStorageBackend from) {
+        // Already removed when an earlier attempt stopped before it could record that.
+        from.detachMoved(migration.getId());
+        migration.setDetached(true);
+        migration.setUpdatedAt(System.currentTimeMillis());
+        migrationRepository.update(migration);
+    }
+
+    private void rollBack(ResourceMigration migration, MigratableStorageBackend to) {
+        to.delete(migration.getId());
+        migrationRepository.remove(migration.getId());
+        rolledBack.incrementAndGet();
+    }
+
+    /**
+     * Builds the record written to the new tier: the same id, metadata and insertion date, the
+     * new tier in {@code fileStorage}, the time of the move in {@code dateModified} and the old
+     * tier in {@code movedFrom}.
+     */
+    private static CloudBridgeResource copyOf(CloudBridgeResource source, String fromStore, String storeName, long length) {
+        Instant now = Instant.now();
+        CloudBridgeResource copy = new CloudBridgeResource();
+        copy.setId(source.getId());
+        copy.setFileName(source.getFileName());
+        copy.setFileType(source.getFileType());
+        copy.setFileDescription(source.getFileDescription());
+        copy.setFileOwner(source.getFileOwner());
+        copy.setFileSize(length);
+        copy.setFileStorage(storeName);
+        copy.setDateInserted(source.getDateInserted());
+        copy.setInsertedAt(source.getInsertedAt());
+        copy.setDateModified(now.toString());
+        copy.setModifiedAt(now.toEpochMilli());
+        copy.setContentHash(source.getContentHash());
+        copy.setMovedFrom(fromStore);
+        return copy;
+    }
+
+    private Optional<MigratableStorageBackend> tierOf(String storeName) {
+        if (hotTier.getStoreName().equals(storeName)) {
+            return Optional.of(hotTier);
+        }
+        if (coldTier.getStoreName().equals(storeName)) {
+            return Optional.of(coldTier);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Waits while foreground store reads or DynamoDB writes are queued.
+     */
+    private void waitForForeground() throws InterruptedException {
+        while (hasQueuedWork(readExecutor) || hasQueuedWork(writeExecutor)) {
+            busyWaits.incrementAndGet();
+            Thread.sleep(busyBackoffMs);
+        }
+    }
+
+    private static boolean hasQueuedWork(ExecutorService executor) {
+        return executor instanceof ThreadPoolExecutor && !((ThreadPoolExecutor) executor).getQueue().isEmpty();
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    /**
+     * @return the configuration, the counters since startup, the last run and the journal.
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", true);
+        status.put("hotTier", hotTier.getStoreName());
+        status.put("coldTier", coldTier.getStoreName());
+        status.put("intervalSeconds", intervalSeconds);
+        status.put("coldAfterDays", TimeUnit.MILLISECONDS.toDays(coldAfterMs));
+        status.put("promoteMinHits", promoteMinHits);
+        status.put("running", inProgress.get());
+        status.put("lastRunStartedAt", lastRunStartedAt == 0 ? null : Instant.ofEpochMilli(lastRunStartedAt).toString());
+        status.put("lastRunFinishedAt", lastRunFinishedAt == 0 ? null : Instant.ofEpochMilli(lastRunFinishedAt).toString());
+        status.put("lastError", lastError);
+
+        Map<String, Object> counters = new LinkedHashMap<>();
+        counters.put("runs", runs.get());
+        counters.put("scanned", scanned.get());
+        counters.put("demoted", demoted.get());
+        counters.put("promoted", promoted.get());
+        counters.put("bytesMoved", bytesMoved.get());
+        counters.put("skipped", skipped.get());
+        counters.put("failed", failed.get());
+        counters.put("rolledBack", rolledBack.get());
+        counters.put("released", released.get());
+        counters.put("busyWaits", busyWaits.get());
+        status.put("counters", counters);
+
+        Map<String, Object> journal = new LinkedHashMap<>();
+        for (String state : List.of(ResourceMigration.COPYING, ResourceMigration.SWITCHING, ResourceMigration.SWITCHED)) {
+            journal.put(state, migrationRepository.count(state));
+        }
+        status.put("journal", journal);
+        status.put("scanPosition", migrationRepository.loadPosition(hotTier.getStoreName()));
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * The moves left in one run, paced to the configured rates since the run started.
+     */
+    private final class Budget {
+        private final long startNanos = System.nanoTime();
+        private long objects;
+        private long bytes;
+
+        boolean isExhausted() {
+            return objects >= maxPerRun || Thread.currentThread().isInterrupted();
+        }
+
+        /**
+         * Counts a finished move and sleeps until the run is back within both rates.
+         */
+        void spend(long movedBytes) throws InterruptedException {
+            objects++;
+            bytes += movedBytes;
+            double seconds = 0;
+            if (maxBytesPerSecond > 0) {
+                seconds = Math.max(seconds, (double) bytes / maxBytesPerSecond);
+            }
+            if (maxObjectsPerSecond > 0) {
+                seconds = Math.max(seconds, objects / maxObjectsPerSecond);
+            }
+            long waitNanos = startNanos + (long) (seconds * 1_000_000_000L) - System.nanoTime();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.mnnc1010.cloudbridge.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Upload metrics: the size of stored uploads per store, and uploads that were rejected or
+ * failed.
+ *
+ * <ul>
+ *   <li>{@code cloudbridge.upload.size} - bytes per stored upload, tagged by {@code store}, with a
+ *   percentile histogram.</li>
+ *   <li>{@code cloudbridge.upload.rejected} - uploads refused before anything was stored, tagged by
+ *   {@code reason}.</li>
+ *   <li>{@code cloudbridge.upload.failed} - uploads that a store could not complete, tagged by {@code store}.</li>
+ * </ul>
+ */
+@Component
+public class UploadMetrics {
+
+    /**
+     * No storage tier's policy accepts the file.
+     */
+    public static final String NO_TIER = "no_tier";
+
+    /**
+     * The file is outside the policy of the tier the client asked for.
+     */
+    public static final String TIER_POLICY = "tier_policy";
+
+    /**
+     * A batch is empty or has more files than {@code cloudbridge.batch.maxFiles}.
+     */
+    public static final String BATCH_SIZE = "batch_size";
+
+    /**
+     * The request is larger than the multipart limits.
+     */
+    public static final String TOO_LARGE = "too_large";
+
+    /**
+     * The write-behind ingest queue is full.
+     */
+    public static final String QUEUE_FULL = "queue_full";
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public UploadMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Records an upload that has been stored.
+     *
+     * @param store the store it was stored in.
+     * @param bytes the upload size.
+     */
+    public void recordStored(String store, long bytes) {
+        DistributionSummary.builder("cloudbridge.upload.size")
+                .description("Size of stored uploads")
+                .baseUnit("bytes")
+                .tag("store", store)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(bytes);
+    }
+
+    /**
+     * Records an upload that was refused.
+     *
+     * @param reason one of the reason constants of this class.
+     */
+    public void recordRejected(String reason) {
+        Counter.builder("cloudbridge.upload.rejected")
+                .description("Uploads refused before anything was stored")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Records an upload that a store could not complete.
+     *
+     * @param store the store it was sent to.
+     */
+    public void recordFailed(String store) {
+        Counter.builder("cloudbridge.upload.failed")
+                .description("Uploads that a store could not complete")
+                .tag("store", store)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,108 @@
+package com.mnnc1010.cloudbridge.controller;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.service.UploadMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code POST /api/resources/batch}: routing of each file to a storage tier and the per-file status report.
+ */
+class CloudbridgeControllerBatchUploadTest {
+
+    private static final int ONE_MB = 1048576;
+
+    private CloudbridgeControllerFixture fixture;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new CloudbridgeControllerFixture();
+        fixture.batchMaxFiles = 3;
+        mvc = fixture.mvc();
+        when(fixture.dynamoService.createResources(anyList())).thenReturn(Map.of());
+        when(fixture.mongoService.createResources(anyList(), anyList())).thenReturn(Map.of());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void routesEachFileToATierBySize() throws Exception {
+        mvc.perform(batch(file("small.txt", 10), file("large.bin", 2 * ONE_MB), file("exact.bin", ONE_MB)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].fileStorage").value("DynamoDB"))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].fileStorage").value("MongoDB"))
+                .andExpect(jsonPath("$[1].status").value("CREATED"))
+                .andExpect(jsonPath("$[2].fileStorage").value("MongoDB"))
+                .andExpect(jsonPath("$[2].status").value("CREATED"));
+
+        ArgumentCaptor<List<CloudBridgeResource>> dynamo = ArgumentCaptor.forClass(List.class);
+        verify(fixture.dynamoService).createResources(dynamo.capture());
+        assertThat(dynamo.getValue()).extracting(CloudBridgeResource::getFileName).containsExactly("small.txt");
+        assertThat(dynamo.getValue().get(0).getFileContent()).hasSize(10);
+        ArgumentCaptor<List<CloudBridgeResource>> mongo = ArgumentCaptor.forClass(List.class);
+        verify(fixture.mongoService).createResources(mongo.capture(), anyList());
+        assertThat(mongo.getValue()).extracting(CloudBridgeResource::getFileName).containsExactly("large.bin", "exact.bin");
+        verify(fixture.uploadMetrics).recordStored("DynamoDB", 10);
+        verify(fixture.uploadMetrics).recordStored("MongoDB", 2 * ONE_MB);
+        verify(fixture.uploadMetrics).recordStored("MongoDB", ONE_MB);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reportsFilesTheStoreCouldNotWriteAsFailed() throws Exception {
+        when(fixture.dynamoService.createResources(anyList())).thenAnswer(invocation -> {
+            List<CloudBridgeResource> resources = invocation.getArgument(0);
+            return Map.of(resources.get(1).getId(), "throttled");
+        });
+
+        mvc.perform(batch(file("a.txt", 10), file("b.txt", 10)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("FAILED"))
+                .andExpect(jsonPath("$[1].message").value("throttled"));
+
+        verify(fixture.uploadMetrics).recordStored("DynamoDB", 10);
+        verify(fixture.uploadMetrics).recordFailed("DynamoDB");
+    }
+
+    @Test
+    void refusesMoreFilesThanTheBatchLimit() throws Exception {
+        mvc.perform(batch(file("a", 1), file("b", 1), file("c", 1), file("d", 1)))
+                .andExpect(status().isBadRequest());
+
+        verify(fixture.dynamoService, never()).createResources(any());
+        verify(fixture.uploadMetrics).recordRejected(UploadMetrics.BATCH_SIZE);
+    }
+
+    private static MockMultipartFile file(String name, int size) {
+        return new MockMultipartFile("files", name, "application/octet-stream", new byte[size]);
+    }
+
+    private static MockMultipartHttpServletRequestBuilder batch(MockMultipartFile... files) {
+        MockMultipartHttpServletRequestBuilder builder = multipart("/api/resources/batch");
+        for (MockMultipartFile file : files) {
+            builder.file(file);
+        }
+        builder.param("fileDescription", "import");
+        builder.param("fileOwner", "owner");
+        return builder;
+    }
+}
@@ -0,0 +1,68 @@
+package com.mnnc1010.cloudbridge.controller;
+
+import com.mnnc1010.cloudbridge.service.PeerCacheInvalidationPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code POST /api/cache/invalidations} only accepts invalidations carrying the shared peer secret.
+ */
+class CloudbridgeControllerCacheInvalidationTest {
+
+    private CloudbridgeControllerFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new CloudbridgeControllerFixture();
+    }
+
+    @Test
+    void invalidationWithTheSecretIsApplied() throws Exception {
+        mvcWithSecret("s3cret").perform(invalidation().header(PeerCacheInvalidationPublisher.SECRET_HEADER, "s3cret"))
+                .andExpect(status().isNoContent());
+
+        verify(fixture.cache).invalidateLocally("MongoDB", List.of("a", "b"));
+    }
+
+    @Test
+    void invalidationWithoutTheSecretIsRefused() throws Exception {
+        MockMvc mvc = mvcWithSecret("s3cret");
+
+        mvc.perform(invalidation()).andExpect(status().isForbidden());
+        mvc.perform(invalidation().header(PeerCacheInvalidationPublisher.SECRET_HEADER, "guess"))
+                .andExpect(status().isForbidden());
+
+        verify(fixture.cache, never()).invalidateLocally(anyString(), any());
+    }
+
+    @Test
+    void invalidationsAreRefusedWhenNoSecretIsConfigured() throws Exception {
+        mvcWithSecret("").perform(invalidation().header(PeerCacheInvalidationPublisher.SECRET_HEADER, ""))
+                .andExpect(status().isForbidden());
+
+        verify(fixture.cache, never()).invalidateLocally(anyString(), any());
+    }
+
+    private static MockHttpServletRequestBuilder invalidation() {
+        return post("/api/cache/invalidations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"store\":\"MongoDB\",\"ids\":[\"a\",\"b\"]}");
+    }
+
+    private MockMvc mvcWithSecret(String secret) {
+        fixture.peerSecret = secret;
+        return fixture.mvc();
+    }
+}
@@ -0,0 +1,91 @@
+package com.mnnc1010.cloudbridge.controller;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourcePage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code GET /api/resources} answers a matching {@code If-None-Match} with 304 without reading a
+ * store, until a store is written.
+ */
+class CloudbridgeControllerConditionalListingTest {
+
+    private CloudbridgeControllerFixture fixture;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new CloudbridgeControllerFixture();
+        mvc = fixture.mvc();
+        when(fixture.aggregationService.getResourcePage(isNull(), isNull())).thenAnswer(invocation ->
+                CompletableFuture.completedFuture(new ResourcePage(List.of(summary("a")), null, Map.of("MongoDB", false))));
+    }
+
+    @Test
+    void matchingTagIsAnsweredWithoutReadingTheStores() throws Exception {
+        String etag = list(get("/api/resources"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        list(get("/api/resources").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        verify(fixture.aggregationService, times(1)).getResourcePage(isNull(), isNull());
+    }
+
+    @Test
+    void writeToAStoreInvalidatesTheTag() throws Exception {
+        String etag = list(get("/api/resources")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        fixture.versions.bump("DynamoDB");
+
+        list(get("/api/resources").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG));
+        verify(fixture.aggregationService, times(2)).getResourcePage(isNull(), isNull());
+    }
+
+    @Test
+    void partialPageHasNoTag() throws Exception {
+        when(fixture.aggregationService.getResourcePage(isNull(), isNull())).thenReturn(CompletableFuture.completedFuture(
+                new ResourcePage(List.of(summary("a")), "next", Map.of("MongoDB", false, "DynamoDB", true))));
+
+        list(get("/api/resources"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
+    private ResultActions list(MockHttpServletRequestBuilder listing) throws Exception {
+        MvcResult started = mvc.perform(listing).andExpect(request().asyncStarted()).andReturn();
+        return mvc.perform(asyncDispatch(started));
+    }
+
+    private static CloudBridgeResourceSummary summary(String id) {
+        CloudBridgeResourceSummary summary = new CloudBridgeResourceSummary();
+        summary.setId(id);
+        summary.setFileStorage("MongoDB");
+        return summary;
+    }
+}
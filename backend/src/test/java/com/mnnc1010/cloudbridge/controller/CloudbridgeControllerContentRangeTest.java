@@ -0,0 +1,162 @@
+package com.mnnc1010.cloudbridge.controller;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.service.ResourceContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Range handling of {@code GET /api/resources/{id}/content} against inline content of 26 bytes,
+ * and which reads count as accesses for the tier migration.
+ */
+class CloudbridgeControllerContentRangeTest {
+
+    private static final String CONTENT = "abcdefghijklmnopqrstuvwxyz";
+
+    private CloudbridgeControllerFixture fixture;
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new CloudbridgeControllerFixture();
+        mvc = fixture.mvc();
+        store("letters", CONTENT);
+        store("empty", "");
+    }
+
+    @Test
+    void withoutRangeServesTheWholeContent() throws Exception {
+        streamed(contentOf("letters", null))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 26))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void closedRangeServesPartialContent() throws Exception {
+        streamed(contentOf("letters", "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/26"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("cdef"));
+    }
+
+    @Test
+    void rangeEndPastTheContentIsClamped() throws Exception {
+        streamed(contentOf("letters", "bytes=20-99"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 20-25/26"))
+                .andExpect(content().string("uvwxyz"));
+    }
+
+    @Test
+    void openEndedRangeServesTheRest() throws Exception {
+        streamed(contentOf("letters", "bytes=23-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 23-25/26"))
+                .andExpect(content().string("xyz"));
+    }
+
+    @Test
+    void suffixRangeServesTheLastBytes() throws Exception {
+        streamed(contentOf("letters", "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 22-25/26"))
+                .andExpect(content().string("wxyz"));
+    }
+
+    @Test
+    void suffixLongerThanTheContentServesAllOfIt() throws Exception {
+        streamed(contentOf("letters", "bytes=-100"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-25/26"))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void rangeStartingPastTheEndIsNotSatisfiable() throws Exception {
+        mvc.perform(contentOf("letters", "bytes=26-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */26"));
+    }
+
+    @Test
+    void emptySuffixIsNotSatisfiable() throws Exception {
+        mvc.perform(contentOf("letters", "bytes=-0"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */26"));
+    }
+
+    @Test
+    void rangeOfEmptyContentIsNotSatisfiable() throws Exception {
+        mvc.perform(contentOf("empty", "bytes=-5"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */0"));
+    }
+
+    @Test
+    void malformedRangeServesTheWholeContent() throws Exception {
+        streamed(contentOf("letters", "bytes=z-1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void severalRangesServeTheWholeContent() throws Exception {
+        streamed(contentOf("letters", "bytes=0-1,4-5"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void onlyReadsFromTheStartCountAsAccesses() throws Exception {
+        streamed(contentOf("letters", "bytes=10-"));
+        verify(fixture.accessTracker, never()).record(any());
+
+        streamed(contentOf("letters", "bytes=0-9"));
+        verify(fixture.accessTracker).record(any());
+    }
+
+    private static RequestBuilder contentOf(String id, String range) {
+        MockHttpServletRequestBuilder builder = MockMvcRequestBuilders.get("/api/resources/{id}/content", id);
+        return range == null ? builder : builder.header(HttpHeaders.RANGE, range);
+    }
+
+    /**
+     * Performs a request answered with a streaming body and returns the completed response.
+     */
+    private ResultActions streamed(RequestBuilder builder) throws Exception {
+        MvcResult result = mvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mvc.perform(asyncDispatch(result));
+    }
+
+    private void store(String id, String content) {
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId(id);
+        resource.setFileType("text/plain");
+        resource.setFileContent(content.getBytes(StandardCharsets.UTF_8));
+        when(fixture.mongoService.getContent(id)).thenReturn(Optional.of(ResourceContent.inline(resource)));
+    }
+}
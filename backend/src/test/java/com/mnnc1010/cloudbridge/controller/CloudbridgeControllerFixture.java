@@ -0,0 +1,92 @@
+package com.mnnc1010.cloudbridge.controller;
+
+import com.mnnc1010.cloudbridge.service.CloudBridgeDynamoResourceService;
+import com.mnnc1010.cloudbridge.service.CloudBridgeMongoResourceService;
+import com.mnnc1010.cloudbridge.service.CloudBridgeResourceAggregationService;
+import com.mnnc1010.cloudbridge.service.ContentCompressionStats;
+import com.mnnc1010.cloudbridge.service.ContentDedupStats;
+import com.mnnc1010.cloudbridge.service.DynamoStorageBackend;
+import com.mnnc1010.cloudbridge.service.IngestQueue;
+import com.mnnc1010.cloudbridge.service.MongoStorageBackend;
+import com.mnnc1010.cloudbridge.service.ResourceAccessTracker;
+import com.mnnc1010.cloudbridge.service.ResourceCollectionVersions;
+import com.mnnc1010.cloudbridge.service.ResourceEventStream;
+import com.mnnc1010.cloudbridge.service.ResourceMetadataCache;
+import com.mnnc1010.cloudbridge.service.StorageStatsService;
+import com.mnnc1010.cloudbridge.service.StorageTierRouter;
+import com.mnnc1010.cloudbridge.service.TierMigrationService;
+import com.mnnc1010.cloudbridge.service.UploadMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Builds a {@link CloudbridgeController} for standalone MockMvc tests. Every collaborator is a
+ * Mockito mock, apart from the storage tier router, which routes to the mocked store services, and
+ * the collection versions the listing tags are built from. Optional beans such as the ingest queue
+ * and the tier migration are absent unless a test sets them, and every setting has its application
+ * default. Tests stub or replace the fields they need before calling {@link #mvc()}.
+ */
+final class CloudbridgeControllerFixture {
+
+    CloudBridgeMongoResourceService mongoService = mock(CloudBridgeMongoResourceService.class);
+    CloudBridgeDynamoResourceService dynamoService = mock(CloudBridgeDynamoResourceService.class);
+    CloudBridgeResourceAggregationService aggregationService = mock(CloudBridgeResourceAggregationService.class);
+    ResourceMetadataCache cache = mock(ResourceMetadataCache.class);
+    ContentDedupStats dedupStats = mock(ContentDedupStats.class);
+    ContentCompressionStats compressionStats = mock(ContentCompressionStats.class);
+    UploadMetrics uploadMetrics = mock(UploadMetrics.class);
+    ResourceEventStream eventStream = mock(ResourceEventStream.class);
+    ResourceCollectionVersions versions = new ResourceCollectionVersions(0);
+    StorageStatsService storageStats = mock(StorageStatsService.class);
+    ResourceAccessTracker accessTracker = mock(ResourceAccessTracker.class);
+    MockEnvironment environment = new MockEnvironment();
+    long dynamoMaxFileSize = 1048575L;
+    long mongoMaxFileSize = 536870912L;
+    int batchMaxFiles = 1000;
+    ObjectMapper objectMapper = new ObjectMapper();
+    int streamFlushEvery = 100;
+    IngestQueue ingestQueue;
+    TierMigrationService tierMigration;
+    long ingestRetryAfterSeconds = 5;
+    long contentMaxAgeSeconds = 31536000L;
+    String peerSecret = "";
+
+    CloudbridgeController controller() {
+        return new CloudbridgeController(mongoService, dynamoService, aggregationService, cache, dedupStats,
+                compressionStats, storageRouter(), uploadMetrics, batchMaxFiles, objectMapper, streamFlushEvery,
+                provider(IngestQueue.class, ingestQueue), ingestRetryAfterSeconds, eventStream, versions,
+                contentMaxAgeSeconds, storageStats, accessTracker,
+                provider(TierMigrationService.class, tierMigration), peerSecret);
+    }
+
+    /**
+     * The tier router over the DynamoDB and MongoDB tiers backed by the mocked services, with the
+     * policy read from {@link #environment}.
+     */
+    StorageTierRouter storageRouter() {
+        return new StorageTierRouter(List.of(new DynamoStorageBackend(dynamoService, dynamoMaxFileSize),
+                new MongoStorageBackend(mongoService, mongoMaxFileSize)), environment, "DynamoDB,MongoDB");
+    }
+
+    MockMvc mvc() {
+        return MockMvcBuilders.standaloneSetup(controller())
+                .setControllerAdvice(new UploadLimitExceptionHandler(uploadMetrics))
+                .build();
+    }
+
+    private static <T> ObjectProvider<T> provider(Class<T> type, T bean) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (bean != null) {
+            beans.addBean(type.getName(), bean);
+        }
+        return beans.getBeanProvider(type);
+    }
+}
@@ -0,0 +1,89 @@
+package com.mnnc1010.cloudbridge.controller;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.IngestJob;
+import com.mnnc1010.cloudbridge.service.IngestQueue;
+import com.mnnc1010.cloudbridge.service.UploadMetrics;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code POST /api/resources?async=true}: uploads are handed to the ingest queue when it is enabled,
+ * and refused with 429 and {@code Retry-After} while it is full.
+ */
+class CloudbridgeControllerIngestTest {
+
+    private CloudbridgeControllerFixture fixture;
+    private IngestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new CloudbridgeControllerFixture();
+        queue = mock(IngestQueue.class);
+        fixture.ingestQueue = queue;
+    }
+
+    @Test
+    void asyncUploadIsAcceptedAsAJob() throws Exception {
+        when(queue.submit(any(), any())).thenAnswer(invocation -> {
+            CloudBridgeResource resource = invocation.getArgument(0);
+            IngestJob job = new IngestJob();
+            job.setId(resource.getId());
+            job.setStatus(IngestJob.QUEUED);
+            return Optional.of(job);
+        });
+
+        MvcResult result = upload(fixture.mvc())
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status").value(IngestJob.QUEUED))
+                .andReturn();
+
+        String id = JsonPath.read(result.getResponse().getContentAsString(), "$.id");
+        assertThat(result.getResponse().getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/ingest/" + id);
+        verify(fixture.dynamoService, never()).createResource(any());
+    }
+
+    @Test
+    void fullQueueAnswersTooManyRequests() throws Exception {
+        fixture.ingestRetryAfterSeconds = 7;
+        when(queue.submit(any(), any())).thenReturn(Optional.empty());
+
+        upload(fixture.mvc())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "7"));
+
+        verify(fixture.uploadMetrics).recordRejected(UploadMetrics.QUEUE_FULL);
+    }
+
+    private static ResultActions upload(MockMvc mvc) throws Exception {
+        MvcResult started = mvc.perform(multipart("/api/resources")
+                        .file(new MockMultipartFile("file", "notes.txt", "text/plain", new byte[100]))
+                        .param("fileDescription", "notes")
+                        .param("fileOwner", "owner-1")
+                        .param("async", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started));
+    }
+}
@@ -0,0 +1,83 @@
+package com.mnnc1010.cloudbridge.controller;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code GET /api/resources} streams every resource as one JSON line when asked for NDJSON, and
+ * closes the store stream once the listing is written.
+ */
+class CloudbridgeControllerStreamingTest {
+
+    private static final int RESOURCES = 250;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CloudbridgeControllerFixture fixture;
+    private AtomicBoolean closed;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new CloudbridgeControllerFixture();
+        closed = new AtomicBoolean();
+        when(fixture.aggregationService.streamResourceSummaries()).thenAnswer(invocation -> IntStream.range(0, RESOURCES)
+                .mapToObj(CloudbridgeControllerStreamingTest::summary)
+                .onClose(() -> closed.set(true)));
+    }
+
+    @Test
+    void ndjsonListingHasOneResourcePerLine() throws Exception {
+        List<String> lines = stream(get("/api/resources").accept(MediaType.APPLICATION_NDJSON));
+
+        assertThat(lines).hasSize(RESOURCES);
+        for (int i = 0; i < RESOURCES; i++) {
+            assertThat(objectMapper.readValue(lines.get(i), CloudBridgeResourceSummary.class).getId()).isEqualTo("resource-" + i);
+        }
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void streamFlagSelectsTheSameListing() throws Exception {
+        List<String> lines = stream(get("/api/resources").param("stream", "true"));
+
+        assertThat(lines).hasSize(RESOURCES);
+        assertThat(closed).isTrue();
+    }
+
+    private List<String> stream(MockHttpServletRequestBuilder listing) throws Exception {
+        MockMvc mvc = fixture.mvc();
+        MvcResult started = mvc.perform(listing).andExpect(request().asyncStarted()).andReturn();
+        String body = mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body).endsWith("\n");
+        return Stream.of(body.split("\n")).toList();
+    }
+
+    private static CloudBridgeResourceSummary summary(int i) {
+        CloudBridgeResourceSummary summary = new CloudBridgeResourceSummary();
+        summary.setId("resource-" + i);
+        summary.setFileName("file-" + i + ".txt");
+        summary.setFileStorage(i % 2 == 0 ? "DynamoDB" : "MongoDB");
+        return summary;
+    }
+}
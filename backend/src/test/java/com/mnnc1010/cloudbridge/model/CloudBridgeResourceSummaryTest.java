@@ -0,0 +1,149 @@
+package com.mnnc1010.cloudbridge.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares a listing of a few thousand stored resources read and sent in full with the same
+ * listing read through the summary projection.
+ */
+class CloudBridgeResourceSummaryTest {
+
+    private static final int RESOURCES = 3000;
+
+    private final MappingMongoConverter mongoConverter = mongoConverter();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void projectionReadsAndSendsAFractionOfTheFullListing() throws IOException {
+        List<CloudBridgeResource> resources = storedResources();
+        List<String> projected = Arrays.asList(CloudBridgeResourceSummary.ATTRIBUTES);
+
+        long dynamoFull = 0;
+        long dynamoProjected = 0;
+        long mongoFull = 0;
+        long mongoProjected = 0;
+        for (CloudBridgeResource resource : resources) {
+            Map<String, Object> item = attributesOf(resource);
+            dynamoFull += itemSize(item);
+            item.keySet().retainAll(projected);
+            dynamoProjected += itemSize(item);
+
+            Document document = new Document();
+            mongoConverter.write(resource, document);
+            mongoFull += bsonSize(document);
+            document.remove("fileContent");
+            mongoProjected += bsonSize(document);
+        }
+        List<CloudBridgeResourceSummary> summaries = resources.stream().map(CloudBridgeResourceSummary::from).toList();
+        long responseFull = jsonSize(resources);
+        long responseProjected = jsonSize(summaries);
+
+        // Average content is 4 KB against roughly 250 bytes of metadata per resource.
+        assertThat(dynamoProjected).isLessThan(dynamoFull / 10);
+        assertThat(mongoProjected).isLessThan(mongoFull / 10);
+        assertThat(responseProjected).isLessThan(responseFull / 10);
+        // The summary carries the metadata fields of the full resource unchanged.
+        JsonNode summary = objectMapper.valueToTree(summaries.get(0));
+        JsonNode full = objectMapper.valueToTree(resources.get(0));
+        summary.fieldNames().forEachRemaining(field -> assertThat(summary.get(field)).isEqualTo(full.get(field)));
+        assertThat(summary.has("fileContent")).isFalse();
+    }
+
+    private static List<CloudBridgeResource> storedResources() {
+        Random random = new Random(42);
+        List<CloudBridgeResource> resources = new ArrayList<>(RESOURCES);
+        for (int i = 0; i < RESOURCES; i++) {
+            CloudBridgeResource resource = new CloudBridgeResource();
+            resource.setId(String.format("%08x-0000-4000-8000-%012d", i, i));
+            resource.setFileName("report-" + i + ".txt");
+            resource.setFileType("text/plain");
+            resource.setFileStorage("DynamoDB");
+            resource.setFileDescription("Quarterly report " + i);
+            resource.setFileOwner("owner-" + (i % 20));
+            resource.setDateInserted("2024-03-01T10:15:30.123Z");
+            resource.setDateModified("2024-03-01T10:15:30.123Z");
+            byte[] content = new byte[1024 + random.nextInt(6 * 1024)];
+            random.nextBytes(content);
+            resource.setFileContent(content);
+            resource.setFileSize((long) content.length);
+            resources.add(resource);
+        }
+        return resources;
+    }
+
+    /**
+     * The stored attributes of a resource, with binary content kept as bytes.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> attributesOf(CloudBridgeResource resource) {
+        Map<String, Object> item = objectMapper.convertValue(resource, Map.class);
+        item.values().removeIf(Objects::isNull);
+        item.put("fileContent", resource.getFileContent());
+        return item;
+    }
+
+    /**
+     * The item size DynamoDB charges reads by: attribute names plus their values.
+     */
+    private static long itemSize(Map<String, Object> item) {
+        long size = 0;
+        for (Map.Entry<String, Object> attribute : item.entrySet()) {
+            size += attribute.getKey().getBytes(StandardCharsets.UTF_8).length;
+            Object value = attribute.getValue();
+            size += value instanceof byte[] bytes ? bytes.length : value.toString().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    private static long bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    private long jsonSize(Object value) throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        objectMapper.writeValue(out, value);
+        return out.count;
+    }
+
+    private static MappingMongoConverter mongoConverter() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
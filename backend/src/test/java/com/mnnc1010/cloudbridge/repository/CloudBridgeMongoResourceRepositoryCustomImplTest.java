@@ -0,0 +1,74 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The MongoDB query filters only on the given fields, resumes after the keyset position and
+ * matches the {@code insertedAt, _id} order of the compound indexes.
+ */
+class CloudBridgeMongoResourceRepositoryCustomImplTest {
+
+    private MongoTemplate mongoTemplate;
+    private CloudBridgeMongoResourceRepositoryCustomImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        repository = new CloudBridgeMongoResourceRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    void firstPageFiltersOnTheGivenFields() {
+        Query query = run(new ResourceQuery("alice", null, null, 1_000L, null), null, null, 25);
+
+        List<Document> filters = filters(query);
+        assertThat(filters).hasSize(4);
+        assertThat(filters.get(0)).isEqualTo(new Document("fileOwner", "alice"));
+        assertThat(filters.get(1)).isEqualTo(new Document("insertedAt",
+                new Document("$gte", 1_000L).append("$lt", Long.MAX_VALUE)));
+        // Records of an unfinished move between tiers are never listed.
+        assertThat(filters.get(2)).isEqualTo(new Document("movedTo", new Document("$exists", false)));
+        assertThat(filters.get(3)).isEqualTo(new Document("movedFrom", new Document("$exists", false)));
+        assertThat(query.getSortObject()).isEqualTo(new Document("insertedAt", -1).append("id", -1));
+        assertThat(query.getLimit()).isEqualTo(25);
+        assertThat(query.getFieldsObject()).isEqualTo(new Document("fileContent", 0));
+    }
+
+    @Test
+    void laterPagesResumeAfterTheKeysetPosition() {
+        Query query = run(new ResourceQuery(null, "text/csv", null, null, 5_000L), 4_000L, "r7", 10);
+
+        List<Document> filters = filters(query);
+        assertThat(filters).hasSize(5);
+        assertThat(filters.get(0)).isEqualTo(new Document("fileType", "text/csv"));
+        assertThat(filters.get(4)).isEqualTo(new Document("$or", List.of(
+                new Document("insertedAt", new Document("$lt", 4_000L)),
+                new Document("insertedAt", 4_000L).append("id", new Document("$lt", "r7")))));
+    }
+
+    private Query run(ResourceQuery resourceQuery, Long afterInsertedAt, String afterId, int limit) {
+        repository.findMetadataByQuery(resourceQuery, afterInsertedAt, afterId, limit);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(CloudBridgeResource.class));
+        return query.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> filters(Query query) {
+        return (List<Document>) query.getQueryObject().get("$and");
+    }
+}
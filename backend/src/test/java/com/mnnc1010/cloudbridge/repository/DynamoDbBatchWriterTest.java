@@ -0,0 +1,59 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batching and retries of {@link DynamoDbBatchWriter}, with the {@code BatchWriteItem} call replaced
+ * by a function that records each batch and decides what is left unprocessed.
+ */
+class DynamoDbBatchWriterTest {
+
+    private final DynamoDbBatchWriter writer = new DynamoDbBatchWriter(null, 3);
+    private final List<List<Integer>> batches = new ArrayList<>();
+
+    @Test
+    void writesInBatchesOfTwentyFive() throws InterruptedException {
+        List<Integer> failed = writer.writeAll(items(60), batch -> {
+            batches.add(List.copyOf(batch));
+            return List.of();
+        });
+
+        assertThat(failed).isEmpty();
+        assertThat(batches).extracting(List::size).containsExactly(25, 25, 10);
+        assertThat(batches).flatExtracting(batch -> batch).containsExactlyElementsOf(items(60));
+    }
+
+    @Test
+    void resubmitsOnlyTheUnprocessedItems() throws InterruptedException {
+        List<Integer> failed = writer.writeAll(items(25), batch -> {
+            batches.add(List.copyOf(batch));
+            // The first attempt leaves the last three items unprocessed, as a throttled table would.
+            return batches.size() == 1 ? batch.subList(22, 25) : List.of();
+        });
+
+        assertThat(failed).isEmpty();
+        assertThat(batches).containsExactly(items(25), List.of(22, 23, 24));
+    }
+
+    @Test
+    void returnsWhatIsStillUnprocessedAfterTheLastAttempt() throws InterruptedException {
+        List<Integer> failed = writer.writeAll(items(30), batch -> {
+            batches.add(List.copyOf(batch));
+            return batch.get(0) == 25 ? batch : List.of();
+        });
+
+        // The second batch is attempted three times and then given up; the first is unaffected.
+        assertThat(failed).containsExactly(25, 26, 27, 28, 29);
+        assertThat(batches).extracting(List::size).containsExactly(25, 5, 5, 5);
+    }
+
+    private static List<Integer> items(int count) {
+        return IntStream.range(0, count).boxed().toList();
+    }
+}
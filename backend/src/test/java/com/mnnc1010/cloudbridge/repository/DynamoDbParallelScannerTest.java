@@ -0,0 +1,111 @@
+package com.mnnc1010.cloudbridge.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DynamoDbParallelScannerTest {
+
+    private static final long GIGABYTE = 1024L * 1024 * 1024;
+
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(ExecutorService::shutdownNow);
+    }
+
+    @Test
+    void derivedSegmentCountIsReusedUntilItExpires() throws InterruptedException {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.describeTable(any(DescribeTableRequest.class))).thenReturn(tableOfSize(5 * GIGABYTE));
+        DynamoDbParallelScanner scanner = new DynamoDbParallelScanner(client, "Resources", executor(4, 4),
+                0, 16, 100, 0, 200, 1000);
+
+        assertThat(scanner.segmentCount()).isEqualTo(3);
+        assertThat(scanner.segmentCount()).isEqualTo(3);
+        verify(client, times(1)).describeTable(any(DescribeTableRequest.class));
+
+        Thread.sleep(250);
+        assertThat(scanner.segmentCount()).isEqualTo(3);
+        verify(client, times(2)).describeTable(any(DescribeTableRequest.class));
+    }
+
+    @Test
+    void concurrentScansWaitForTheExecutorInsteadOfBeingRejected() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.scan(any(ScanRequest.class))).thenAnswer(invocation -> page(invocation.getArgument(0)));
+        // Room for four segments at a time: two running, two queued.
+        DynamoDbParallelScanner scanner = new DynamoDbParallelScanner(client, "Resources", executor(2, 2),
+                4, 4, 10, 0, 0, 10_000);
+
+        List<CompletableFuture<Long>> scans = new ArrayList<>();
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        executors.add(callers);
+        for (int i = 0; i < 6; i++) {
+            scans.add(CompletableFuture.supplyAsync(() -> {
+                try (Stream<Map<String, AttributeValue>> items = scanner.scan(null)) {
+                    return items.count();
+                }
+            }, callers));
+        }
+
+        assertThat(scans).allSatisfy(scan -> assertThat(scan.join()).isEqualTo(40L));
+    }
+
+    @Test
+    void scanWiderThanTheExecutorIsRefused() {
+        DynamoDbParallelScanner scanner = new DynamoDbParallelScanner(mock(DynamoDbClient.class), "Resources",
+                executor(2, 2), 8, 8, 10, 0, 0, 10_000);
+
+        assertThatThrownBy(() -> scanner.scan(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ExecutorService executor(int threads, int queueSize) {
+        ExecutorService executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), new ThreadPoolExecutor.AbortPolicy());
+        executors.add(executor);
+        return executor;
+    }
+
+    private static DescribeTableResponse tableOfSize(long bytes) {
+        return DescribeTableResponse.builder().table(TableDescription.builder().tableSizeBytes(bytes).build()).build();
+    }
+
+    /**
+     * Every segment holds ten items, returned as a single page after a short delay.
+     */
+    private static ScanResponse page(ScanRequest request) throws InterruptedException {
+        Thread.sleep(20);
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(Map.of("id", AttributeValue.fromS(request.segment() + "-" + i)));
+        }
+        return ScanResponse.builder().items(items).build();
+    }
+}
@@ -0,0 +1,285 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.ContentReference;
+import com.mnnc1010.cloudbridge.model.ResourceStats;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoContentRepository;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoResourceRepository;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoStatsRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Storing and deleting MongoDB resources whose content is shared through deduplication.
+ */
+class CloudBridgeMongoResourceServiceTest {
+
+    private MongoTemplate mongoTemplate;
+    private GridFsTemplate gridFsTemplate;
+    private CloudBridgeMongoContentRepository contentRepository;
+    private ContentDedupStats dedupStats;
+    private ContentCompressionStats compressionStats;
+    private CloudBridgeMongoStatsRepository statsRepository;
+    private CloudBridgeMongoResourceService service;
+
+    @BeforeEach
+    void setUp() {
+        CloudBridgeMongoResourceRepository repository = mock(CloudBridgeMongoResourceRepository.class);
+        when(repository.save(any(CloudBridgeResource.class))).then(returnsFirstArg());
+        mongoTemplate = mock(MongoTemplate.class);
+        gridFsTemplate = mock(GridFsTemplate.class);
+        contentRepository = mock(CloudBridgeMongoContentRepository.class);
+        dedupStats = new ContentDedupStats();
+        compressionStats = new ContentCompressionStats();
+        statsRepository = mock(CloudBridgeMongoStatsRepository.class);
+        service = new CloudBridgeMongoResourceService(repository, gridFsTemplate, mongoTemplate, contentRepository,
+                mock(ResourceMetadataCache.class), dedupStats, new ContentCodecSelector(true, "image/png", 65536, 0.1),
+                compressionStats, event -> { }, statsRepository);
+    }
+
+    @Test
+    void duplicateHeavyUploadsWriteEachContentOnce() throws IOException {
+        // 200 uploads drawn from 10 distinct 32 KB files.
+        Random random = new Random(7);
+        List<byte[]> files = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            byte[] file = new byte[32 * 1024];
+            random.nextBytes(file);
+            files.add(file);
+        }
+        Map<String, ContentReference> references = new HashMap<>();
+        when(contentRepository.acquire(anyString())).thenAnswer(invocation -> {
+            ContentReference reference = references.get(invocation.<String>getArgument(0));
+            if (reference != null) {
+                reference.setRefCount(reference.getRefCount() + 1);
+            }
+            return reference;
+        });
+        when(contentRepository.create(any(ContentReference.class))).thenAnswer(invocation -> {
+            ContentReference reference = invocation.getArgument(0);
+            return references.putIfAbsent(reference.getHash(), reference) == null;
+        });
+        AtomicLong bytesWritten = new AtomicLong();
+        when(gridFsTemplate.store(any(InputStream.class), nullable(String.class), nullable(String.class))).thenAnswer(invocation -> {
+            bytesWritten.addAndGet(invocation.<InputStream>getArgument(0).transferTo(OutputStream.nullOutputStream()));
+            return new ObjectId();
+        });
+
+        for (int i = 0; i < 200; i++) {
+            CloudBridgeResource resource = new CloudBridgeResource();
+            resource.setId("r" + i);
+            resource.setFileName("upload-" + i + ".bin");
+            service.createResource(resource, new ByteArrayResource(files.get(random.nextInt(files.size()))));
+        }
+
+        assertThat(references).hasSize(10);
+        assertThat(references.values().stream().mapToLong(ContentReference::getRefCount).sum()).isEqualTo(200L);
+        assertThat(bytesWritten.get()).isEqualTo(10L * 32 * 1024);
+        Map<String, Object> stats = dedupStats.getStats().get("MongoDB");
+        assertThat(stats).containsEntry("uploads", 200L)
+                .containsEntry("duplicateUploads", 190L)
+                .containsEntry("bytesUploaded", 200L * 32 * 1024)
+                .containsEntry("bytesWritten", 10L * 32 * 1024)
+                .containsEntry("dedupRatio", 20.0);
+    }
+
+    @Test
+    void uploadLosingTheRaceAttachesToTheWinningContent() throws IOException {
+        ObjectId ours = new ObjectId();
+        String theirs = new ObjectId().toHexString();
+        ContentReference winner = new ContentReference("hash", theirs, 3L, "identity", 2L, "2024-01-01T00:00:00Z");
+        // Nothing is stored yet, then a concurrent upload inserts its reference first.
+        when(contentRepository.acquire(anyString())).thenReturn(null).thenReturn(winner);
+        when(contentRepository.create(any(ContentReference.class))).thenReturn(false);
+        when(gridFsTemplate.store(any(InputStream.class), nullable(String.class), nullable(String.class))).thenReturn(ours);
+
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId("r1");
+        CloudBridgeResource saved = service.createResource(resource, new ByteArrayResource(new byte[] {1, 2, 3}));
+
+        assertThat(saved.getContentRef()).isEqualTo(theirs);
+        verify(gridFsTemplate).delete(any(Query.class));
+        assertThat(dedupStats.getStats().get("MongoDB")).containsEntry("duplicateUploads", 1L);
+    }
+
+    @Test
+    void compressibleUploadIsStoredDeflated() throws IOException {
+        byte[] text = "timestamp,store,bytes\n".repeat(5000).getBytes(StandardCharsets.UTF_8);
+        when(contentRepository.create(any(ContentReference.class))).thenReturn(true);
+        AtomicLong bytesWritten = new AtomicLong();
+        when(gridFsTemplate.store(any(InputStream.class), nullable(String.class), nullable(String.class))).thenAnswer(invocation -> {
+            bytesWritten.addAndGet(invocation.<InputStream>getArgument(0).transferTo(OutputStream.nullOutputStream()));
+            return new ObjectId();
+        });
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId("r1");
+        resource.setFileType("text/csv");
+
+        CloudBridgeResource saved = service.createResource(resource, new ByteArrayResource(text));
+
+        assertThat(saved.getContentCodec()).isEqualTo("deflate");
+        assertThat(saved.getFileSize()).isEqualTo(text.length);
+        assertThat(bytesWritten.get()).isLessThan(text.length / 10);
+        assertThat(compressionStats.getStats().get("MongoDB").get("deflate"))
+                .containsEntry("rawBytes", (long) text.length)
+                .containsEntry("storedBytes", bytesWritten.get());
+    }
+
+    @Test
+    void concurrentDeletesReleaseSharedContentOnce() {
+        CloudBridgeResource resource = resourceWithContent("r1", "hash-1", new ObjectId().toHexString());
+        // Both requests race for the document; only the first findAndRemove gets it back.
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(CloudBridgeResource.class)))
+                .thenReturn(resource)
+                .thenReturn(null);
+        when(contentRepository.release("hash-1", resource.getContentRef())).thenReturn(true);
+
+        assertThat(service.deleteResource("r1")).isTrue();
+        assertThat(service.deleteResource("r1")).isFalse();
+
+        verify(contentRepository, times(1)).release("hash-1", resource.getContentRef());
+        verify(gridFsTemplate, never()).delete(any(Query.class));
+        verify(statsRepository, times(1)).increment(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteDecrementsTheCountersOfEachDimension() {
+        CloudBridgeResource resource = resourceWithContent("r3", "hash-3", new ObjectId().toHexString());
+        resource.setFileType("text/plain");
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(CloudBridgeResource.class))).thenReturn(resource);
+        when(contentRepository.release("hash-3", resource.getContentRef())).thenReturn(true);
+
+        service.deleteResource("r3");
+
+        ArgumentCaptor<Collection<ResourceStats>> deltas = ArgumentCaptor.forClass(Collection.class);
+        verify(statsRepository).increment(deltas.capture());
+        assertThat(deltas.getValue()).extracting(ResourceStats::getKey).containsExactlyInAnyOrder(
+                ResourceStats.keyOf(ResourceStats.OWNER, "owner"),
+                ResourceStats.keyOf(ResourceStats.TYPE, "text/plain"),
+                ResourceStats.keyOf(ResourceStats.STORAGE, "MongoDB"));
+        assertThat(deltas.getValue()).allSatisfy(delta -> {
+            assertThat(delta.getCount()).isEqualTo(-1L);
+            assertThat(delta.getTotalBytes()).isEqualTo(-2_000_000L);
+            assertThat(delta.getHistogram()).containsEntry("under16MB", -1L);
+        });
+    }
+
+    @Test
+    void movedResourceIsCountedInOneTierAtATime() throws IOException {
+        when(contentRepository.create(any(ContentReference.class))).thenReturn(true);
+        when(gridFsTemplate.store(any(InputStream.class), nullable(String.class), nullable(String.class))).thenReturn(new ObjectId());
+        CloudBridgeResource copy = resourceWithContent("r5", null, null);
+        copy.setMovedFrom("DynamoDB");
+
+        // The unfinished copy is not counted, and rolling it back does not uncount it.
+        service.copyResource(copy, new ByteArrayResource(new byte[] {1, 2, 3}));
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(CloudBridgeResource.class))).thenReturn(copy);
+        service.deleteResource("r5");
+        verify(statsRepository, never()).increment(anyCollection());
+
+        // Publishing the copy counts it once; repeating the switch does not.
+        CloudBridgeResource published = resourceWithContent("r5", null, null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(), any(FindAndModifyOptions.class), eq(CloudBridgeResource.class)))
+                .thenReturn(published).thenReturn(null);
+        service.publishCopy("r5");
+        service.publishCopy("r5");
+        verify(statsRepository, times(1)).increment(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tombstoneIsUncountedWhenMarkedNotWhenDetached() {
+        CloudBridgeResource tombstone = resourceWithContent("r6", "hash-6", new ObjectId().toHexString());
+        tombstone.setMovedTo("DynamoDB");
+        when(mongoTemplate.findAndModify(any(Query.class), any(), any(FindAndModifyOptions.class), eq(CloudBridgeResource.class)))
+                .thenReturn(tombstone).thenReturn(null);
+        when(mongoTemplate.findOne(any(Query.class), eq(CloudBridgeResource.class))).thenReturn(tombstone);
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(CloudBridgeResource.class))).thenReturn(tombstone);
+
+        assertThat(service.markMoved("r6", "DynamoDB")).isSameAs(tombstone);
+        // A repeated switch finds the record already marked.
+        assertThat(service.markMoved("r6", "DynamoDB")).isSameAs(tombstone);
+        service.detachMoved("r6");
+
+        ArgumentCaptor<Collection<ResourceStats>> deltas = ArgumentCaptor.forClass(Collection.class);
+        verify(statsRepository, times(1)).increment(deltas.capture());
+        assertThat(deltas.getValue()).allSatisfy(delta -> assertThat(delta.getCount()).isEqualTo(-1L));
+    }
+
+    @Test
+    void failedCounterUpdateDoesNotFailTheUpload() throws IOException {
+        when(contentRepository.create(any(ContentReference.class))).thenReturn(true);
+        when(gridFsTemplate.store(any(InputStream.class), nullable(String.class), nullable(String.class))).thenReturn(new ObjectId());
+        doThrow(new IllegalStateException("resource_stats unavailable")).when(statsRepository).increment(anyCollection());
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId("r4");
+
+        CloudBridgeResource saved = service.createResource(resource, new ByteArrayResource(new byte[] {1, 2, 3}));
+
+        assertThat(saved.getContentRef()).isNotNull();
+        verify(statsRepository).increment(anyCollection());
+    }
+
+    @Test
+    void lastReferenceDeletesTheGridFsFile() {
+        CloudBridgeResource resource = resourceWithContent("r2", "hash-2", new ObjectId().toHexString());
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(CloudBridgeResource.class))).thenReturn(resource);
+        when(contentRepository.release("hash-2", resource.getContentRef())).thenReturn(false);
+
+        assertThat(service.deleteResource("r2")).isTrue();
+
+        verify(gridFsTemplate).delete(any(Query.class));
+    }
+
+    @Test
+    void missingResourceReleasesNothing() {
+        assertThat(service.deleteResource("unknown")).isFalse();
+
+        verify(contentRepository, never()).release(any(), any());
+        verify(gridFsTemplate, never()).delete(any(Query.class));
+    }
+
+    private static CloudBridgeResource resourceWithContent(String id, String hash, String gridFsId) {
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId(id);
+        resource.setFileOwner("owner");
+        resource.setFileSize(2_000_000L);
+        resource.setContentHash(hash);
+        resource.setContentRef(gridFsId);
+        return resource;
+    }
+}
@@ -0,0 +1,284 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourcePage;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aggregated listings over stores that block: the stores are read concurrently, and a store
+ * that misses its deadline is reported as partial without holding back the others. Listings
+ * keep each store's order but have no order across stores; queries are merged across stores
+ * newest inserted first.
+ */
+class CloudBridgeResourceAggregationServiceTest {
+
+    private ExecutorService executor;
+    private MockEnvironment environment;
+    private ResourceMetadataCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        environment = new MockEnvironment();
+        cache = mock(ResourceMetadataCache.class);
+        // Every page is read from its store.
+        when(cache.getPage(anyString(), nullable(String.class), anyInt(), any()))
+                .thenAnswer(invocation -> ((Supplier<CompletableFuture<List<CloudBridgeResourceSummary>>>) invocation.getArgument(3)).get());
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void storesAreReadConcurrently() {
+        environment.setProperty("cloudbridge.aggregation.timeoutMs.default", "10000");
+        // Each read waits until the other store's read has started, so sequential reads would never meet.
+        CountDownLatch bothReading = new CountDownLatch(2);
+        BlockingStore a = new BlockingStore("A", 3);
+        BlockingStore b = new BlockingStore("B", 3);
+        a.meeting = bothReading;
+        b.meeting = bothReading;
+        CloudBridgeResourceAggregationService service = serviceOf(List.of(a, b));
+
+        ResourcePage page = service.getResourcePage(10, null).join();
+
+        assertThat(a.met).isTrue();
+        assertThat(b.met).isTrue();
+        assertThat(page.getItems()).hasSize(6);
+        assertThat(page.getPartial()).containsEntry("A", false).containsEntry("B", false);
+    }
+
+    @Test
+    void storeMissingItsDeadlineIsReportedAsPartial() {
+        environment.setProperty("cloudbridge.aggregation.timeoutMs.default", "10000");
+        environment.setProperty("cloudbridge.aggregation.timeoutMs.Slow", "200");
+        BlockingStore fast = new BlockingStore("Fast", 3);
+        BlockingStore slow = new BlockingStore("Slow", 3);
+        // The slow store does not answer until the test lets it.
+        slow.meeting = new CountDownLatch(2);
+        CloudBridgeResourceAggregationService service = serviceOf(List.of(fast, slow));
+
+        ResourcePage page = service.getResourcePage(10, null).join();
+
+        assertThat(page.getItems()).extracting(CloudBridgeResourceSummary::getFileStorage).containsOnly("Fast");
+        assertThat(page.getItems()).hasSize(3);
+        assertThat(page.getPartial()).containsEntry("Fast", false).containsEntry("Slow", true);
+        assertThat(slow.met).isFalse();
+        // The slow store is retried from its start on the next page.
+        assertThat(page.getNextCursor()).isNotNull();
+        slow.meeting = null;
+        ResourcePage next = service.getResourcePage(10, page.getNextCursor()).join();
+        assertThat(next.getItems()).extracting(CloudBridgeResourceSummary::getFileStorage).containsOnly("Slow");
+        assertThat(next.getItems()).hasSize(3);
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    void failingStoreIsReportedAsPartial() {
+        BlockingStore ok = new BlockingStore("Ok", 2);
+        BlockingStore broken = new BlockingStore("Broken", 2);
+        broken.failure = new IllegalStateException("store unavailable");
+        CloudBridgeResourceAggregationService service = serviceOf(List.of(ok, broken));
+
+        ResourcePage page = service.getResourcePage(10, null).join();
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getPartial()).containsEntry("Ok", false).containsEntry("Broken", true);
+    }
+
+    @Test
+    void listingPagesKeepEachStoresOrderAndListEveryResourceOnce() {
+        // Both stores answer oldest first, like a DynamoDB scan that is not ordered by date.
+        BlockingStore a = new BlockingStore("A", 5);
+        BlockingStore b = new BlockingStore("B", 5);
+        CloudBridgeResourceAggregationService service = serviceOf(List.of(a, b));
+
+        List<String> read = new ArrayList<>();
+        String cursor = null;
+        do {
+            ResourcePage page = service.getResourcePage(3, cursor).join();
+            page.getItems().forEach(summary -> read.add(summary.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(read).hasSize(10).doesNotHaveDuplicates();
+        assertThat(read.stream().filter(id -> id.startsWith("A-"))).containsExactly("A-0", "A-1", "A-2", "A-3", "A-4");
+        assertThat(read.stream().filter(id -> id.startsWith("B-"))).containsExactly("B-0", "B-1", "B-2", "B-3", "B-4");
+    }
+
+    @Test
+    void queryPagesMergeTheStoresNewestInsertedFirst() {
+        QueryStore mongo = new QueryStore("MongoDB", 0);
+        QueryStore dynamo = new QueryStore("DynamoDB", 1);
+        CloudBridgeResourceAggregationService service = queryServiceOf(List.of(mongo, dynamo));
+        ResourceQuery query = new ResourceQuery("owner-1", null, null, 1_000L, 9_000L);
+
+        List<CloudBridgeResourceSummary> read = new ArrayList<>();
+        String cursor = null;
+        do {
+            ResourcePage page = service.query(query, 4, cursor).join();
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(4);
+            read.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<CloudBridgeResource> expected = new ArrayList<>(mongo.resources);
+        expected.addAll(dynamo.resources);
+        assertThat(read).extracting(CloudBridgeResourceSummary::getId).containsExactlyElementsOf(expected.stream()
+                .filter(resource -> resource.getFileOwner().equals("owner-1"))
+                .filter(resource -> resource.getInsertedAt() >= 1_000L && resource.getInsertedAt() < 9_000L)
+                .sorted(Comparator.comparing(CloudBridgeResource::getInsertedAt).thenComparing(CloudBridgeResource::getId).reversed())
+                .map(CloudBridgeResource::getId)
+                .collect(Collectors.toList()));
+        assertThat(read).isNotEmpty();
+    }
+
+    @Test
+    void queryByStoreOnlyReadsThatStore() {
+        QueryStore mongo = new QueryStore("MongoDB", 0);
+        QueryStore dynamo = new QueryStore("DynamoDB", 1);
+        CloudBridgeResourceAggregationService service = queryServiceOf(List.of(mongo, dynamo));
+
+        ResourcePage page = service.query(new ResourceQuery(null, null, "dynamodb", null, null), 500, null).join();
+
+        assertThat(page.getItems()).hasSize(dynamo.resources.size())
+                .extracting(CloudBridgeResourceSummary::getFileStorage).containsOnly("DynamoDB");
+        assertThat(mongo.reads).isZero();
+        assertThatThrownBy(() -> service.query(new ResourceQuery(null, null, "S3", null, null), 10, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CloudBridgeResourceAggregationService serviceOf(List<ResourcePageSource> sources) {
+        return new CloudBridgeResourceAggregationService(sources, List.of(), executor, cache, environment, 50, 500);
+    }
+
+    private CloudBridgeResourceAggregationService queryServiceOf(List<ResourceQuerySource> querySources) {
+        return new CloudBridgeResourceAggregationService(List.of(), querySources, executor, cache, environment, 50, 500);
+    }
+
+    /**
+     * A store answering queries from memory in the keyset order of the real stores. Its 20
+     * resources alternate between two owners and are inserted 500 ms apart, interleaved with
+     * the other store's by {@code offset}.
+     */
+    private static final class QueryStore implements ResourceQuerySource {
+        private final String name;
+        private final List<CloudBridgeResource> resources = new ArrayList<>();
+        private volatile int reads;
+
+        private QueryStore(String name, int offset) {
+            this.name = name;
+            for (int i = 0; i < 20; i++) {
+                CloudBridgeResource resource = new CloudBridgeResource();
+                resource.setId(name + "-" + i);
+                resource.setFileStorage(name);
+                resource.setFileOwner("owner-" + (i % 2));
+                resource.setInsertedAt(i * 1_000L + offset * 500L);
+                resources.add(resource);
+            }
+        }
+
+        @Override
+        public String getStoreName() {
+            return name;
+        }
+
+        @Override
+        public ResourcePageSource query(ResourceQuery query) {
+            Comparator<CloudBridgeResource> newestFirst = Comparator.comparing(CloudBridgeResource::getInsertedAt)
+                    .thenComparing(CloudBridgeResource::getId).reversed();
+            return new ResourceQueryView(name, (afterInsertedAt, afterId, limit) -> {
+                reads++;
+                return resources.stream()
+                        .filter(resource -> query.getFileOwner() == null || resource.getFileOwner().equals(query.getFileOwner()))
+                        .filter(resource -> resource.getInsertedAt() >= query.insertedFromOrMin()
+                                && resource.getInsertedAt() < query.insertedToOrMax())
+                        .filter(resource -> afterInsertedAt == null || resource.getInsertedAt() < afterInsertedAt
+                                || resource.getInsertedAt() == afterInsertedAt.longValue() && resource.getId().compareTo(afterId) < 0)
+                        .sorted(newestFirst)
+                        .limit(limit)
+                        .collect(Collectors.toList());
+            });
+        }
+    }
+
+    /**
+     * A store holding {@code size} resources. While {@code meeting} is set, a page read counts the
+     * latch down and then waits for it to reach zero before answering.
+     */
+    private static final class BlockingStore implements ResourcePageSource {
+        private final String name;
+        private final List<CloudBridgeResourceSummary> resources = new ArrayList<>();
+        private volatile CountDownLatch meeting;
+        private volatile boolean met;
+        private volatile RuntimeException failure;
+
+        private BlockingStore(String name, int size) {
+            this.name = name;
+            for (int i = 0; i < size; i++) {
+                CloudBridgeResourceSummary resource = new CloudBridgeResourceSummary();
+                resource.setId(name + "-" + i);
+                resource.setFileStorage(name);
+                resource.setDateInserted("2024-01-0" + (i + 1) + "T00:00:00Z");
+                resources.add(resource);
+            }
+        }
+
+        @Override
+        public String getStoreName() {
+            return name;
+        }
+
+        @Override
+        public List<CloudBridgeResourceSummary> getResourcePage(String position, int limit) {
+            CountDownLatch latch = meeting;
+            if (latch != null) {
+                latch.countDown();
+                try {
+                    met = latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("read cancelled", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            int from = position == null ? 0 : Integer.parseInt(position.substring(position.lastIndexOf('-') + 1)) + 1;
+            return new ArrayList<>(resources.subList(Math.min(from, resources.size()), Math.min(from + limit, resources.size())));
+        }
+
+        @Override
+        public String positionOf(CloudBridgeResourceSummary resource) {
+            return resource.getId();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Content is compressed by type and by how much a sample of it shrinks.
+ */
+class ContentCodecSelectorTest {
+
+    private static final String STORED_TYPES = "image/png,video/,application/vnd.openxmlformats-officedocument.";
+
+    private final ContentCodecSelector selector = new ContentCodecSelector(true, STORED_TYPES, 65536, 0.1);
+
+    @Test
+    void compressibleContentIsDeflated() {
+        byte[] text = text();
+
+        assertThat(selector.select("text/csv", text, text.length)).isEqualTo(ContentCodec.DEFLATE);
+        assertThat(selector.select(null, text, text.length)).isEqualTo(ContentCodec.DEFLATE);
+    }
+
+    @Test
+    void alreadyCompressedTypesAreStoredAsIs() {
+        byte[] text = text();
+
+        assertThat(selector.select("image/png", text, text.length)).isEqualTo(ContentCodec.IDENTITY);
+        assertThat(selector.select("IMAGE/PNG; charset=binary", text, text.length)).isEqualTo(ContentCodec.IDENTITY);
+        assertThat(selector.select("video/mp4", text, text.length)).isEqualTo(ContentCodec.IDENTITY);
+        assertThat(selector.select("application/vnd.openxmlformats-officedocument.wordprocessingml.document", text, text.length))
+                .isEqualTo(ContentCodec.IDENTITY);
+        // Exact types do not match as prefixes.
+        assertThat(selector.select("image/png-sequence", text, text.length)).isEqualTo(ContentCodec.DEFLATE);
+    }
+
+    @Test
+    void contentSavingLessThanTheMinimumIsStoredAsIs() {
+        byte[] random = new byte[65536];
+        new Random(11).nextBytes(random);
+        // Half random, half repeated: DEFLATE saves close to half of it.
+        byte[] mixed = new byte[65536];
+        System.arraycopy(random, 0, mixed, 0, 32768);
+
+        assertThat(selector.select("application/octet-stream", random, random.length)).isEqualTo(ContentCodec.IDENTITY);
+        assertThat(selector.select("application/octet-stream", mixed, mixed.length)).isEqualTo(ContentCodec.DEFLATE);
+        assertThat(new ContentCodecSelector(true, STORED_TYPES, 65536, 0.6).select("application/octet-stream", mixed, mixed.length))
+                .isEqualTo(ContentCodec.IDENTITY);
+    }
+
+    @Test
+    void onlyTheSampleIsLookedAt() {
+        // Compressible for its first 4 KB, random after that.
+        byte[] content = new byte[65536];
+        new Random(5).nextBytes(content);
+        System.arraycopy(new byte[4096], 0, content, 0, 4096);
+        ContentCodecSelector sampling = new ContentCodecSelector(true, STORED_TYPES, 4096, 0.1);
+
+        assertThat(sampling.select("application/octet-stream", content, content.length)).isEqualTo(ContentCodec.DEFLATE);
+        assertThat(selector.select("application/octet-stream", content, content.length)).isEqualTo(ContentCodec.IDENTITY);
+    }
+
+    @Test
+    void disabledOrEmptyContentIsStoredAsIs() {
+        byte[] text = text();
+
+        assertThat(new ContentCodecSelector(false, STORED_TYPES, 65536, 0.1).select("text/csv", text, text.length))
+                .isEqualTo(ContentCodec.IDENTITY);
+        assertThat(selector.select("text/csv", new byte[0], 0)).isEqualTo(ContentCodec.IDENTITY);
+    }
+
+    private static byte[] text() {
+        return "2024-03-01T10:15:30Z,MongoDB,4096\n".repeat(2000).getBytes(StandardCharsets.UTF_8);
+    }
+}
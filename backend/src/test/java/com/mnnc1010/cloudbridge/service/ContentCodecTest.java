@@ -0,0 +1,75 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Every codec reads back exactly what it stored, in memory and as a stream.
+ */
+class ContentCodecTest {
+
+    private static final byte[] TEXT = "id,fileName,fileSize\n".repeat(4000).getBytes(StandardCharsets.UTF_8);
+    private static final byte[] RANDOM = new byte[100_000];
+
+    static {
+        new Random(3).nextBytes(RANDOM);
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        for (ContentCodec codec : ContentCodec.values()) {
+            assertThat(codec.decode(codec.encode(TEXT))).as(codec.getName()).isEqualTo(TEXT);
+            assertThat(codec.decode(codec.encode(RANDOM))).as(codec.getName()).isEqualTo(RANDOM);
+            assertThat(codec.decode(codec.encode(new byte[0]))).as(codec.getName()).isEmpty();
+        }
+    }
+
+    @Test
+    void streamsRoundTripAndCountTheEncodedBytes() throws IOException {
+        for (ContentCodec codec : ContentCodec.values()) {
+            byte[] encoded;
+            long encodedSize;
+            try (ContentCodec.EncodingInputStream in = codec.encode(new ByteArrayInputStream(TEXT))) {
+                encoded = in.readAllBytes();
+                encodedSize = in.getEncodedSize();
+            }
+            assertThat(encodedSize).as(codec.getName()).isEqualTo(encoded.length);
+            try (InputStream decoded = codec.decode(new ByteArrayInputStream(encoded))) {
+                assertThat(decoded.readAllBytes()).as(codec.getName()).isEqualTo(TEXT);
+            }
+            // Content encoded in memory decodes as a stream too, as chunks written one way are read the other.
+            try (InputStream decoded = codec.decode(new ByteArrayInputStream(codec.encode(TEXT)))) {
+                assertThat(decoded.readAllBytes()).as(codec.getName()).isEqualTo(TEXT);
+            }
+        }
+    }
+
+    @Test
+    void encodingAPartOfTheContent() {
+        byte[] part = ContentCodec.DEFLATE.decode(ContentCodec.DEFLATE.encode(TEXT, 21, 42));
+
+        assertThat(new String(part, StandardCharsets.UTF_8)).isEqualTo("id,fileName,fileSize\n".repeat(2));
+    }
+
+    @Test
+    void deflateShrinksText() {
+        assertThat(ContentCodec.DEFLATE.encode(TEXT).length).isLessThan(TEXT.length / 10);
+    }
+
+    @Test
+    void recordedNamesResolve() {
+        assertThat(ContentCodec.of(null)).isEqualTo(ContentCodec.IDENTITY);
+        for (ContentCodec codec : ContentCodec.values()) {
+            assertThat(ContentCodec.of(codec.getName())).isEqualTo(codec);
+        }
+        assertThatThrownBy(() -> ContentCodec.of("lz4")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
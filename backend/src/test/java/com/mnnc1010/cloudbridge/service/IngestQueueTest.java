@@ -0,0 +1,99 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.IngestJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Failures of the write-behind ingest while jobs are stored.
+ */
+class IngestQueueTest {
+
+    @TempDir
+    Path directory;
+
+    private StorageTierRouter router;
+    private StorageBackend backend;
+    private IngestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        router = mock(StorageTierRouter.class);
+        backend = mock(StorageBackend.class);
+        queue = new IngestQueue(directory.toString(), 100, Long.MAX_VALUE, 25, 8, 1, 10, 60_000, router,
+                mock(UploadMetrics.class), new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        queue.shutdown();
+    }
+
+    @Test
+    void failedExistenceCheckIsRetried() throws Exception {
+        when(router.getBackend("MongoDB")).thenReturn(Optional.of(backend));
+        when(backend.storeAll(anyList(), anyList()))
+                .thenReturn(Map.of("job-1", "Store unavailable."))
+                .thenReturn(Map.of());
+        when(backend.getContent("job-1"))
+                .thenThrow(new IllegalStateException("Store unavailable."))
+                .thenReturn(Optional.empty());
+
+        queue.submit(resource("job-1"), file());
+
+        IngestJob job = awaitFinished("job-1");
+        assertThat(job.getStatus()).isEqualTo(IngestJob.STORED);
+        assertThat(job.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void drainThreadSurvivesAnUnexpectedException() throws Exception {
+        when(router.getBackend("MongoDB"))
+                .thenThrow(new IllegalStateException("Router not ready."))
+                .thenReturn(Optional.of(backend));
+        when(backend.storeAll(anyList(), anyList())).thenReturn(Map.of());
+
+        queue.submit(resource("job-1"), file());
+        assertThat(awaitFinished("job-1").getStatus()).isEqualTo(IngestJob.STORED);
+
+        queue.submit(resource("job-2"), file());
+        assertThat(awaitFinished("job-2").getStatus()).isEqualTo(IngestJob.STORED);
+    }
+
+    private IngestJob awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        IngestJob job = queue.getJob(id).orElseThrow();
+        while (job.isPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        return job;
+    }
+
+    private static CloudBridgeResource resource(String id) {
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId(id);
+        resource.setFileName(id + ".txt");
+        resource.setFileType("text/plain");
+        resource.setFileStorage("MongoDB");
+        resource.setFileSize(5L);
+        return resource;
+    }
+
+    private static MockMultipartFile file() {
+        return new MockMultipartFile("file", "file.txt", "text/plain", "hello".getBytes());
+    }
+}
@@ -0,0 +1,99 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * The local-disk tier: content reads larger than its read buffer, and metadata that survives a
+ * restart.
+ */
+class LocalFileStorageBackendTest {
+
+    @TempDir
+    Path directory;
+
+    private LocalFileStorageBackend backend;
+    private byte[] content;
+    private String id;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        backend = new LocalFileStorageBackend(directory.toString(), Long.MAX_VALUE, false, new ObjectMapper(),
+                mock(ResourceMetadataCache.class), event -> { });
+        content = new byte[3 * 1024 * 1024 + 17];
+        new SplittableRandom(7).nextBytes(content);
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setFileName("large.bin");
+        resource.setFileType("application/octet-stream");
+        resource.setFileOwner("owner");
+        resource.setFileSize((long) content.length);
+        id = backend.store(resource, new ByteArrayResource(content)).join().getId();
+    }
+
+    @Test
+    void readsTheWholeFile() throws IOException {
+        assertThat(read(0, content.length)).isEqualTo(content);
+    }
+
+    @Test
+    void readsARangeAcrossBufferBoundaries() throws IOException {
+        assertThat(read(65_000, 1_000_000)).isEqualTo(Arrays.copyOfRange(content, 65_000, 1_065_000));
+    }
+
+    @Test
+    void readsTheLastBytes() throws IOException {
+        assertThat(read(content.length - 10, 10)).isEqualTo(Arrays.copyOfRange(content, content.length - 10, content.length));
+    }
+
+    @Test
+    void reopenedTierListsAndServesWhatWasStored() throws IOException {
+        LocalFileStorageBackend reopened = new LocalFileStorageBackend(directory.toString(), Long.MAX_VALUE, false,
+                new ObjectMapper(), mock(ResourceMetadataCache.class), event -> { });
+
+        assertThat(reopened.getResourcePage(null, 10)).extracting(CloudBridgeResourceSummary::getId).containsExactly(id);
+        ResourceContent stored = reopened.getContent(id).orElseThrow();
+        assertThat(stored.getLength()).isEqualTo(content.length);
+        assertThat(stored.getResource().getContentHash()).isEqualTo(ContentDigestInputStream.sha256(content));
+    }
+
+    @Test
+    void deleteRemovesTheResourceAndItsFiles() throws IOException {
+        assertThat(backend.delete(id)).isTrue();
+
+        assertThat(backend.getContent(id)).isEmpty();
+        assertThat(backend.getResourcePage(null, 10)).isEmpty();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+        assertThat(backend.delete(id)).isFalse();
+    }
+
+    @Test
+    void idsOutsideTheDirectoryAreRejected() {
+        assertThat(backend.getContent("../" + id)).isEmpty();
+        assertThat(backend.delete("../" + id)).isFalse();
+    }
+
+    private byte[] read(long offset, long length) throws IOException {
+        ResourceContent stored = backend.getContent(id).orElseThrow();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stored.writeTo(out, offset, length);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,60 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listing tags change with every write to a store the listing reads, and only then.
+ */
+class ResourceCollectionVersionsTest {
+
+    private final ResourceCollectionVersions versions = new ResourceCollectionVersions(0);
+
+    @Test
+    void writeChangesTheTagsOfListingsReadingThatStore() {
+        String all = versions.etag("page", null);
+        String mongo = versions.etag("page", List.of("MongoDB"));
+        String dynamo = versions.etag("page", List.of("DynamoDB"));
+
+        versions.bump("DynamoDB");
+
+        assertThat(versions.etag("page", null)).isNotEqualTo(all);
+        assertThat(versions.etag("page", List.of("DynamoDB"))).isNotEqualTo(dynamo);
+        assertThat(versions.etag("page", List.of("MongoDB"))).isEqualTo(mongo);
+    }
+
+    @Test
+    void tagsDependOnTheRepresentationAndTheStoreVersionsOnly() {
+        versions.bump("MongoDB");
+        versions.bump("DynamoDB");
+
+        assertThat(versions.etag("page", null)).isEqualTo(versions.etag("page", List.of("DynamoDB", "MongoDB")))
+                .isNotEqualTo(versions.etag("ndjson", null))
+                .startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void anotherProcessNeverSharesATag() {
+        String tag = versions.etag("page", null);
+        long startedAt = System.currentTimeMillis();
+        // The process token has millisecond resolution.
+        while (System.currentTimeMillis() == startedAt) {
+            Thread.onSpinWait();
+        }
+
+        assertThat(new ResourceCollectionVersions(0).etag("page", null)).isNotEqualTo(tag);
+    }
+
+    @Test
+    void lastModifiedFollowsTheLatestWriteOfTheListedStores() {
+        long before = versions.lastModified(null);
+
+        versions.bump("DynamoDB");
+
+        assertThat(versions.lastModified(List.of("DynamoDB"))).isGreaterThanOrEqualTo(before);
+        assertThat(versions.lastModified(List.of("MongoDB"))).isEqualTo(before);
+    }
+}
@@ -0,0 +1,169 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ResourceContentTest {
+
+    private static final byte[] CONTENT = sequence(200_000);
+
+    @Test
+    void copiesTheWholeStream() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ResourceContent.copyRange(new ByteArrayInputStream(CONTENT), out, 0, CONTENT.length, CONTENT.length);
+
+        assertThat(out.toByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void copiesExactlyTheRequestedRange() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Longer than the copy buffer, so the range spans several reads.
+        ResourceContent.copyRange(new ByteArrayInputStream(CONTENT), out, 1000, 100_000, CONTENT.length);
+
+        assertThat(out.toByteArray()).isEqualTo(Arrays.copyOfRange(CONTENT, 1000, 101_000));
+    }
+
+    @Test
+    void copiesAPrefix() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ResourceContent.copyRange(new ByteArrayInputStream(CONTENT), out, 0, 10, CONTENT.length);
+
+        assertThat(out.toByteArray()).isEqualTo(Arrays.copyOf(CONTENT, 10));
+    }
+
+    @Test
+    void readsForwardWhenTheStreamCannotSkip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ResourceContent.copyRange(new NoSkipInputStream(CONTENT), out, 150_000, 50_000, CONTENT.length);
+
+        assertThat(out.toByteArray()).isEqualTo(Arrays.copyOfRange(CONTENT, 150_000, 200_000));
+    }
+
+    @Test
+    void failsWhenTheStreamEndsBeforeTheOffset() {
+        assertThatThrownBy(() -> ResourceContent.copyRange(new NoSkipInputStream(new byte[10]), new ByteArrayOutputStream(),
+                20, 5, 100))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void failsWhenTheStreamEndsInsideTheRange() {
+        assertThatThrownBy(() -> ResourceContent.copyRange(new ByteArrayInputStream(new byte[10]), new ByteArrayOutputStream(),
+                5, 10, 100))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void repeatedRangeReadsAllocateOnlyTheCopyBuffer() throws IOException {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        long total = 256L * 1024 * 1024;
+        int rangeLength = 64 * 1024;
+        int reads = 2000;
+        Random random = new Random(7);
+        OutputStream discard = OutputStream.nullOutputStream();
+        // Warm up, so class loading and compilation are not counted.
+        for (int i = 0; i < reads; i++) {
+            ResourceContent.copyRange(new GeneratedInputStream(total), discard, random.nextLong(total - rangeLength), rangeLength, total);
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < reads; i++) {
+            ResourceContent.copyRange(new GeneratedInputStream(total), discard, random.nextLong(total - rangeLength), rangeLength, total);
+        }
+        long perRead = (threads.getCurrentThreadAllocatedBytes() - before) / reads;
+
+        // One 64 KiB copy buffer per read, however large the content and wherever the range starts.
+        assertThat(perRead).isLessThan(rangeLength + 8 * 1024);
+    }
+
+    private static byte[] sequence(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31 + i / 251);
+        }
+        return bytes;
+    }
+
+    /**
+     * A stream of {@code length} generated bytes that skips without reading, like a GridFS
+     * download stream, and allocates nothing while it is read.
+     */
+    private static final class GeneratedInputStream extends InputStream {
+        private final long length;
+        private long position;
+
+        private GeneratedInputStream(long length) {
+            this.length = length;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, length - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int read() {
+            return position < length ? (int) (position++ & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= length) {
+                return -1;
+            }
+            int n = (int) Math.min(len, length - position);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) (position + i);
+            }
+            position += n;
+            return n;
+        }
+    }
+
+    /**
+     * A stream whose {@code skip} never skips anything, like some decompressing streams.
+     */
+    private static final class NoSkipInputStream extends FilterInputStream {
+        private NoSkipInputStream(byte[] content) {
+            super(new ByteArrayInputStream(content));
+        }
+
+        @Override
+        public long skip(long n) {
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return in.read();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourceCreatedEvent;
+import com.mnnc1010.cloudbridge.model.ResourcePage;
+import com.mnnc1010.cloudbridge.model.ResourceQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Subscribers of the resource event stream that catch up on reconnect.
+ */
+class ResourceEventStreamTest {
+
+    private CloudBridgeResourceAggregationService aggregationService;
+    private ResourceEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        aggregationService = mock(CloudBridgeResourceAggregationService.class);
+        stream = new ResourceEventStream(aggregationService, 60_000, 60_000, 10, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void catchUpAfterAResetDoesNotFail() {
+        // More live events arrive during the catch-up than may be held, which resets the subscriber.
+        // Only a live subscriber turns a resource into an event, so the fourth one is only sent once
+        // the reset has happened.
+        CountDownLatch reset = new CountDownLatch(1);
+        CloudBridgeResourceSummary afterReset = new CloudBridgeResourceSummary() {
+            @Override
+            public Long getInsertedAt() {
+                reset.countDown();
+                return super.getInsertedAt();
+            }
+        };
+        afterReset.setId("live-4");
+        when(aggregationService.query(any(ResourceQuery.class), isNull(), isNull())).thenAnswer(invocation -> {
+            stream.onResourceCreated(new ResourceCreatedEvent(summary("live-1")));
+            stream.onResourceCreated(new ResourceCreatedEvent(summary("live-2")));
+            stream.onResourceCreated(new ResourceCreatedEvent(summary("live-3")));
+            stream.onResourceCreated(new ResourceCreatedEvent(afterReset));
+            assertThat(reset.await(5, TimeUnit.SECONDS)).isTrue();
+            return CompletableFuture.completedFuture(new ResourcePage(List.of(summary("missed-1")), null, Map.of()));
+        });
+
+        assertThat(stream.subscribe(0L)).isNotNull();
+        assertThat(stream.getSubscriberCount()).isEqualTo(1);
+    }
+
+    private static CloudBridgeResourceSummary summary(String id) {
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId(id);
+        resource.setInsertedAt(System.currentTimeMillis());
+        return CloudBridgeResourceSummary.from(resource);
+    }
+}
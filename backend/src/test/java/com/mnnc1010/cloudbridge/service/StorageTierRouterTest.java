@@ -0,0 +1,109 @@
+package com.mnnc1010.cloudbridge.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tier selection from the configured order and per-tier size and type policy.
+ */
+class StorageTierRouterTest {
+
+    private static final long ONE_MB = 1048576L;
+
+    private StorageBackend dynamo;
+    private StorageBackend mongo;
+    private StorageBackend local;
+    private MockEnvironment environment;
+
+    @BeforeEach
+    void setUp() {
+        dynamo = backend("DynamoDB", ONE_MB - 1);
+        mongo = backend("MongoDB", 512 * ONE_MB);
+        local = backend("Local", 512 * ONE_MB);
+        environment = new MockEnvironment();
+    }
+
+    @Test
+    void firstTierThatAcceptsTheFileStoresIt() {
+        StorageTierRouter router = new StorageTierRouter(List.of(dynamo, mongo, local), environment, "DynamoDB,MongoDB,Local");
+
+        assertThat(router.route(10, "text/plain")).contains(dynamo);
+        assertThat(router.route(ONE_MB - 1, null)).contains(dynamo);
+        assertThat(router.route(ONE_MB, null)).contains(mongo);
+        assertThat(router.route(600 * ONE_MB, null)).isEmpty();
+    }
+
+    @Test
+    void policyNarrowsATierBySizeAndType() {
+        environment.setProperty("cloudbridge.storage.tiers.DynamoDB.maxBytes", "65536");
+        environment.setProperty("cloudbridge.storage.tiers.Local.fileTypes", "video/,application/zip");
+        environment.setProperty("cloudbridge.storage.tiers.MongoDB.minBytes", "1");
+        StorageTierRouter router = new StorageTierRouter(List.of(dynamo, mongo, local), environment, "Local,DynamoDB,MongoDB");
+
+        assertThat(router.route(100 * ONE_MB, "video/mp4")).contains(local);
+        assertThat(router.route(10, "Application/ZIP; charset=binary")).contains(local);
+        assertThat(router.route(100_000, "text/csv")).contains(mongo);
+        assertThat(router.route(10, null)).contains(dynamo);
+        assertThat(router.accepts("DynamoDB", 100_000, null)).isFalse();
+        assertThat(router.accepts("Local", 10, "text/csv")).isFalse();
+    }
+
+    @Test
+    void policyCannotRaiseATierAboveItsOwnMaximum() {
+        environment.setProperty("cloudbridge.storage.tiers.DynamoDB.maxBytes", String.valueOf(10 * ONE_MB));
+        StorageTierRouter router = new StorageTierRouter(List.of(dynamo, mongo), environment, "DynamoDB,MongoDB");
+
+        assertThat(router.route(2 * ONE_MB, null)).contains(mongo);
+    }
+
+    @Test
+    void tiersWithoutABackendAreSkipped() {
+        StorageTierRouter router = new StorageTierRouter(List.of(dynamo, mongo), environment, "Local,DynamoDB,MongoDB");
+
+        assertThat(router.getBackend("Local")).isEmpty();
+        assertThat(router.getPolicy()).hasSize(2);
+        assertThat(router.route(10, null)).contains(dynamo);
+    }
+
+    @Test
+    void contentIsReadFromTheTierHoldingTheResource() {
+        ResourceContent content = mock(ResourceContent.class);
+        when(dynamo.getContent("r1")).thenReturn(Optional.empty());
+        when(mongo.getContent("r1")).thenReturn(Optional.of(content));
+        StorageTierRouter router = new StorageTierRouter(List.of(dynamo, mongo, local), environment, "DynamoDB,MongoDB,Local");
+
+        assertThat(router.getContent("r1")).contains(content);
+        verify(local, never()).getContent("r1");
+    }
+
+    @Test
+    void deletesGoToEveryTier() {
+        // While a move is under way, the resource exists in two tiers.
+        when(dynamo.delete("r1")).thenReturn(true);
+        when(mongo.delete("r1")).thenReturn(true);
+        StorageTierRouter router = new StorageTierRouter(List.of(dynamo, mongo, local), environment, "DynamoDB,MongoDB,Local");
+
+        assertThat(router.delete("r1")).isTrue();
+        assertThat(router.delete("r2")).isFalse();
+        verify(dynamo).delete("r1");
+        verify(mongo).delete("r1");
+        verify(local).delete("r1");
+    }
+
+    private static StorageBackend backend(String name, long maxFileSize) {
+        StorageBackend backend = mock(StorageBackend.class);
+        when(backend.getStoreName()).thenReturn(name);
+        when(backend.getMaxFileSize()).thenReturn(maxFileSize);
+        return backend;
+    }
+}
@@ -0,0 +1,263 @@
+package com.mnnc1010.cloudbridge.service;
+
+import com.mnnc1010.cloudbridge.model.CloudBridgeResource;
+import com.mnnc1010.cloudbridge.model.CloudBridgeResourceSummary;
+import com.mnnc1010.cloudbridge.model.ResourceMigration;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoAccessRepository;
+import com.mnnc1010.cloudbridge.repository.CloudBridgeMongoMigrationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A resource moved between tiers is listed exactly once before, during and after the move: the
+ * copy stays hidden until the old record is a tombstone, and a switch interrupted by a crash is
+ * finished by the next run.
+ */
+class TierMigrationServiceTest {
+
+    private ExecutorService executor;
+    private MemoryTier hot;
+    private MemoryTier cold;
+    private CloudBridgeMongoMigrationRepository migrationRepository;
+    private CloudBridgeResourceAggregationService listing;
+    private TierMigrationService service;
+    private final List<String> phases = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        hot = new MemoryTier("DynamoDB");
+        cold = new MemoryTier("MongoDB");
+        hot.onWrite = this::recordPhase;
+        cold.onWrite = this::recordPhase;
+
+        ResourceMetadataCache cache = mock(ResourceMetadataCache.class);
+        when(cache.getPage(anyString(), nullable(String.class), anyInt(), any()))
+                .thenAnswer(invocation -> ((Supplier<CompletableFuture<List<CloudBridgeResourceSummary>>>) invocation.getArgument(3)).get());
+        listing = new CloudBridgeResourceAggregationService(List.of(hot, cold), List.of(), executor, cache,
+                new MockEnvironment(), 50, 500);
+
+        // Reads have been counted for long enough, and nothing was read.
+        CloudBridgeMongoAccessRepository accessRepository = mock(CloudBridgeMongoAccessRepository.class);
+        when(accessRepository.startTracking(anyLong())).thenReturn(0L);
+        when(accessRepository.findAccessedSince(anyCollection(), anyLong())).thenReturn(Set.of());
+        migrationRepository = mock(CloudBridgeMongoMigrationRepository.class);
+        when(migrationRepository.begin(any(ResourceMigration.class))).thenReturn(true);
+
+        StorageTierRouter router = new StorageTierRouter(List.of(hot, cold), new MockEnvironment(), "DynamoDB,MongoDB");
+        service = new TierMigrationService(router, List.of(hot, cold), mock(ResourceAccessTracker.class), accessRepository,
+                migrationRepository, executor, executor, "DynamoDB", "MongoDB", 3600, 30, 20, 25, 500, 0, 0, 0, 1, 600, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void resourceIsListedOnceInEveryPhaseOfAMove() {
+        hot.put(resource("r1", "DynamoDB"));
+        phases.add("before: " + listedStores());
+
+        service.run();
+
+        assertThat(phases).containsExactly(
+                "before: [DynamoDB]",
+                "copy: [DynamoDB]",
+                "markMoved: []",
+                "publishCopy: [MongoDB]",
+                "detachMoved: [MongoDB]");
+        assertThat(hot.records).isEmpty();
+        assertThat(cold.records.get("r1").getMovedFrom()).isNull();
+    }
+
+    @Test
+    void switchInterruptedByACrashIsFinishedByTheNextRun() {
+        // The old record was marked before the crash, the copy not yet published: neither is listed.
+        CloudBridgeResource tombstone = resource("r1", "DynamoDB");
+        tombstone.setMovedTo("MongoDB");
+        hot.put(tombstone);
+        CloudBridgeResource copy = resource("r1", "MongoDB");
+        copy.setMovedFrom("DynamoDB");
+        cold.put(copy);
+        ResourceMigration migration = new ResourceMigration("r1", "DynamoDB", "MongoDB", 0L);
+        migration.setState(ResourceMigration.SWITCHING);
+        when(migrationRepository.findUnfinished()).thenReturn(List.of(migration));
+        assertThat(listedStores()).isEmpty();
+
+        service.run();
+
+        assertThat(listedStores()).containsExactly("MongoDB");
+        assertThat(hot.records).isEmpty();
+        assertThat(migration.getState()).isEqualTo(ResourceMigration.SWITCHED);
+    }
+
+    private void recordPhase(String phase) {
+        phases.add(phase + ": " + listedStores());
+    }
+
+    /**
+     * @return the store of every listed copy of {@code r1}.
+     */
+    private List<String> listedStores() {
+        return listing.getResourcePage(500, null).join().getItems().stream()
+                .filter(summary -> summary.getId().equals("r1"))
+                .map(CloudBridgeResourceSummary::getFileStorage)
+                .collect(Collectors.toList());
+    }
+
+    private static CloudBridgeResource resource(String id, String store) {
+        CloudBridgeResource resource = new CloudBridgeResource();
+        resource.setId(id);
+        resource.setFileName(id + ".txt");
+        resource.setFileStorage(store);
+        resource.setDateInserted("2024-01-01T00:00:00Z");
+        resource.setInsertedAt(1_000L);
+        resource.setFileContent(new byte[] {1, 2, 3});
+        resource.setFileSize(3L);
+        return resource;
+    }
+
+    /**
+     * A tier held in memory with the listing and move semantics of the real stores: records
+     * carrying {@code movedTo} or {@code movedFrom} are not listed, and tombstones serve no content.
+     * {@code onWrite} is called after every step of a move.
+     */
+    private static final class MemoryTier implements MigratableStorageBackend, ResourcePageSource {
+        private final String name;
+        private final Map<String, CloudBridgeResource> records = new TreeMap<>();
+        private Consumer<String> onWrite = phase -> { };
+
+        private MemoryTier(String name) {
+            this.name = name;
+        }
+
+        private void put(CloudBridgeResource resource) {
+            records.put(resource.getId(), resource);
+        }
+
+        @Override
+        public String getStoreName() {
+            return name;
+        }
+
+        @Override
+        public long getMaxFileSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public CompletableFuture<CloudBridgeResource> store(CloudBridgeResource resource, InputStreamSource content) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Optional<ResourceContent> getContent(String id) {
+            CloudBridgeResource resource = records.get(id);
+            return resource == null || resource.getMovedTo() != null ? Optional.empty() : Optional.of(ResourceContent.inline(resource));
+        }
+
+        @Override
+        public boolean delete(String id) {
+            CloudBridgeResource resource = records.get(id);
+            return resource != null && resource.getMovedTo() == null && records.remove(id) != null;
+        }
+
+        @Override
+        public boolean exists(String id) {
+            return records.containsKey(id);
+        }
+
+        @Override
+        public CloudBridgeResource copy(CloudBridgeResource resource, InputStreamSource content) throws IOException {
+            try (InputStream in = content.getInputStream()) {
+                resource.setFileContent(in.readAllBytes());
+            }
+            put(resource);
+            onWrite.accept("copy");
+            return resource;
+        }
+
+        @Override
+        public CloudBridgeResource markMoved(String id, String target) {
+            CloudBridgeResource resource = records.get(id);
+            if (resource == null || (resource.getMovedTo() != null && !resource.getMovedTo().equals(target))) {
+                return null;
+            }
+            resource.setMovedTo(target);
+            onWrite.accept("markMoved");
+            return resource;
+        }
+
+        @Override
+        public CloudBridgeResource publishCopy(String id) {
+            CloudBridgeResource resource = records.get(id);
+            if (resource == null || resource.getMovedFrom() == null) {
+                return null;
+            }
+            resource.setMovedFrom(null);
+            onWrite.accept("publishCopy");
+            return resource;
+        }
+
+        @Override
+        public CloudBridgeResource detachMoved(String id) {
+            CloudBridgeResource resource = records.get(id);
+            if (resource == null || resource.getMovedTo() == null) {
+                return null;
+            }
+            records.remove(id);
+            onWrite.accept("detachMoved");
+            return resource;
+        }
+
+        @Override
+        public void releaseDetachedContent(CloudBridgeResource resource) {
+        }
+
+        @Override
+        public List<CloudBridgeResourceSummary> getResourcePage(String position, int limit) {
+            return records.values().stream()
+                    .filter(CloudBridgeResource::isListed)
+                    .filter(resource -> position == null || resource.getId().compareTo(position) > 0)
+                    .limit(limit)
+                    .map(CloudBridgeResourceSummary::from)
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public String positionOf(CloudBridgeResourceSummary resource) {
+            return resource.getId();
+        }
+    }
+}
@@ -22,3 +22,16 @@ export interface Resource {
   dateInserted: string;
   dateModified: string;
 }
+
+/**
+ * Interface representing one page of resources returned by the backend list endpoints.
+ *
+ * @property items - The resources on this page.
+ * @property nextCursor - Opaque token for the next page, or null when there are no more resources.
+ * @property partial - Per store, true if the store could not be read in time and its resources are missing from this page.
+ */
+export interface ResourcePage {
+  items: Resource[];
+  nextCursor: string | null;
+  partial: { [store: string]: boolean };
+}
@@ -1,8 +1,7 @@
-import { Component, OnInit } from '@angular/core';
-import { HttpClient} from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { Component, Inject, OnDestroy, OnInit, PLATFORM_ID, ViewChild } from '@angular/core';
+import { isPlatformBrowser } from '@angular/common';
 import { Resource } from '../models/resource';
-import { MatTableModule } from '@angular/material/table';
+import { MatTable, MatTableModule } from '@angular/material/table';
 import { CustomDateFormatPipe } from '../pipes/custom-date-format.pipe';
 
 /**
@@ -10,8 +9,9 @@ import { CustomDateFormatPipe } from '../pipes/custom-date-format.pipe';
  * and displays it in an Angular Material table.
  *
  * This component is responsible for:
- *  - Fetching data via HTTP from the endpoint `/api/resources`
- *  - Storing the data in a local variable (`dataSource`)
+ *  - Streaming data via HTTP from the endpoint `/api/resources` as newline-delimited JSON
+ *  - Appending rows to a local variable (`dataSource`) as they arrive, so the table fills progressively
+ *  - Adding resources created afterwards at the top, pushed as Server-Sent Events from `/api/resources/events`
  *  - Displaying the data using Angular Material table with defined columns.
  */
 @Component({
@@ -20,39 +20,151 @@ import { CustomDateFormatPipe } from '../pipes/custom-date-format.pipe';
   templateUrl: './summary-table.component.html',
   styleUrl: './summary-table.component.css'
 })
-export class SummaryTableComponent implements OnInit{
+export class SummaryTableComponent implements OnInit, OnDestroy {
      // Define the columns that will be displayed in the table.
      displayedColumns: string[] = ['id', 'fileName', 'fileType', 'fileStorage',  'fileDescription', 'fileSize', 'fileOwner', 'dateInserted', 'dateModified'];
 
      // The data source for the table, initially an empty array.
      dataSource: Resource[] = [];
 
+     // The ids of the rows in dataSource, to skip resources that are already shown.
+     private ids = new Set<string>();
+
+     // The table; rows are added to dataSource in place and rendered through it.
+     @ViewChild(MatTable) private table?: MatTable<Resource>;
+
+     // The listing request while it is read, and the stream of new resources, open while the
+     // component is shown in a browser.
+     private listing?: AbortController;
+     private events?: EventSource;
+
   /**
-   * Constructor that injects HttpClient for making HTTP requests.
+   * Constructor that injects the platform the component is rendered on.
    *
-   * @param http - Angular's HttpClient for fetching data from the backend.
+   * @param platformId - The platform the component is rendered on; the listing and the events are only read in the browser.
    */
-     constructor(private http: HttpClient) { }
+     constructor(@Inject(PLATFORM_ID) private platformId: object) { }
 
   /**
    * Lifecycle hook called on component initialization.
-   * It fetches resource data from the backend and assigns it to dataSource.
+   * It starts streaming resource data from the backend.
    */
    ngOnInit(): void {
-       this.fetchResources().subscribe(
-           (data: Resource[]) => this.dataSource = data,
-           error => console.error('Error fetching resources:', error)
-           );
+       this.loadResources();
+       }
+
+  /**
+   * Lifecycle hook called when the component is removed; stops the listing and closes the event stream.
+   */
+   ngOnDestroy(): void {
+       this.listing?.abort();
+       this.events?.close();
        }
 
   /**
-   * Fetches resource data from the backend.
+   * Streams all resources and appends each batch of complete lines to dataSource as it arrives.
    *
-   * The backend endpoint `http://localhost:8080/api/resources` is expected to return an array of Resource objects.
+   * The response body is read chunk by chunk; only the text received since the previous chunk is
+   * decoded and split, and a trailing partial line is kept until the rest of it arrives. Rows are
+   * appended to dataSource in place and the table renders the new rows, so a listing of n rows
+   * costs O(n) rather than a copy of the whole table per chunk. The listing is only read in the
+   * browser, like the event stream.
+   */
+  loadResources(): void {
+      if (!isPlatformBrowser(this.platformId)) {
+          return;
+      }
+      // Resources created while the listing is read are caught up by the event stream.
+      const started = Date.now();
+      this.listing?.abort();
+      const listing = new AbortController();
+      this.listing = listing;
+      this.streamResources(listing.signal, rows => {
+          for (const row of rows) {
+              this.ids.add(row.id);
+              this.dataSource.push(row);
+          }
+          this.table?.renderRows();
+      }).then(
+          () => this.subscribeToNewResources(started),
+          error => {
+              if (!listing.signal.aborted) {
+                  console.error('Error fetching resources:', error);
+              }
+          });
+      }
+
+  /**
+   * Requests the resource listing as a stream and reports the resources of every chunk.
    *
-   * @returns An Observable that emits an array of Resource objects.
+   * The backend endpoint `http://localhost:8080/api/resources` answers `Accept: application/x-ndjson`
+   * with one resource per line, written as the stores are read.
+   *
+   * @param signal - Aborts the request.
+   * @param onRows - Called with the resources of the lines completed by each chunk.
+   * @returns A Promise resolved once the whole listing was read.
    */
-  fetchResources(): Observable<Resource[]> {
-      return this.http.get<Resource[]>('http://localhost:8080/api/resources');
+  async streamResources(signal: AbortSignal, onRows: (rows: Resource[]) => void): Promise<void> {
+      const response = await fetch('http://localhost:8080/api/resources', {
+          headers: { Accept: 'application/x-ndjson' },
+          signal
+          });
+      if (!response.ok || response.body === null) {
+          throw new Error(`Unexpected response: ${response.status}`);
+      }
+      const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+      let pending = '';
+      const parse = (lines: string[]) => lines
+          .filter(line => line.trim().length > 0)
+          .map(line => JSON.parse(line) as Resource);
+      for (;;) {
+          const { done, value } = await reader.read();
+          if (done) {
+              break;
+          }
+          const lines = (pending + value).split('\n');
+          pending = lines.pop() ?? '';
+          const rows = parse(lines);
+          if (rows.length > 0) {
+              onRows(rows);
+          }
+      }
+      const rows = parse([pending]);
+      if (rows.length > 0) {
+          onRows(rows);
+      }
+      }
+
+  /**
+   * Opens the stream of new resources and adds each one at the top of the table.
+   *
+   * The backend first sends the resources inserted since `since`, then every new one. A resource
+   * already in the table is skipped, since the listing and the catch-up overlap. On a `reset`
+   * event, sent when too many resources were missed, the listing is loaded again. The browser
+   * reconnects by itself and resumes from the last event received.
+   *
+   * @param since - Epoch milliseconds from which to catch up.
+   */
+  subscribeToNewResources(since: number): void {
+      if (!isPlatformBrowser(this.platformId)) {
+          return;
+      }
+      this.events?.close();
+      this.events = new EventSource(`http://localhost:8080/api/resources/events?since=${since}`);
+      this.events.addEventListener('resource', (event: MessageEvent) => {
+          const resource = JSON.parse(event.data) as Resource;
+          if (!this.ids.has(resource.id)) {
+              this.ids.add(resource.id);
+              this.dataSource.unshift(resource);
+              this.table?.renderRows();
+          }
+      });
+      this.events.addEventListener('reset', () => {
+          this.events?.close();
+          this.ids.clear();
+          this.dataSource.length = 0;
+          this.table?.renderRows();
+          this.loadResources();
+      });
       }
 }
@@ -6,11 +6,15 @@ import React, { useState } from 'react';
  * This component provides a UI for uploading a file with additional metadata.
  * - Displays a button "Upload New File" which, when clicked, reveals the file upload form.
  * - The form allows the user to attach a file (via file input), enter a description, and specify the owner.
- * - It captures the file's name, size, and type.
- * - Based on file size:
- *    - If file size < 1 MB: the file is uploaded to the DynamoDB endpoint.
- *    - If file size > 1 MB and ≤ 2 MB: the file is uploaded to the MongoDB endpoint.
- *    - If file size > 2 MB: an error message is shown, and upload is prevented.
+ * - It captures the file's name and type.
+ * - A single file is uploaded to the resources endpoint; the backend picks the storage tier
+ *   (DynamoDB, MongoDB, local disk, ...) from its storage policy and rejects files that no tier
+ *   accepts with a message that is shown to the user.
+ * - Single files are sent with async=true: when the backend's ingest queue is enabled it answers
+ *   202 as soon as the file is spooled, and the component polls the job status until the file is
+ *   stored or has failed. A full queue (429) is reported with the suggested retry delay.
+ * - When several files are selected, they are sent together to the batch endpoint, which
+ *   applies the same policy per file and reports the outcome of each one.
  * - The date inserted and date modified are generated by the backend.
  *
  * @component
@@ -18,14 +22,16 @@ import React, { useState } from 'react';
 const InsertFile = () => {
   // State to control whether the upload form is shown.
   const [showForm, setShowForm] = useState(false);
-  // State to store the selected file.
-  const [selectedFile, setSelectedFile] = useState(null);
+  // State to store the selected files.
+  const [selectedFiles, setSelectedFiles] = useState([]);
   // State to hold the description entered by the user.
   const [description, setDescription] = useState('');
   // State to hold the owner name entered by the user.
   const [owner, setOwner] = useState('');
   // State for error messages.
   const [errorMessage, setErrorMessage] = useState('');
+  // State for the status of an upload accepted by the ingest queue.
+  const [uploadStatus, setUploadStatus] = useState('');
 
   /**
    * Handles the click event for the "Upload New File" button.
@@ -43,15 +49,14 @@ const InsertFile = () => {
   const handleFileChange = (e) => {
     setErrorMessage(''); // Clear any previous error messages.
     if (e.target.files && e.target.files.length > 0) {
-      // Capture the first file selected.
-      const file = e.target.files[0];
-      setSelectedFile(file);
+      // Capture every file selected.
+      setSelectedFiles(Array.from(e.target.files));
     }
   };
 
   /**
    * Handles the form submission.
-   * Validates file size and determines which backend endpoint to use.
+   * Uploads the selected file (or files) to the backend, which chooses where to store it.
    *
    * @param {React.FormEvent<HTMLFormElement>} e - The form submission event.
    */
@@ -59,66 +64,141 @@ const InsertFile = () => {
     e.preventDefault();
 
     // Validate that a file has been selected.
-    if (!selectedFile) {
+    if (selectedFiles.length === 0) {
       setErrorMessage('Please select a file.');
       return;
     }
 
-    // Capture file metadata.
-    const fileSize = selectedFile.size; // File size in bytes.
-    const fileName = selectedFile.name; // File name.
-    const fileType = selectedFile.type; // MIME type (e.g., image/jpeg, application/pdf).
-
-    // Define file size thresholds.
-    const oneMB = 1048576;  // 1 MB in bytes.
-    const twoMB = 2097152;  // 2 MB in bytes.
-
-    // Validate file size.
-    if (fileSize > twoMB) {
-      setErrorMessage("File size can't be more than 2MB.");
+    // Several files are uploaded with a single request to the batch endpoint.
+    if (selectedFiles.length > 1) {
+      await submitBatch();
       return;
     }
+    const selectedFile = selectedFiles[0];
 
-    // Determine the backend endpoint based on file size.
-    // If file size < 1 MB, upload to DynamoDB endpoint.
-    // If file size > 1 MB (and ≤ 2 MB), upload to MongoDB endpoint.
-    let endpoint = '';
-    if (fileSize < oneMB) {
-      endpoint = 'http://localhost:8080/api/dynamo/resources';
-    } else {
-      endpoint = 'http://localhost:8080/api/mongo/resources';
-    }
+    // Capture file metadata.
+    const fileName = selectedFile.name; // File name.
+    const fileType = selectedFile.type; // MIME type (e.g., image/jpeg, application/pdf).
 
     // Create a FormData object to send the file and metadata.
     const formData = new FormData();
     formData.append('file', selectedFile); // Append the actual file.
     formData.append('fileName', fileName);   // Append the file name.
     formData.append('fileType', fileType);   // Append the file type.
-    formData.append('fileSize', fileSize.toString()); // Append file size as a string.
     formData.append('fileDescription', description);   // Append the description.
     formData.append('fileOwner', owner);               // Append the owner.
+    formData.append('async', 'true');                  // Use the ingest queue if the backend has it enabled.
     // Note: dateInserted and dateModified are generated by the backend.
 
     try {
-      // Send the POST request to the appropriate endpoint.
-      const response = await fetch(endpoint, {
+      // Send the POST request; the backend routes the file to a storage tier.
+      const response = await fetch('http://localhost:8080/api/resources', {
         method: 'POST',
         body: formData,
       });
       console.log('Response status:', response.status);
       console.log('Response headers:', response.headers.get('content-type'));
+      if (response.status === 400) {
+        // The file is outside every storage tier's policy; show the backend's explanation.
+        setErrorMessage(await response.text());
+        return;
+      }
+      if (response.status === 429) {
+        // The ingest queue is full; the backend suggests when to try again.
+        const retryAfter = response.headers.get('Retry-After');
+        setErrorMessage(`The server is busy. Please try again${retryAfter ? ` in ${retryAfter} seconds` : ' later'}.`);
+        return;
+      }
       if (!response.ok) {
         throw new Error(`Server responded with ${response.status}`);
       }
+      if (response.status === 202) {
+        // The file is spooled; follow the job until it is stored.
+        const job = await response.json();
+        setUploadStatus(job.status);
+        pollIngestJob(job.id);
+        resetForm();
+        return;
+      }
       alert('File uploaded successfully!');
-      // Reset the form after successful upload.
-      setSelectedFile(null);
+      resetForm();
+    } catch (error) {
+      console.error('Error uploading file:', error);
+      setErrorMessage('Error uploading file. Please try again.');
+    }
+  };
+
+  /**
+   * Clears the form after a successful upload.
+   */
+  const resetForm = () => {
+    setSelectedFiles([]);
+    setDescription('');
+    setOwner('');
+    setErrorMessage('');
+  };
+
+  /**
+   * Polls the status of an upload accepted by the ingest queue until it is stored or has failed.
+   *
+   * @param {string} id - The job id returned by the upload.
+   */
+  const pollIngestJob = async (id) => {
+    try {
+      const response = await fetch(`http://localhost:8080/api/ingest/${id}`);
+      if (!response.ok) {
+        throw new Error(`Server responded with ${response.status}`);
+      }
+      const job = await response.json();
+      setUploadStatus(job.status);
+      if (job.status === 'STORED') {
+        alert('File uploaded successfully!');
+        setUploadStatus('');
+      } else if (job.status === 'FAILED') {
+        setUploadStatus('');
+        setErrorMessage(`The file could not be stored: ${job.lastError}`);
+      } else {
+        setTimeout(() => pollIngestJob(id), 1000);
+      }
+    } catch (error) {
+      console.error('Error reading upload status:', error);
+      setUploadStatus('');
+      setErrorMessage('The upload was accepted, but its status could not be read.');
+    }
+  };
+
+  /**
+   * Uploads all selected files with one request to the batch endpoint and reports
+   * the files that were rejected or failed.
+   */
+  const submitBatch = async () => {
+    const formData = new FormData();
+    selectedFiles.forEach((file) => formData.append('files', file));
+    formData.append('fileDescription', description);
+    formData.append('fileOwner', owner);
+
+    try {
+      const response = await fetch('http://localhost:8080/api/resources/batch', {
+        method: 'POST',
+        body: formData,
+      });
+      if (!response.ok) {
+        throw new Error(`Server responded with ${response.status}`);
+      }
+      const results = await response.json();
+      const failed = results.filter((result) => result.status !== 'CREATED');
+      if (failed.length > 0) {
+        setErrorMessage(failed.map((result) => `${result.fileName}: ${result.message}`).join(' '));
+        return;
+      }
+      alert(`${results.length} files uploaded successfully!`);
+      setSelectedFiles([]);
       setDescription('');
       setOwner('');
       setErrorMessage('');
     } catch (error) {
-      console.error('Error uploading file:', error);
-      setErrorMessage('Error uploading file. Please try again.');
+      console.error('Error uploading files:', error);
+      setErrorMessage('Error uploading files. Please try again.');
     }
   };
 
@@ -134,7 +214,7 @@ const InsertFile = () => {
         <form onSubmit={handleSubmit}>
           <div>
             <label htmlFor="fileInput">Select File:</label>
-            <input type="file" id="fileInput" onChange={handleFileChange} required />
+            <input type="file" id="fileInput" onChange={handleFileChange} multiple required />
           </div>
           <div>
             <label htmlFor="description">Description:</label>
@@ -161,6 +241,9 @@ const InsertFile = () => {
           {errorMessage && (
             <p style={{ color: 'red' }}>{errorMessage}</p>
           )}
+          {uploadStatus && (
+            <p>Upload {uploadStatus.toLowerCase()}...</p>
+          )}
           <button type="submit">Submit File</button>
         </form>
       )}